@@ -0,0 +1,91 @@
+package stud.ntnu.idatt1005.pantrypal.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import stud.ntnu.idatt1005.pantrypal.models.Grocery;
+import stud.ntnu.idatt1005.pantrypal.models.Recipe;
+import stud.ntnu.idatt1005.pantrypal.models.Shelf;
+import stud.ntnu.idatt1005.pantrypal.registers.GroceryRegister;
+import stud.ntnu.idatt1005.pantrypal.registers.StepRegister;
+
+/**
+ * Utility class creating the models the register benchmarks work on in memory. The data is made
+ * from a fixed seed, so every run of a benchmark works on the same data. The benchmarks of the
+ * database use {@link stud.ntnu.idatt1005.pantrypal.utils.DatasetGenerator}.
+ */
+final class BenchmarkData {
+
+  private static final long SEED = 42;
+  private static final int STEPS_PER_RECIPE = 5;
+  private static final String[] WORDS = {"creamy", "spicy", "baked", "grilled", "roasted",
+      "chicken", "pasta", "soup", "salad", "curry", "tomato", "garlic", "lemon", "beef",
+      "mushroom", "rice", "bread", "cheese", "pie", "stew"};
+
+  private BenchmarkData() {
+  }
+
+  /**
+   * Returns the name of a generated grocery.
+   *
+   * @param index the index of the grocery
+   * @return the name of the grocery
+   */
+  static String groceryName(int index) {
+    return "Grocery " + index;
+  }
+
+  /**
+   * Creates recipes with details, with names of random words and random groceries.
+   *
+   * @param count     the number of recipes
+   * @param groceries the number of groceries the ingredients are picked from
+   * @param perRecipe the number of ingredients of every recipe
+   * @return the recipes
+   */
+  static List<Recipe> recipes(int count, int groceries, int perRecipe) {
+    Random random = new Random(SEED);
+    List<Recipe> recipes = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      GroceryRegister ingredients = new GroceryRegister();
+      for (int j = 0; j < perRecipe; j++) {
+        ingredients.addGrocery(new Grocery(groceryName(random.nextInt(groceries)),
+            1 + random.nextInt(500), "grams", "Pantry", false));
+      }
+      StepRegister steps = new StepRegister();
+      for (int j = 0; j < STEPS_PER_RECIPE; j++) {
+        steps.addStep("Step " + (j + 1));
+      }
+      recipes.add(new Recipe(i + 1, recipeName(random, i), "A generated recipe", ingredients,
+          steps, null, false));
+    }
+    return recipes;
+  }
+
+  /**
+   * Creates shelves with random groceries.
+   *
+   * @param count     the number of shelves
+   * @param groceries the number of groceries the groceries of the shelves are picked from
+   * @param perShelf  the number of groceries of every shelf
+   * @return the shelves
+   */
+  static List<Shelf> shelves(int count, int groceries, int perShelf) {
+    Random random = new Random(SEED);
+    List<Shelf> shelves = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      Shelf shelf = new Shelf(String.valueOf(i + 1), "Shelf " + (i + 1));
+      for (int j = 0; j < perShelf; j++) {
+        shelf.addGrocery(new Grocery(groceryName(random.nextInt(groceries)),
+            1 + random.nextInt(1000), "grams", shelf.getName(), false));
+      }
+      shelves.add(shelf);
+    }
+    return shelves;
+  }
+
+  private static String recipeName(Random random, int index) {
+    return WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " "
+        + WORDS[random.nextInt(WORDS.length)] + " " + index;
+  }
+}
@@ -0,0 +1,86 @@
+package stud.ntnu.idatt1005.pantrypal.benchmarks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import stud.ntnu.idatt1005.pantrypal.PantryPal;
+import stud.ntnu.idatt1005.pantrypal.controllers.CookbookController;
+import stud.ntnu.idatt1005.pantrypal.controllers.PantryController;
+import stud.ntnu.idatt1005.pantrypal.controllers.ShoppingListController;
+import stud.ntnu.idatt1005.pantrypal.models.Recipe;
+import stud.ntnu.idatt1005.pantrypal.registers.ShelfRegister;
+import stud.ntnu.idatt1005.pantrypal.utils.DatasetGenerator;
+import stud.ntnu.idatt1005.pantrypal.utils.SQL;
+import stud.ntnu.idatt1005.pantrypal.utils.ViewManager;
+
+/**
+ * Benchmarks of reading from the database: building the rows of a query, and loading the pantry
+ * and the first page of the cookbook of a user, as done when the views are first shown. The
+ * database is an in-memory database with a dataset made by the DatasetGenerator.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersistenceBenchmark {
+
+  private static final long SEED = 42;
+
+  @Param({"1000", "10000", "100000"})
+  public int recipes;
+
+  @Param({"100"})
+  public int users;
+
+  @Param({"100"})
+  public int rows;
+
+  /**
+   * Creates an in-memory database with a generated dataset, and logs in one of its users.
+   */
+  @Setup
+  public void setUp() {
+    SQL.configure(SQL.MEMORY, null);
+    DatasetGenerator.generate(DatasetGenerator.Config.of(SEED, users, recipes));
+    PantryPal.userName = DatasetGenerator.userName(0);
+  }
+
+  @TearDown
+  public void tearDown() {
+    PantryPal.userName = null;
+  }
+
+  @Benchmark
+  public List<Map<String, Object>> executeQuery() {
+    return SQL.executeQuery("SELECT * FROM recipe_grocery LIMIT ?", rows);
+  }
+
+  @Benchmark
+  public ShelfRegister loadPantry() {
+    return new PantryController(new ViewManager(null)).getRegister();
+  }
+
+  @Benchmark
+  public List<Recipe> loadCookbook() {
+    ViewManager viewManager = new ViewManager(null);
+    PantryController pantryController = new PantryController(viewManager);
+    CookbookController cookbookController = new CookbookController(viewManager,
+        new ShoppingListController(viewManager, pantryController), pantryController);
+    cookbookController.loadRecipes();
+    return cookbookController.getCurrentSearch();
+  }
+}
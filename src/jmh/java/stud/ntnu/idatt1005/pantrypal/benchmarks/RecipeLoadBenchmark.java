@@ -0,0 +1,102 @@
+package stud.ntnu.idatt1005.pantrypal.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import stud.ntnu.idatt1005.pantrypal.PantryPal;
+import stud.ntnu.idatt1005.pantrypal.controllers.CookbookController;
+import stud.ntnu.idatt1005.pantrypal.controllers.PantryController;
+import stud.ntnu.idatt1005.pantrypal.controllers.ShoppingListController;
+import stud.ntnu.idatt1005.pantrypal.models.Recipe;
+import stud.ntnu.idatt1005.pantrypal.utils.DatasetGenerator;
+import stud.ntnu.idatt1005.pantrypal.utils.SQL;
+import stud.ntnu.idatt1005.pantrypal.utils.ViewManager;
+
+/**
+ * Benchmark of the work behind opening a recipe, without the view. A recipe opened for the first
+ * time, or after its details were cleared by the detail cache, has its description, groceries
+ * and steps loaded from the database. A recipe opened again after it was closed only has its
+ * entry in the detail cache refreshed, as closing a recipe does not touch its details. The
+ * recipes are taken in turn from the first page of the cookbook. The database is an in-memory
+ * database with a dataset made by the DatasetGenerator.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecipeLoadBenchmark {
+
+  private static final long SEED = 42;
+
+  @Param({"1000", "100000"})
+  public int recipes;
+
+  @Param({"100"})
+  public int users;
+
+  private CookbookController cookbookController;
+  private List<Recipe> page;
+  private int next;
+
+  /**
+   * Creates an in-memory database with a generated dataset, logs in one of its users, and loads
+   * the first page of the cookbook with a controller without a view.
+   */
+  @Setup
+  public void setUp() {
+    SQL.configure(SQL.MEMORY, null);
+    DatasetGenerator.generate(DatasetGenerator.Config.of(SEED, users, recipes));
+    PantryPal.userName = DatasetGenerator.userName(0);
+    ViewManager viewManager = new ViewManager(null);
+    PantryController pantryController = new PantryController(viewManager);
+    cookbookController = new CookbookController(viewManager,
+        new ShoppingListController(viewManager, pantryController), pantryController);
+    cookbookController.loadRecipes();
+    page = List.copyOf(cookbookController.getCurrentSearch());
+  }
+
+  @TearDown
+  public void tearDown() {
+    PantryPal.userName = null;
+  }
+
+  private Recipe nextRecipe() {
+    Recipe recipe = page.get(next);
+    next = (next + 1) % page.size();
+    return recipe;
+  }
+
+  /**
+   * Opens a recipe whose details are not loaded.
+   */
+  @Benchmark
+  public Recipe openCold() {
+    Recipe recipe = nextRecipe();
+    recipe.clearDetails();
+    cookbookController.loadDetails(recipe);
+    return recipe;
+  }
+
+  /**
+   * Opens a recipe again after it was closed, with its details still loaded.
+   */
+  @Benchmark
+  public Recipe reopen() {
+    Recipe recipe = nextRecipe();
+    cookbookController.loadDetails(recipe);
+    return recipe;
+  }
+}
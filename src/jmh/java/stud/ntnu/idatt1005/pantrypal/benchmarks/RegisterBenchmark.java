@@ -0,0 +1,81 @@
+package stud.ntnu.idatt1005.pantrypal.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import stud.ntnu.idatt1005.pantrypal.models.Grocery;
+import stud.ntnu.idatt1005.pantrypal.models.Recipe;
+import stud.ntnu.idatt1005.pantrypal.models.Shelf;
+import stud.ntnu.idatt1005.pantrypal.registers.RecipeRegister;
+import stud.ntnu.idatt1005.pantrypal.registers.ShelfRegister;
+
+/**
+ * Benchmarks of the registers held in memory: searching the recipes by name, and looking up the
+ * groceries and shelves of the pantry.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegisterBenchmark {
+
+  @Param({"1000", "10000", "100000"})
+  public int recipes;
+
+  @Param({"10", "100"})
+  public int shelves;
+
+  @Param({"2000"})
+  public int groceries;
+
+  private RecipeRegister recipeRegister;
+  private ShelfRegister shelfRegister;
+  private String lastShelf;
+
+  /**
+   * Fills the registers with the generated recipes and shelves.
+   */
+  @Setup
+  public void setUp() {
+    recipeRegister = new RecipeRegister();
+    for (Recipe recipe : BenchmarkData.recipes(recipes, groceries, 10)) {
+      recipeRegister.addRecipe(recipe);
+    }
+    shelfRegister = new ShelfRegister();
+    List<Shelf> generated = BenchmarkData.shelves(shelves, groceries, 50);
+    generated.forEach(shelfRegister::addShelf);
+    lastShelf = generated.get(generated.size() - 1).getName();
+  }
+
+  @Benchmark
+  public List<Recipe> searchRecipes() {
+    return recipeRegister.searchRecipes("chicken");
+  }
+
+  @Benchmark
+  public List<Recipe> searchRecipesNoMatch() {
+    return recipeRegister.searchRecipes("no such recipe");
+  }
+
+  @Benchmark
+  public Grocery[] getAllGroceries() {
+    return shelfRegister.getAllGroceries();
+  }
+
+  @Benchmark
+  public Shelf getShelfByName() {
+    return shelfRegister.getShelfByName(lastShelf);
+  }
+}
@@ -0,0 +1,83 @@
+package stud.ntnu.idatt1005.pantrypal.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import stud.ntnu.idatt1005.pantrypal.PantryPal;
+import stud.ntnu.idatt1005.pantrypal.controllers.CookbookController;
+import stud.ntnu.idatt1005.pantrypal.controllers.PantryController;
+import stud.ntnu.idatt1005.pantrypal.controllers.ShoppingListController;
+import stud.ntnu.idatt1005.pantrypal.enums.SearchMode;
+import stud.ntnu.idatt1005.pantrypal.models.Recipe;
+import stud.ntnu.idatt1005.pantrypal.utils.DatasetGenerator;
+import stud.ntnu.idatt1005.pantrypal.utils.SQL;
+import stud.ntnu.idatt1005.pantrypal.utils.ViewManager;
+
+/**
+ * Benchmark of the latency of a search in the cookbook, from the search string to the first page
+ * of recipes. The full-text search with the FTS5 index is compared with the search by name,
+ * which falls back to a LIKE scan of the recipe table and typo tolerant matches. The queries
+ * match a word common in the names, two words of a name, and a word found only in the steps. The
+ * database is an in-memory database with a dataset made by the DatasetGenerator.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmark {
+
+  private static final long SEED = 42;
+
+  @Param({"100000"})
+  public int recipes;
+
+  @Param({"100"})
+  public int users;
+
+  @Param({"FULL_TEXT", "NAME"})
+  public SearchMode mode;
+
+  @Param({"soup", "smoked salmon", "whisk"})
+  public String query;
+
+  private CookbookController cookbookController;
+
+  /**
+   * Creates an in-memory database with a generated dataset, logs in one of its users, and
+   * creates the cookbook controller without a view.
+   */
+  @Setup
+  public void setUp() {
+    SQL.configure(SQL.MEMORY, null);
+    DatasetGenerator.generate(DatasetGenerator.Config.of(SEED, users, recipes));
+    PantryPal.userName = DatasetGenerator.userName(0);
+    ViewManager viewManager = new ViewManager(null);
+    PantryController pantryController = new PantryController(viewManager);
+    cookbookController = new CookbookController(viewManager,
+        new ShoppingListController(viewManager, pantryController), pantryController);
+  }
+
+  @TearDown
+  public void tearDown() {
+    PantryPal.userName = null;
+  }
+
+  @Benchmark
+  public List<Recipe> search() {
+    cookbookController.searchRecipes(query, mode);
+    return cookbookController.getCurrentSearch();
+  }
+}
@@ -0,0 +1,89 @@
+package stud.ntnu.idatt1005.pantrypal.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import stud.ntnu.idatt1005.pantrypal.PantryPal;
+import stud.ntnu.idatt1005.pantrypal.controllers.CookbookController;
+import stud.ntnu.idatt1005.pantrypal.controllers.PantryController;
+import stud.ntnu.idatt1005.pantrypal.controllers.ShoppingListController;
+import stud.ntnu.idatt1005.pantrypal.models.Grocery;
+import stud.ntnu.idatt1005.pantrypal.models.Recipe;
+import stud.ntnu.idatt1005.pantrypal.models.Shelf;
+import stud.ntnu.idatt1005.pantrypal.registers.GroceryRegister;
+import stud.ntnu.idatt1005.pantrypal.utils.ViewManager;
+
+/**
+ * Benchmark of resolving the groceries of recipes to the groceries to add to the shopping list,
+ * against the groceries in the pantry and the shopping list. No user is logged in, so the
+ * groceries are only added to the registers, and the database is not written to.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShoppingListBenchmark {
+
+  @Param({"1", "7", "50"})
+  public int recipes;
+
+  @Param({"20"})
+  public int shelves;
+
+  @Param({"2000"})
+  public int groceries;
+
+  private List<Recipe> generated;
+  private List<Shelf> pantry;
+  private CookbookController cookbookController;
+  private ShoppingListController shoppingListController;
+
+  /**
+   * Creates the recipes and the shelves of the pantry.
+   */
+  @Setup
+  public void setUp() {
+    PantryPal.userName = null;
+    generated = BenchmarkData.recipes(recipes, groceries, 10);
+    pantry = BenchmarkData.shelves(shelves, groceries, 50);
+  }
+
+  /**
+   * Creates the controllers with the pantry and an empty shopping list, so every invocation adds
+   * the same groceries. The controllers are created without a stage, as no view is shown.
+   */
+  @Setup(Level.Invocation)
+  public void createControllers() {
+    ViewManager viewManager = new ViewManager(null);
+    PantryController pantryController = new PantryController(viewManager);
+    for (Shelf shelf : pantry) {
+      Shelf copy = new Shelf(shelf.getKey(), shelf.getName());
+      for (Grocery grocery : shelf.getGroceries().values()) {
+        copy.addGrocery(new Grocery(grocery));
+      }
+      pantryController.getRegister().addShelf(copy);
+    }
+    shoppingListController = new ShoppingListController(viewManager, pantryController);
+    cookbookController = new CookbookController(viewManager, shoppingListController,
+        pantryController);
+  }
+
+  @Benchmark
+  public GroceryRegister addRecipesToShoppingList() {
+    cookbookController.addRecipesToShoppingList(generated, 2);
+    return shoppingListController.getRegister();
+  }
+}
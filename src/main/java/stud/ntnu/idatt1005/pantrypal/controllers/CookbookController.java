@@ -1,17 +1,44 @@
 package stud.ntnu.idatt1005.pantrypal.controllers;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import javafx.application.Platform;
 import stud.ntnu.idatt1005.pantrypal.PantryPal;
-import stud.ntnu.idatt1005.pantrypal.enums.ButtonEnum;
 import stud.ntnu.idatt1005.pantrypal.enums.Route;
+import stud.ntnu.idatt1005.pantrypal.enums.SearchMode;
+import stud.ntnu.idatt1005.pantrypal.events.AddRecipeToShoppingListEvent;
+import stud.ntnu.idatt1005.pantrypal.events.DeleteRecipeEvent;
+import stud.ntnu.idatt1005.pantrypal.events.EditRecipeEvent;
+import stud.ntnu.idatt1005.pantrypal.events.NewRecipeEvent;
+import stud.ntnu.idatt1005.pantrypal.events.OpenRecipeEvent;
+import stud.ntnu.idatt1005.pantrypal.events.SaveRecipeEvent;
+import stud.ntnu.idatt1005.pantrypal.events.ToggleFavoriteEvent;
 import stud.ntnu.idatt1005.pantrypal.models.Grocery;
 import stud.ntnu.idatt1005.pantrypal.models.Recipe;
+import stud.ntnu.idatt1005.pantrypal.registers.CoverageIndex;
+import stud.ntnu.idatt1005.pantrypal.registers.FuzzyIndex;
 import stud.ntnu.idatt1005.pantrypal.registers.GroceryRegister;
+import stud.ntnu.idatt1005.pantrypal.registers.RecipeDetailCache;
+import stud.ntnu.idatt1005.pantrypal.registers.RecipeDiff;
 import stud.ntnu.idatt1005.pantrypal.registers.RecipeRegister;
-import stud.ntnu.idatt1005.pantrypal.registers.ShelfRegister;
 import stud.ntnu.idatt1005.pantrypal.registers.StepRegister;
+import stud.ntnu.idatt1005.pantrypal.utils.EventBus;
+import stud.ntnu.idatt1005.pantrypal.utils.GroceryCatalog;
+import stud.ntnu.idatt1005.pantrypal.utils.GroceryQuantities;
+import stud.ntnu.idatt1005.pantrypal.utils.GrocerySuggestions;
+import stud.ntnu.idatt1005.pantrypal.utils.MealPlanner;
 import stud.ntnu.idatt1005.pantrypal.utils.SQL;
 import stud.ntnu.idatt1005.pantrypal.utils.ViewManager;
 import stud.ntnu.idatt1005.pantrypal.views.CookbookView;
@@ -21,22 +48,121 @@ import stud.ntnu.idatt1005.pantrypal.views.RecipeView;
  * The controller for the CookBookView and RecipeView. This class is responsible for handling the
  * logic for the CookBookView and RecipeView.
  */
-public class CookbookController extends Controller implements Observer {
+public class CookbookController extends Controller {
 
+  /**
+   * The default number of recipes loaded per page in the cookbook.
+   */
+  public static final int DEFAULT_PAGE_SIZE = 40;
+
+  /**
+   * The max number of recipes recommended from the groceries in the pantry.
+   */
+  public static final int RECOMMENDATIONS = 8;
+
+  /**
+   * The max number of ingredients a recommended recipe may be missing from the pantry.
+   */
+  public static final int MAX_MISSING_INGREDIENTS = 2;
+
+  /**
+   * The number of recipes in a meal plan.
+   */
+  public static final int MEALS_PER_WEEK = 7;
+
+  /**
+   * The time budget for planning meals, in milliseconds.
+   */
+  public static final long MEAL_PLAN_BUDGET_MILLIS = 2000;
+
+  /**
+   * The query of the groceries of a recipe.
+   */
+  private static final String GROCERIES_QUERY =
+      "SELECT * FROM recipe_grocery WHERE recipe_id = ?";
+
+  /**
+   * The query of the steps of a recipe, in order.
+   */
+  private static final String STEPS_QUERY =
+      "SELECT id, description FROM step WHERE recipe_id = ? ORDER BY id";
+
+  /**
+   * The thread loading the ingredients of the recipes before meals are planned.
+   */
+  private static final ExecutorService MEAL_PLAN_LOADER =
+      Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "meal-plan-loader");
+        thread.setDaemon(true);
+        return thread;
+      });
+
+  /**
+   * The recipes of the loaded pages of the current search.
+   */
   private final RecipeRegister recipeRegister;
+  private final RecipeDetailCache detailCache = new RecipeDetailCache();
   private List<Recipe> currentSearch;
-  private final ShelfRegister shelfRegister;
-  private final GroceryRegister shoppingListRegister;
+  private String searchText = "";
+  private SearchMode searchMode = SearchMode.NAME;
+  private int pageSize = DEFAULT_PAGE_SIZE;
+
+  /**
+   * The snippets of the loaded recipes of a full-text search, indexed by recipe id.
+   */
+  private final Map<Integer, String> snippets = new HashMap<>();
+
+  /**
+   * The names of every recipe in the database, for typo tolerant searches. Loaded the first time
+   * a search by name has no more exact matches.
+   */
+  private FuzzyIndex<Integer> nameIndex;
+
+  /**
+   * The ingredients of every recipe in the database, for recommending recipes. Loaded the first
+   * time recipes are recommended.
+   */
+  private CoverageIndex coverageIndex;
+
+  /**
+   * The running meal planning, the best meal plan found and its recipes.
+   */
+  private CompletableFuture<MealPlanner.Plan> mealPlanning;
+  private MealPlanner.Plan mealPlan;
+  private List<Recipe> mealPlanRecipes = new ArrayList<>();
+
+  /**
+   * The keyset cursor of the current search. When searching by name, the favorite recipes are
+   * paged through first, and then the other recipes, both ordered by id. The cursor holds which
+   * of them are paged through, and the id of the last loaded recipe. When searching by full text,
+   * the recipes are ordered by score and id, and the cursor holds the score of the last recipe.
+   */
+  private boolean pagingFavorites;
+  private boolean fuzzyFetched;
+  private int lastId;
+  private double lastScore;
+  private boolean hasNextPage;
+  private final PantryController pantryController;
   private final ShoppingListController shoppingListController;
-  private final CookbookView view;
+  private CookbookView view;
+
+  /**
+   * The controller for adding and editing recipes. Created the first time a recipe is added or
+   * edited, and reused afterwards.
+   */
+  private AddRecipeController addRecipeController;
+
+  /**
+   * The view for opened recipes. Created the first time a recipe is opened, and bound to the
+   * opened recipe afterwards.
+   */
+  private RecipeView recipeView;
 
   /**
    * Constructor for the CookbookController. The constructor takes in a ViewManager, a
    * ShoppingListController, and a PantryController. The constructor creates a new RecipeRegister
-   * and sets the shelfRegister and shoppingListRegister to the registers in the PantryController
-   * and ShoppingListController. The constructor loads the recipes from the database if the user is
-   * logged in. The currentSearch is set to all the recipes in the recipeRegister. The view is
-   * created and added to the viewManager.
+   * and registers the factory for the CookbookView. The recipes are not loaded from the database
+   * until the view is created.
    *
    * @param viewManager            the ViewManager for the application
    * @param shoppingListController the ShoppingListController for the application
@@ -46,87 +172,587 @@ public class CookbookController extends Controller implements Observer {
       PantryController pantryController) {
     super(viewManager);
     this.recipeRegister = new RecipeRegister();
-    this.shelfRegister = pantryController.getRegister();
-    this.shoppingListRegister = shoppingListController.getRegister();
+    this.pantryController = pantryController;
     this.shoppingListController = shoppingListController;
+    this.viewManager.registerRoute(Route.COOKBOOK, this::createView);
 
-    this.load();
+    EventBus eventBus = this.viewManager.getEventBus();
+    eventBus.subscribe(OpenRecipeEvent.class, event -> openRecipe(event.recipe()));
+    eventBus.subscribe(NewRecipeEvent.class, event -> openAddRecipe());
+    eventBus.subscribe(SaveRecipeEvent.class, event -> saveRecipe(event.recipe()));
+    eventBus.subscribe(EditRecipeEvent.class, event -> editRecipe(event.recipe()));
+    eventBus.subscribe(DeleteRecipeEvent.class, event -> removeRecipe(event.recipe()));
+    eventBus.subscribe(ToggleFavoriteEvent.class, event -> toggleIsFavorite(event.recipe()));
+    eventBus.subscribe(AddRecipeToShoppingListEvent.class,
+        event -> addRecipesToShoppingList(List.of(event.recipe()), 1));
+  }
 
-    this.currentSearch = getRecipes().values().stream().toList();
+  /**
+   * Creates the view for the controller. Called by the ViewManager the first time the cookbook
+   * view is navigated to. The first page of recipes is loaded from the database before the view
+   * is created, which renders them. Removed recipes are then removed from the view by the
+   * register.
+   *
+   * @return the created CookbookView
+   */
+  private CookbookView createView() {
+    loadRecipes();
     this.view = new CookbookView(this);
-    this.view.addObserver(this);
-    this.viewManager.addView(Route.COOKBOOK, view);
+    this.recipeRegister.addListener(this.view::recipeChanged);
+    return this.view;
+  }
+
+  /**
+   * Loads the first page of the current search from the database, without rendering it. The
+   * recipes are then found in {@link #getCurrentSearch()}.
+   */
+  public void loadRecipes() {
+    loadFirstPage(pageSize);
+  }
+
+  /**
+   * Loads the first recipes of the current search from the database, and replaces the loaded
+   * pages with them. Recipes that were already loaded are reused.
+   *
+   * @param count the number of recipes to load
+   */
+  private void loadFirstPage(int count) {
+    pagingFavorites = isLoggedIn();
+    lastId = Recipe.NO_ID;
+    lastScore = -Double.MAX_VALUE;
+    fuzzyFetched = false;
+    snippets.clear();
+    List<Recipe> page = fetchPage(count);
+    recipeRegister.clear();
+    page.forEach(recipeRegister::addRecipe);
+    currentSearch = new ArrayList<>(page);
+  }
+
+  /**
+   * Loads the next page of the current search from the database, and adds it to the view. Does
+   * nothing if every recipe of the current search is loaded.
+   */
+  public void loadNextPage() {
+    if (!hasNextPage) {
+      return;
+    }
+    List<Recipe> page = fetchPage(pageSize);
+    page.forEach(recipeRegister::addRecipe);
+    currentSearch.addAll(page);
+    if (view != null) {
+      view.appendRecipes(page);
+    }
+  }
+
+  /**
+   * Fetches the summaries of the next recipes of the current search from the database, starting
+   * after the keyset cursor, and moves the cursor past them. The favorite recipes are fetched
+   * first, and the other recipes when every favorite recipe is fetched.
+   *
+   * @param limit the max number of recipes to fetch
+   * @return the fetched recipes, in the order they are shown
+   */
+  private List<Recipe> fetchPage(int limit) {
+    String matchQuery = toMatchQuery(searchText);
+    if (searchMode == SearchMode.FULL_TEXT && !matchQuery.isEmpty()) {
+      List<Recipe> page = fetchFullTextRecipes(matchQuery, limit);
+      hasNextPage = page.size() == limit;
+      return page;
+    }
+    List<Recipe> page = new ArrayList<>();
+    if (pagingFavorites) {
+      page.addAll(fetchRecipes(true, limit));
+      if (page.size() == limit) {
+        hasNextPage = true;
+        return page;
+      }
+      pagingFavorites = false;
+      lastId = Recipe.NO_ID;
+    }
+    int remaining = limit - page.size();
+    List<Recipe> others = fetchRecipes(false, remaining);
+    page.addAll(others);
+    hasNextPage = others.size() == remaining;
+    if (!hasNextPage && !fuzzyFetched) {
+      fuzzyFetched = true;
+      page.addAll(fetchFuzzyRecipes());
+    }
+    return page;
+  }
+
+  /**
+   * Returns the index of the names of every recipe in the database, by recipe id. The index is
+   * loaded the first time it is used, and kept up to date when recipes are added and removed.
+   *
+   * @return the index of the recipe names
+   */
+  private FuzzyIndex<Integer> getNameIndex() {
+    if (nameIndex == null) {
+      nameIndex = new FuzzyIndex<>();
+      for (Map<String, Object> recipe : SQL.executeQuery("SELECT id, name FROM recipe")) {
+        nameIndex.add(recipe.get("name").toString(), (int) recipe.get("id"));
+      }
+    }
+    return nameIndex;
+  }
+
+  /**
+   * Fetches the summaries of the recipes with names close to the search string, that do not
+   * contain the search string. Used after the last page of a search by name, so misspelled
+   * searches still find recipes. At most one page of recipes is fetched, best match first.
+   *
+   * @return the recipes matching the search string with typos
+   */
+  private List<Recipe> fetchFuzzyRecipes() {
+    if (searchText.isBlank()) {
+      return new ArrayList<>();
+    }
+    List<Integer> ids = getNameIndex().search(searchText);
+    if (ids.size() > pageSize) {
+      ids = ids.subList(0, pageSize);
+    }
+    String search = searchText.toLowerCase(Locale.ROOT);
+    List<Recipe> recipes = new ArrayList<>();
+    for (Recipe recipe : fetchRecipesById(ids)) {
+      if (!recipe.getKey().toLowerCase(Locale.ROOT).contains(search)) {
+        recipes.add(recipe);
+      }
+    }
+    return recipes;
+  }
+
+  /**
+   * Fetches the summaries of the recipes with the given ids, in one query.
+   *
+   * @param ids the ids of the recipes to fetch
+   * @return the fetched recipes, in the order of the ids. Ids without a recipe are skipped.
+   */
+  private List<Recipe> fetchRecipesById(List<Integer> ids) {
+    return toRecipes(ids, fetchRecipeRowsById(ids, isLoggedIn() ? PantryPal.userName : null));
+  }
 
-    this.rerender();
+  /**
+   * Fetches the rows of the recipes with the given ids from the recipe table, in one query. Only
+   * the database is read, so this may be called on any thread.
+   *
+   * @param ids      the ids of the recipes to fetch
+   * @param userName the name of the user whose favorites are marked, or null for none
+   * @return the rows with the id, name, image and favorite mark of the recipes, by id
+   */
+  private static Map<Integer, Map<String, Object>> fetchRecipeRowsById(List<Integer> ids,
+      String userName) {
+    Map<Integer, Map<String, Object>> rowsById = new HashMap<>();
+    if (ids.isEmpty()) {
+      return rowsById;
+    }
+    String query = "SELECT r.id, r.name, r.image, EXISTS (SELECT 1 FROM recipe_favorite f "
+        + "WHERE f.recipe_id = r.id AND f.user_name = ?) AS is_favorite FROM recipe r "
+        + "WHERE r.id IN (" + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")";
+    List<Object> params = new ArrayList<>();
+    params.add(userName);
+    params.addAll(ids);
+    for (Map<String, Object> row : SQL.executeQuery(query, params.toArray())) {
+      rowsById.put((int) row.get("id"), row);
+    }
+    return rowsById;
   }
 
   /**
-   * Loads the recipes from the database. This method gets all the recipes from the database and
-   * creates a new Recipe object for each recipe related to the user. The method also gets the
-   * groceries and steps for each recipe and adds them to the Recipe object. The method also checks
-   * if the recipe is a favorite for the user and sets the isFavorite boolean in the Recipe object.
-   * The Recipe object is then added to the recipeRegister.
+   * Returns the recipes of rows fetched by {@link #fetchRecipeRowsById(List, String)}. Loaded
+   * recipes are read from the register, so this must be called on the JavaFX thread.
+   *
+   * @param ids      the ids of the recipes, in the order to return them
+   * @param rowsById the rows of the recipes, by id
+   * @return the recipes, in the order of the ids. Ids without a row are skipped.
+   */
+  private List<Recipe> toRecipes(List<Integer> ids, Map<Integer, Map<String, Object>> rowsById) {
+    List<Recipe> recipes = new ArrayList<>();
+    for (int id : ids) {
+      Map<String, Object> row = rowsById.get(id);
+      if (row != null) {
+        boolean isFavorite = ((Number) row.get("is_favorite")).intValue() != 0;
+        recipes.add(toRecipe(row, isFavorite));
+      }
+    }
+    return recipes;
+  }
+
+  /**
+   * Returns the index of the ingredients of every recipe in the database. The index is loaded
+   * with one query the first time it is used, and kept up to date when recipes are added and
+   * removed.
+   *
+   * @return the index of the recipe ingredients
    */
-  private void load() {
-    String query = "SELECT * FROM recipe";
-    List<Map<String, Object>> recipesFromDataBase = SQL.executeQuery(query);
+  private CoverageIndex getCoverageIndex() {
+    if (coverageIndex == null) {
+      Map<Integer, List<String>> ingredients = new HashMap<>();
+      String query = "SELECT recipe_id, grocery_name FROM recipe_grocery";
+      for (Map<String, Object> row : SQL.executeQuery(query)) {
+        ingredients.computeIfAbsent((int) row.get("recipe_id"), id -> new ArrayList<>())
+            .add(row.get("grocery_name").toString());
+      }
+      coverageIndex = new CoverageIndex();
+      ingredients.forEach(coverageIndex::putRecipe);
+    }
+    return coverageIndex;
+  }
+
+  /**
+   * Recommends recipes that can be made with the groceries in the pantry, or that miss only a
+   * few of their ingredients. The recipes missing the fewest ingredients come first. Nothing is
+   * recommended while the user is searching.
+   *
+   * @return the recommended recipes, best first
+   */
+  public List<Recipe> getRecommendations() {
+    if (!searchText.isBlank()) {
+      return new ArrayList<>();
+    }
+    List<String> pantry = new ArrayList<>();
+    for (Grocery grocery : pantryController.getRegister().getAllGroceries()) {
+      if (grocery.getQuantity() > 0) {
+        pantry.add(grocery.getKey());
+      }
+    }
+    CoverageIndex index = getCoverageIndex();
+    index.setPantry(pantry);
+    List<Integer> ids = new ArrayList<>();
+    for (CoverageIndex.Coverage coverage : index.rank(MAX_MISSING_INGREDIENTS, RECOMMENDATIONS)) {
+      ids.add(coverage.getRecipeId());
+    }
+    return fetchRecipesById(ids);
+  }
 
+  /**
+   * Plans the meals of the week on background threads, using as much of the groceries in the
+   * pantry as possible and as little from the store as possible. Every recipe in the database with
+   * ingredients is considered. Only the stock of the pantry and the name of the user are read on
+   * the calling thread, and the ingredients of the recipes are loaded on a background thread. The
+   * view is updated every time a better plan is found, and told if planning fails. Does nothing if
+   * meals are already being planned.
+   */
+  public void planMeals() {
+    if (mealPlanning != null && !mealPlanning.isDone()) {
+      return;
+    }
+    Map<String, Integer> stock =
+        GroceryQuantities.sumQuantities(pantryController.getRegister().getAllGroceries());
+    String userName = isLoggedIn() ? PantryPal.userName : null;
+
+    mealPlan = null;
+    mealPlanning = CompletableFuture.supplyAsync(CookbookController::fetchIngredients,
+            MEAL_PLAN_LOADER)
+        .thenCompose(ingredients -> new MealPlanner(ingredients, stock)
+            .planAsync(MEALS_PER_WEEK, MEAL_PLAN_BUDGET_MILLIS,
+                plan -> onMealPlanImproved(plan, userName)));
+    mealPlanning.whenComplete((plan, exception) -> {
+      if (exception != null) {
+        Platform.runLater(this::showMealPlanFailed);
+      }
+    });
+  }
+
+  /**
+   * Fetches the ingredients of every recipe in the database, in one query.
+   *
+   * @return the quantity of every ingredient, indexed by recipe id and grocery name
+   */
+  private static Map<Integer, Map<String, Integer>> fetchIngredients() {
+    Map<Integer, Map<String, Integer>> ingredients = new HashMap<>();
+    String query = "SELECT recipe_id, grocery_name, quantity FROM recipe_grocery";
+    for (Map<String, Object> row : SQL.executeQuery(query)) {
+      ingredients.computeIfAbsent((int) row.get("recipe_id"), id -> new HashMap<>())
+          .merge(row.get("grocery_name").toString(), (int) row.get("quantity"), Integer::sum);
+    }
+    return ingredients;
+  }
+
+  /**
+   * Handles a better meal plan found by the planner, on the thread that found it. Only the rows
+   * of the recipes in the plan are fetched on that thread. The recipes are made from the rows on
+   * the JavaFX thread, as loaded recipes are read from the register.
+   *
+   * @param plan     the better meal plan
+   * @param userName the name of the user whose favorites are marked, or null for none
+   */
+  private void onMealPlanImproved(MealPlanner.Plan plan, String userName) {
+    Map<Integer, Map<String, Object>> rowsById =
+        fetchRecipeRowsById(plan.getRecipeIds(), userName);
+    Platform.runLater(() -> showMealPlan(plan, toRecipes(plan.getRecipeIds(), rowsById)));
+  }
+
+  /**
+   * Shows a meal plan in the view, if it is better than the meal plan shown.
+   *
+   * @param plan    the meal plan to show
+   * @param recipes the recipes of the meal plan
+   */
+  private void showMealPlan(MealPlanner.Plan plan, List<Recipe> recipes) {
+    if (!plan.isBetterThan(mealPlan)) {
+      return;
+    }
+    mealPlan = plan;
+    mealPlanRecipes = recipes;
+    if (view != null) {
+      view.showMealPlan(mealPlanRecipes, plan.getShoppingListSize());
+    }
+  }
+
+  /**
+   * Tells the view that the meals could not be planned. The best meal plan found before the
+   * failure is kept.
+   */
+  private void showMealPlanFailed() {
+    if (view != null) {
+      view.showMealPlanFailed(mealPlan != null);
+    }
+  }
+
+  /**
+   * Adds the groceries of the recipes in the meal plan to the shopping list.
+   */
+  public void addMealPlanToShoppingList() {
+    addRecipesToShoppingList(mealPlanRecipes, 1);
+  }
+
+  /**
+   * Fetches the summaries of the recipes matching the current search with an id larger than the
+   * last id of the cursor, ordered by id. The query seeks on the primary key, so the cost of a
+   * page does not depend on how many pages are loaded before it.
+   *
+   * @param favorites true to fetch the favorite recipes of the user, false to fetch the others
+   * @param limit     the max number of recipes to fetch
+   * @return the fetched recipes
+   */
+  private List<Recipe> fetchRecipes(boolean favorites, int limit) {
+    String query = "SELECT r.id, r.name, r.image FROM recipe r "
+        + "WHERE r.id > ? AND r.name LIKE ? ESCAPE '\\' AND " + (favorites ? "" : "NOT ")
+        + "EXISTS (SELECT 1 FROM recipe_favorite f WHERE f.recipe_id = r.id AND f.user_name = ?) "
+        + "ORDER BY r.id LIMIT ?";
+    String userName = isLoggedIn() ? PantryPal.userName : null;
+    List<Map<String, Object>> recipesFromDataBase =
+        SQL.executeQuery(query, lastId, toLikePattern(searchText), userName, limit);
+
+    List<Recipe> recipes = new ArrayList<>();
     for (Map<String, Object> recipeFromDataBase : recipesFromDataBase) {
-      GroceryRegister groceries = new GroceryRegister();
-      StepRegister steps = new StepRegister();
-
-      String id = recipeFromDataBase.get("id").toString();
-      String name = recipeFromDataBase.get("name").toString();
-      String description = recipeFromDataBase.get("description").toString();
-      String image;
-      try {
-        image = recipeFromDataBase.get("image").toString();
-      } catch (NullPointerException e) {
-        image = null;
-      }
-      String groceriesQuery = "SELECT * FROM recipe_grocery WHERE recipe_id = ?";
-      List<Map<String, Object>> groceriesFromDataBase = SQL.executeQuery(groceriesQuery, id);
-
-      for (Map<String, Object> groceryFromDataBase : groceriesFromDataBase) {
-        String groceryName = groceryFromDataBase.get("grocery_name").toString();
-        int quantity = (int) groceryFromDataBase.get("quantity");
-
-        String groceryQuery = "SELECT * FROM grocery WHERE name = ?";
-        List<Map<String, Object>> groceryDataFromDataBase =
-            SQL.executeQuery(groceryQuery, groceryName);
-
-        String unit = "pcs";
-        if (!groceryDataFromDataBase.isEmpty()) {
-          unit = groceryDataFromDataBase.getFirst().get("unit").toString();
-        }
-        //TODO: Fix shelf
-        Grocery grocery = new Grocery(groceryName, quantity, unit, "", false);
-        groceries.addGrocery(grocery);
+      Recipe recipe = toRecipe(recipeFromDataBase, favorites);
+      lastId = recipe.getId();
+      recipes.add(recipe);
+    }
+    return recipes;
+  }
+
+  /**
+   * Fetches the summaries of the recipes matching a full-text query, ordered by their BM25 score
+   * and id, starting after the keyset cursor. Matches in the name weigh more than matches in the
+   * description, which weigh more than matches in the steps. A snippet of the best matching text
+   * of each recipe is kept, with the matching words highlighted.
+   *
+   * @param matchQuery the FTS5 query to match
+   * @param limit      the max number of recipes to fetch
+   * @return the fetched recipes, best match first
+   */
+  private List<Recipe> fetchFullTextRecipes(String matchQuery, int limit) {
+    String query = "SELECT * FROM (SELECT r.id, r.name, r.image, "
+        + "bm25(recipe_fts, 10.0, 2.0, 1.0) AS score, "
+        + "snippet(recipe_fts, -1, '«', '»', '…', 8) AS snippet, "
+        + "EXISTS (SELECT 1 FROM recipe_favorite f WHERE f.recipe_id = r.id AND f.user_name = ?) "
+        + "AS is_favorite FROM recipe_fts JOIN recipe r ON r.id = recipe_fts.rowid "
+        + "WHERE recipe_fts MATCH ?) "
+        + "WHERE score > ? OR (score = ? AND id > ?) ORDER BY score, id LIMIT ?";
+    String userName = isLoggedIn() ? PantryPal.userName : null;
+    List<Map<String, Object>> recipesFromDataBase = SQL.executeQuery(query, userName, matchQuery,
+        lastScore, lastScore, lastId, limit);
+
+    List<Recipe> recipes = new ArrayList<>();
+    for (Map<String, Object> recipeFromDataBase : recipesFromDataBase) {
+      boolean isFavorite = ((Number) recipeFromDataBase.get("is_favorite")).intValue() != 0;
+      Recipe recipe = toRecipe(recipeFromDataBase, isFavorite);
+      lastId = recipe.getId();
+      lastScore = ((Number) recipeFromDataBase.get("score")).doubleValue();
+      Object snippet = recipeFromDataBase.get("snippet");
+      if (snippet != null) {
+        snippets.put(recipe.getId(), snippet.toString());
       }
+      recipes.add(recipe);
+    }
+    return recipes;
+  }
 
-      String stepsQuery = "SELECT * FROM step WHERE recipe_id = ?";
-      List<Map<String, Object>> stepsFromDataBase = SQL.executeQuery(stepsQuery, id);
+  /**
+   * Returns the loaded recipe with the id of a row from the recipe table, or a new summary of the
+   * recipe if it is not loaded.
+   *
+   * @param recipeFromDataBase the row with the id, name and image of the recipe
+   * @param isFavorite         true if the recipe is a favorite of the user, false if not
+   * @return the recipe of the row
+   */
+  private Recipe toRecipe(Map<String, Object> recipeFromDataBase, boolean isFavorite) {
+    int id = (int) recipeFromDataBase.get("id");
+    if (recipeRegister.containsRecipeById(id)) {
+      return recipeRegister.getRecipeById(id);
+    }
+    String name = recipeFromDataBase.get("name").toString();
+    Object image = recipeFromDataBase.get("image");
+    return new Recipe(id, name, image == null ? null : image.toString(), isFavorite);
+  }
 
-      for (Map<String, Object> stepFromDataBase : stepsFromDataBase) {
-        String step = stepFromDataBase.get("description").toString();
-        steps.addStep(step);
+  /**
+   * Creates an FTS5 query matching recipes with words starting with every word of the search
+   * string. The words are quoted, so characters with a meaning in FTS5 queries are matched
+   * literally.
+   *
+   * @param search the search string
+   * @return the FTS5 query, or an empty string if the search string has no words
+   */
+  private static String toMatchQuery(String search) {
+    StringBuilder matchQuery = new StringBuilder();
+    for (String word : search.split("[^\\p{L}\\p{N}]+")) {
+      if (!word.isEmpty()) {
+        if (!matchQuery.isEmpty()) {
+          matchQuery.append(' ');
+        }
+        matchQuery.append('"').append(word).append("\"*");
       }
+    }
+    return matchQuery.toString();
+  }
+
+  /**
+   * Returns the snippet of a recipe found by a full-text search, with the matching words
+   * highlighted.
+   *
+   * @param recipe the recipe to get the snippet of
+   * @return the snippet of the recipe, or null if the recipe was not found by a full-text search
+   */
+  public String getSnippet(Recipe recipe) {
+    return snippets.get(recipe.getId());
+  }
+
+  /**
+   * Creates a LIKE pattern matching names containing the search string.
+   *
+   * @param search the search string
+   * @return the LIKE pattern, with the wildcards in the search string escaped
+   */
+  private static String toLikePattern(String search) {
+    String escaped = search.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    return "%" + escaped + "%";
+  }
+
+  /**
+   * Loads the current search again, with at least as many recipes as are loaded now, and
+   * renders the view. Used when recipes are saved, which moves them in the order of the search.
+   */
+  private void reloadSearch() {
+    loadFirstPage(Math.max(pageSize, currentSearch.size()));
+    view.render(currentSearch);
+  }
 
-      boolean isFavorite = false;
-      if (isLoggedIn()) {
-        String favoriteQuery = "SELECT * FROM recipe_favorite WHERE recipe_id = ? AND user_name = ?";
-        List<Map<String, Object>> favorite = SQL.executeQuery(favoriteQuery, id,
-            PantryPal.userName);
-        isFavorite = !favorite.isEmpty();
+  /**
+   * Returns the number of recipes loaded per page.
+   *
+   * @return the page size
+   */
+  public int getPageSize() {
+    return pageSize;
+  }
+
+  /**
+   * Sets the number of recipes loaded per page.
+   *
+   * @param pageSize the page size
+   * @throws IllegalArgumentException if the page size is not positive
+   */
+  public void setPageSize(int pageSize) {
+    if (pageSize <= 0) {
+      throw new IllegalArgumentException("Page size must be positive");
+    }
+    this.pageSize = pageSize;
+  }
+
+  /**
+   * Loads the details of a recipe, as done when the recipe is opened, without showing it.
+   *
+   * @param recipe the recipe to load the details of
+   */
+  public void loadDetails(Recipe recipe) {
+    ensureDetails(recipe);
+  }
+
+  /**
+   * Makes sure the details of a recipe are loaded. If the details are not set, the description,
+   * groceries and steps of the recipe are loaded from the database. The recipe is marked as the
+   * most recently used recipe in the detail cache, which clears the details of the least recently
+   * used recipes when the cache is full.
+   *
+   * @param recipe the recipe to load the details of.
+   */
+  private void ensureDetails(Recipe recipe) {
+    if (recipe.hasDetails()) {
+      if (recipe.hasId() && !detailCache.touch(recipe)) {
+        detailCache.put(recipe);
       }
+      return;
+    }
+    int id = recipe.getId();
+    String descriptionQuery = "SELECT description FROM recipe WHERE id = ?";
+    List<Map<String, Object>> recipeFromDataBase = SQL.executeQuery(descriptionQuery, id);
+    String description = recipeFromDataBase.isEmpty()
+        ? "" : Objects.toString(recipeFromDataBase.getFirst().get("description"), "");
 
-      Recipe recipe = new Recipe(name, description, groceries, steps, image, isFavorite);
-      this.recipeRegister.addRecipe(recipe);
+    StepRegister steps = new StepRegister();
+    for (Map<String, Object> stepFromDataBase : loadSteps(id)) {
+      steps.addStep(stepFromDataBase.get("description").toString());
     }
+
+    recipe.setDetails(description, loadGroceries(id), steps);
+    detailCache.put(recipe);
   }
 
   /**
-   * Returns the register with recipes in the recipeRegister.
+   * Loads the groceries of a recipe from the database.
+   *
+   * @param id the id of the recipe
+   * @return the groceries of the recipe
+   */
+  private static GroceryRegister loadGroceries(int id) {
+    return toGroceries(SQL.executeQuery(GROCERIES_QUERY, id));
+  }
+
+  /**
+   * Creates the groceries of a recipe from its rows in the recipe_grocery table.
+   *
+   * @param groceriesFromDataBase the rows of the groceries
+   * @return the groceries of the recipe
+   */
+  private static GroceryRegister toGroceries(List<Map<String, Object>> groceriesFromDataBase) {
+    GroceryRegister groceries = new GroceryRegister();
+    for (Map<String, Object> groceryFromDataBase : groceriesFromDataBase) {
+      String groceryName = groceryFromDataBase.get("grocery_name").toString();
+      int quantity = (int) groceryFromDataBase.get("quantity");
+
+      String unit = GroceryCatalog.getUnit(groceryName, "pcs");
+      //TODO: Fix shelf
+      Grocery grocery = new Grocery(groceryName, quantity, unit, "", false);
+      groceries.addGrocery(grocery);
+    }
+    return groceries;
+  }
+
+  /**
+   * Loads the steps of a recipe from the database, in order.
+   *
+   * @param id the id of the recipe
+   * @return the rows of the steps, with the id and description of every step
+   */
+  private static List<Map<String, Object>> loadSteps(int id) {
+    return SQL.executeQuery(STEPS_QUERY, id);
+  }
+
+  /**
+   * Returns the register with the recipes of the loaded pages.
    *
    * @return the register with Recipes in the recipeRegister.
    */
@@ -135,163 +761,190 @@ public class CookbookController extends Controller implements Observer {
   }
 
   /**
-   * Returns the current search list.
+   * Returns the loaded pages of the current search.
    *
-   * @return the current search list.
+   * @return the recipes of the loaded pages, in the order they are shown.
    */
   public List<Recipe> getCurrentSearch() {
     return currentSearch;
   }
 
   /**
-   * Updates the observer with the button that was pressed and the object affected. If the object is
-   * a Recipe, it performs the action related to the buttonEnum. If the object is not a Recipe, it
-   * throws an IllegalArgumentException.
-   *
-   * @param buttonEnum the button that was pressed
-   * @param object     the object that is related to the button
-   */
-  @Override
-  public void update(ButtonEnum buttonEnum, Object object) {
-    if (!(object instanceof Recipe recipe)) {
-      throw new IllegalArgumentException("Object is not of type Recipe");
-    }
-    switch (buttonEnum) {
-      case OPEN_RECIPE:
-        openRecipe(recipe);
-        break;
-      case ADD_TO_SHOPPING_LIST:
-        addGroceriesToShoppingList(recipe);
-        break;
-      case EDIT_FAVORITE:
-        toggleIsFavorite(recipe);
-        break;
-      case EDIT_RECIPE:
-        AddRecipeController addRecipeController = new AddRecipeController(
-            this.viewManager, this);
-        addRecipeController.setRecipeToAddRecipeView(recipe);
-
-        this.viewManager.setView(Route.ADD_RECIPE);
-        break;
-      case ADD:
-        this.addRecipe(recipe);
-        currentSearch = getRecipes().values().stream().toList();
-        view.render(currentSearch);
-        this.viewManager.setView(Route.COOKBOOK);
-        break;
-      case REMOVE:
-        recipeRegister.removeRecipe(recipe);
-        currentSearch = getRecipes().values().stream().toList();
-        view.render(currentSearch);
-        viewManager.setView(Route.COOKBOOK);
-        break;
-      default:
-        break;
-    }
-
-  }
-
-  /**
-   * Updates the observer with the button that was pressed. If the button is 'buttonEnum.ADD', it
-   * opens the AddRecipeView for the user to add a new Recipe.
-   *
-   * @param buttonEnum the button that was pressed
-   */
-  @Override
-  public void update(ButtonEnum buttonEnum) {
-    if (Objects.requireNonNull(buttonEnum) == ButtonEnum.ADD) {
-      openAddRecipe();
-    } else if(buttonEnum == ButtonEnum.BACK) {
-      this.viewManager.setView(Route.COOKBOOK);
+   * Saves a recipe from the AddRecipeView. A recipe that is already stored is updated, and a new
+   * recipe is added. The groceries of the saved recipe are recorded as used in the grocery
+   * suggestions. The current search is then reloaded, and the CookbookView is shown.
+   *
+   * @param recipe the recipe to save
+   */
+  private void saveRecipe(Recipe recipe) {
+    if (recipe.hasId()) {
+      this.updateRecipe(recipe);
     } else {
-      throw new UnsupportedOperationException("Button not supported: " + buttonEnum);
+      this.addRecipe(recipe);
     }
+    for (Grocery grocery : recipe.getRecipeGroceries().getRegister().values()) {
+      GrocerySuggestions.recordUse(grocery.getName(), grocery.getUnit(), null);
+    }
+    reloadSearch();
+    this.viewManager.setView(Route.COOKBOOK);
   }
 
   /**
-   * Opens the AddRecipeView and sets the view to AddRecipeView. Creates a new AddRecipeController
-   * and AddRecipeView and set the view to AddRecipeView.
+   * Opens a recipe in the AddRecipeView to be edited.
+   *
+   * @param recipe the recipe to edit
+   */
+  private void editRecipe(Recipe recipe) {
+    ensureDetails(recipe);
+    getAddRecipeController().setRecipeToAddRecipeView(recipe);
+    this.viewManager.setView(Route.ADD_RECIPE);
+  }
+
+  /**
+   * Deletes a recipe opened in the RecipeView, and removes it from the loaded pages and the meal
+   * plan. The CookbookView is updated by the register, and is shown.
+   *
+   * @param recipe the recipe to delete
+   */
+  private void removeRecipe(Recipe recipe) {
+    deleteRecipe(recipe);
+    currentSearch.removeIf(loaded -> loaded.getKey().equals(recipe.getKey()));
+    mealPlanRecipes.removeIf(planned -> planned.getKey().equals(recipe.getKey()));
+    viewManager.setView(Route.COOKBOOK);
+  }
+
+  /**
+   * Opens the AddRecipeView and sets the view to AddRecipeView. The AddRecipeView is cleared
+   * before it is shown.
    */
   private void openAddRecipe() {
-    new AddRecipeController(this.viewManager, this);
+    getAddRecipeController().setNewRecipeToAddRecipeView();
     this.viewManager.setView(Route.ADD_RECIPE);
   }
 
   /**
-   * Searches for recipes in the recipeRegister based on the search string. The search string is
-   * passed to the recipeRegister, and the currentSearch is set to the result of the search. The
-   * view is then rendered with the currentSearch.
+   * Returns the AddRecipeController, and creates it the first time it is needed.
+   *
+   * @return the AddRecipeController of the cookbook
+   */
+  private AddRecipeController getAddRecipeController() {
+    if (addRecipeController == null) {
+      addRecipeController = new AddRecipeController(this.viewManager);
+    }
+    return addRecipeController;
+  }
+
+  /**
+   * Searches for recipes with the search string, in the current search mode. The first page of
+   * the search is loaded from the database, and the view is rendered with it. The next pages are
+   * loaded with {@link #loadNextPage()}.
    *
-   * @param search the search string to search for in the recipeRegister
+   * @param search the search string to search for
    */
   public void searchRecipes(String search) {
-    currentSearch = recipeRegister.searchRecipes(search);
-    view.render(currentSearch);
+    searchRecipes(search, searchMode);
+  }
+
+  /**
+   * Searches for recipes with the search string. When searching by name, the recipes with names
+   * containing the search string are found, favorites first, followed by the recipes with names
+   * matching the search string with a few typos. When searching by full text, the
+   * recipes with words in the name, description or steps starting with the words of the search
+   * string are found, best match first. An empty search finds every recipe.
+   *
+   * @param search the search string to search for
+   * @param mode   the search mode to use, which is kept for later searches
+   */
+  public void searchRecipes(String search, SearchMode mode) {
+    searchText = search == null ? "" : search;
+    searchMode = Objects.requireNonNull(mode);
+    loadFirstPage(pageSize);
+    if (view != null) {
+      view.render(currentSearch);
+    }
+  }
+
+  /**
+   * Returns the search mode of the current search.
+   *
+   * @return the search mode
+   */
+  public SearchMode getSearchMode() {
+    return searchMode;
   }
 
   /**
-   * Opens a recipe in the RecipeView, and sets the view to RecipeView.
+   * Opens a recipe in the RecipeView, and sets the view to RecipeView. The RecipeView is created
+   * the first time a recipe is opened, and is bound to the given recipe afterwards.
    *
    * @param recipe the recipe to be opened in the RecipeView.
    */
   private void openRecipe(Recipe recipe) {
-    RecipeView recipeView = new RecipeView(this, recipe);
-    recipeView.addObserver(this);
-    this.viewManager.addView(Route.RECIPE, recipeView);
+    if (recipeView == null) {
+      recipeView = new RecipeView(this);
+      this.viewManager.addView(Route.RECIPE, recipeView);
+    }
+    ensureDetails(recipe);
+    recipeView.setRecipe(recipe);
     this.viewManager.setView(Route.RECIPE);
   }
 
   /**
-   * Adds the groceries from a recipe to the shopping list. This method gets the grocery from the
-   * recipe and checks if the grocery is already in the shopping list or pantry. If the grocery is
-   * in the pantry, it checks if the quantity is enough. If not, it adds the difference to the
-   * shopping list. If the grocery is not in the pantry, it adds the grocery to the shopping list.
+   * Adds the groceries needed for recipes to the shopping list. The quantities of the ingredients
+   * of the recipes are summed by grocery in one pass, and multiplied by the number of servings.
+   * The quantity of every grocery in the pantry and the shopping list is then subtracted once,
+   * and the groceries still needed are added to the shopping list together. Groceries are
+   * matched by name in any case, as the names of the grocery catalog are.
    *
-   * @param recipe the recipe to add groceries from.
+   * @param recipes  the recipes to add groceries from
+   * @param servings the number of times every recipe is made
+   * @throws IllegalArgumentException if the number of servings is not positive
    */
-  private void addGroceriesToShoppingList(Recipe recipe) {
-    for (Map.Entry<String, Grocery> entry : recipe.getRecipeGroceries().getRegister().entrySet()) {
-      String groceryName = entry.getKey();
-      String groceryShelf = entry.getValue().getShelf();
-      String unit = entry.getValue().getUnit();
-      int quantityNeeded = entry.getValue().getQuantity();
-
-      Grocery[] shelfGroceries = shelfRegister.getAllGroceries();
-      int quantityInShelf = 0;
-
-      for (Grocery grocery : shelfGroceries) {
-        if (grocery.getKey().equals(groceryName)) {
-          quantityInShelf += grocery.getQuantity();
+  public void addRecipesToShoppingList(Collection<Recipe> recipes, int servings) {
+    if (servings <= 0) {
+      throw new IllegalArgumentException("Servings must be positive");
+    }
+    Map<String, Grocery> demand = new LinkedHashMap<>();
+    for (Recipe recipe : recipes) {
+      ensureDetails(recipe);
+      for (Grocery grocery : recipe.getRecipeGroceries().getRegister().values()) {
+        int quantity = grocery.getQuantity() * servings;
+        String key = grocery.getKey().toLowerCase(Locale.ROOT);
+        Grocery needed = demand.get(key);
+        if (needed == null) {
+          demand.put(key, new Grocery(grocery.getKey(), quantity, grocery.getUnit(),
+              grocery.getShelf(), false));
+        } else {
+          needed.setQuantity(needed.getQuantity() + quantity);
         }
       }
+    }
 
-      Grocery shoppingListGrocery = null;
-      int quantityInShoppingList;
-      try {
-        shoppingListGrocery = shoppingListRegister.getGrocery(groceryName);
-        quantityInShoppingList = shoppingListGrocery.getQuantity();
-      } catch (Exception e) {
-        quantityInShoppingList = 0;
-      }
-
-      int totalQuantityAvailable = quantityInShelf + quantityInShoppingList;
-
-      if (quantityNeeded > totalQuantityAvailable) {
-        int quantityToAdd = quantityNeeded - totalQuantityAvailable;
-        if (shoppingListGrocery != null) {
-          shoppingListGrocery.setQuantity(shoppingListGrocery.getQuantity() + quantityToAdd);
-        } else {
-          shoppingListController.addGrocery(
-              new Grocery(groceryName, quantityToAdd, unit, groceryShelf, false));
-        }
+    Map<String, Integer> stock = new HashMap<>();
+    for (Grocery grocery : pantryController.getRegister().getAllGroceries()) {
+      stock.merge(grocery.getKey().toLowerCase(Locale.ROOT), grocery.getQuantity(), Integer::sum);
+    }
+    for (Grocery grocery : shoppingListController.getRegister().getRegister().values()) {
+      stock.merge(grocery.getKey().toLowerCase(Locale.ROOT), grocery.getQuantity(), Integer::sum);
+    }
+    List<Grocery> groceriesToAdd = new ArrayList<>();
+    for (Map.Entry<String, Grocery> entry : demand.entrySet()) {
+      Grocery needed = entry.getValue();
+      int quantityToAdd = GroceryQuantities.quantityToBuy(needed.getQuantity(),
+          stock.getOrDefault(entry.getKey(), 0));
+      if (quantityToAdd > 0) {
+        groceriesToAdd.add(new Grocery(needed.getKey(), quantityToAdd, needed.getUnit(),
+            needed.getShelf(), false));
       }
     }
 
-    shoppingListController.rerender();
+    shoppingListController.addGroceries(groceriesToAdd);
   }
 
   /**
-   * Adds a recipe to the recipeRegister and the database.
+   * Adds a recipe to the recipeRegister and the database. The recipe is written to the database
+   * by {@link #writeNewRecipe(Recipe)}, replacing the recipes with the same name, and the
+   * register and indexes in memory are then updated.
    *
    * @param recipe the recipe to add to the recipeRegister and the database.
    */
@@ -300,65 +953,373 @@ public class CookbookController extends Controller implements Observer {
       throw new IllegalArgumentException("Recipe cannot be null");
     }
 
-    if (getRecipes().containsKey(recipe.getKey())) {
-      getRecipes().remove(recipe.getKey());
+    NewRecipe written = writeNewRecipe(recipe);
+    Recipe replaced = getRecipes().get(recipe.getKey());
+    if (replaced != null) {
+      recipeRegister.removeRecipe(replaced);
+      detailCache.remove(replaced);
+    }
+    for (int replacedId : written.replacedIds()) {
+      if (nameIndex != null) {
+        nameIndex.remove(recipe.getKey(), replacedId);
+      }
+      if (coverageIndex != null) {
+        coverageIndex.removeRecipe(replacedId);
+      }
+    }
+    recipe.setId(written.id());
+    if (nameIndex != null) {
+      nameIndex.add(recipe.getKey(), written.id());
+    }
+    if (coverageIndex != null) {
+      coverageIndex.putRecipe(written.id(), written.groceryNames());
     }
 
-    String query = "INSERT INTO recipe (name, description, image) VALUES (?, ?, ?)";
-    SQL.executeUpdate(query, recipe.getKey(), recipe.getDescription(), recipe.getImagePath());
-
-    for (Grocery grocery : recipe.getRecipeGroceries().getRegister().values()) {
-      String groceryQuery = "SELECT * FROM grocery WHERE name = ?";
-      List<Map<String, Object>> groceryDataFromDataBase =
-          SQL.executeQuery(groceryQuery, grocery.getKey());
+    recipeRegister.addRecipe(recipe);
+    detailCache.put(recipe);
+  }
 
-      if (groceryDataFromDataBase.isEmpty()) {
-        String insertGroceryQuery = "INSERT INTO grocery (name, unit) VALUES (?, ?)";
-        SQL.executeUpdate(insertGroceryQuery, grocery.getKey(), grocery.getUnit());
+  /**
+   * Updates a stored recipe in the recipeRegister and the database. The recipe is written to the
+   * database by {@link #writeRecipeUpdate(Recipe)}, and the register and indexes in memory are
+   * then updated with the changes. A recipe that is no longer stored is added again.
+   *
+   * @param recipe the edited recipe, with the id of the stored recipe.
+   */
+  private void updateRecipe(Recipe recipe) {
+    int id = recipe.getId();
+    RecipeUpdate update = writeRecipeUpdate(recipe);
+    if (update == null) {
+      recipe.setId(Recipe.NO_ID);
+      addRecipe(recipe);
+      return;
+    }
+    for (int replacedId : update.replacedIds()) {
+      if (nameIndex != null) {
+        nameIndex.remove(recipe.getKey(), replacedId);
+      }
+      if (coverageIndex != null) {
+        coverageIndex.removeRecipe(replacedId);
       }
-
-      String insertGroceryRecipeQuery = "INSERT INTO recipe_grocery "
-          + "(recipe_id, grocery_name, quantity) VALUES (?, ?, ?)";
-      SQL.executeUpdate(insertGroceryRecipeQuery, recipe.getKey(),
-          grocery.getKey(), grocery.getQuantity());
     }
-
-    for (String step : recipe.getRecipeSteps()) {
-      String insertStepQuery = "INSERT INTO step (recipe_id, description) VALUES (?, ?)";
-      SQL.executeUpdate(insertStepQuery, recipe.getKey(), step);
+    Recipe sameName = getRecipes().get(recipe.getKey());
+    if (sameName != null && sameName.getId() != id) {
+      recipeRegister.removeRecipe(sameName);
+      detailCache.remove(sameName);
     }
 
+    if (recipeRegister.containsRecipeById(id)) {
+      Recipe storedInRegister = recipeRegister.getRecipeById(id);
+      recipeRegister.removeRecipe(storedInRegister);
+      detailCache.remove(storedInRegister);
+    }
+    if (nameIndex != null) {
+      nameIndex.remove(update.storedName(), id);
+      nameIndex.add(recipe.getKey(), id);
+    }
+    if (coverageIndex != null) {
+      coverageIndex.putRecipe(id, update.groceryNames());
+    }
     recipeRegister.addRecipe(recipe);
+    detailCache.put(recipe);
   }
 
   /**
-   * Toggles the favorite status of a recipe.
+   * The rows written to the database by {@link #writeNewRecipe(Recipe)}, which the indexes in
+   * memory are updated with.
    *
-   * @param recipe the recipe to toggle the favorite status of.
+   * @param id           the id of the new recipe
+   * @param replacedIds  the ids of the recipes with the same name, which were deleted
+   * @param groceryNames the names the groceries of the recipe are stored with
    */
-  private void toggleIsFavorite(Recipe recipe) {
-    recipe.toggleIsFavorite();
-    if (this.isLoggedIn()) {
-      String name = recipe.getKey();
+  record NewRecipe(int id, List<Integer> replacedIds, List<String> groceryNames) {
+  }
 
-      //TODO: fix recipe to use id, not name
-      String idQuery = "SELECT id FROM recipe WHERE name = ?";
-      List<Map<String, Object>> idResult = SQL.executeQuery(idQuery, name);
+  /**
+   * Writes a new recipe to the database in one transaction. Stored recipes with the same name are
+   * deleted, new groceries are added to the grocery table, and the recipe is inserted with its
+   * groceries and steps, which are inserted in one batch each. Nothing is written if any of the
+   * statements fail.
+   *
+   * @param recipe the recipe to write, without an id.
+   * @return the rows written
+   */
+  static NewRecipe writeNewRecipe(Recipe recipe) {
+    AtomicReference<NewRecipe> written = new AtomicReference<>();
+    SQL.executeInTransaction(transaction -> {
+      // The groceries are added first, as the catalog may read the grocery table on another
+      // connection, which must not wait for the writes of this transaction
+      Map<String, Integer> quantities = new LinkedHashMap<>();
+      for (Grocery grocery : recipe.getRecipeGroceries().getRegister().values()) {
+        String groceryName =
+            GroceryCatalog.addGrocery(transaction, grocery.getKey(), grocery.getUnit());
+        quantities.merge(groceryName, grocery.getQuantity(), Integer::sum);
+      }
+      List<Integer> replacedIds = new ArrayList<>();
+      for (Map<String, Object> existing : transaction.executeQuery(
+          "SELECT id FROM recipe WHERE name = ?", recipe.getKey())) {
+        int existingId = (int) existing.get("id");
+        deleteRecipeRows(transaction, existingId);
+        replacedIds.add(existingId);
+      }
 
-      String id = idResult.getFirst().get("id").toString();
+      int id = transaction.executeUpdateWithGeneratedKeys(
+          "INSERT INTO recipe (name, description, image) VALUES (?, ?, ?)",
+          recipe.getKey(), recipe.getDescription(), recipe.getImagePath());
+      List<Object[]> groceryRows = new ArrayList<>(quantities.size());
+      quantities.forEach((name, quantity) -> groceryRows.add(new Object[] {id, name, quantity}));
+      transaction.executeBatch("INSERT INTO recipe_grocery (recipe_id, grocery_name, quantity) "
+          + "VALUES (?, ?, ?)", groceryRows);
+      List<Object[]> stepRows = new ArrayList<>();
+      for (String step : recipe.getRecipeSteps()) {
+        stepRows.add(new Object[] {id, step});
+      }
+      transaction.executeBatch("INSERT INTO step (recipe_id, description) VALUES (?, ?)",
+          stepRows);
+      written.set(new NewRecipe(id, replacedIds, List.copyOf(quantities.keySet())));
+    });
+    return written.get();
+  }
 
-      String checkQuery = "SELECT * FROM recipe_favorite WHERE recipe_id = ? AND user_name = ?";
-      List<Map<String, Object>> favorite = SQL.executeQuery(checkQuery, id, PantryPal.userName);
+  /**
+   * The changes written to the database by {@link #writeRecipeUpdate(Recipe)}, which the
+   * register and indexes in memory are updated with.
+   *
+   * @param storedName   the name the recipe was stored with before it was edited
+   * @param replacedIds  the ids of the other recipes with the new name, which were deleted
+   * @param groceryNames the names the groceries of the recipe are stored with
+   */
+  record RecipeUpdate(String storedName, List<Integer> replacedIds, Set<String> groceryNames) {
+  }
 
-      if (favorite.isEmpty()) {
+  /**
+   * Writes an edited recipe to the database in one transaction. The stored groceries and steps
+   * are compared with the edited ones, and only the rows that are changed are updated, inserted
+   * or deleted, so the recipe and its unchanged steps keep their ids. New groceries are added to
+   * the grocery table, and other recipes with the new name of the recipe are deleted, like when
+   * a recipe is added, in the same transaction.
+   *
+   * @param recipe the edited recipe, with the id of the stored recipe.
+   * @return the changes written, or null if the recipe is not stored
+   */
+  static RecipeUpdate writeRecipeUpdate(Recipe recipe) {
+    int id = recipe.getId();
+    AtomicReference<RecipeUpdate> update = new AtomicReference<>();
+    SQL.executeInTransaction(transaction -> {
+      List<Map<String, Object>> storedRecipe = transaction.executeQuery(
+          "SELECT name, description, image FROM recipe WHERE id = ?", id);
+      if (storedRecipe.isEmpty()) {
+        return;
+      }
+      String storedName = storedRecipe.getFirst().get("name").toString();
+      boolean recipeChanged = !storedName.equals(recipe.getKey())
+          || !Objects.equals(storedRecipe.getFirst().get("description"), recipe.getDescription())
+          || !Objects.equals(storedRecipe.getFirst().get("image"), recipe.getImagePath());
+
+      // Compare with the names the groceries are stored with in the database. The groceries are
+      // added before the other writes, as the catalog may read the grocery table on another
+      // connection
+      GroceryRegister editedGroceries = new GroceryRegister();
+      for (Grocery grocery : recipe.getRecipeGroceries().getRegister().values()) {
+        String groceryName =
+            GroceryCatalog.addGrocery(transaction, grocery.getKey(), grocery.getUnit());
+        int quantity = grocery.getQuantity();
+        if (editedGroceries.containsGrocery(groceryName)) {
+          quantity += editedGroceries.getGrocery(groceryName).getQuantity();
+        }
+        editedGroceries.addGrocery(
+            new Grocery(groceryName, quantity, grocery.getUnit(), grocery.getShelf(), false));
+      }
+
+      List<Integer> replacedIds = new ArrayList<>();
+      if (!storedName.equals(recipe.getKey())) {
+        String existingQuery = "SELECT id FROM recipe WHERE name = ? AND id <> ?";
+        for (Map<String, Object> existing :
+            transaction.executeQuery(existingQuery, recipe.getKey(), id)) {
+          int existingId = (int) existing.get("id");
+          deleteRecipeRows(transaction, existingId);
+          replacedIds.add(existingId);
+        }
+      }
+      List<Map<String, Object>> stepRows = transaction.executeQuery(STEPS_QUERY, id);
+      List<String> storedSteps = new ArrayList<>();
+      stepRows.forEach(step -> storedSteps.add(step.get("description").toString()));
+      RecipeDiff diff = RecipeDiff.between(
+          toGroceries(transaction.executeQuery(GROCERIES_QUERY, id)), storedSteps,
+          editedGroceries, recipe.getRecipeSteps());
+
+      if (recipeChanged) {
+        transaction.executeUpdate("UPDATE recipe SET name = ?, description = ?, image = ? "
+            + "WHERE id = ?", recipe.getKey(), recipe.getDescription(), recipe.getImagePath(), id);
+      }
+      for (String groceryName : diff.getRemovedGroceries()) {
+        transaction.executeUpdate("DELETE FROM recipe_grocery "
+            + "WHERE recipe_id = ? AND grocery_name = ?", id, groceryName);
+      }
+      for (Grocery grocery : diff.getChangedGroceries()) {
+        transaction.executeUpdate("UPDATE recipe_grocery SET quantity = ? "
+            + "WHERE recipe_id = ? AND grocery_name = ?", grocery.getQuantity(), id,
+            grocery.getKey());
+      }
+      for (Grocery grocery : diff.getAddedGroceries()) {
+        transaction.executeUpdate("INSERT INTO recipe_grocery "
+            + "(recipe_id, grocery_name, quantity) VALUES (?, ?, ?)", id, grocery.getKey(),
+            grocery.getQuantity());
+      }
+      for (Map.Entry<Integer, String> step : diff.getChangedSteps().entrySet()) {
+        transaction.executeUpdate("UPDATE step SET description = ? WHERE id = ?",
+            step.getValue(), stepRows.get(step.getKey()).get("id"));
+      }
+      for (int i = stepRows.size() - diff.getRemovedSteps(); i < stepRows.size(); i++) {
+        transaction.executeUpdate("DELETE FROM step WHERE id = ?", stepRows.get(i).get("id"));
+      }
+      for (String step : diff.getAddedSteps()) {
+        transaction.executeUpdate("INSERT INTO step (recipe_id, description) VALUES (?, ?)",
+            id, step);
+      }
+      update.set(new RecipeUpdate(storedName, replacedIds,
+          Set.copyOf(editedGroceries.getRegister().keySet())));
+    });
+    return update.get();
+  }
+
+  /**
+   * Removes a recipe from the recipeRegister and the database.
+   *
+   * @param recipe the recipe to remove.
+   */
+  private void deleteRecipe(Recipe recipe) {
+    recipeRegister.removeRecipe(recipe);
+    detailCache.remove(recipe);
+    if (recipe.hasId()) {
+      deleteRecipeRows(recipe.getId());
+      if (nameIndex != null) {
+        nameIndex.remove(recipe.getKey(), recipe.getId());
+      }
+      if (coverageIndex != null) {
+        coverageIndex.removeRecipe(recipe.getId());
+      }
+    }
+  }
+
+  /**
+   * Deletes a recipe and the rows referring to it from the database.
+   *
+   * @param id the id of the recipe to delete.
+   */
+  private static void deleteRecipeRows(int id) {
+    SQL.executeInTransaction(transaction -> deleteRecipeRows(transaction, id));
+  }
+
+  /**
+   * Deletes a recipe and the rows referring to it from the database, in a transaction.
+   *
+   * @param transaction the transaction to delete the rows in
+   * @param id          the id of the recipe to delete.
+   */
+  private static void deleteRecipeRows(SQL.Transaction transaction, int id) {
+    transaction.executeUpdate("DELETE FROM recipe_grocery WHERE recipe_id = ?", id);
+    transaction.executeUpdate("DELETE FROM step WHERE recipe_id = ?", id);
+    transaction.executeUpdate("DELETE FROM recipe_favorite WHERE recipe_id = ?", id);
+    transaction.executeUpdate("DELETE FROM recipe WHERE id = ?", id);
+  }
+
+  /**
+   * Toggles the favorite status of a recipe. The favorite status in the database is
+   * updated with the id of the recipe, if the user is logged in. The components of the recipe
+   * in the view are updated in place, and the recipe is only moved in the current search when
+   * the favorite recipes are listed first.
+   *
+   * @param recipe the recipe to toggle the favorite status of.
+   */
+  private void toggleIsFavorite(Recipe recipe) {
+    recipe.toggleIsFavorite();
+    if (this.isLoggedIn() && recipe.hasId()) {
+      if (recipe.getIsFavorite()) {
         String insertQuery = "INSERT INTO recipe_favorite (recipe_id, user_name) VALUES (?, ?)";
-        SQL.executeUpdate(insertQuery, id, PantryPal.userName);
+        SQL.executeUpdate(insertQuery, recipe.getId(), PantryPal.userName);
       } else {
         String deleteQuery = "DELETE FROM recipe_favorite WHERE recipe_id = ? AND user_name = ?";
-        SQL.executeUpdate(deleteQuery, id, PantryPal.userName);
+        SQL.executeUpdate(deleteQuery, recipe.getId(), PantryPal.userName);
       }
     }
-    view.render(currentSearch);
+    if (view != null) {
+      view.updateFavorite(recipe);
+    }
+    if (isLoggedIn() && recipe.hasId() && isOrderedByFavorite()) {
+      moveFavorite(recipe);
+    }
+  }
+
+  /**
+   * Checks if the current search lists the favorite recipes first. A search by name does, and a
+   * full-text search orders the recipes by score instead.
+   *
+   * @return true if the favorite recipes are listed first, false if not
+   */
+  private boolean isOrderedByFavorite() {
+    return searchMode == SearchMode.NAME || toMatchQuery(searchText).isEmpty();
+  }
+
+  /**
+   * Moves a recipe that changed favorite status to its place in the loaded pages of a search by
+   * name, where the favorite recipes come first and then the other recipes, both ordered by id.
+   * The recipe is removed from the loaded pages if its new place is after the keyset cursor, as
+   * it is then loaded with a later page. Recipes found by a typo tolerant search are not moved.
+   *
+   * @param recipe the recipe that changed favorite status
+   */
+  private void moveFavorite(Recipe recipe) {
+    if (!matchesName(recipe)) {
+      return;
+    }
+    currentSearch.removeIf(loaded -> loaded.getId() == recipe.getId());
+    boolean loaded = recipe.getIsFavorite()
+        ? !pagingFavorites || recipe.getId() <= lastId
+        : !pagingFavorites && (recipe.getId() <= lastId || !hasNextPage);
+    int index = -1;
+    if (loaded) {
+      index = 0;
+      while (index < currentSearch.size() && matchesName(currentSearch.get(index))
+          && compareByFavorite(currentSearch.get(index), recipe) < 0) {
+        index++;
+      }
+      currentSearch.add(index, recipe);
+      if (!recipeRegister.containsRecipeById(recipe.getId())) {
+        recipeRegister.addRecipe(recipe);
+      }
+    }
+    if (view != null) {
+      view.moveRecipe(recipe, index);
+    }
+  }
+
+  /**
+   * Checks if the name of a recipe contains the search string, like the recipes found by a search
+   * by name before the typo tolerant matches.
+   *
+   * @param recipe the recipe to check
+   * @return true if the name contains the search string, ignoring case, false if not
+   */
+  private boolean matchesName(Recipe recipe) {
+    return recipe.getKey().toLowerCase(Locale.ROOT)
+        .contains(searchText.toLowerCase(Locale.ROOT));
+  }
+
+  /**
+   * Compares two recipes in the order of a search by name: favorite recipes first, and then by
+   * id.
+   *
+   * @param first  the first recipe
+   * @param second the second recipe
+   * @return a negative number, zero or a positive number if the first recipe comes before, at
+   *         the same place as or after the second recipe
+   */
+  private static int compareByFavorite(Recipe first, Recipe second) {
+    if (first.getIsFavorite() != second.getIsFavorite()) {
+      return first.getIsFavorite() ? -1 : 1;
+    }
+    return Integer.compare(first.getId(), second.getId());
   }
 
   /**
@@ -1,28 +1,91 @@
 package stud.ntnu.idatt1005.pantrypal.controllers;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import javafx.application.Platform;
+import stud.ntnu.idatt1005.pantrypal.PantryPal;
 import stud.ntnu.idatt1005.pantrypal.enums.Route;
+import stud.ntnu.idatt1005.pantrypal.events.ExportDataEvent;
+import stud.ntnu.idatt1005.pantrypal.utils.DataExporter;
 import stud.ntnu.idatt1005.pantrypal.utils.ViewManager;
 import stud.ntnu.idatt1005.pantrypal.views.HomeView;
 
 /**
  * Controller class for the HomeView.
  * This class is responsible for handling the logic for theHomeView.
+ * Exports of the data of the user are handled on the asynchronous lane of the event bus, as they
+ * read the whole database and write a file.
  */
 public class HomeController extends Controller {
 
+  /**
+   * The max number of exports waiting to be written. Exporting more waits until an export is
+   * done.
+   */
+  private static final int EXPORT_QUEUE_CAPACITY = 4;
+
   /**
    * The view for the HomeController.
    */
-  private final HomeView view;
+  private HomeView view;
 
   /**
-   * Constructor that takes in a ViewManager and sets the view for the controller.
+   * Constructor that takes in a ViewManager and registers the factory for the view of the
+   * controller.
    *
    * @param viewManager the ViewManager for the application
    */
   public HomeController(ViewManager viewManager) {
     super(viewManager);
+    this.viewManager.registerRoute(Route.HOME, this::createView);
+    this.viewManager.getEventBus()
+        .subscribeAsync(ExportDataEvent.class, this::onExportData, EXPORT_QUEUE_CAPACITY);
+  }
+
+  /**
+   * Creates the view for the controller. Called by the ViewManager the first time the home view
+   * is navigated to.
+   *
+   * @return the created HomeView
+   */
+  private HomeView createView() {
     this.view = new HomeView(this);
-    this.viewManager.addView(Route.HOME, this.view);
+    return this.view;
+  }
+
+  /**
+   * Exports the data of the user to a file, on the worker of the event bus. Does nothing if the
+   * user is not logged in.
+   *
+   * @param file the file to write, which is replaced if it exists
+   */
+  public void exportData(Path file) {
+    if (isLoggedIn()) {
+      viewManager.getEventBus().publish(new ExportDataEvent(PantryPal.userName, file));
+    }
+  }
+
+  /**
+   * Handles an export on the worker of the event bus, and shows the result in the view on the
+   * JavaFX thread.
+   *
+   * @param event the export to write
+   * @throws UncheckedIOException if the file can not be written
+   */
+  private void onExportData(ExportDataEvent event) {
+    try {
+      long rows = DataExporter.export(event.userName(), event.file());
+      showExportResult(rows + " rows exported to " + event.file().getFileName());
+    } catch (IOException e) {
+      showExportResult("The data could not be exported to " + event.file().getFileName());
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void showExportResult(String message) {
+    if (view != null) {
+      Platform.runLater(() -> view.showExportResult(message));
+    }
   }
 }
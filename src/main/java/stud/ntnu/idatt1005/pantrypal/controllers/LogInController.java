@@ -14,17 +14,28 @@ public class LogInController extends Controller {
   /**
    * The view for the LogInController
    */
-  private final LogInView view;
+  private LogInView view;
 
   /**
-   * Constructor that takes in a ViewManager and sets the view for the controller
+   * Constructor that takes in a ViewManager and registers the factory for the view of the
+   * controller
    *
    * @param viewManager the ViewManager for the application
    */
   public LogInController(ViewManager viewManager) {
     super(viewManager);
+    this.viewManager.registerRoute(Route.LOGIN, this::createView);
+  }
+
+  /**
+   * Creates the view for the controller. Called by the ViewManager the first time the login view
+   * is navigated to.
+   *
+   * @return the created LogInView
+   */
+  private LogInView createView() {
     this.view = new LogInView(this);
-    this.viewManager.addView(Route.LOGIN, this.view);
+    return this.view;
   }
 
   public void logIn(String username) {
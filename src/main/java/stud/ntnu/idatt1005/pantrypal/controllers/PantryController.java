@@ -1,16 +1,26 @@
 package stud.ntnu.idatt1005.pantrypal.controllers;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import stud.ntnu.idatt1005.pantrypal.PantryPal;
-import stud.ntnu.idatt1005.pantrypal.enums.ButtonEnum;
 import stud.ntnu.idatt1005.pantrypal.enums.Route;
+import stud.ntnu.idatt1005.pantrypal.events.AddGroceryEvent;
+import stud.ntnu.idatt1005.pantrypal.events.ChangeQuantityEvent;
+import stud.ntnu.idatt1005.pantrypal.events.RedoEvent;
+import stud.ntnu.idatt1005.pantrypal.events.RemoveGroceryEvent;
+import stud.ntnu.idatt1005.pantrypal.events.UndoEvent;
 import stud.ntnu.idatt1005.pantrypal.models.Grocery;
 import stud.ntnu.idatt1005.pantrypal.models.Shelf;
 import stud.ntnu.idatt1005.pantrypal.registers.GroceryRegister;
 import stud.ntnu.idatt1005.pantrypal.registers.ShelfRegister;
+import stud.ntnu.idatt1005.pantrypal.utils.CommandJournal;
+import stud.ntnu.idatt1005.pantrypal.utils.CommandJournal.Command;
+import stud.ntnu.idatt1005.pantrypal.utils.EventBus;
+import stud.ntnu.idatt1005.pantrypal.utils.GroceryCatalog;
+import stud.ntnu.idatt1005.pantrypal.utils.GrocerySuggestions;
 import stud.ntnu.idatt1005.pantrypal.utils.SQL;
 import stud.ntnu.idatt1005.pantrypal.utils.ViewManager;
 import stud.ntnu.idatt1005.pantrypal.views.PantryView;
@@ -19,35 +29,186 @@ import stud.ntnu.idatt1005.pantrypal.views.PantryView;
  * Controller for the PantryView.
  * This class is responsible for handling the logic for the PantryView.
  * It is responsible for adding, removing and editing shelves and groceries.
+ * The changes of the groceries and shelves are recorded in a journal, and can be undone and
+ * redone.
  */
-public class PantryController extends Controller implements Observer {
+public class PantryController extends Controller {
+
+  /**
+   * The quantity of a grocery that is not on a shelf.
+   */
+  private static final int ABSENT = -1;
+
+  /**
+   * A change of the quantity of a grocery on a shelf. A grocery is added if the old quantity is
+   * {@link #ABSENT}, and removed if the new quantity is {@link #ABSENT}. Changes of the quantity
+   * of a grocery on the shelf made right after each other are merged.
+   */
+  private record GroceryChange(Shelf shelf, String name, String unit, int oldQuantity,
+                               int newQuantity) implements Command {
+    @Override
+    public void apply() {
+      GroceryRegister groceries = shelf.getGroceryRegister();
+      if (newQuantity == ABSENT) {
+        groceries.removeGrocery(groceries.getGrocery(name));
+      } else if (oldQuantity == ABSENT) {
+        groceries.addGrocery(new Grocery(name, newQuantity, unit, shelf.getName(), false));
+      } else {
+        groceries.setQuantity(name, newQuantity);
+      }
+    }
+
+    @Override
+    public void persist(SQL.Batch batch) {
+      if (newQuantity == ABSENT) {
+        batch.add("DELETE FROM pantry_shelf_grocery WHERE pantry_shelf_id = ? "
+            + "AND grocery_name = ?", shelf.getKey(), name);
+      } else if (oldQuantity == ABSENT) {
+        batch.add("INSERT INTO pantry_shelf_grocery (pantry_shelf_id, grocery_name, quantity) "
+            + "VALUES (?, ?, ?)", shelf.getKey(), name, newQuantity);
+      } else {
+        batch.add("UPDATE pantry_shelf_grocery SET quantity = ? "
+            + "WHERE pantry_shelf_id = ? AND grocery_name = ?", newQuantity, shelf.getKey(), name);
+      }
+    }
+
+    @Override
+    public Command inverse() {
+      return new GroceryChange(shelf, name, unit, newQuantity, oldQuantity);
+    }
+
+    @Override
+    public Command mergeWith(Command next) {
+      if (next instanceof GroceryChange change && change.shelf == shelf
+          && change.name.equals(name) && change.oldQuantity == newQuantity
+          && oldQuantity != ABSENT && newQuantity != ABSENT && change.newQuantity != ABSENT) {
+        return new GroceryChange(shelf, name, unit, oldQuantity, change.newQuantity);
+      }
+      return null;
+    }
+  }
+
+  /**
+   * A change of the name of a shelf.
+   */
+  private record ShelfRename(ShelfRegister shelves, Shelf shelf, String oldName,
+                             String newName) implements Command {
+    @Override
+    public void apply() {
+      shelves.renameShelf(shelf, newName);
+    }
+
+    @Override
+    public void persist(SQL.Batch batch) {
+      batch.add("UPDATE pantry_shelf SET name = ? WHERE id = ?", newName, shelf.getKey());
+    }
+
+    @Override
+    public Command inverse() {
+      return new ShelfRename(shelves, shelf, newName, oldName);
+    }
+  }
+
+  /**
+   * The removal of a shelf with its groceries, or the restoring of a removed shelf with the same
+   * key and groceries.
+   */
+  private record ShelfRemoval(ShelfRegister shelves, Shelf shelf, boolean removed)
+      implements Command {
+    @Override
+    public void apply() {
+      if (removed) {
+        shelves.removeShelf(shelf);
+      } else {
+        shelves.addShelf(shelf);
+      }
+    }
+
+    @Override
+    public void persist(SQL.Batch batch) {
+      if (removed) {
+        batch.add("DELETE FROM pantry_shelf_grocery WHERE pantry_shelf_id = ?", shelf.getKey());
+        batch.add("DELETE FROM pantry_shelf WHERE id = ?", shelf.getKey());
+      } else {
+        batch.add("INSERT INTO pantry_shelf (id, name, user_name) VALUES (?, ?, ?)",
+            shelf.getKey(), shelf.getName(), PantryPal.userName);
+        for (Grocery grocery : shelf.getGroceries().values()) {
+          batch.add("INSERT INTO pantry_shelf_grocery (pantry_shelf_id, grocery_name, quantity) "
+              + "VALUES (?, ?, ?)", shelf.getKey(), grocery.getName(), grocery.getQuantity());
+        }
+      }
+    }
+
+    @Override
+    public Command inverse() {
+      return new ShelfRemoval(shelves, shelf, !removed);
+    }
+  }
 
   /**
    * The view for the PantryController.
    */
-  private final PantryView view;
+  private PantryView view;
 
   private final ShelfRegister register;
 
+  /**
+   * The journal of the changes of the pantry, which can be undone and redone.
+   */
+  private final CommandJournal journal = new CommandJournal();
+
+  /**
+   * Whether the shelves of the user have been loaded from the database.
+   */
+  private boolean loaded = false;
+
   private int shelfCount = 0;
 
   /**
-   * Constructor for the PantryController.
+   * Constructor for the PantryController. The view and the shelves of the user are not created
+   * until they are needed, the constructor only registers the factory for the view and subscribes
+   * to the grocery, undo and redo events of the pantry.
    *
    * @param viewManager The view manager for the application.
    */
   public PantryController(ViewManager viewManager) {
     super(viewManager);
-    this.view = new PantryView(this);
-    this.view.addObserver(this);
-    this.viewManager.addView(Route.PANTRY, this.view);
     this.register = new ShelfRegister();
+    this.viewManager.registerRoute(Route.PANTRY, this::createView);
+    EventBus eventBus = this.viewManager.getEventBus();
+    eventBus.subscribe(AddGroceryEvent.class, Route.PANTRY, this::onAddGrocery);
+    eventBus.subscribe(RemoveGroceryEvent.class, Route.PANTRY, this::onRemoveGrocery);
+    eventBus.subscribe(ChangeQuantityEvent.class, Route.PANTRY, this::onChangeQuantity);
+    eventBus.subscribe(UndoEvent.class, Route.PANTRY, event -> undo());
+    eventBus.subscribe(RedoEvent.class, Route.PANTRY, event -> redo());
+  }
 
-    if (this.isLoggedIn()) {
-      load(PantryPal.userName);
-    }
-
+  /**
+   * Creates the view for the controller. Called by the ViewManager the first time the pantry
+   * view is navigated to. Loads the shelves of the user before the view is rendered. The view
+   * is then updated by the changes of the register.
+   *
+   * @return the created PantryView
+   */
+  private PantryView createView() {
+    ensureLoaded();
+    this.view = new PantryView(this);
     rerender();
+    this.register.addListener(this.view::shelfChanged);
+    return this.view;
+  }
+
+  /**
+   * Loads the shelves of the user from the database, if the user is logged in and the shelves
+   * have not been loaded yet.
+   */
+  private void ensureLoaded() {
+    if (!loaded) {
+      loaded = true;
+      if (this.isLoggedIn()) {
+        load(PantryPal.userName);
+      }
+    }
   }
 
   /**
@@ -91,6 +252,7 @@ public class PantryController extends Controller implements Observer {
    * @return the register in the controller
    */
   public ShelfRegister getRegister() {
+    ensureLoaded();
     return register;
   }
 
@@ -100,72 +262,107 @@ public class PantryController extends Controller implements Observer {
    * @return an array of Shelf objects
    */
   public Shelf[] getShelves() {
+    ensureLoaded();
     Collection<Shelf> shelves = register.getRegister().values();
 
     return shelves.toArray(new Shelf[0]);
   }
 
   /**
-   * Updates the observer based on the button pressed and the grocery item associated with the
-   * action.
-   * If the button pressed is ADD, the grocery item is added to the register and the view is
-   * re-rendered.
-   * If the button pressed is REMOVE, the grocery item is removed from the register and
-   * the view is re-rendered.
-   * If the object is not of type Grocery, an IllegalArgumentException is thrown.
+   * Handles a grocery added in the pantry view. The grocery is added to its shelf, and the view
+   * is updated by the register. A grocery that is added is recorded as used in the grocery
+   * suggestions.
    *
-   * @param buttonEnum the button that was pressed
-   * @param object     the grocery item associated with the action
-   * @throws IllegalArgumentException if the object is not of type Grocery
+   * @param event the event of the added grocery
    */
-  @Override
-  public void update(ButtonEnum buttonEnum, Object object) {
-    if (!(object instanceof Grocery grocery)) {
-      throw new IllegalArgumentException("Object is not of type Grocery");
+  private void onAddGrocery(AddGroceryEvent event) {
+    Grocery grocery = event.grocery();
+    try {
+      addGrocery(grocery.getShelf(), grocery.getName(), grocery.getQuantity(), grocery.getUnit());
+      GrocerySuggestions.recordUse(grocery.getName(), grocery.getUnit(), grocery.getShelf());
+    } catch (IllegalArgumentException e) {
+      // The grocery is not valid, and is not added
     }
-    switch (buttonEnum) {
-      case ADD:
-        try {
-          addGrocery(grocery.getShelf(), grocery.getName(), grocery.getQuantity(),
-                  grocery.getUnit());
-          rerender();
-          break;
-        } catch (IllegalArgumentException e) {
-          break;
-        }
-      case REMOVE:
-        try {
-          Shelf shelf = register.getShelfByName(grocery.getShelf());
-          deleteGrocery(shelf, grocery);
-          rerender();
-          break;
-        } catch (IllegalArgumentException e) {
-          break;
-        }
-      default:
-        break;
+  }
+
+  /**
+   * Handles a grocery removed in the pantry view. The grocery is removed from its shelf, and the
+   * view is updated by the register.
+   *
+   * @param event the event of the removed grocery
+   */
+  private void onRemoveGrocery(RemoveGroceryEvent event) {
+    Grocery grocery = event.grocery();
+    try {
+      Shelf shelf = register.getShelfByName(grocery.getShelf());
+      deleteGrocery(shelf, grocery);
+    } catch (IllegalArgumentException e) {
+      // The shelf or the grocery does not exist, and nothing is removed
     }
   }
 
   /**
-   * Updates the observer based on the button pressed.
-   * If the button pressed is ADD_TO_PANTRY, the view is re-rendered.
+   * Handles a quantity changed in the pantry view. The change is recorded in the journal and
+   * written to the database like any other change of the pantry.
    *
-   * @param buttonEnum the button that was pressed
+   * @param event the event of the changed quantity
    */
-  @Override
-  public void update(ButtonEnum buttonEnum) {
-    if (Objects.requireNonNull(buttonEnum) == ButtonEnum.ADD_TO_PANTRY) {
-      rerender();
-    } else {
-      throw new IllegalArgumentException("Button not supported by class");
+  private void onChangeQuantity(ChangeQuantityEvent event) {
+    Grocery grocery = event.grocery();
+    Shelf shelf = register.getShelfByName(grocery.getShelf());
+    try {
+      if (shelf != null) {
+        setQuantity(shelf, grocery, event.quantity());
+      }
+    } catch (IllegalArgumentException e) {
+      // The shelf or the grocery does not exist, and nothing is changed
     }
   }
 
+  /**
+   * Undoes the latest change of the pantry. The change is written to the database in one
+   * transaction.
+   *
+   * @return true if a change was undone, false if there was nothing to undo
+   */
+  public boolean undo() {
+    return journal.undo(this::run);
+  }
+
+  /**
+   * Redoes the latest undone change of the pantry. The change is written to the database in one
+   * transaction.
+   *
+   * @return true if a change was redone, false if there was nothing to redo
+   */
+  public boolean redo() {
+    return journal.redo(this::run);
+  }
+
+  /**
+   * Executes a change of the pantry, and records it in the journal.
+   *
+   * @param command the change to execute
+   */
+  private void execute(Command command) {
+    run(command);
+    journal.record(command);
+  }
+
+  /**
+   * Applies a change of the pantry, and writes it to the database if the user is logged in.
+   *
+   * @param command the change to apply
+   */
+  private void run(Command command) {
+    CommandJournal.execute(command, isLoggedIn());
+  }
+
   /**
    * Adds a shelf to the register.
    */
   public void addShelf() {
+    ensureLoaded();
     shelfCount++;
     String newShelf = "New Shelf " + shelfCount;
 
@@ -176,14 +373,12 @@ public class PantryController extends Controller implements Observer {
 
       Shelf shelf = new Shelf(String.valueOf(id), newShelf);
       register.addShelf(shelf);
-      rerender();
 
       return;
     }
 
     Shelf shelf = new Shelf(newShelf);
     register.addShelf(shelf);
-    rerender();
   }
 
   /**
@@ -192,20 +387,19 @@ public class PantryController extends Controller implements Observer {
    * @param name the name of the shelf
    */
   public Shelf addShelf(String name) {
+    ensureLoaded();
     if (isLoggedIn()) {
       String query = "INSERT INTO pantry_shelf (name, user_name) VALUES (?, ?)";
       int id = SQL.executeUpdateWithGeneratedKeys(query, name, PantryPal.userName);
 
       Shelf shelf = new Shelf(String.valueOf(id), name);
       register.addShelf(shelf);
-      rerender();
 
       return shelf;
     }
 
     Shelf shelf = new Shelf(name);
     register.addShelf(shelf);
-    rerender();
 
     return shelf;
   }
@@ -216,12 +410,7 @@ public class PantryController extends Controller implements Observer {
    * @param shelf the shelf to delete
    */
   public void deleteShelf(Shelf shelf) {
-    register.removeShelf(shelf);
-    rerender();
-
-    if (isLoggedIn()) {
-      SQL.executeUpdate("DELETE FROM pantry_shelf WHERE id = ?", shelf.getKey());
-    }
+    execute(new ShelfRemoval(register, shelf, true));
   }
 
   /**
@@ -231,13 +420,7 @@ public class PantryController extends Controller implements Observer {
    * @param name  the new name of the shelf
    */
   public void editShelfName(Shelf shelf, String name) {
-    shelf.setName(name);
-    rerender();
-
-    if (isLoggedIn()) {
-      SQL.executeUpdate("UPDATE pantry_shelf SET name = ? WHERE id = ?", name,
-          shelf.getKey());
-    }
+    execute(new ShelfRename(register, shelf, shelf.getName(), name));
   }
 
   /**
@@ -259,40 +442,55 @@ public class PantryController extends Controller implements Observer {
    * @param amount the amount of the grocery item
    */
   public void addGrocery(Shelf shelf, String name, int amount, String unit) {
-    //Check if grocery already exists in shelf
-    if (shelf.getGroceries().containsKey(name)) {
-      GroceryRegister groceryRegister = shelf.getGroceryRegister();
+    if (isLoggedIn()) {
+      name = GroceryCatalog.getStoredName(name);
+    }
+    GroceryRegister groceryRegister = shelf.getGroceryRegister();
+    if (groceryRegister.containsGrocery(name)) {
       Grocery grocery = groceryRegister.getGrocery(name);
       int oldAmount = grocery.getQuantity();
-
-      if (isLoggedIn()) {
-        String groceryQuery = "UPDATE pantry_shelf_grocery SET quantity = ?  "
-            + "WHERE pantry_shelf_id = ? AND grocery_name = ?";
-        SQL.executeUpdate(groceryQuery, oldAmount + amount, shelf.getKey(), grocery.getName());
-      }
-      grocery.setQuantity(oldAmount + amount);
+      execute(new GroceryChange(shelf, grocery.getName(), grocery.getUnit(), oldAmount,
+          oldAmount + amount));
     } else {
       if (isLoggedIn()) {
-        //Check if grocery exists in grocery table
-        String checkGroceryQuery = "SELECT * FROM grocery WHERE name = ?";
-        List<Map<String, Object>> groceries = SQL.executeQuery(checkGroceryQuery, name);
-        if (groceries.isEmpty()) {
-          String groceryQuery = "INSERT INTO grocery (name, unit) VALUES (?, ?)";
-          SQL.executeUpdate(groceryQuery, name, unit);
-        }
-        String shelfGroceryQuery = "INSERT INTO pantry_shelf_grocery "
-                + "(pantry_shelf_id, grocery_name, quantity) VALUES (?, ?, ?)";
-        SQL.executeUpdate(shelfGroceryQuery, shelf.getKey(), name, amount);
-
-        Grocery grocery = new Grocery(name, amount, unit, shelf.getName(), false);
-        shelf.addGrocery(grocery);
-      } else {
-        Grocery grocery = new Grocery(name, amount, unit, shelf.getName(), false);
-        shelf.addGrocery(grocery);
+        GroceryCatalog.addGrocery(name, unit);
+      }
+      execute(new GroceryChange(shelf, name, unit, ABSENT, amount));
+    }
+  }
 
+  /**
+   * Creates the change adding groceries to the shelves named by the groceries, as one change per
+   * grocery. The change is neither applied nor recorded in the journal of the pantry, so it can be
+   * made part of a change of another view. Missing shelves are created right away, and are not
+   * part of the change. Groceries already on a shelf, or added earlier in the change, get their
+   * quantity increased.
+   *
+   * @param groceries the groceries to add, each to the shelf with the name of its shelf
+   * @return the change adding the groceries
+   */
+  Command groceryAdditions(Collection<Grocery> groceries) {
+    ensureLoaded();
+    Map<Shelf, Map<String, Integer>> quantities = new HashMap<>();
+    List<Command> changes = new ArrayList<>(groceries.size());
+    for (Grocery grocery : groceries) {
+      Shelf shelf = register.getShelfByName(grocery.getShelf());
+      if (shelf == null) {
+        shelf = addShelf(grocery.getShelf());
       }
+      String name = isLoggedIn() ? GroceryCatalog.getStoredName(grocery.getName())
+          : grocery.getName();
+      GroceryRegister groceryRegister = shelf.getGroceryRegister();
+      String unit = groceryRegister.containsGrocery(name)
+          ? groceryRegister.getGrocery(name).getUnit() : grocery.getUnit();
+      int oldQuantity = quantities.computeIfAbsent(shelf, key -> new HashMap<>())
+          .computeIfAbsent(name, key -> groceryRegister.containsGrocery(key)
+              ? groceryRegister.getGrocery(key).getQuantity() : ABSENT);
+      int newQuantity = (oldQuantity == ABSENT ? 0 : oldQuantity) + grocery.getQuantity();
+      quantities.get(shelf).put(name, newQuantity);
+      changes.add(new GroceryChange(shelf, name, unit, oldQuantity, newQuantity));
     }
-    rerender();
+    return CommandJournal.compound(changes);
   }
 
   /**
@@ -304,6 +502,7 @@ public class PantryController extends Controller implements Observer {
    * @param amount    the amount of the grocery item
    */
   public void addGrocery(String shelfName, String name, int amount, String unit) {
+    ensureLoaded();
     Shelf shelf = null;
     try {
       shelf = register.getShelfByName(shelfName);
@@ -317,6 +516,25 @@ public class PantryController extends Controller implements Observer {
     }
   }
 
+  /**
+   * Sets the quantity of a grocery item on the shelf. The change is merged with the change of the
+   * same grocery item made right before it, so changing the quantity step by step is undone in
+   * one step.
+   *
+   * @param shelf    the shelf with the grocery item
+   * @param grocery  the grocery item to change
+   * @param quantity the new quantity of the grocery item
+   * @throws IllegalArgumentException if the grocery item is not on the shelf
+   */
+  public void setQuantity(Shelf shelf, Grocery grocery, int quantity)
+      throws IllegalArgumentException {
+    Grocery stored = shelf.getGroceryRegister().getGrocery(grocery.getName());
+    if (stored.getQuantity() != quantity) {
+      execute(new GroceryChange(shelf, stored.getName(), stored.getUnit(), stored.getQuantity(),
+          quantity));
+    }
+  }
+
   /**
    * Removes the grocery item from the shelf. If the shelf does not exist in the register, an
    * IllegalArgumentException is thrown.
@@ -325,20 +543,19 @@ public class PantryController extends Controller implements Observer {
    * @param grocery the grocery item to be removed
    */
   public void deleteGrocery(Shelf shelf, Grocery grocery) {
-    shelf.removeGrocery(grocery);
-    rerender();
-
-    if (isLoggedIn()) {
-      String query = "DELETE FROM pantry_shelf_grocery WHERE pantry_shelf_id = ? "
-          + "AND grocery_name = ?";
-      SQL.executeUpdate(query, shelf.getKey(), grocery.getName());
-    }
+    Grocery stored = shelf.getGroceryRegister().getGrocery(grocery.getName());
+    execute(new GroceryChange(shelf, stored.getName(), stored.getUnit(), stored.getQuantity(),
+        ABSENT));
   }
 
   /**
-   * Renders the view with the updated data.
+   * Renders the view with the updated data. Does nothing if the view has not been created yet,
+   * as the view is rendered when it is created. Changes of the shelves and groceries are shown
+   * by the view without rendering it again.
    */
   public void rerender() {
-    view.render(getShelves());
+    if (view != null) {
+      view.render(getShelves());
+    }
   }
 }
@@ -1,14 +1,26 @@
 package stud.ntnu.idatt1005.pantrypal.controllers;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.Objects;
 import stud.ntnu.idatt1005.pantrypal.PantryPal;
-import stud.ntnu.idatt1005.pantrypal.enums.ButtonEnum;
 import stud.ntnu.idatt1005.pantrypal.enums.Route;
+import stud.ntnu.idatt1005.pantrypal.events.AddGroceryEvent;
+import stud.ntnu.idatt1005.pantrypal.events.AddToPantryEvent;
+import stud.ntnu.idatt1005.pantrypal.events.ChangeQuantityEvent;
+import stud.ntnu.idatt1005.pantrypal.events.RedoEvent;
+import stud.ntnu.idatt1005.pantrypal.events.RemoveGroceryEvent;
+import stud.ntnu.idatt1005.pantrypal.events.UndoEvent;
 import stud.ntnu.idatt1005.pantrypal.models.Grocery;
 import stud.ntnu.idatt1005.pantrypal.registers.GroceryRegister;
+import stud.ntnu.idatt1005.pantrypal.utils.CommandJournal;
+import stud.ntnu.idatt1005.pantrypal.utils.CommandJournal.Command;
+import stud.ntnu.idatt1005.pantrypal.utils.EventBus;
+import stud.ntnu.idatt1005.pantrypal.utils.GroceryCatalog;
+import stud.ntnu.idatt1005.pantrypal.utils.GrocerySuggestions;
 import stud.ntnu.idatt1005.pantrypal.utils.SQL;
 import stud.ntnu.idatt1005.pantrypal.utils.ViewManager;
 import stud.ntnu.idatt1005.pantrypal.views.ShoppingListView;
@@ -17,29 +29,108 @@ import stud.ntnu.idatt1005.pantrypal.views.ShoppingListView;
  * Controller class for the ShoppingListView.
  * Handles the logic for the ShoppingListView,
  * including managing the grocery register and updating the view.
- * Implements the Observer interface to listen for changes in the view.
+ * Subscribes to the events published by the view on the event bus.
+ * The changes of the shopping list are recorded in a journal, and can be undone and redone.
  */
-public class ShoppingListController extends Controller implements Observer {
+public class ShoppingListController extends Controller {
+
+  /**
+   * The quantity of a grocery that is not on the shopping list.
+   */
+  private static final int ABSENT = -1;
+
+  /**
+   * A change of the quantity of a grocery on the shopping list. The grocery is added if the old
+   * quantity is {@link #ABSENT}, and removed if the new quantity is {@link #ABSENT}. Changes of
+   * the quantity of a grocery made right after each other are merged.
+   *
+   * @param register    the register of the shopping list
+   * @param grocery     a copy of the grocery, with the unit, shelf and checked state it is
+   *                    added with
+   * @param oldQuantity the quantity before the change
+   * @param newQuantity the quantity after the change
+   */
+  private record GroceryChange(GroceryRegister register, Grocery grocery, int oldQuantity,
+                               int newQuantity) implements Command {
+    @Override
+    public void apply() {
+      if (newQuantity == ABSENT) {
+        register.removeGrocery(register.getGrocery(grocery.getName()));
+      } else if (oldQuantity == ABSENT) {
+        register.addGrocery(new Grocery(grocery.getName(), newQuantity, grocery.getUnit(),
+            grocery.getShelf(), grocery.getChecked()));
+      } else {
+        register.setQuantity(grocery.getName(), newQuantity);
+      }
+    }
+
+    @Override
+    public void persist(SQL.Batch batch) {
+      if (newQuantity == ABSENT) {
+        batch.add("DELETE FROM shopping_list_grocery WHERE user_name = ? AND grocery_name = ?",
+            PantryPal.userName, grocery.getName());
+      } else if (oldQuantity == ABSENT) {
+        batch.add("INSERT INTO shopping_list_grocery "
+                + "(grocery_name, user_name, quantity, is_bought, shelf_name) "
+                + "VALUES (?, ?, ?, ?, ?) ON CONFLICT (grocery_name, user_name) "
+                + "DO UPDATE SET quantity = excluded.quantity",
+            grocery.getName(), PantryPal.userName, newQuantity, grocery.getChecked(),
+            grocery.getShelf());
+      } else {
+        batch.add("UPDATE shopping_list_grocery SET quantity = ? "
+            + "WHERE user_name = ? AND grocery_name = ?",
+            newQuantity, PantryPal.userName, grocery.getName());
+      }
+    }
+
+    @Override
+    public Command inverse() {
+      return new GroceryChange(register, grocery, newQuantity, oldQuantity);
+    }
+
+    @Override
+    public Command mergeWith(Command next) {
+      if (next instanceof GroceryChange change
+          && change.grocery.getName().equals(grocery.getName())
+          && change.oldQuantity == newQuantity && oldQuantity != ABSENT
+          && newQuantity != ABSENT && change.newQuantity != ABSENT) {
+        return new GroceryChange(register, grocery, oldQuantity, change.newQuantity);
+      }
+      return null;
+    }
+  }
 
   /**
    * The view associated with this controller.
    */
-  private final ShoppingListView view;
+  private ShoppingListView view;
 
   /**
    * The register holding the groceries.
    */
   private final GroceryRegister register;
 
+  /**
+   * The journal of the changes of the shopping list, which can be undone and redone.
+   */
+  private final CommandJournal journal = new CommandJournal();
+
   /**
    * The controller related to the pantry.
    * Used to update the pantry view when groceries are added to the shopping list.
    */
   private final PantryController pantryController;
 
+  /**
+   * Whether the shopping list of the user has been loaded from the database.
+   */
+  private boolean loaded = false;
+
   /**
    * Constructs a new ShoppingListController with a given view manager
-   * and pantry controller. Initializes the grocery register and the shopping list view.
+   * and pantry controller. Initializes the grocery register, registers the factory for
+   * the shopping list view and subscribes to its events. The view and the shopping list of the
+   * user are not created until they are needed.
    *
    * @param viewManager The view manager for the application.
    * @param pantryController The controller for the pantry.
@@ -48,16 +139,42 @@ public class ShoppingListController extends Controller implements Observer {
     super(viewManager);
     this.register = new GroceryRegister();
     this.pantryController = pantryController;
+    this.viewManager.registerRoute(Route.SHOPPING_LIST, this::createView);
+    EventBus eventBus = this.viewManager.getEventBus();
+    eventBus.subscribe(AddGroceryEvent.class, Route.SHOPPING_LIST, this::onAddGrocery);
+    eventBus.subscribe(RemoveGroceryEvent.class, Route.SHOPPING_LIST, this::onRemoveGrocery);
+    eventBus.subscribe(ChangeQuantityEvent.class, Route.SHOPPING_LIST, this::onChangeQuantity);
+    eventBus.subscribe(AddToPantryEvent.class, event -> addGroceriesToPantry());
+    eventBus.subscribe(UndoEvent.class, Route.SHOPPING_LIST, event -> undo());
+    eventBus.subscribe(RedoEvent.class, Route.SHOPPING_LIST, event -> redo());
+  }
+
+  /**
+   * Creates the view for the controller. Called by the ViewManager the first time the shopping
+   * list view is navigated to. Loads the shopping list of the user before the view is rendered.
+   * The view is then updated by the changes of the register.
+   *
+   * @return the created ShoppingListView
+   */
+  private ShoppingListView createView() {
+    ensureLoaded();
     this.view = new ShoppingListView(this);
-    this.view.addObserver(this);
     rerender();
-    this.viewManager.addView(Route.SHOPPING_LIST, view);
+    this.register.addListener(this.view::groceryChanged);
+    return this.view;
+  }
 
-    if (this.isLoggedIn()) {
-      this.load();
+  /**
+   * Loads the shopping list of the user from the database, if the user is logged in and the
+   * shopping list has not been loaded yet.
+   */
+  private void ensureLoaded() {
+    if (!loaded) {
+      loaded = true;
+      if (this.isLoggedIn()) {
+        this.load();
+      }
     }
-
-    rerender();
   }
 
   /**
@@ -90,141 +207,214 @@ public class ShoppingListController extends Controller implements Observer {
    * @return the grocery register
    */
   public GroceryRegister getRegister() {
+    ensureLoaded();
     return this.register;
   }
 
   /**
-   * Updates the observer based on the button pressed and the grocery item
-   * associated with the action.
-   * If the button pressed is ADD, the grocery item is added to the register.
-   * If the button pressed is REMOVE, the grocery item is removed from the register.
-   * The view is re-rendered after the grocery item is added or removed.
+   * Handles a grocery added in the shopping list view. The grocery is added to the register, and
+   * the view is updated by the register. A grocery that is added is recorded as used in the
+   * grocery suggestions.
    *
-   * @param buttonEnum the button that was pressed
-   * @param object     the grocery item associated with the action
-   * @throws IllegalArgumentException if the object is not of type Grocery
+   * @param event the event of the added grocery
    */
-  @Override
-  public void update(ButtonEnum buttonEnum, Object object) {
-    if (!(object instanceof Grocery grocery)) {
-      throw new IllegalArgumentException("Object is not of type Grocery");
+  private void onAddGrocery(AddGroceryEvent event) {
+    try {
+      Grocery grocery = event.grocery();
+      this.addGrocery(grocery);
+      GrocerySuggestions.recordUse(grocery.getName(), grocery.getUnit(), grocery.getShelf());
+    } catch (IllegalArgumentException e) {
+      // The grocery is not valid, and is not added
     }
-    switch (buttonEnum) {
-      case ADD:
-        try {
-          this.addGrocery(grocery);
-          rerender();
-          break;
-        } catch (IllegalArgumentException e) {
-          break;
-        }
-      case REMOVE:
-        try {
-          this.removeGrocery(grocery);
-          rerender();
-          break;
-        } catch (IllegalArgumentException e) {
-          break;
-        }
-      default:
-        throw new IllegalArgumentException("Button not supported by class");
+  }
+
+  /**
+   * Handles a grocery removed in the shopping list view. The grocery is removed from the
+   * register, and the view is updated by the register.
+   *
+   * @param event the event of the removed grocery
+   */
+  private void onRemoveGrocery(RemoveGroceryEvent event) {
+    try {
+      this.removeGrocery(event.grocery());
+    } catch (IllegalArgumentException e) {
+      // The grocery is not in the register, and nothing is removed
     }
   }
 
   /**
-   * Updates the observer based on the button pressed.
-   * If the button pressed is ADD_TO_PANTRY, the groceries that are checked
-   * are added to the pantry and removed from the shopping list.
-   * The view is re-rendered after the groceries are added to the pantry.
+   * Handles a quantity changed in the shopping list view. The change is recorded in the journal
+   * and written to the database like any other change of the shopping list.
    *
-   * @param buttonEnum the button that was pressed
+   * @param event the event of the changed quantity
    */
-  @Override
-  public void update(ButtonEnum buttonEnum) {
-    if (Objects.requireNonNull(buttonEnum) == ButtonEnum.ADD_TO_PANTRY) {
-      addGroceriesToPantry();
-      rerender();
-    } else {
-      throw new IllegalArgumentException("Button not supported by class");
+  private void onChangeQuantity(ChangeQuantityEvent event) {
+    try {
+      this.setQuantity(event.grocery(), event.quantity());
+    } catch (IllegalArgumentException e) {
+      // The grocery is not in the register, and nothing is changed
     }
   }
 
+  /**
+   * Undoes the latest change of the shopping list. The change is written to the database in one
+   * transaction.
+   *
+   * @return true if a change was undone, false if there was nothing to undo
+   */
+  public boolean undo() {
+    return journal.undo(this::run);
+  }
+
+  /**
+   * Redoes the latest undone change of the shopping list. The change is written to the database
+   * in one transaction.
+   *
+   * @return true if a change was redone, false if there was nothing to redo
+   */
+  public boolean redo() {
+    return journal.redo(this::run);
+  }
+
+  /**
+   * Executes a change of the shopping list, and records it in the journal.
+   *
+   * @param command the change to execute
+   */
+  private void execute(Command command) {
+    run(command);
+    journal.record(command);
+  }
+
+  /**
+   * Applies a change of the shopping list, and writes it to the database if the user is logged
+   * in.
+   *
+   * @param command the change to apply
+   */
+  private void run(Command command) {
+    CommandJournal.execute(command, isLoggedIn());
+  }
+
   /**
    * Adds groceries to the pantry.
-   * The groceries in the grocery register that are checked
-   * are added to the pantry and removed from the shopping list.
+   * The groceries in the grocery register that are checked are added to the pantry and removed
+   * from the shopping list, in one change written to the database in one transaction. The change
+   * is recorded in the journal of the shopping list only, so undoing it in the shopping list takes
+   * the groceries off the shelves of the pantry and puts them back on the list in one step. It is
+   * not in the journal of the pantry, and can not be undone in the pantry.
    */
   public void addGroceriesToPantry() {
-    List<Grocery> groceriesToRemove = new ArrayList<>();
-    for (Grocery grocery : register.getRegister().values()) {
+    List<Grocery> checked = new ArrayList<>();
+    List<Command> removals = new ArrayList<>();
+    for (Grocery grocery : register.snapshot().values()) {
       if (grocery.getChecked()) {
-        pantryController.addGrocery(grocery.getShelf(), grocery.getName(),
-                grocery.getQuantity(), grocery.getUnit());
-        groceriesToRemove.add(grocery);
+        checked.add(grocery);
+        removals.add(removal(grocery));
       }
     }
-    for (Grocery grocery : groceriesToRemove) {
-      this.removeGrocery(grocery);
+    if (!checked.isEmpty()) {
+      execute(CommandJournal.compound(List.of(pantryController.groceryAdditions(checked),
+          CommandJournal.compound(removals))));
     }
   }
 
   /**
-   * Adds a grocery to the register.
+   * Adds a grocery to the register, in the same way as {@link #addGroceries(Collection)}.
    * If the user is logged in, the grocery is also added to the database.
    *
    * @param grocery the grocery to be added to the register
+   * @throws IllegalArgumentException if the grocery is null
    */
-  public void addGrocery(Grocery grocery) {
+  public void addGrocery(Grocery grocery) throws IllegalArgumentException {
     if (grocery == null) {
       throw new IllegalArgumentException("Grocery cannot be null");
     }
+    addGroceries(List.of(grocery));
+  }
 
-    if (register.containsGrocery(grocery.getName())) {
-      Grocery oldGrocery = register.getGrocery(grocery.getName());
-
-      int oldAmount = oldGrocery.getQuantity();
-      int newAmount = grocery.getQuantity();
+  /**
+   * Sets the quantity of a grocery in the register. The change is recorded in the journal, and
+   * merged with the change of the same grocery made right before it, so changing the quantity
+   * step by step is undone in one step. If the user is logged in, the quantity is also written
+   * to the database.
+   *
+   * @param grocery  the grocery to change
+   * @param quantity the new quantity of the grocery
+   * @throws IllegalArgumentException if the grocery is not in the register
+   */
+  public void setQuantity(Grocery grocery, int quantity) throws IllegalArgumentException {
+    ensureLoaded();
+    Grocery stored = register.getGrocery(grocery.getName());
+    if (stored.getQuantity() != quantity) {
+      execute(new GroceryChange(register, new Grocery(stored), stored.getQuantity(), quantity));
+    }
+  }
 
-      if (this.isLoggedIn()) {
-        String query = "UPDATE shopping_list_grocery SET quantity = ? "
-            + "WHERE user_name = ? AND grocery_name = ?";
-        SQL.executeUpdate(query, oldGrocery.getQuantity() + grocery.getQuantity(),
-            PantryPal.userName, grocery.getName());
+  /**
+   * Adds groceries to the register. Groceries already in the
+   * register get their quantity increased. If the user is logged in, the groceries missing from
+   * the grocery table and the shopping list rows are written to the database in one transaction,
+   * and the register is changed when the transaction is committed.
+   *
+   * @param groceries the groceries to be added to the register
+   */
+  public void addGroceries(Collection<Grocery> groceries) {
+    ensureLoaded();
+    if (groceries.isEmpty()) {
+      return;
+    }
+    if (!this.isLoggedIn()) {
+      execute(additions(groceries));
+      return;
+    }
+    SQL.executeInTransaction(transaction -> {
+      List<Grocery> resolved = new ArrayList<>(groceries.size());
+      for (Grocery grocery : groceries) {
+        String storedName =
+            GroceryCatalog.addGrocery(transaction, grocery.getName(), grocery.getUnit());
+        resolved.add(new Grocery(storedName, grocery.getQuantity(), grocery.getUnit(),
+            grocery.getShelf(), grocery.getChecked()));
       }
+      Command command = additions(resolved);
+      SQL.Batch batch = new SQL.Batch();
+      command.persist(batch);
+      transaction.executeBatch(batch);
+      transaction.afterCommit(() -> {
+        command.apply();
+        journal.record(command);
+      });
+    });
+  }
 
-      oldGrocery.setQuantity(oldAmount + newAmount);
-    } else {
-      if (this.isLoggedIn()) {
-        //Check if grocery exists in grocery table
-        String checkGroceryQuery = "SELECT * FROM grocery WHERE name = ?";
-        List<Map<String, Object>> groceries =
-            SQL.executeQuery(checkGroceryQuery, grocery.getName());
-        if (groceries.isEmpty()) {
-          String groceryQuery = "INSERT INTO grocery (name, unit) VALUES (?, ?)";
-          SQL.executeUpdate(groceryQuery, grocery.getName(), "g");
-        }
-
-        //Add grocery to shopping list
-        String checkQuery = "SELECT * FROM shopping_list_grocery"
-            + " WHERE grocery_name = ? AND user_name = ?";
-        List<Map<String, Object>> result =
-            SQL.executeQuery(checkQuery, grocery.getName(), PantryPal.userName);
-
-        if (result.isEmpty()) {
-          String insertQuery = "INSERT INTO shopping_list_grocery "
-              + "(grocery_name, user_name, quantity, is_bought, shelf_name) VALUES (?, ?, ?, ?, ?)";
-          SQL.executeUpdate(insertQuery, grocery.getName(), PantryPal.userName,
-              grocery.getQuantity(), grocery.getChecked(), grocery.getShelf());
-        } else {
-          String updateQuery = "UPDATE shopping_list_grocery SET quantity = quantity + ? "
-              + "WHERE grocery_name = ? AND user_name = ?";
-          SQL.executeUpdate(
-              updateQuery, grocery.getQuantity(), grocery.getName(), PantryPal.userName);
-        }
-
-      }
-      register.addGrocery(grocery);
+  /**
+   * Creates the change adding groceries to the register, as one change per grocery. Groceries
+   * are matched by name in any case, and groceries already in the register, or added earlier in
+   * the change, get their quantity increased under the name they were first added with.
+   *
+   * @param groceries the groceries to add
+   * @return the change adding the groceries
+   */
+  private Command additions(Collection<Grocery> groceries) {
+    Map<String, String> names = new HashMap<>();
+    for (String name : register.getRegister().keySet()) {
+      names.put(name.toLowerCase(Locale.ROOT), name);
+    }
+    Map<String, Integer> quantities = new HashMap<>();
+    List<Command> changes = new ArrayList<>(groceries.size());
+    for (Grocery grocery : groceries) {
+      String name = names.computeIfAbsent(grocery.getName().toLowerCase(Locale.ROOT),
+          key -> grocery.getName());
+      int oldAmount = quantities.computeIfAbsent(name, key ->
+          register.containsGrocery(key) ? register.getGrocery(key).getQuantity() : ABSENT);
+      int newAmount = (oldAmount == ABSENT ? 0 : oldAmount) + grocery.getQuantity();
+      Grocery template = register.containsGrocery(name) ? register.getGrocery(name)
+          : new Grocery(name, newAmount, grocery.getUnit(), grocery.getShelf(),
+              grocery.getChecked());
+      changes.add(new GroceryChange(register, new Grocery(template), oldAmount, newAmount));
+      quantities.put(name, newAmount);
     }
+    return CommandJournal.compound(changes);
   }
 
   /**
@@ -238,19 +428,30 @@ public class ShoppingListController extends Controller implements Observer {
       throw new IllegalArgumentException("Grocery cannot be null");
     }
 
-    if (this.isLoggedIn()) {
-      String query = "DELETE FROM shopping_list_grocery WHERE user_name = ? AND grocery_name = ?";
-      SQL.executeUpdate(query, PantryPal.userName, grocery.getName());
-    }
+    execute(removal(grocery));
+  }
 
-    register.removeGrocery(grocery);
+  /**
+   * Creates the change removing a grocery from the register.
+   *
+   * @param grocery the grocery to be removed
+   * @return the change removing the grocery
+   * @throws IllegalArgumentException if the grocery is not in the register
+   */
+  private Command removal(Grocery grocery) throws IllegalArgumentException {
+    Grocery stored = register.getGrocery(grocery.getName());
+    return new GroceryChange(register, new Grocery(stored), stored.getQuantity(), ABSENT);
   }
 
   /**
    * Re-renders the view.
-   * Used to update the view with the current grocery register.
+   * Used to render the view with the current grocery register when it is created, after which the
+   * view is updated by the changes of the register.
+   * Does nothing if the view has not been created yet, as the view is rendered when it is created.
    */
   public void rerender() {
-    view.render(this.register);
+    if (view != null) {
+      view.render(this.register);
+    }
   }
 }
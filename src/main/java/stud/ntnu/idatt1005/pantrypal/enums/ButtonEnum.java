@@ -1,15 +0,0 @@
-package stud.ntnu.idatt1005.pantrypal.enums;
-
-/**
- * An enum representing the different buttons used in the application
- */
-public enum ButtonEnum {
-  ADD,
-  REMOVE,
-  EDIT_FAVORITE,
-  EDIT_RECIPE,
-  OPEN_RECIPE,
-  ADD_TO_SHOPPING_LIST,
-  ADD_TO_PANTRY,
-  BACK
-}
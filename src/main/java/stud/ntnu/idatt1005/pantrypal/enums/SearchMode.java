@@ -0,0 +1,11 @@
+package stud.ntnu.idatt1005.pantrypal.enums;
+
+/**
+ * The ways recipes can be searched for in the cookbook.
+ * NAME matches recipes with names containing the search string, and FULL_TEXT matches recipes
+ * with words in the name, description or steps starting with the words of the search string,
+ * ranked by relevance.
+ */
+public enum SearchMode {
+  NAME, FULL_TEXT
+}
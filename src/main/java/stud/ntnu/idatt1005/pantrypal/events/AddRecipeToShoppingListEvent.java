@@ -0,0 +1,11 @@
+package stud.ntnu.idatt1005.pantrypal.events;
+
+import stud.ntnu.idatt1005.pantrypal.models.Recipe;
+
+/**
+ * Event published when the user adds the groceries of a recipe to the shopping list.
+ *
+ * @param recipe the recipe with the groceries to be added
+ */
+public record AddRecipeToShoppingListEvent(Recipe recipe) {
+}
@@ -0,0 +1,9 @@
+package stud.ntnu.idatt1005.pantrypal.events;
+
+/**
+ * Event published when the user adds a step to the recipe being added or edited.
+ *
+ * @param step the description of the step
+ */
+public record AddStepEvent(String step) {
+}
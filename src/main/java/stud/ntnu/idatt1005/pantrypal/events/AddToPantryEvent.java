@@ -0,0 +1,7 @@
+package stud.ntnu.idatt1005.pantrypal.events;
+
+/**
+ * Event published when the user adds the checked groceries of the shopping list to the pantry.
+ */
+public record AddToPantryEvent() {
+}
@@ -0,0 +1,21 @@
+package stud.ntnu.idatt1005.pantrypal.events;
+
+import stud.ntnu.idatt1005.pantrypal.enums.Route;
+import stud.ntnu.idatt1005.pantrypal.models.Grocery;
+import stud.ntnu.idatt1005.pantrypal.utils.EventBus;
+
+/**
+ * Event published when the user changes the quantity of a grocery in the grocery list of a view.
+ * The event is keyed by the route, so only the controller of the view handles it.
+ *
+ * @param route    the view with the grocery list
+ * @param grocery  the grocery with the changed quantity
+ * @param quantity the new quantity of the grocery
+ */
+public record ChangeQuantityEvent(Route route, Grocery grocery, int quantity)
+    implements EventBus.Keyed {
+  @Override
+  public Object key() {
+    return route;
+  }
+}
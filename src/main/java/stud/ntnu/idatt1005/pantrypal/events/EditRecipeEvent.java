@@ -0,0 +1,11 @@
+package stud.ntnu.idatt1005.pantrypal.events;
+
+import stud.ntnu.idatt1005.pantrypal.models.Recipe;
+
+/**
+ * Event published when the user starts editing a recipe.
+ *
+ * @param recipe the recipe to be edited
+ */
+public record EditRecipeEvent(Recipe recipe) {
+}
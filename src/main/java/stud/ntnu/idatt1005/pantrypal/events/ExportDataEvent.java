@@ -0,0 +1,12 @@
+package stud.ntnu.idatt1005.pantrypal.events;
+
+import java.nio.file.Path;
+
+/**
+ * Event published when the user exports their data to a file.
+ *
+ * @param userName the name of the user whose data is exported
+ * @param file     the file to write, which is replaced if it exists
+ */
+public record ExportDataEvent(String userName, Path file) {
+}
@@ -0,0 +1,11 @@
+package stud.ntnu.idatt1005.pantrypal.events;
+
+import stud.ntnu.idatt1005.pantrypal.enums.Route;
+
+/**
+ * Event published when the user navigates to a view without the navigation bar.
+ *
+ * @param route the view to navigate to
+ */
+public record NavigateEvent(Route route) {
+}
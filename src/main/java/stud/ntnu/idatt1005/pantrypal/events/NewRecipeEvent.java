@@ -0,0 +1,7 @@
+package stud.ntnu.idatt1005.pantrypal.events;
+
+/**
+ * Event published when the user starts adding a new recipe.
+ */
+public record NewRecipeEvent() {
+}
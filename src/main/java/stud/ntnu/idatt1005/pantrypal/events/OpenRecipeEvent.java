@@ -0,0 +1,11 @@
+package stud.ntnu.idatt1005.pantrypal.events;
+
+import stud.ntnu.idatt1005.pantrypal.models.Recipe;
+
+/**
+ * Event published when the user opens a recipe in the cookbook.
+ *
+ * @param recipe the recipe to be opened
+ */
+public record OpenRecipeEvent(Recipe recipe) {
+}
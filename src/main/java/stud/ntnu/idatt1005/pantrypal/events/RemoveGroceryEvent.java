@@ -0,0 +1,19 @@
+package stud.ntnu.idatt1005.pantrypal.events;
+
+import stud.ntnu.idatt1005.pantrypal.enums.Route;
+import stud.ntnu.idatt1005.pantrypal.models.Grocery;
+import stud.ntnu.idatt1005.pantrypal.utils.EventBus;
+
+/**
+ * Event published when the user removes a grocery from the grocery list of a view.
+ * The event is keyed by the route, so only the controller of the view handles it.
+ *
+ * @param route   the view with the grocery list
+ * @param grocery the grocery to be removed
+ */
+public record RemoveGroceryEvent(Route route, Grocery grocery) implements EventBus.Keyed {
+  @Override
+  public Object key() {
+    return route;
+  }
+}
@@ -0,0 +1,9 @@
+package stud.ntnu.idatt1005.pantrypal.events;
+
+/**
+ * Event published when the user removes a step from the recipe being added or edited.
+ *
+ * @param step the description of the step
+ */
+public record RemoveStepEvent(String step) {
+}
@@ -0,0 +1,11 @@
+package stud.ntnu.idatt1005.pantrypal.events;
+
+import stud.ntnu.idatt1005.pantrypal.models.Recipe;
+
+/**
+ * Event published when the user saves a new or edited recipe.
+ *
+ * @param recipe the recipe to be saved
+ */
+public record SaveRecipeEvent(Recipe recipe) {
+}
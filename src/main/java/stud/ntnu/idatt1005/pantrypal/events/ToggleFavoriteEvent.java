@@ -0,0 +1,11 @@
+package stud.ntnu.idatt1005.pantrypal.events;
+
+import stud.ntnu.idatt1005.pantrypal.models.Recipe;
+
+/**
+ * Event published when the user marks or unmarks a recipe as a favorite.
+ *
+ * @param recipe the recipe to be toggled
+ */
+public record ToggleFavoriteEvent(Recipe recipe) {
+}
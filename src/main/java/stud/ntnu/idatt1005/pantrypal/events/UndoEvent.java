@@ -0,0 +1,17 @@
+package stud.ntnu.idatt1005.pantrypal.events;
+
+import stud.ntnu.idatt1005.pantrypal.enums.Route;
+import stud.ntnu.idatt1005.pantrypal.utils.EventBus;
+
+/**
+ * Event published when the user undoes the latest change in a view.
+ * The event is keyed by the route, so only the controller of the view handles it.
+ *
+ * @param route the view the change is undone in
+ */
+public record UndoEvent(Route route) implements EventBus.Keyed {
+  @Override
+  public Object key() {
+    return route;
+  }
+}
@@ -11,24 +11,42 @@ import stud.ntnu.idatt1005.pantrypal.registers.StepRegister;
 /**
  * This is an entity class representing a recipe.
  * It contains the name, groceries and steps of the recipe.
+ * A recipe loaded from the database may only hold its summary, that is the name, image and
+ * favorite status. The description, groceries and steps are the details of the recipe, and are
+ * set when they are needed.
  * Goal: act as a model for a recipe.
  */
 public class Recipe extends Model {
 
   /**
-   * The recipe description of the recipe.
+   * The id of recipes that are not stored in the database.
    */
-  private final String description;
+  public static final int NO_ID = -1;
 
   /**
-   * The groceries needed for the recipe.
+   * The id of the recipe in the database, or NO_ID if the recipe is not stored.
    */
-  private final GroceryRegister recipeGroceries;
+  private int id = NO_ID;
 
   /**
-   * The steps needed to make the recipe.
+   * The recipe description of the recipe, or null if the details are not loaded.
    */
-  private final StepRegister steps;
+  private String description;
+
+  /**
+   * The groceries needed for the recipe, or null if the details are not loaded.
+   */
+  private GroceryRegister recipeGroceries;
+
+  /**
+   * The steps needed to make the recipe, or null if the details are not loaded.
+   */
+  private StepRegister steps;
+
+  /**
+   * True if the description, groceries and steps of the recipe are set.
+   */
+  private boolean hasDetails;
 
   /**
    * The imagePath pointing to image location.
@@ -43,15 +61,16 @@ public class Recipe extends Model {
    * Constructor for the Recipe class.
    *
    * @param name            the name of the recipe.
+   * @param description     the description of the recipe.
    * @param recipeGroceries the groceries needed for the recipe.
    * @param steps           the steps needed to make the recipe.
+   * @param imagePath       the image path of the recipe, which is set to null if it is not valid.
+   * @param isFavorite      true if the recipe is a favorite, false if it is not.
    */
   public Recipe(String name, String description, GroceryRegister recipeGroceries,
                 StepRegister steps, String imagePath, boolean isFavorite) {
     super(name);
-    this.description = description;
-    this.recipeGroceries = recipeGroceries;
-    this.steps = steps;
+    setDetails(description, recipeGroceries, steps);
     this.isFavorite = isFavorite;
     if (validImagePath(imagePath)) {
       this.imagePath = imagePath;
@@ -60,6 +79,41 @@ public class Recipe extends Model {
     }
   }
 
+  /**
+   * Constructor for the Recipe class, for a recipe stored in the database.
+   *
+   * @param id              the id of the recipe in the database.
+   * @param name            the name of the recipe.
+   * @param description     the description of the recipe.
+   * @param recipeGroceries the groceries needed for the recipe.
+   * @param steps           the steps needed to make the recipe.
+   * @param imagePath       the image path of the recipe, which is set to null if it is not valid.
+   * @param isFavorite      true if the recipe is a favorite, false if it is not.
+   */
+  public Recipe(int id, String name, String description, GroceryRegister recipeGroceries,
+                StepRegister steps, String imagePath, boolean isFavorite) {
+    this(name, description, recipeGroceries, steps, imagePath, isFavorite);
+    this.id = id;
+  }
+
+  /**
+   * Constructor for the Recipe class, for the summary of a recipe stored in the database.
+   * The details of the recipe are not set, and must be set with setDetails before they are used.
+   * The image path is not validated, since it was validated when the recipe was stored, and the
+   * views fall back to a placeholder if the image can not be loaded.
+   *
+   * @param id         the id of the recipe in the database.
+   * @param name       the name of the recipe.
+   * @param imagePath  the image path of the recipe.
+   * @param isFavorite true if the recipe is a favorite, false if it is not.
+   */
+  public Recipe(int id, String name, String imagePath, boolean isFavorite) {
+    super(name);
+    this.id = id;
+    this.imagePath = imagePath;
+    this.isFavorite = isFavorite;
+  }
+
   /**
    * Check if the image path is valid. By checking if the image path is a URL and then if the
    * image path is correctly formatted. returns based on the result.
@@ -85,12 +139,92 @@ public class Recipe extends Model {
     return false;
   }
 
+  /**
+   * Get the id of the recipe in the database.
+   *
+   * @return the id of the recipe, or NO_ID if the recipe is not stored in the database.
+   */
+  public int getId() {
+    return id;
+  }
+
+  /**
+   * Set the id of the recipe, after it is stored in the database.
+   *
+   * @param id the id of the recipe in the database.
+   */
+  public void setId(int id) {
+    this.id = id;
+  }
+
+  /**
+   * Check if the recipe is stored in the database.
+   *
+   * @return true if the recipe has an id, false if it does not.
+   */
+  public boolean hasId() {
+    return id != NO_ID;
+  }
+
+  /**
+   * Check if the details of the recipe, that is the description, groceries and steps, are set.
+   *
+   * @return true if the details are set, false if only the summary of the recipe is set.
+   */
+  public boolean hasDetails() {
+    return hasDetails;
+  }
+
+  /**
+   * Set the details of the recipe.
+   *
+   * @param description     the description of the recipe.
+   * @param recipeGroceries the groceries needed for the recipe.
+   * @param steps           the steps needed to make the recipe.
+   */
+  public void setDetails(String description, GroceryRegister recipeGroceries, StepRegister steps) {
+    this.description = description;
+    this.recipeGroceries = recipeGroceries;
+    this.steps = steps;
+    this.hasDetails = true;
+  }
+
+  /**
+   * Clear the details of the recipe, so that only the summary of the recipe is kept.
+   * Only recipes stored in the database can have their details cleared, since the details of
+   * other recipes can not be loaded again.
+   *
+   * @throws IllegalStateException if the recipe is not stored in the database.
+   */
+  public void clearDetails() {
+    if (!hasId()) {
+      throw new IllegalStateException("Details of a recipe without id can not be cleared");
+    }
+    this.description = null;
+    this.recipeGroceries = null;
+    this.steps = null;
+    this.hasDetails = false;
+  }
+
+  /**
+   * Check that the details of the recipe are set, before they are used.
+   *
+   * @throws IllegalStateException if the details of the recipe are not set.
+   */
+  private void requireDetails() {
+    if (!hasDetails) {
+      throw new IllegalStateException("Details of recipe " + getKey() + " are not loaded");
+    }
+  }
+
   /**
    * Get the description of the recipe.
    *
    * @return the description of the recipe.
+   * @throws IllegalStateException if the details of the recipe are not set.
    */
   public String getDescription() {
+    requireDetails();
     return description;
   }
 
@@ -98,8 +232,10 @@ public class Recipe extends Model {
    * Get the groceries needed for the recipe.
    *
    * @return the groceries needed for the recipe.
+   * @throws IllegalStateException if the details of the recipe are not set.
    */
   public GroceryRegister getRecipeGroceries() {
+    requireDetails();
     return recipeGroceries;
   }
 
@@ -107,8 +243,10 @@ public class Recipe extends Model {
    * Get the steps needed to make the recipe.
    *
    * @return the steps needed to make the recipe.
+   * @throws IllegalStateException if the details of the recipe are not set.
    */
   public List<String> getRecipeSteps() {
+    requireDetails();
     return steps.getSteps();
   }
 
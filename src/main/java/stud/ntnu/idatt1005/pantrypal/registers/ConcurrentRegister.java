@@ -0,0 +1,171 @@
+package stud.ntnu.idatt1005.pantrypal.registers;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+import stud.ntnu.idatt1005.pantrypal.models.Model;
+
+/**
+ * This is an abstract class representing a register that can be used from several threads. It has
+ * the same contract as {@link Register}, and keeps the models in insertion order.
+ * The models are held in an immutable {@link PersistentMap}. Reads use the current snapshot
+ * without locking, and never see a half-done write. A write creates a new version of the
+ * snapshot in O(log n) time, sharing the rest of its structure, and swaps it in with
+ * compare-and-set. It tries again if another thread swapped in a snapshot first.
+ * Goal: let the models of a register be loaded and searched off the JavaFX thread.
+ *
+ * @param <T> the type of model that the register will contain
+ */
+public abstract class ConcurrentRegister<T extends Model> {
+
+  private final AtomicReference<PersistentMap<String, T>> snapshot =
+      new AtomicReference<>(PersistentMap.empty());
+
+  /**
+   * Abstract method to get the error message.
+   *
+   * @return the error message
+   */
+  protected abstract String getErrorMessage();
+
+  /**
+   * Get a snapshot of the register map. The snapshot is not changed by later writes.
+   *
+   * @return the register map, in insertion order
+   */
+  public PersistentMap<String, T> getRegister() {
+    return snapshot.get();
+  }
+
+  /**
+   * Get the number of models in the register.
+   *
+   * @return the number of models
+   */
+  public int size() {
+    return snapshot.get().size();
+  }
+
+  /**
+   * Get a model from the register.
+   *
+   * @param key the key of the model to be retrieved
+   * @return the model with the specified name
+   * @throws IllegalArgumentException if the item does not exist in the register
+   */
+  protected T getModel(String key) throws IllegalArgumentException {
+    T model = snapshot.get().get(key);
+    if (model == null) {
+      throw new IllegalArgumentException(getErrorMessage());
+    }
+    return model;
+  }
+
+  /**
+   * Check if a model exists in the register.
+   *
+   * @param key the key of the model to be checked
+   * @return true if the model exists, false if not
+   */
+  protected boolean containsModel(String key) {
+    return snapshot.get().containsKey(key);
+  }
+
+  /**
+   * Add an item to the register. An item with the same key is replaced, and keeps its position.
+   *
+   * @param model item to be added
+   */
+  protected void addModel(T model) {
+    PersistentMap<String, T> current;
+    PersistentMap<String, T> next;
+    do {
+      current = snapshot.get();
+      next = current.plus(model.getKey(), model);
+    } while (!snapshot.compareAndSet(current, next));
+  }
+
+  /**
+   * Add an item to the register, if no item with the same key exists.
+   *
+   * @param model item to be added
+   * @return true if the item was added, false if an item with the same key exists
+   */
+  protected boolean addModelIfAbsent(T model) {
+    PersistentMap<String, T> current;
+    PersistentMap<String, T> next;
+    do {
+      current = snapshot.get();
+      if (current.containsKey(model.getKey())) {
+        return false;
+      }
+      next = current.plus(model.getKey(), model);
+    } while (!snapshot.compareAndSet(current, next));
+    return true;
+  }
+
+  /**
+   * Replaces an item in the register with an updated item, atomically. The update may be
+   * applied more than once if other threads write at the same time, so it must not have side
+   * effects, and should return a new item rather than change the given one.
+   *
+   * @param key    the key of the item to be updated
+   * @param update the function computing the updated item from the current item
+   * @return the updated item
+   * @throws IllegalArgumentException if the item does not exist in the register, or the updated
+   *                                  item has another key
+   */
+  protected T updateModel(String key, UnaryOperator<T> update) throws IllegalArgumentException {
+    PersistentMap<String, T> current;
+    PersistentMap<String, T> next;
+    T updated;
+    do {
+      current = snapshot.get();
+      T model = current.get(key);
+      if (model == null) {
+        throw new IllegalArgumentException(getErrorMessage());
+      }
+      updated = update.apply(model);
+      if (!updated.getKey().equals(key)) {
+        throw new IllegalArgumentException("Updated item must keep its key");
+      }
+      next = current.plus(key, updated);
+    } while (!snapshot.compareAndSet(current, next));
+    return updated;
+  }
+
+  /**
+   * Remove an item from the register.
+   *
+   * @param model the key of the item to be removed
+   * @throws IllegalArgumentException if the item does not exist in the register
+   */
+  protected void removeModel(T model) throws IllegalArgumentException {
+    PersistentMap<String, T> current;
+    PersistentMap<String, T> next;
+    do {
+      current = snapshot.get();
+      if (!current.containsKey(model.getKey())) {
+        throw new IllegalArgumentException(getErrorMessage());
+      }
+      next = current.minus(model.getKey());
+    } while (!snapshot.compareAndSet(current, next));
+  }
+
+  /**
+   * Searches for items in the register by name, and searches for all names that
+   * contains the search-string. The search runs on one snapshot of the register.
+   *
+   * @param search the name of the item to be searched for
+   * @return a list of items with the specified name
+   */
+  protected List<T> searchModels(String search) {
+    String lowerCaseSearch = search.toLowerCase(Locale.ROOT);
+    return snapshot.get().entrySet().stream()
+        .filter(model -> model.getKey().toLowerCase(Locale.ROOT).contains(lowerCaseSearch))
+        .map(Map.Entry::getValue)
+        .toList();
+  }
+}
@@ -0,0 +1,254 @@
+package stud.ntnu.idatt1005.pantrypal.registers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * This is an index of the ingredients of recipes, for finding the recipes that can be made with
+ * the groceries in the pantry.
+ * Every grocery name is given a dense id, and the ingredients of a recipe and the groceries in
+ * the pantry are stored as bit sets of grocery ids. The ingredients a recipe is missing are then
+ * found with a few bitwise operations per 64 groceries. Large indexes are ranked in parallel.
+ * Grocery names are case-insensitive.
+ * Goal: recommend recipes based on the groceries in the pantry.
+ */
+public class CoverageIndex {
+
+  /**
+   * The number of recipes from which the recipes are ranked in parallel.
+   */
+  public static final int PARALLEL_THRESHOLD = 4096;
+
+  /**
+   * How many of the ingredients of a recipe are in the pantry.
+   */
+  public static final class Coverage {
+    private final int recipeId;
+    private final int ingredients;
+    private final int missing;
+
+    private Coverage(int recipeId, int ingredients, int missing) {
+      this.recipeId = recipeId;
+      this.ingredients = ingredients;
+      this.missing = missing;
+    }
+
+    /**
+     * Returns the id of the recipe.
+     *
+     * @return the id of the recipe
+     */
+    public int getRecipeId() {
+      return recipeId;
+    }
+
+    /**
+     * Returns the number of ingredients of the recipe.
+     *
+     * @return the number of ingredients
+     */
+    public int getIngredients() {
+      return ingredients;
+    }
+
+    /**
+     * Returns the number of ingredients of the recipe that are not in the pantry.
+     *
+     * @return the number of missing ingredients
+     */
+    public int getMissing() {
+      return missing;
+    }
+
+    /**
+     * Returns the share of the ingredients of the recipe that are in the pantry.
+     *
+     * @return the coverage, between 0 and 1, or 1 if the recipe has no ingredients
+     */
+    public double getCoverage() {
+      return ingredients == 0 ? 1 : (double) (ingredients - missing) / ingredients;
+    }
+
+    /**
+     * Check if every ingredient of the recipe is in the pantry.
+     *
+     * @return true if the recipe can be made now, false if not
+     */
+    public boolean isCookable() {
+      return missing == 0;
+    }
+  }
+
+  /**
+   * Orders coverages by missing ingredients, then by coverage, best first, then by recipe id.
+   */
+  private static final Comparator<Coverage> ORDER = Comparator
+      .comparingInt(Coverage::getMissing)
+      .thenComparing(Comparator.comparingDouble(Coverage::getCoverage).reversed())
+      .thenComparingInt(Coverage::getRecipeId);
+
+  private final Map<String, Integer> groceryIds = new HashMap<>();
+  private final Map<Integer, Integer> slots = new HashMap<>();
+  private int[] recipeIds = new int[16];
+  private long[][] ingredients = new long[16][];
+  private int[] sizes = new int[16];
+  private int recipeCount;
+  private long[] pantry = new long[0];
+
+  /**
+   * Returns the dense id of a grocery, and gives the grocery a new id if it has none.
+   *
+   * @param grocery the name of the grocery, in any case
+   * @return the id of the grocery
+   */
+  public int intern(String grocery) {
+    return groceryIds.computeIfAbsent(grocery.toLowerCase(Locale.ROOT), key -> groceryIds.size());
+  }
+
+  /**
+   * Returns the number of groceries with an id.
+   *
+   * @return the number of interned groceries
+   */
+  public int getGroceryCount() {
+    return groceryIds.size();
+  }
+
+  private long[] toBitSet(Collection<String> groceries) {
+    long[] bits = new long[0];
+    for (String grocery : groceries) {
+      int id = intern(grocery);
+      if (id >> 6 >= bits.length) {
+        bits = Arrays.copyOf(bits, Math.max((id >> 6) + 1, bits.length * 2));
+      }
+      bits[id >> 6] |= 1L << id;
+    }
+    return bits;
+  }
+
+  /**
+   * Adds a recipe to the index, or replaces the ingredients of the recipe if it is in the index.
+   *
+   * @param recipeId    the id of the recipe
+   * @param groceries   the names of the ingredients of the recipe
+   */
+  public void putRecipe(int recipeId, Collection<String> groceries) {
+    long[] bits = toBitSet(groceries);
+    int size = 0;
+    for (long word : bits) {
+      size += Long.bitCount(word);
+    }
+    Integer slot = slots.get(recipeId);
+    if (slot == null) {
+      if (recipeCount == recipeIds.length) {
+        int capacity = recipeIds.length * 2;
+        recipeIds = Arrays.copyOf(recipeIds, capacity);
+        ingredients = Arrays.copyOf(ingredients, capacity);
+        sizes = Arrays.copyOf(sizes, capacity);
+      }
+      slot = recipeCount++;
+      slots.put(recipeId, slot);
+      recipeIds[slot] = recipeId;
+    }
+    ingredients[slot] = bits;
+    sizes[slot] = size;
+  }
+
+  /**
+   * Removes a recipe from the index.
+   *
+   * @param recipeId the id of the recipe
+   * @return true if the recipe was removed, false if it was not in the index
+   */
+  public boolean removeRecipe(int recipeId) {
+    Integer slot = slots.remove(recipeId);
+    if (slot == null) {
+      return false;
+    }
+    // Move the last recipe into the free slot
+    int last = --recipeCount;
+    if (slot != last) {
+      recipeIds[slot] = recipeIds[last];
+      ingredients[slot] = ingredients[last];
+      sizes[slot] = sizes[last];
+      slots.put(recipeIds[slot], slot);
+    }
+    ingredients[last] = null;
+    return true;
+  }
+
+  /**
+   * Returns the number of recipes in the index.
+   *
+   * @return the number of recipes
+   */
+  public int size() {
+    return recipeCount;
+  }
+
+  /**
+   * Sets the groceries in the pantry.
+   *
+   * @param groceries the names of the groceries in the pantry
+   */
+  public void setPantry(Collection<String> groceries) {
+    pantry = toBitSet(groceries);
+  }
+
+  /**
+   * Counts the ingredients of the recipe in a slot that are not in the pantry.
+   */
+  private int countMissing(int slot) {
+    long[] bits = ingredients[slot];
+    int missing = 0;
+    for (int i = 0; i < bits.length; i++) {
+      long have = i < pantry.length ? pantry[i] : 0;
+      missing += Long.bitCount(bits[i] & ~have);
+    }
+    return missing;
+  }
+
+  /**
+   * Returns the coverage of a recipe by the pantry.
+   *
+   * @param recipeId the id of the recipe
+   * @return the coverage of the recipe, or null if the recipe is not in the index
+   */
+  public Coverage getCoverage(int recipeId) {
+    Integer slot = slots.get(recipeId);
+    if (slot == null) {
+      return null;
+    }
+    return new Coverage(recipeId, sizes[slot], countMissing(slot));
+  }
+
+  /**
+   * Ranks the recipes missing at most the given number of ingredients, by missing ingredients
+   * and coverage. Recipes without ingredients are not ranked.
+   *
+   * @param maxMissing the max number of missing ingredients
+   * @param limit      the max number of recipes returned
+   * @return the coverage of the best recipes, best first
+   */
+  public List<Coverage> rank(int maxMissing, int limit) {
+    IntStream slotStream = IntStream.range(0, recipeCount);
+    if (recipeCount >= PARALLEL_THRESHOLD) {
+      slotStream = slotStream.parallel();
+    }
+    List<Coverage> ranked = slotStream
+        .filter(slot -> sizes[slot] > 0)
+        .mapToObj(slot -> new Coverage(recipeIds[slot], sizes[slot], countMissing(slot)))
+        .filter(coverage -> coverage.getMissing() <= maxMissing)
+        .sorted(ORDER)
+        .limit(limit)
+        .toList();
+    return new ArrayList<>(ranked);
+  }
+}
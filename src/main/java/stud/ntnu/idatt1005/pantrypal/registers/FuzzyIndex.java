@@ -0,0 +1,228 @@
+package stud.ntnu.idatt1005.pantrypal.registers;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This is an index of values by the words of their names, for typo tolerant searches.
+ * The words are stored in a BK-tree, where every child of a word is placed under the edit
+ * distance between the child and the word. A search for words within a distance of a query word
+ * only has to visit the children with an edge within that distance of the distance to the query
+ * word, so most words are never compared against the query.
+ * Goal: find values by name when the name is misspelled.
+ *
+ * @param <T> the type of values in the index
+ */
+public class FuzzyIndex<T> {
+
+  /**
+   * A word in the BK-tree, with the values that have the word in their name. A word without
+   * values is kept, since it places its children in the tree.
+   */
+  private static class Node<T> {
+    private final String word;
+    private final Set<T> values = new LinkedHashSet<>();
+    private final Map<Integer, Node<T>> children = new HashMap<>();
+
+    private Node(String word) {
+      this.word = word;
+    }
+  }
+
+  private Node<T> root;
+
+  /**
+   * Splits a name into lower case words.
+   *
+   * @param name the name to split
+   * @return the words of the name
+   */
+  static List<String> words(String name) {
+    List<String> words = new ArrayList<>();
+    for (String word : name.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+      if (!word.isEmpty()) {
+        words.add(word);
+      }
+    }
+    return words;
+  }
+
+  /**
+   * Returns the max edit distance for a query word to match a word. Short words must match
+   * exactly, since a single edit changes most of them.
+   *
+   * @param length the length of the query word
+   * @return the max edit distance
+   */
+  public static int maxDistance(int length) {
+    if (length <= 3) {
+      return 0;
+    }
+    return length <= 6 ? 1 : 2;
+  }
+
+  /**
+   * Computes the Levenshtein distance between two words, that is the number of insertions,
+   * deletions and substitutions of characters needed to turn one word into the other.
+   *
+   * @param a the first word
+   * @param b the second word
+   * @return the edit distance between the words
+   */
+  public static int distance(String a, String b) {
+    int[] previous = new int[b.length() + 1];
+    int[] current = new int[b.length() + 1];
+    for (int j = 0; j <= b.length(); j++) {
+      previous[j] = j;
+    }
+    for (int i = 1; i <= a.length(); i++) {
+      current[0] = i;
+      for (int j = 1; j <= b.length(); j++) {
+        int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+        current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+      }
+      int[] swap = previous;
+      previous = current;
+      current = swap;
+    }
+    return previous[b.length()];
+  }
+
+  /**
+   * Adds a value to the index, under every word of its name.
+   *
+   * @param name  the name of the value
+   * @param value the value to add
+   */
+  public void add(String name, T value) {
+    for (String word : words(name)) {
+      find(word, true).values.add(value);
+    }
+  }
+
+  /**
+   * Removes a value from the index, from every word of its name.
+   *
+   * @param name  the name the value was added with
+   * @param value the value to remove
+   */
+  public void remove(String name, T value) {
+    for (String word : words(name)) {
+      Node<T> node = find(word, false);
+      if (node != null) {
+        node.values.remove(value);
+      }
+    }
+  }
+
+  /**
+   * Removes every value from the index.
+   */
+  public void clear() {
+    root = null;
+  }
+
+  /**
+   * Finds the node of a word in the BK-tree.
+   *
+   * @param word   the word to find
+   * @param create true to insert a node for the word if it does not exist
+   * @return the node of the word, or null if it does not exist and is not created
+   */
+  private Node<T> find(String word, boolean create) {
+    if (root == null) {
+      if (create) {
+        root = new Node<>(word);
+      }
+      return root;
+    }
+    Node<T> node = root;
+    while (true) {
+      int d = distance(word, node.word);
+      if (d == 0) {
+        return node;
+      }
+      Node<T> child = node.children.get(d);
+      if (child == null) {
+        if (!create) {
+          return null;
+        }
+        child = new Node<>(word);
+        node.children.put(d, child);
+        return child;
+      }
+      node = child;
+    }
+  }
+
+  /**
+   * Finds the values with a word within the max distance of a query word.
+   *
+   * @param word        the query word
+   * @param maxDistance the max edit distance
+   * @return the values found, with the smallest distance of their words to the query word
+   */
+  private Map<T, Integer> searchWord(String word, int maxDistance) {
+    Map<T, Integer> found = new LinkedHashMap<>();
+    if (root == null) {
+      return found;
+    }
+    Deque<Node<T>> stack = new ArrayDeque<>();
+    stack.push(root);
+    while (!stack.isEmpty()) {
+      Node<T> node = stack.pop();
+      int d = distance(word, node.word);
+      if (d <= maxDistance) {
+        for (T value : node.values) {
+          found.merge(value, d, Math::min);
+        }
+      }
+      for (Map.Entry<Integer, Node<T>> child : node.children.entrySet()) {
+        if (Math.abs(child.getKey() - d) <= maxDistance) {
+          stack.push(child.getValue());
+        }
+      }
+    }
+    return found;
+  }
+
+  /**
+   * Searches for values with a name matching the query. Every word of the query must be within
+   * the max distance of a word in the name of a value, see {@link #maxDistance(int)}. The values
+   * are scored by the sum of the distances of the query words, and ordered by score.
+   *
+   * @param query the query to search for
+   * @return the values matching the query, best match first
+   */
+  public List<T> search(String query) {
+    Map<T, Integer> scores = null;
+    for (String word : words(query)) {
+      Map<T, Integer> found = searchWord(word, maxDistance(word.length()));
+      if (scores == null) {
+        scores = found;
+      } else {
+        scores.keySet().retainAll(found.keySet());
+        scores.replaceAll((value, score) -> score + found.get(value));
+      }
+      if (scores.isEmpty()) {
+        break;
+      }
+    }
+    if (scores == null) {
+      return new ArrayList<>();
+    }
+    List<Map.Entry<T, Integer>> entries = new ArrayList<>(scores.entrySet());
+    entries.sort(Map.Entry.comparingByValue());
+    List<T> result = new ArrayList<>(entries.size());
+    entries.forEach(entry -> result.add(entry.getKey()));
+    return result;
+  }
+}
@@ -56,6 +56,22 @@ public class GroceryRegister extends Register<Grocery> {
     super.addModel(grocery);
   }
 
+  /**
+   * Set the quantity of a grocery in the register, and notify the listeners of the register.
+   *
+   * @param name     the name of the grocery
+   * @param quantity the new quantity of the grocery
+   * @throws IllegalArgumentException if the grocery does not exist in the register
+   */
+  public void setQuantity(String name, int quantity) throws IllegalArgumentException {
+    Grocery grocery = super.getModel(name);
+    int oldQuantity = grocery.getQuantity();
+    grocery.setQuantity(quantity);
+    if (oldQuantity != quantity) {
+      notifyListeners(RegisterChange.quantityChanged(grocery, oldQuantity));
+    }
+  }
+
   /**
    * Remove a grocery from the register.
    *
@@ -0,0 +1,453 @@
+package stud.ntnu.idatt1005.pantrypal.registers;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * This is an immutable map that keeps its keys in insertion order. Adding or removing a key
+ * returns a new map that shares most of its structure with the old map, so keeping old versions
+ * of the map is cheap.
+ * The keys are stored in a hash array mapped trie, where every node branches on 5 bits of the
+ * hash of the key. The insertion order is kept in a second trie, indexed by the position every
+ * key was added at. Removed keys leave an empty position, and the positions are compacted when
+ * more than half of them are empty. Getting, adding and removing a key take O(log n) time, with a
+ * base of 32, and iterating the map takes O(n) time.
+ * Goal: let registers hand out stable snapshots in O(1) time.
+ *
+ * @param <K> the type of keys in the map
+ * @param <V> the type of values in the map
+ */
+public final class PersistentMap<K, V> extends AbstractMap<K, V> {
+
+  private static final int BITS = 5;
+  private static final int WIDTH = 1 << BITS;
+  private static final int MASK = WIDTH - 1;
+
+  private static final PersistentMap<?, ?> EMPTY = new PersistentMap<>(null, null, 0, 0, 0);
+
+  /**
+   * A key with its value, its hash and its position in the insertion order.
+   */
+  private static final class Leaf<K, V> implements Map.Entry<K, V> {
+    private final int hash;
+    private final K key;
+    private final V value;
+    private final int position;
+
+    private Leaf(int hash, K key, V value, int position) {
+      this.hash = hash;
+      this.key = key;
+      this.value = value;
+      this.position = position;
+    }
+
+    @Override
+    public K getKey() {
+      return key;
+    }
+
+    @Override
+    public V getValue() {
+      return value;
+    }
+
+    @Override
+    public V setValue(V value) {
+      throw new UnsupportedOperationException("Map is immutable");
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof Map.Entry<?, ?> entry
+          && key.equals(entry.getKey()) && Objects.equals(value, entry.getValue());
+    }
+
+    @Override
+    public int hashCode() {
+      return key.hashCode() ^ Objects.hashCode(value);
+    }
+
+    @Override
+    public String toString() {
+      return key + "=" + value;
+    }
+  }
+
+  /**
+   * A node of the hash trie. The bitmap marks which of the 32 branches are used, and the slots
+   * hold the used branches in order. A slot is a leaf, a node, or a collision.
+   */
+  private static final class Node {
+    private final int bitmap;
+    private final Object[] slots;
+
+    private Node(int bitmap, Object[] slots) {
+      this.bitmap = bitmap;
+      this.slots = slots;
+    }
+  }
+
+  /**
+   * The leaves of keys with the same hash.
+   */
+  private static final class Collision {
+    private final int hash;
+    private final Leaf<?, ?>[] leaves;
+
+    private Collision(int hash, Leaf<?, ?>[] leaves) {
+      this.hash = hash;
+      this.leaves = leaves;
+    }
+  }
+
+  private final Node root;
+  private final Object[] order;
+  private final int orderShift;
+  private final int positions;
+  private final int size;
+
+  private PersistentMap(Node root, Object[] order, int orderShift, int positions, int size) {
+    this.root = root;
+    this.order = order;
+    this.orderShift = orderShift;
+    this.positions = positions;
+    this.size = size;
+  }
+
+  /**
+   * Returns the empty map.
+   *
+   * @param <K> the type of keys in the map
+   * @param <V> the type of values in the map
+   * @return the empty map
+   */
+  @SuppressWarnings("unchecked")
+  public static <K, V> PersistentMap<K, V> empty() {
+    return (PersistentMap<K, V>) EMPTY;
+  }
+
+  /**
+   * Returns a map with the keys and values of another map, in its iteration order.
+   *
+   * @param map the map to copy
+   * @param <K> the type of keys in the map
+   * @param <V> the type of values in the map
+   * @return the persistent map
+   */
+  public static <K, V> PersistentMap<K, V> copyOf(Map<? extends K, ? extends V> map) {
+    if (map instanceof PersistentMap<? extends K, ? extends V> persistentMap) {
+      @SuppressWarnings("unchecked")
+      PersistentMap<K, V> result = (PersistentMap<K, V>) persistentMap;
+      return result;
+    }
+    PersistentMap<K, V> result = empty();
+    for (Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
+      result = result.plus(entry.getKey(), entry.getValue());
+    }
+    return result;
+  }
+
+  private static int hash(Object key) {
+    int h = key.hashCode();
+    return h ^ (h >>> 16);
+  }
+
+  private static int chunk(int hash, int shift) {
+    return (hash >>> shift) & MASK;
+  }
+
+  private static int index(int bitmap, int bit) {
+    return Integer.bitCount(bitmap & (bit - 1));
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public V get(Object key) {
+    Leaf<K, V> leaf = find(key);
+    return leaf == null ? null : leaf.value;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return find(key) != null;
+  }
+
+  @SuppressWarnings("unchecked")
+  private Leaf<K, V> find(Object key) {
+    if (key == null || root == null) {
+      return null;
+    }
+    int hash = hash(key);
+    Node node = root;
+    for (int shift = 0; ; shift += BITS) {
+      int bit = 1 << chunk(hash, shift);
+      if ((node.bitmap & bit) == 0) {
+        return null;
+      }
+      Object slot = node.slots[index(node.bitmap, bit)];
+      if (slot instanceof Leaf<?, ?> leaf) {
+        return leaf.hash == hash && leaf.key.equals(key) ? (Leaf<K, V>) leaf : null;
+      }
+      if (slot instanceof Collision collision) {
+        for (Leaf<?, ?> leaf : collision.leaves) {
+          if (leaf.key.equals(key)) {
+            return (Leaf<K, V>) leaf;
+          }
+        }
+        return null;
+      }
+      node = (Node) slot;
+    }
+  }
+
+  /**
+   * Returns a map with a key set to a value. A key that is in the map keeps its position in the
+   * insertion order, and a new key is added last.
+   *
+   * @param key   the key, not null
+   * @param value the value of the key
+   * @return the map with the key set to the value
+   */
+  public PersistentMap<K, V> plus(K key, V value) {
+    Objects.requireNonNull(key, "Key cannot be null");
+    Leaf<K, V> existing = find(key);
+    if (existing != null) {
+      if (existing.value == value) {
+        return this;
+      }
+      Leaf<K, V> leaf = new Leaf<>(existing.hash, key, value, existing.position);
+      return new PersistentMap<>(put(root, leaf, 0), setOrder(order, orderShift, leaf.position,
+          leaf), orderShift, positions, size);
+    }
+    Leaf<K, V> leaf = new Leaf<>(hash(key), key, value, positions);
+    Object[] newOrder = order;
+    int newShift = orderShift;
+    if (positions == 1 << (orderShift + BITS)) {
+      // The order trie is full, so it gets a new root level
+      newOrder = new Object[WIDTH];
+      newOrder[0] = order;
+      newShift += BITS;
+    }
+    newOrder = setOrder(newOrder, newShift, positions, leaf);
+    Node newRoot = root == null ? new Node(0, new Object[0]) : root;
+    return new PersistentMap<>(put(newRoot, leaf, 0), newOrder, newShift, positions + 1,
+        size + 1);
+  }
+
+  /**
+   * Returns a map without a key.
+   *
+   * @param key the key to remove
+   * @return the map without the key, or this map if the key is not in it
+   */
+  public PersistentMap<K, V> minus(Object key) {
+    Leaf<K, V> existing = find(key);
+    if (existing == null) {
+      return this;
+    }
+    if (size == 1) {
+      return empty();
+    }
+    PersistentMap<K, V> result = new PersistentMap<>(remove(root, existing.hash, key, 0),
+        setOrder(order, orderShift, existing.position, null), orderShift, positions, size - 1);
+    if (positions > WIDTH && result.size < positions / 2) {
+      return copyOf(new LinkedEntries<>(result));
+    }
+    return result;
+  }
+
+  private static Node put(Node node, Leaf<?, ?> leaf, int shift) {
+    int bit = 1 << chunk(leaf.hash, shift);
+    int index = index(node.bitmap, bit);
+    if ((node.bitmap & bit) == 0) {
+      Object[] slots = new Object[node.slots.length + 1];
+      System.arraycopy(node.slots, 0, slots, 0, index);
+      slots[index] = leaf;
+      System.arraycopy(node.slots, index, slots, index + 1, node.slots.length - index);
+      return new Node(node.bitmap | bit, slots);
+    }
+    Object slot = node.slots[index];
+    Object newSlot;
+    if (slot instanceof Node child) {
+      newSlot = put(child, leaf, shift + BITS);
+    } else if (slot instanceof Leaf<?, ?> old) {
+      if (old.key.equals(leaf.key)) {
+        newSlot = leaf;
+      } else if (old.hash == leaf.hash) {
+        newSlot = new Collision(leaf.hash, new Leaf<?, ?>[] {old, leaf});
+      } else {
+        newSlot = merge(old, old.hash, leaf, shift + BITS);
+      }
+    } else {
+      Collision collision = (Collision) slot;
+      if (collision.hash == leaf.hash) {
+        newSlot = putCollision(collision, leaf);
+      } else {
+        newSlot = merge(collision, collision.hash, leaf, shift + BITS);
+      }
+    }
+    Object[] slots = node.slots.clone();
+    slots[index] = newSlot;
+    return new Node(node.bitmap, slots);
+  }
+
+  private static Collision putCollision(Collision collision, Leaf<?, ?> leaf) {
+    for (int i = 0; i < collision.leaves.length; i++) {
+      if (collision.leaves[i].key.equals(leaf.key)) {
+        Leaf<?, ?>[] leaves = collision.leaves.clone();
+        leaves[i] = leaf;
+        return new Collision(collision.hash, leaves);
+      }
+    }
+    Leaf<?, ?>[] leaves = new Leaf<?, ?>[collision.leaves.length + 1];
+    System.arraycopy(collision.leaves, 0, leaves, 0, collision.leaves.length);
+    leaves[collision.leaves.length] = leaf;
+    return new Collision(collision.hash, leaves);
+  }
+
+  /**
+   * Creates the nodes holding a slot and a leaf with different hashes, from the given level.
+   * The hashes differ in at least one chunk, so this ends at the last level at the latest.
+   */
+  private static Node merge(Object slot, int slotHash, Leaf<?, ?> leaf, int shift) {
+    int slotChunk = chunk(slotHash, shift);
+    int leafChunk = chunk(leaf.hash, shift);
+    if (slotChunk == leafChunk) {
+      return new Node(1 << slotChunk, new Object[] {merge(slot, slotHash, leaf, shift + BITS)});
+    }
+    Object[] slots = slotChunk < leafChunk ? new Object[] {slot, leaf} : new Object[] {leaf, slot};
+    return new Node((1 << slotChunk) | (1 << leafChunk), slots);
+  }
+
+  /**
+   * Removes a key that is in the trie below a node.
+   *
+   * @return the node without the key, or null if the node is empty
+   */
+  private static Node remove(Node node, int hash, Object key, int shift) {
+    int bit = 1 << chunk(hash, shift);
+    int index = index(node.bitmap, bit);
+    Object slot = node.slots[index];
+    Object newSlot;
+    if (slot instanceof Leaf<?, ?>) {
+      newSlot = null;
+    } else if (slot instanceof Collision collision) {
+      Leaf<?, ?>[] leaves = new Leaf<?, ?>[collision.leaves.length - 1];
+      int i = 0;
+      for (Leaf<?, ?> leaf : collision.leaves) {
+        if (!leaf.key.equals(key)) {
+          leaves[i++] = leaf;
+        }
+      }
+      newSlot = leaves.length == 1 ? leaves[0] : new Collision(collision.hash, leaves);
+    } else {
+      Node child = remove((Node) slot, hash, key, shift + BITS);
+      if (child != null && child.slots.length == 1 && !(child.slots[0] instanceof Node)) {
+        // A node with a single leaf or collision is replaced by it
+        newSlot = child.slots[0];
+      } else {
+        newSlot = child;
+      }
+    }
+    if (newSlot == null) {
+      if (node.slots.length == 1) {
+        return null;
+      }
+      Object[] slots = new Object[node.slots.length - 1];
+      System.arraycopy(node.slots, 0, slots, 0, index);
+      System.arraycopy(node.slots, index + 1, slots, index, node.slots.length - index - 1);
+      return new Node(node.bitmap & ~bit, slots);
+    }
+    Object[] slots = node.slots.clone();
+    slots[index] = newSlot;
+    return new Node(node.bitmap, slots);
+  }
+
+  /**
+   * Sets the leaf at a position of the order trie, and copies the path to it.
+   */
+  private static Object[] setOrder(Object[] node, int shift, int position, Object leaf) {
+    Object[] copy = node == null ? new Object[WIDTH] : node.clone();
+    if (shift == 0) {
+      copy[position & MASK] = leaf;
+    } else {
+      int index = (position >>> shift) & MASK;
+      copy[index] = setOrder((Object[]) copy[index], shift - BITS, position, leaf);
+    }
+    return copy;
+  }
+
+  @SuppressWarnings("unchecked")
+  private Leaf<K, V> getOrder(int position) {
+    Object[] node = order;
+    for (int shift = orderShift; shift > 0 && node != null; shift -= BITS) {
+      node = (Object[]) node[(position >>> shift) & MASK];
+    }
+    return node == null ? null : (Leaf<K, V>) node[position & MASK];
+  }
+
+  @Override
+  public Set<Map.Entry<K, V>> entrySet() {
+    return new LinkedEntries<>(this).entrySet();
+  }
+
+  /**
+   * A view of the entries of a map in insertion order, skipping the empty positions.
+   */
+  private static final class LinkedEntries<K, V> extends AbstractMap<K, V> {
+    private final PersistentMap<K, V> map;
+
+    private LinkedEntries(PersistentMap<K, V> map) {
+      this.map = map;
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+      return new AbstractSet<>() {
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+          return new Iterator<>() {
+            private int position = advance(0);
+
+            private int advance(int from) {
+              int next = from;
+              while (next < map.positions && map.getOrder(next) == null) {
+                next++;
+              }
+              return next;
+            }
+
+            @Override
+            public boolean hasNext() {
+              return position < map.positions;
+            }
+
+            @Override
+            public Map.Entry<K, V> next() {
+              if (!hasNext()) {
+                throw new NoSuchElementException();
+              }
+              Leaf<K, V> leaf = map.getOrder(position);
+              position = advance(position + 1);
+              return leaf;
+            }
+          };
+        }
+
+        @Override
+        public int size() {
+          return map.size;
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,241 @@
+package stud.ntnu.idatt1005.pantrypal.registers;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * This is an index of values by the prefixes of their keys, ranked by weight.
+ * The keys are stored in a trie, and every node of the trie keeps the values with the largest
+ * weights below it. Looking up the best values for a prefix only walks down the characters of the
+ * prefix, so the time of a lookup does not depend on the number of keys.
+ * Keys are case-insensitive.
+ * Goal: suggest values while the user is typing.
+ *
+ * @param <T> the type of values in the index
+ */
+public class PrefixIndex<T> {
+
+  /**
+   * The max number of values kept for every prefix.
+   */
+  public static final int MAX_RESULTS = 8;
+
+  /**
+   * A value in the index, with its key and weight.
+   */
+  private static class Entry<T> {
+    private final String key;
+    private T value;
+    private long weight;
+
+    private Entry(String key, T value, long weight) {
+      this.key = key;
+      this.value = value;
+      this.weight = weight;
+    }
+  }
+
+  /**
+   * A node of the trie, with the entry of the key ending at the node, and the entries with the
+   * largest weights below the node.
+   */
+  private static class Node<T> {
+    private final Map<Character, Node<T>> children = new HashMap<>(4);
+    private final List<Entry<T>> top = new ArrayList<>(2);
+    private Entry<T> entry;
+  }
+
+  /**
+   * Orders entries by weight, largest first, and by key when the weights are equal.
+   */
+  private final Comparator<Entry<T>> order = Comparator
+      .comparingLong((Entry<T> entry) -> entry.weight).reversed()
+      .thenComparing(entry -> entry.key);
+
+  private final Node<T> root = new Node<>();
+  private int size;
+
+  private static String normalize(String key) {
+    return key.toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Returns the nodes from the root to the node of a key.
+   *
+   * @param key    the normalized key
+   * @param create true to create the missing nodes of the key
+   * @return the nodes of the key, or null if the key has no node and it is not created
+   */
+  private List<Node<T>> path(String key, boolean create) {
+    List<Node<T>> path = new ArrayList<>(key.length() + 1);
+    Node<T> node = root;
+    path.add(node);
+    for (int i = 0; i < key.length(); i++) {
+      Node<T> child = node.children.get(key.charAt(i));
+      if (child == null) {
+        if (!create) {
+          return null;
+        }
+        child = new Node<>();
+        node.children.put(key.charAt(i), child);
+      }
+      node = child;
+      path.add(node);
+    }
+    return path;
+  }
+
+  /**
+   * Adds a value to the index, or replaces the value and weight of the key if it exists.
+   *
+   * @param key    the key of the value
+   * @param value  the value to add
+   * @param weight the weight of the value, values with larger weights are ranked first
+   */
+  public void put(String key, T value, long weight) {
+    List<Node<T>> path = path(normalize(key), true);
+    Node<T> last = path.get(path.size() - 1);
+    Entry<T> entry = last.entry;
+    boolean decreased = false;
+    if (entry == null) {
+      entry = new Entry<>(normalize(key), value, weight);
+      last.entry = entry;
+      size++;
+    } else {
+      decreased = weight < entry.weight;
+      entry.value = value;
+      entry.weight = weight;
+    }
+    for (Node<T> node : path) {
+      if (decreased && node.top.contains(entry)) {
+        // A value below the node that was not kept may now outrank the entry
+        rebuildTop(node);
+      } else {
+        node.top.remove(entry);
+        insertTop(node, entry);
+      }
+    }
+  }
+
+  /**
+   * Adds to the weight of a key. Does nothing if the key does not exist.
+   *
+   * @param key    the key of the value
+   * @param amount the amount to add to the weight, not negative
+   * @return true if the key exists, false if not
+   */
+  public boolean addWeight(String key, long amount) {
+    if (amount < 0) {
+      throw new IllegalArgumentException("Amount cannot be negative");
+    }
+    List<Node<T>> path = path(normalize(key), false);
+    if (path == null || path.get(path.size() - 1).entry == null) {
+      return false;
+    }
+    Entry<T> entry = path.get(path.size() - 1).entry;
+    put(key, entry.value, entry.weight + amount);
+    return true;
+  }
+
+  /**
+   * Removes a key and its value from the index.
+   *
+   * @param key the key to remove
+   * @return true if the key was removed, false if it did not exist
+   */
+  public boolean remove(String key) {
+    List<Node<T>> path = path(normalize(key), false);
+    if (path == null || path.get(path.size() - 1).entry == null) {
+      return false;
+    }
+    Entry<T> entry = path.get(path.size() - 1).entry;
+    path.get(path.size() - 1).entry = null;
+    size--;
+    for (Node<T> node : path) {
+      if (node.top.remove(entry)) {
+        rebuildTop(node);
+      }
+    }
+    return true;
+  }
+
+  private void insertTop(Node<T> node, Entry<T> entry) {
+    int index = 0;
+    while (index < node.top.size() && order.compare(node.top.get(index), entry) < 0) {
+      index++;
+    }
+    if (index < MAX_RESULTS) {
+      node.top.add(index, entry);
+      if (node.top.size() > MAX_RESULTS) {
+        node.top.remove(MAX_RESULTS);
+      }
+    }
+  }
+
+  /**
+   * Finds the best entries below a node again, by visiting every node below it.
+   */
+  private void rebuildTop(Node<T> node) {
+    node.top.clear();
+    Deque<Node<T>> stack = new ArrayDeque<>();
+    stack.push(node);
+    while (!stack.isEmpty()) {
+      Node<T> current = stack.pop();
+      if (current.entry != null) {
+        insertTop(node, current.entry);
+      }
+      current.children.values().forEach(stack::push);
+    }
+  }
+
+  /**
+   * Returns the values with keys starting with the prefix, largest weight first.
+   *
+   * @param prefix the prefix of the keys, in any case
+   * @param limit  the max number of values, at most {@link #MAX_RESULTS}
+   * @return the best values for the prefix
+   */
+  public List<T> search(String prefix, int limit) {
+    List<Node<T>> path = path(normalize(prefix), false);
+    List<T> result = new ArrayList<>();
+    if (path == null) {
+      return result;
+    }
+    for (Entry<T> entry : path.get(path.size() - 1).top) {
+      if (result.size() >= limit) {
+        break;
+      }
+      result.add(entry.value);
+    }
+    return result;
+  }
+
+  /**
+   * Returns the value of a key.
+   *
+   * @param key the key, in any case
+   * @return the value of the key, or null if the key does not exist
+   */
+  public T get(String key) {
+    List<Node<T>> path = path(normalize(key), false);
+    if (path == null || path.get(path.size() - 1).entry == null) {
+      return null;
+    }
+    return path.get(path.size() - 1).entry.value;
+  }
+
+  /**
+   * Returns the number of keys in the index.
+   *
+   * @return the number of keys
+   */
+  public int size() {
+    return size;
+  }
+}
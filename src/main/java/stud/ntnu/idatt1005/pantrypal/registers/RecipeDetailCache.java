@@ -0,0 +1,182 @@
+package stud.ntnu.idatt1005.pantrypal.registers;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import stud.ntnu.idatt1005.pantrypal.models.Grocery;
+import stud.ntnu.idatt1005.pantrypal.models.Recipe;
+
+/**
+ * This is a cache keeping track of the recipes that have their details loaded.
+ * Every recipe in the cache has an estimated weight, based on the size of its description,
+ * groceries and steps. When the total weight is larger than the max weight, the details of the
+ * least recently used recipes are cleared, until the total weight is within the max weight.
+ * Goal: bound the memory used by recipe details, independent of the number of recipes.
+ */
+public class RecipeDetailCache {
+
+  /**
+   * The default max weight of the cache, in estimated bytes.
+   */
+  public static final long DEFAULT_MAX_WEIGHT = 512L * 1024;
+
+  private static final long RECIPE_OVERHEAD = 128;
+  private static final long GROCERY_OVERHEAD = 96;
+  private static final long STEP_OVERHEAD = 32;
+
+  /**
+   * The recipes in the cache and their weight, indexed by id, in least recently used order.
+   */
+  private final LinkedHashMap<Integer, Long> weights = new LinkedHashMap<>(16, 0.75f, true);
+  private final Map<Integer, Recipe> recipes = new LinkedHashMap<>();
+  private final long maxWeight;
+  private long weight;
+
+  /**
+   * Constructor for the RecipeDetailCache class, with the default max weight.
+   */
+  public RecipeDetailCache() {
+    this(DEFAULT_MAX_WEIGHT);
+  }
+
+  /**
+   * Constructor for the RecipeDetailCache class.
+   *
+   * @param maxWeight the max total weight of the recipes in the cache, in estimated bytes.
+   * @throws IllegalArgumentException if the max weight is not positive.
+   */
+  public RecipeDetailCache(long maxWeight) {
+    if (maxWeight <= 0) {
+      throw new IllegalArgumentException("Max weight must be positive");
+    }
+    this.maxWeight = maxWeight;
+  }
+
+  /**
+   * Estimates the memory used by the details of a recipe, in bytes.
+   *
+   * @param recipe the recipe with details to estimate the weight of.
+   * @return the estimated weight of the details of the recipe.
+   */
+  public static long estimateWeight(Recipe recipe) {
+    long estimate = RECIPE_OVERHEAD;
+    if (recipe.getDescription() != null) {
+      estimate += 2L * recipe.getDescription().length();
+    }
+    for (Grocery grocery : recipe.getRecipeGroceries().getRegister().values()) {
+      estimate += GROCERY_OVERHEAD + 2L * grocery.getName().length();
+    }
+    for (String step : recipe.getRecipeSteps()) {
+      estimate += STEP_OVERHEAD + 2L * step.length();
+    }
+    return estimate;
+  }
+
+  /**
+   * Adds a recipe with details to the cache, or marks it as the most recently used recipe if it
+   * is already in the cache. The details of the least recently used recipes are cleared if the
+   * total weight is larger than the max weight. The added recipe is never cleared.
+   *
+   * @param recipe the recipe to be added to the cache.
+   * @throws IllegalArgumentException if the recipe has no id or no details.
+   */
+  public void put(Recipe recipe) {
+    if (!recipe.hasId() || !recipe.hasDetails()) {
+      throw new IllegalArgumentException("Only recipes with id and details can be cached");
+    }
+    remove(recipe.getId());
+    long recipeWeight = estimateWeight(recipe);
+    weights.put(recipe.getId(), recipeWeight);
+    recipes.put(recipe.getId(), recipe);
+    weight += recipeWeight;
+    evict(recipe.getId());
+  }
+
+  /**
+   * Marks a recipe in the cache as the most recently used recipe.
+   *
+   * @param recipe the recipe that was used.
+   * @return true if the recipe is in the cache, false if not.
+   */
+  public boolean touch(Recipe recipe) {
+    if (!contains(recipe)) {
+      return false;
+    }
+    // Getting an entry moves it to the end of the access ordered map
+    weights.get(recipe.getId());
+    return true;
+  }
+
+  /**
+   * Removes a recipe from the cache, without clearing its details.
+   *
+   * @param recipe the recipe to be removed from the cache.
+   */
+  public void remove(Recipe recipe) {
+    if (recipes.get(recipe.getId()) == recipe) {
+      remove(recipe.getId());
+    }
+  }
+
+  private void remove(int id) {
+    Long recipeWeight = weights.remove(id);
+    if (recipeWeight != null) {
+      weight -= recipeWeight;
+      recipes.remove(id);
+    }
+  }
+
+  /**
+   * Clears the details of the least recently used recipes, until the total weight is within the
+   * max weight or only the given recipe is left.
+   */
+  private void evict(int keepId) {
+    Iterator<Map.Entry<Integer, Long>> iterator = weights.entrySet().iterator();
+    while (weight > maxWeight && iterator.hasNext()) {
+      Map.Entry<Integer, Long> eldest = iterator.next();
+      if (eldest.getKey() == keepId) {
+        continue;
+      }
+      iterator.remove();
+      weight -= eldest.getValue();
+      recipes.remove(eldest.getKey()).clearDetails();
+    }
+  }
+
+  /**
+   * Check if a recipe is in the cache.
+   *
+   * @param recipe the recipe to be checked.
+   * @return true if the recipe is in the cache, false if not.
+   */
+  public boolean contains(Recipe recipe) {
+    return recipes.get(recipe.getId()) == recipe;
+  }
+
+  /**
+   * Returns the number of recipes in the cache.
+   *
+   * @return the number of recipes in the cache.
+   */
+  public int size() {
+    return recipes.size();
+  }
+
+  /**
+   * Returns the total weight of the recipes in the cache.
+   *
+   * @return the total weight, in estimated bytes.
+   */
+  public long getWeight() {
+    return weight;
+  }
+
+  /**
+   * Returns the max total weight of the recipes in the cache.
+   *
+   * @return the max weight, in estimated bytes.
+   */
+  public long getMaxWeight() {
+    return maxWeight;
+  }
+}
@@ -0,0 +1,133 @@
+package stud.ntnu.idatt1005.pantrypal.registers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import stud.ntnu.idatt1005.pantrypal.models.Grocery;
+
+/**
+ * This is the difference between the stored and the edited groceries and steps of a recipe.
+ * Groceries are compared by name, and a grocery is changed if its quantity is changed. Steps are
+ * compared by position, since the steps of a recipe are stored in order. A step is changed if its
+ * description at a position is changed, added if the edited recipe has more steps, and removed if
+ * it has fewer steps.
+ * Goal: update only the rows of a recipe that are changed when the recipe is edited.
+ */
+public class RecipeDiff {
+
+  private final List<Grocery> addedGroceries = new ArrayList<>();
+  private final List<Grocery> changedGroceries = new ArrayList<>();
+  private final List<String> removedGroceries = new ArrayList<>();
+  private final Map<Integer, String> changedSteps = new LinkedHashMap<>();
+  private final List<String> addedSteps = new ArrayList<>();
+  private int removedSteps;
+
+  private RecipeDiff() {
+  }
+
+  /**
+   * Computes the difference between the stored and the edited groceries and steps of a recipe.
+   *
+   * @param storedGroceries the stored groceries of the recipe
+   * @param storedSteps     the stored steps of the recipe, in order
+   * @param editedGroceries the edited groceries of the recipe
+   * @param editedSteps     the edited steps of the recipe, in order
+   * @return the difference between the stored and the edited recipe
+   */
+  public static RecipeDiff between(GroceryRegister storedGroceries, List<String> storedSteps,
+      GroceryRegister editedGroceries, List<String> editedSteps) {
+    RecipeDiff diff = new RecipeDiff();
+    Map<String, Grocery> stored = storedGroceries.getRegister();
+    Map<String, Grocery> edited = editedGroceries.getRegister();
+    for (Grocery grocery : edited.values()) {
+      Grocery storedGrocery = stored.get(grocery.getKey());
+      if (storedGrocery == null) {
+        diff.addedGroceries.add(grocery);
+      } else if (storedGrocery.getQuantity() != grocery.getQuantity()) {
+        diff.changedGroceries.add(grocery);
+      }
+    }
+    for (String name : stored.keySet()) {
+      if (!edited.containsKey(name)) {
+        diff.removedGroceries.add(name);
+      }
+    }
+
+    int common = Math.min(storedSteps.size(), editedSteps.size());
+    for (int i = 0; i < common; i++) {
+      if (!Objects.equals(storedSteps.get(i), editedSteps.get(i))) {
+        diff.changedSteps.put(i, editedSteps.get(i));
+      }
+    }
+    diff.addedSteps.addAll(editedSteps.subList(common, editedSteps.size()));
+    diff.removedSteps = storedSteps.size() - common;
+    return diff;
+  }
+
+  /**
+   * Returns the groceries of the edited recipe that are not stored.
+   *
+   * @return the added groceries
+   */
+  public List<Grocery> getAddedGroceries() {
+    return Collections.unmodifiableList(addedGroceries);
+  }
+
+  /**
+   * Returns the groceries of the edited recipe with a changed quantity.
+   *
+   * @return the changed groceries, with the edited quantity
+   */
+  public List<Grocery> getChangedGroceries() {
+    return Collections.unmodifiableList(changedGroceries);
+  }
+
+  /**
+   * Returns the names of the stored groceries that are not in the edited recipe.
+   *
+   * @return the names of the removed groceries
+   */
+  public List<String> getRemovedGroceries() {
+    return Collections.unmodifiableList(removedGroceries);
+  }
+
+  /**
+   * Returns the steps with a changed description, by position.
+   *
+   * @return the edited descriptions of the changed steps, indexed by position
+   */
+  public Map<Integer, String> getChangedSteps() {
+    return Collections.unmodifiableMap(changedSteps);
+  }
+
+  /**
+   * Returns the steps added after the stored steps.
+   *
+   * @return the added steps, in order
+   */
+  public List<String> getAddedSteps() {
+    return Collections.unmodifiableList(addedSteps);
+  }
+
+  /**
+   * Returns the number of stored steps removed from the end of the recipe.
+   *
+   * @return the number of removed steps
+   */
+  public int getRemovedSteps() {
+    return removedSteps;
+  }
+
+  /**
+   * Check if the stored and the edited groceries and steps are equal.
+   *
+   * @return true if nothing is changed, false if not
+   */
+  public boolean isEmpty() {
+    return addedGroceries.isEmpty() && changedGroceries.isEmpty() && removedGroceries.isEmpty()
+        && changedSteps.isEmpty() && addedSteps.isEmpty() && removedSteps == 0;
+  }
+}
@@ -1,15 +1,26 @@
 package stud.ntnu.idatt1005.pantrypal.registers;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import stud.ntnu.idatt1005.pantrypal.models.Recipe;
 
 
 /**
  * This is a register class for recipes.
  * It contains a register of recipes structured in a hashmap.
+ * Recipes stored in the database are also indexed by their id. Typo tolerant searches over every
+ * recipe in the database use the name index of the CookbookController, since the register only
+ * holds the loaded pages.
  * Goal: act as a register for recipes.
  */
 public class RecipeRegister extends Register<Recipe> {
+
+  /**
+   * The recipes in the register that have an id, indexed by id.
+   */
+  private final Map<Integer, Recipe> recipesById = new HashMap<>();
+
   /**
    * Constructor for the RecipeRegister class.
    * Initializes the recipe register.
@@ -39,12 +50,43 @@ public class RecipeRegister extends Register<Recipe> {
   }
 
   /**
-   * Add a recipe to the recipe register.
+   * Retrieves a recipe from the register by its id.
+   *
+   * @param id the id of the recipe to be retrieved.
+   * @return the recipe with the specified id.
+   * @throws IllegalArgumentException if no recipe with the id exists in the register.
+   */
+  public Recipe getRecipeById(int id) throws IllegalArgumentException {
+    Recipe recipe = recipesById.get(id);
+    if (recipe == null) {
+      throw new IllegalArgumentException(getErrorMessage());
+    }
+    return recipe;
+  }
+
+  /**
+   * Check if the register contains a recipe with the given id.
+   *
+   * @param id the id of the recipe to be checked.
+   * @return true if a recipe with the id exists in the register, false if not.
+   */
+  public boolean containsRecipeById(int id) {
+    return recipesById.containsKey(id);
+  }
+
+  /**
+   * Add a recipe to the recipe register. A recipe with the same name is replaced.
    *
    * @param recipe the recipe to be added to the recipe register.
    */
   public void addRecipe(Recipe recipe) {
+    if (containsModel(recipe.getKey())) {
+      recipesById.remove(getModel(recipe.getKey()).getId());
+    }
     super.addModel(recipe);
+    if (recipe.hasId()) {
+      recipesById.put(recipe.getId(), recipe);
+    }
   }
 
   /**
@@ -54,6 +96,15 @@ public class RecipeRegister extends Register<Recipe> {
    */
   public void removeRecipe(Recipe recipe) {
     super.removeModel(recipe);
+    recipesById.remove(recipe.getId());
+  }
+
+  /**
+   * Removes every recipe from the register.
+   */
+  public void clear() {
+    clearModels();
+    recipesById.clear();
   }
 
   /**
@@ -65,4 +116,4 @@ public class RecipeRegister extends Register<Recipe> {
   public List<Recipe> searchRecipes(String search) {
     return super.searchModels(search);
   }
-}
\ No newline at end of file
+}
@@ -1,35 +1,75 @@
 package stud.ntnu.idatt1005.pantrypal.registers;
 
-import java.util.LinkedHashMap;
+import java.util.AbstractMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import stud.ntnu.idatt1005.pantrypal.models.Model;
 
 /**
- * This is an abstract class representing a register. It contains a LinkedHashMap where the key is a
- * string and the value is a model. The class provides methods to get the register map, get a model
- * from the register, add a model to the register, and remove a model from the register.
+ * This is an abstract class representing a register. The models are kept in insertion order in a
+ * persistent map, so a snapshot of the register is taken in O(1) time and copies of a register
+ * share their structure until one of them is changed. The models themselves are shared by the
+ * copies. The class provides methods to get the register map, get a model from the register, add
+ * a model to the register, and remove a model from the register.
+ * Listeners are notified of every model that is added to or removed from the register, so views
+ * can update the nodes of the changed models instead of rendering the whole register again.
  *
  * @param <T> the type of model that the register will contain
  */
 public abstract class Register<T extends Model> {
 
-  LinkedHashMap<String, T> registerMap;
+  private PersistentMap<String, T> models = PersistentMap.empty();
 
   /**
-   * Constructor for Register class. Initializes the register as a new LinkedHashMap.
+   * The read-only view returned by {@link #getRegister()}. Every read goes to the current
+   * models, so the view is never copied or kept up to date.
+   */
+  private final Map<String, T> view = new AbstractMap<>() {
+    @Override
+    public Set<Entry<String, T>> entrySet() {
+      return models.entrySet();
+    }
+
+    @Override
+    public int size() {
+      return models.size();
+    }
+
+    @Override
+    public T get(Object key) {
+      return models.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return models.containsKey(key);
+    }
+  };
+
+  /**
+   * The listeners of the register. Listeners are added far less often than they are notified, so
+   * the list is copied when it is changed instead of when it is iterated.
+   */
+  private final CopyOnWriteArrayList<RegisterListener<T>> listeners =
+      new CopyOnWriteArrayList<>();
+
+  /**
+   * Constructor for Register class. Initializes the register as empty.
    */
   protected Register() {
-    this.registerMap = new LinkedHashMap<>();
   }
 
   /**
-   * Deep-copy constructor for Register class.
+   * Copy constructor for Register class. The copy shares the models of the register, and is
+   * created in O(1) time. Adding and removing models in one of the registers does not change the
+   * other. The listeners of the register are not copied.
    *
    * @param registerMap the register to be copied
    */
   protected Register(Register<T> registerMap) {
-    this.registerMap = new LinkedHashMap<>(registerMap.getRegister());
+    this.models = registerMap.models;
   }
 
   /**
@@ -40,12 +80,63 @@ public abstract class Register<T extends Model> {
   protected abstract String getErrorMessage();
 
   /**
-   * Get the register map.
+   * Get the register map, as an unmodifiable view of the models in insertion order. The view
+   * shows the changes of the register, and every iteration of it goes over the models of the
+   * register when the iteration starts.
    *
    * @return the register map
    */
   public Map<String, T> getRegister() {
-    return this.registerMap;
+    return view;
+  }
+
+  /**
+   * Get an immutable snapshot of the register, in O(1) time. The snapshot is not changed when
+   * models are added to or removed from the register later, so it can be rendered while the
+   * register changes, or kept as an older version of the register. A register that is written
+   * from several threads should be a {@link ConcurrentRegister}.
+   *
+   * @return the models of the register, in insertion order
+   */
+  public PersistentMap<String, T> snapshot() {
+    return models;
+  }
+
+  /**
+   * Adds a listener that is notified of the changes of the register.
+   *
+   * @param listener the listener to be added
+   * @throws IllegalArgumentException if the listener is null
+   */
+  public void addListener(RegisterListener<T> listener) throws IllegalArgumentException {
+    if (listener == null) {
+      throw new IllegalArgumentException("Listener cannot be null");
+    }
+    listeners.addIfAbsent(listener);
+  }
+
+  /**
+   * Removes a listener from the register.
+   *
+   * @param listener the listener to be removed
+   * @throws IllegalArgumentException if the listener is null
+   */
+  public void removeListener(RegisterListener<T> listener) throws IllegalArgumentException {
+    if (listener == null) {
+      throw new IllegalArgumentException("Listener cannot be null");
+    }
+    listeners.remove(listener);
+  }
+
+  /**
+   * Notifies the listeners of a change of the register.
+   *
+   * @param change the change of the register
+   */
+  protected void notifyListeners(RegisterChange<T> change) {
+    for (RegisterListener<T> listener : listeners) {
+      listener.onChange(change);
+    }
   }
 
   /**
@@ -56,10 +147,10 @@ public abstract class Register<T extends Model> {
    * @throws IllegalArgumentException if the item does not exist in the register
    */
   protected T getModel(String key) throws IllegalArgumentException {
-    if (!registerMap.containsKey(key)) {
+    if (!models.containsKey(key)) {
       throw new IllegalArgumentException(getErrorMessage());
     }
-    return registerMap.get(key);
+    return models.get(key);
   }
 
   /**
@@ -68,16 +159,17 @@ public abstract class Register<T extends Model> {
    * @param key the key of the model to be checked
    */
   protected boolean containsModel(String key) {
-    return registerMap.containsKey(key);
+    return models.containsKey(key);
   }
 
   /**
-   * Add an item to the register.
+   * Add an item to the register. An item with the same key is replaced, and keeps its position.
    *
    * @param model item to be added
    */
   protected void addModel(T model) {
-    registerMap.put(model.getKey(), model);
+    models = models.plus(model.getKey(), model);
+    notifyListeners(RegisterChange.added(model));
   }
 
   /**
@@ -87,10 +179,20 @@ public abstract class Register<T extends Model> {
    * @throws IllegalArgumentException if the item does not exist in the register
    */
   protected void removeModel(T model) throws IllegalArgumentException {
-    if (!registerMap.containsKey(model.getKey())) {
+    if (!models.containsKey(model.getKey())) {
       throw new IllegalArgumentException(getErrorMessage());
     }
-    registerMap.remove(model.getKey());
+    T removed = models.get(model.getKey());
+    models = models.minus(model.getKey());
+    notifyListeners(RegisterChange.removed(removed));
+  }
+
+  /**
+   * Remove every item from the register. The listeners are not notified, since a cleared register
+   * is filled again and rendered as a whole.
+   */
+  protected void clearModels() {
+    models = PersistentMap.empty();
   }
 
   /**
@@ -101,7 +203,7 @@ public abstract class Register<T extends Model> {
    * @return a list of items with the specified name
    */
   protected List<T> searchModels(String search) {
-    return registerMap.entrySet().stream()
+    return models.entrySet().stream()
             .filter(model -> model.getKey().toLowerCase().contains(search.toLowerCase()))
             .map(Map.Entry::getValue)
             .toList();
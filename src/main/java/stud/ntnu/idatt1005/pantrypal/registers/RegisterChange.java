@@ -0,0 +1,130 @@
+package stud.ntnu.idatt1005.pantrypal.registers;
+
+import stud.ntnu.idatt1005.pantrypal.models.Model;
+
+/**
+ * This class represents a change of a register, which is sent to the listeners of the register.
+ * A change has a type and the model that was changed. A change of the quantity of a grocery also
+ * has the old quantity, and a renamed model has its old name.
+ *
+ * @param <T> the type of model in the register
+ */
+public final class RegisterChange<T extends Model> {
+
+  /**
+   * The types of changes of a register.
+   */
+  public enum Type {
+    /**
+     * A model was added to the register, or replaced the model with the same key.
+     */
+    ADDED,
+    /**
+     * A model was removed from the register.
+     */
+    REMOVED,
+    /**
+     * The quantity of a grocery in the register was changed.
+     */
+    QUANTITY_CHANGED,
+    /**
+     * A model in the register was renamed. The key of the model is not changed.
+     */
+    RENAMED
+  }
+
+  private final Type type;
+  private final T model;
+  private final int oldQuantity;
+  private final String oldName;
+
+  private RegisterChange(Type type, T model, int oldQuantity, String oldName) {
+    this.type = type;
+    this.model = model;
+    this.oldQuantity = oldQuantity;
+    this.oldName = oldName;
+  }
+
+  /**
+   * Creates a change for a model that was added to a register.
+   *
+   * @param model the added model
+   * @param <T>   the type of model in the register
+   * @return the change
+   */
+  public static <T extends Model> RegisterChange<T> added(T model) {
+    return new RegisterChange<>(Type.ADDED, model, 0, null);
+  }
+
+  /**
+   * Creates a change for a model that was removed from a register.
+   *
+   * @param model the removed model
+   * @param <T>   the type of model in the register
+   * @return the change
+   */
+  public static <T extends Model> RegisterChange<T> removed(T model) {
+    return new RegisterChange<>(Type.REMOVED, model, 0, null);
+  }
+
+  /**
+   * Creates a change for a grocery with a changed quantity.
+   *
+   * @param model       the grocery, with the new quantity
+   * @param oldQuantity the quantity of the grocery before the change
+   * @param <T>         the type of model in the register
+   * @return the change
+   */
+  public static <T extends Model> RegisterChange<T> quantityChanged(T model, int oldQuantity) {
+    return new RegisterChange<>(Type.QUANTITY_CHANGED, model, oldQuantity, null);
+  }
+
+  /**
+   * Creates a change for a model that was renamed.
+   *
+   * @param model   the model, with the new name
+   * @param oldName the name of the model before the change
+   * @param <T>     the type of model in the register
+   * @return the change
+   */
+  public static <T extends Model> RegisterChange<T> renamed(T model, String oldName) {
+    return new RegisterChange<>(Type.RENAMED, model, 0, oldName);
+  }
+
+  /**
+   * Get the type of the change.
+   *
+   * @return the type of the change
+   */
+  public Type getType() {
+    return type;
+  }
+
+  /**
+   * Get the changed model.
+   *
+   * @return the changed model
+   */
+  public T getModel() {
+    return model;
+  }
+
+  /**
+   * Get the quantity of the grocery before the change. Only set for changes of the type
+   * QUANTITY_CHANGED.
+   *
+   * @return the old quantity, or 0 for other types of changes
+   */
+  public int getOldQuantity() {
+    return oldQuantity;
+  }
+
+  /**
+   * Get the name of the model before the change. Only set for changes of the type RENAMED.
+   *
+   * @return the old name, or null for other types of changes
+   */
+  public String getOldName() {
+    return oldName;
+  }
+}
@@ -0,0 +1,19 @@
+package stud.ntnu.idatt1005.pantrypal.registers;
+
+import stud.ntnu.idatt1005.pantrypal.models.Model;
+
+/**
+ * Interface for listening to the changes of a register.
+ *
+ * @param <T> the type of model in the register
+ */
+@FunctionalInterface
+public interface RegisterListener<T extends Model> {
+
+  /**
+   * Called after the register is changed.
+   *
+   * @param change the change of the register
+   */
+  void onChange(RegisterChange<T> change);
+}
@@ -52,6 +52,24 @@ public class ShelfRegister extends Register<Shelf> {
     this.addModel(shelf);
   }
 
+  /**
+   * Renames a shelf in the register, and notifies the listeners of the register.
+   *
+   * @param shelf the shelf to be renamed.
+   * @param name  the new name of the shelf.
+   * @throws IllegalArgumentException if the shelf does not exist in the register.
+   */
+  public void renameShelf(Shelf shelf, String name) throws IllegalArgumentException {
+    if (!this.containsModel(shelf.getKey())) {
+      throw new IllegalArgumentException(getErrorMessage());
+    }
+    String oldName = shelf.getName();
+    shelf.setName(name);
+    if (!oldName.equals(name)) {
+      notifyListeners(RegisterChange.renamed(shelf, oldName));
+    }
+  }
+
   /**
    * Removes a shelf from the register.
    *
@@ -0,0 +1,252 @@
+package stud.ntnu.idatt1005.pantrypal.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A journal of the latest changes made by the user, which can be undone and redone.
+ * Every change is recorded as a command, which knows how to apply itself, how to write itself to
+ * the database, and which command reverses it. The commands are kept in a ring buffer of a fixed
+ * capacity, so recording, undoing and redoing a change takes constant time, and the oldest change
+ * is forgotten when the journal is full. Recording a change after undoing forgets the undone
+ * changes.
+ * A recorded change may be merged into the change before it, so repeated changes of the same
+ * quantity are undone in one step.
+ */
+public class CommandJournal {
+
+  /**
+   * The number of changes kept by default.
+   */
+  public static final int DEFAULT_CAPACITY = 100;
+
+  /**
+   * A change that can be applied and reversed.
+   */
+  public interface Command {
+
+    /**
+     * Applies the change to the registers in memory.
+     */
+    void apply();
+
+    /**
+     * Adds the updates writing the change to the database to a batch.
+     *
+     * @param batch the batch of updates to add to
+     */
+    void persist(SQL.Batch batch);
+
+    /**
+     * Returns the command reversing the change.
+     *
+     * @return the inverse of the command
+     */
+    Command inverse();
+
+    /**
+     * Merges a change made right after this change into one command, if the changes can be
+     * merged.
+     *
+     * @param next the change made after this change
+     * @return the merged command, or null if the changes can not be merged
+     */
+    default Command mergeWith(Command next) {
+      return null;
+    }
+  }
+
+  /**
+   * A change made of several changes, which are applied in order and reversed in reverse order.
+   */
+  private record CompoundCommand(List<Command> commands) implements Command {
+    @Override
+    public void apply() {
+      commands.forEach(Command::apply);
+    }
+
+    @Override
+    public void persist(SQL.Batch batch) {
+      commands.forEach(command -> command.persist(batch));
+    }
+
+    @Override
+    public Command inverse() {
+      List<Command> inverses = new ArrayList<>(commands.size());
+      for (int i = commands.size() - 1; i >= 0; i--) {
+        inverses.add(commands.get(i).inverse());
+      }
+      return new CompoundCommand(List.copyOf(inverses));
+    }
+  }
+
+  private final Command[] commands;
+
+  /**
+   * The index of the oldest command in the ring buffer.
+   */
+  private int start;
+
+  /**
+   * The number of commands in the journal, both done and undone.
+   */
+  private int size;
+
+  /**
+   * The number of done commands, which are the oldest commands of the journal.
+   */
+  private int done;
+
+  /**
+   * Creates a journal keeping the {@link #DEFAULT_CAPACITY} latest changes.
+   */
+  public CommandJournal() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Creates a journal keeping the given number of latest changes.
+   *
+   * @param capacity the max number of changes kept
+   * @throws IllegalArgumentException if the capacity is not positive
+   */
+  public CommandJournal(int capacity) throws IllegalArgumentException {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive");
+    }
+    this.commands = new Command[capacity];
+  }
+
+  /**
+   * Combines several changes into one command, which is undone and redone in one step.
+   *
+   * @param commands the changes, in the order they are applied
+   * @return the combined command
+   */
+  public static Command compound(List<Command> commands) {
+    return new CompoundCommand(List.copyOf(commands));
+  }
+
+  /**
+   * Executes a command. The updates of the command are written to the database in one
+   * transaction if persist is true, before the command is applied in memory.
+   *
+   * @param command the command to execute
+   * @param persist whether the command is written to the database
+   */
+  public static void execute(Command command, boolean persist) {
+    if (persist) {
+      SQL.Batch batch = new SQL.Batch();
+      command.persist(batch);
+      SQL.executeBatch(batch);
+    }
+    command.apply();
+  }
+
+  /**
+   * Records a change that has been done. The undone changes are forgotten, and the change is
+   * merged into the latest done change if possible. The oldest change is forgotten if the
+   * journal is full.
+   *
+   * @param command the change to record
+   * @throws IllegalArgumentException if the command is null
+   */
+  public void record(Command command) throws IllegalArgumentException {
+    if (command == null) {
+      throw new IllegalArgumentException("Command cannot be null");
+    }
+    for (int i = done; i < size; i++) {
+      commands[index(i)] = null;
+    }
+    size = done;
+    if (done > 0) {
+      Command merged = commands[index(done - 1)].mergeWith(command);
+      if (merged != null) {
+        commands[index(done - 1)] = merged;
+        return;
+      }
+    }
+    if (size == commands.length) {
+      commands[start] = null;
+      start = index(1);
+      size--;
+      done--;
+    }
+    commands[index(size)] = command;
+    size++;
+    done++;
+  }
+
+  /**
+   * Checks if there is a change to undo.
+   *
+   * @return true if a change can be undone, false if not
+   */
+  public boolean canUndo() {
+    return done > 0;
+  }
+
+  /**
+   * Checks if there is a change to redo.
+   *
+   * @return true if a change can be redone, false if not
+   */
+  public boolean canRedo() {
+    return done < size;
+  }
+
+  /**
+   * Undoes the latest done change, by passing its inverse to an executor. The change is only
+   * marked as undone if the executor returns normally.
+   *
+   * @param executor the executor of the inverse command
+   * @return true if a change was undone, false if there was nothing to undo
+   */
+  public boolean undo(Consumer<Command> executor) {
+    if (!canUndo()) {
+      return false;
+    }
+    executor.accept(commands[index(done - 1)].inverse());
+    done--;
+    return true;
+  }
+
+  /**
+   * Redoes the latest undone change, by passing it to an executor. The change is only marked as
+   * done if the executor returns normally.
+   *
+   * @param executor the executor of the command
+   * @return true if a change was redone, false if there was nothing to redo
+   */
+  public boolean redo(Consumer<Command> executor) {
+    if (!canRedo()) {
+      return false;
+    }
+    executor.accept(commands[index(done)]);
+    done++;
+    return true;
+  }
+
+  /**
+   * Forgets every change of the journal.
+   */
+  public void clear() {
+    for (int i = 0; i < size; i++) {
+      commands[index(i)] = null;
+    }
+    start = 0;
+    size = 0;
+    done = 0;
+  }
+
+  /**
+   * Returns the index in the ring buffer of the command at a position of the journal.
+   *
+   * @param position the position, counted from the oldest command
+   * @return the index of the command in the ring buffer
+   */
+  private int index(int position) {
+    return (start + position) % commands.length;
+  }
+}
@@ -0,0 +1,109 @@
+package stud.ntnu.idatt1005.pantrypal.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A reader of a stream of comma separated values, which reads one row at a time. Fields may be
+ * quoted with double quotes, and a quoted field may hold commas, line breaks and double quotes
+ * written twice. Rows are separated by line breaks, and empty lines are skipped.
+ * Only the row being read is held in memory, so streams larger than the memory can be read.
+ */
+public class CsvStreamReader implements Closeable {
+
+  private static final int END = -1;
+
+  private final Reader reader;
+  private int peeked = -2;
+  private int line = 1;
+
+  /**
+   * Creates a reader of the rows of a stream. The stream should be buffered.
+   *
+   * @param reader the stream to read
+   */
+  public CsvStreamReader(Reader reader) {
+    this.reader = reader;
+  }
+
+  /**
+   * Reads the next row of the stream.
+   *
+   * @return the fields of the row, or null if the stream has ended
+   * @throws IOException if the stream can not be read, or a quoted field is not terminated
+   */
+  public List<String> readRow() throws IOException {
+    while (peek() == '\r' || peek() == '\n') {
+      read();
+    }
+    if (peek() == END) {
+      return null;
+    }
+    List<String> row = new ArrayList<>();
+    while (true) {
+      row.add(readField());
+      int c = read();
+      if (c == ',') {
+        continue;
+      }
+      if (c == '\r' && peek() == '\n') {
+        read();
+      }
+      return row;
+    }
+  }
+
+  private String readField() throws IOException {
+    StringBuilder builder = new StringBuilder();
+    if (peek() != '"') {
+      while (peek() != ',' && peek() != '\n' && peek() != '\r' && peek() != END) {
+        builder.append((char) read());
+      }
+      return builder.toString();
+    }
+    int startLine = line;
+    read();
+    while (true) {
+      int c = read();
+      if (c == END) {
+        throw new IOException("Unterminated quoted field starting on line " + startLine);
+      }
+      if (c == '"') {
+        if (peek() != '"') {
+          return builder.toString();
+        }
+        read();
+      }
+      builder.append((char) c);
+    }
+  }
+
+  private int peek() throws IOException {
+    if (peeked == -2) {
+      peeked = reader.read();
+    }
+    return peeked;
+  }
+
+  private int read() throws IOException {
+    int c = peek();
+    peeked = -2;
+    if (c == '\n') {
+      line++;
+    }
+    return c;
+  }
+
+  /**
+   * Closes the stream.
+   *
+   * @throws IOException if the stream can not be closed
+   */
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+}
@@ -0,0 +1,364 @@
+package stud.ntnu.idatt1005.pantrypal.utils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Exports the data of a user to a file, and backs up the database.
+ * The export holds the shelves of the pantry with their groceries, the shopping list, and the
+ * favorite recipes of the user with their groceries and steps. Every row is written as a line of
+ * JSON Lines, or a row of CSV if the file ends with .csv, with a type telling what the row is:
+ * shelf, pantry, shopping_list or recipe. Every query of an export runs in one read transaction
+ * on one connection, so the export is a consistent snapshot of the data of the user. The rows
+ * are streamed from the cursors of the queries to a buffered writer, and the favorite recipes
+ * are read a page at a time, with the groceries and steps of a page read by one query each, so
+ * the export takes constant memory and a few queries per page for any amount of data. The recipe
+ * rows have the format read by {@link RecipeImporter}, so an export can be imported again.
+ * The export is written to a temporary file, which replaces the file when the export is done.
+ * The exports and backups can run on a background thread, so the application is not blocked
+ * while they run.
+ */
+public final class DataExporter {
+
+  private static final List<String> CSV_COLUMNS = List.of("type", "shelf", "name", "quantity",
+      "unit", "checked", "description", "image", "groceries", "steps");
+
+  /**
+   * The number of favorite recipes read at a time.
+   */
+  static final int RECIPE_PAGE_SIZE = 500;
+
+  private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "data-exporter");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private DataExporter() {
+  }
+
+  /**
+   * Writes rows to a file, as JSON Lines or CSV.
+   */
+  private static final class RowWriter {
+    private final Writer writer;
+    private final boolean csv;
+    private long rows;
+
+    private RowWriter(Writer writer, boolean csv) throws IOException {
+      this.writer = writer;
+      this.csv = csv;
+      if (csv) {
+        writer.write(String.join(",", CSV_COLUMNS));
+        writer.write('\n');
+      }
+    }
+
+    /**
+     * Writes a row. The fields of a CSV row are taken from the fields of the row with the names
+     * of the columns, where lists are joined with the separators read by the importer.
+     */
+    private void write(Map<String, Object> row) {
+      try {
+        if (csv) {
+          List<String> fields = new ArrayList<>(CSV_COLUMNS.size());
+          for (String column : CSV_COLUMNS) {
+            fields.add(csvField(row.get(column), column.equals("steps") ? "|" : ";"));
+          }
+          writer.write(String.join(",", fields));
+        } else {
+          writeJson(writer, row);
+        }
+        writer.write('\n');
+        rows++;
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+
+  /**
+   * Exports the data of a user to a file. The format is CSV if the file ends with .csv, and
+   * JSON Lines otherwise.
+   *
+   * @param userName the name of the user
+   * @param file     the file to write, which is replaced if it exists
+   * @return the number of rows written
+   * @throws IOException if the file can not be written
+   */
+  public static long export(String userName, Path file) throws IOException {
+    boolean csv = RecipeImporter.Format.of(file) == RecipeImporter.Format.CSV;
+    Path directory = file.toAbsolutePath().getParent();
+    Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+    try {
+      long rows;
+      try (Writer writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+        RowWriter rowWriter = new RowWriter(writer, csv);
+        SQL.executeInTransaction(transaction -> {
+          writeShelves(transaction, userName, rowWriter);
+          writeShoppingList(transaction, userName, rowWriter);
+          writeFavorites(transaction, userName, rowWriter);
+        });
+        rows = rowWriter.rows;
+      } catch (UncheckedIOException e) {
+        throw e.getCause();
+      }
+      Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+      return rows;
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
+
+  /**
+   * Exports the data of a user to a file on a background thread.
+   *
+   * @param userName the name of the user
+   * @param file     the file to write, which is replaced if it exists
+   * @return a future completed with the number of rows written when the export is done
+   */
+  public static CompletableFuture<Long> exportAsync(String userName, Path file) {
+    return CompletableFuture.supplyAsync(() -> {
+      try {
+        return export(userName, file);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }, EXECUTOR);
+  }
+
+  /**
+   * Backs up the whole database to a file on a background thread, with the online backup API
+   * of SQLite. The application can keep reading and writing the database while it is backed up.
+   *
+   * @param file the file to write the backup to, which is replaced if it exists
+   * @return a future completed when the backup is done
+   */
+  public static CompletableFuture<Void> backupAsync(Path file) {
+    return CompletableFuture.runAsync(() -> SQL.backup(file), EXECUTOR);
+  }
+
+  private static void writeShelves(SQL.Transaction transaction, String userName,
+      RowWriter writer) {
+    transaction.forEachRow("SELECT name FROM pantry_shelf WHERE user_name = ? ORDER BY id",
+        shelf -> writer.write(row("shelf", "shelf", shelf.get("name"))), userName);
+    transaction.forEachRow("SELECT ps.name AS shelf, psg.grocery_name AS name, psg.quantity, "
+            + "g.unit FROM pantry_shelf ps "
+            + "INNER JOIN pantry_shelf_grocery psg ON psg.pantry_shelf_id = ps.id "
+            + "LEFT JOIN grocery g ON g.name = psg.grocery_name "
+            + "WHERE ps.user_name = ? ORDER BY ps.id, psg.grocery_name",
+        grocery -> writer.write(row("pantry", "shelf", grocery.get("shelf"),
+            "name", grocery.get("name"), "quantity", grocery.get("quantity"),
+            "unit", grocery.get("unit"))), userName);
+  }
+
+  private static void writeShoppingList(SQL.Transaction transaction, String userName,
+      RowWriter writer) {
+    transaction.forEachRow("SELECT slg.grocery_name AS name, slg.quantity, slg.is_bought, "
+            + "slg.shelf_name, g.unit FROM shopping_list_grocery slg "
+            + "LEFT JOIN grocery g ON g.name = slg.grocery_name "
+            + "WHERE slg.user_name = ? ORDER BY slg.grocery_name",
+        grocery -> writer.write(row("shopping_list", "shelf", grocery.get("shelf_name"),
+            "name", grocery.get("name"), "quantity", grocery.get("quantity"),
+            "unit", grocery.get("unit"), "checked", isTrue(grocery.get("is_bought")))),
+        userName);
+  }
+
+  /**
+   * Writes the favorite recipes of a user, {@value #RECIPE_PAGE_SIZE} recipes at a time. The
+   * groceries and steps of a page are read with one query each, so only one page is held in
+   * memory, and the export makes three queries per page instead of two per recipe.
+   */
+  private static void writeFavorites(SQL.Transaction transaction, String userName,
+      RowWriter writer) {
+    int lastId = 0;
+    while (true) {
+      List<Map<String, Object>> recipes = new ArrayList<>();
+      transaction.forEachRow("SELECT r.id, r.name, r.description, r.image FROM recipe_favorite f "
+              + "INNER JOIN recipe r ON r.id = f.recipe_id WHERE f.user_name = ? AND r.id > ? "
+              + "ORDER BY r.id LIMIT ?",
+          recipes::add, userName, lastId, RECIPE_PAGE_SIZE);
+      if (recipes.isEmpty()) {
+        return;
+      }
+      Map<Object, List<Object>> groceries = new HashMap<>();
+      Map<Object, List<Object>> steps = new HashMap<>();
+      Object[] ids = recipes.stream().map(recipe -> recipe.get("id")).toArray();
+      String placeholders = String.join(", ", Collections.nCopies(ids.length, "?"));
+      transaction.forEachRow("SELECT rg.recipe_id, rg.grocery_name AS name, rg.quantity, g.unit "
+              + "FROM recipe_grocery rg LEFT JOIN grocery g ON g.name = rg.grocery_name "
+              + "WHERE rg.recipe_id IN (" + placeholders + ") "
+              + "ORDER BY rg.recipe_id, rg.grocery_name",
+          grocery -> groceries.computeIfAbsent(grocery.get("recipe_id"), id -> new ArrayList<>())
+              .add(row(null, "name", grocery.get("name"), "quantity", grocery.get("quantity"),
+                  "unit", grocery.get("unit"))), ids);
+      transaction.forEachRow("SELECT recipe_id, description FROM step "
+              + "WHERE recipe_id IN (" + placeholders + ") ORDER BY recipe_id, id",
+          step -> steps.computeIfAbsent(step.get("recipe_id"), id -> new ArrayList<>())
+              .add(step.get("description")), ids);
+      for (Map<String, Object> recipe : recipes) {
+        Object id = recipe.get("id");
+        writer.write(row("recipe", "name", recipe.get("name"),
+            "description", recipe.get("description"), "image", recipe.get("image"),
+            "favorite", true, "groceries", groceries.getOrDefault(id, List.of()),
+            "steps", steps.getOrDefault(id, List.of())));
+      }
+      lastId = ((Number) recipes.get(recipes.size() - 1).get("id")).intValue();
+    }
+  }
+
+  /**
+   * Creates a row with a type and fields, given as names followed by values. Fields without a
+   * value are left out.
+   */
+  private static Map<String, Object> row(String type, Object... fields) {
+    Map<String, Object> row = new LinkedHashMap<>();
+    if (type != null) {
+      row.put("type", type);
+    }
+    for (int i = 0; i < fields.length; i += 2) {
+      if (fields[i + 1] != null) {
+        row.put((String) fields[i], fields[i + 1]);
+      }
+    }
+    return row;
+  }
+
+  private static boolean isTrue(Object value) {
+    return value instanceof Number number ? number.intValue() != 0 : Boolean.TRUE.equals(value);
+  }
+
+  /**
+   * Writes a value as JSON. Maps are written as objects, lists as arrays, numbers and booleans
+   * as they are, and other values as strings.
+   *
+   * @param out   the writer to write to
+   * @param value the value to write
+   * @throws IOException if the value can not be written
+   */
+  static void writeJson(Appendable out, Object value) throws IOException {
+    if (value == null) {
+      out.append("null");
+    } else if (value instanceof Map<?, ?> map) {
+      out.append('{');
+      boolean first = true;
+      for (Map.Entry<?, ?> entry : map.entrySet()) {
+        if (!first) {
+          out.append(',');
+        }
+        first = false;
+        writeJsonString(out, entry.getKey().toString());
+        out.append(':');
+        writeJson(out, entry.getValue());
+      }
+      out.append('}');
+    } else if (value instanceof List<?> list) {
+      out.append('[');
+      for (int i = 0; i < list.size(); i++) {
+        if (i > 0) {
+          out.append(',');
+        }
+        writeJson(out, list.get(i));
+      }
+      out.append(']');
+    } else if (value instanceof Number || value instanceof Boolean) {
+      out.append(value.toString());
+    } else {
+      writeJsonString(out, value.toString());
+    }
+  }
+
+  private static void writeJsonString(Appendable out, String text) throws IOException {
+    out.append('"');
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      switch (c) {
+        case '"' -> out.append("\\\"");
+        case '\\' -> out.append("\\\\");
+        case '\n' -> out.append("\\n");
+        case '\r' -> out.append("\\r");
+        case '\t' -> out.append("\\t");
+        default -> {
+          if (c < 0x20) {
+            out.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+          } else {
+            out.append(c);
+          }
+        }
+      }
+    }
+    out.append('"');
+  }
+
+  /**
+   * Returns a value as a CSV field, quoted if needed. A list of groceries is written as
+   * {@code name:quantity:unit} joined by the separator, and other lists are joined by the
+   * separator.
+   *
+   * @param value     the value of the field, or null for an empty field
+   * @param separator the separator of the elements of a list
+   * @return the CSV field
+   */
+  static String csvField(Object value, String separator) {
+    String text;
+    if (value == null) {
+      text = "";
+    } else if (value instanceof List<?> list) {
+      List<String> elements = new ArrayList<>(list.size());
+      for (Object element : list) {
+        if (element instanceof Map<?, ?> grocery) {
+          elements.add(grocery.get("name") + ":" + grocery.get("quantity") + ":"
+              + (grocery.get("unit") == null ? "" : grocery.get("unit")));
+        } else {
+          elements.add(String.valueOf(element));
+        }
+      }
+      text = String.join(separator, elements);
+    } else {
+      text = value.toString();
+    }
+    if (text.chars().anyMatch(c -> c == ',' || c == '"' || c == '\n' || c == '\r')) {
+      return '"' + text.replace("\"", "\"\"") + '"';
+    }
+    return text;
+  }
+
+  /**
+   * Exports the data of a user, or backs up the database, from the command line.
+   * The arguments are the name of the user and the file to export to, or --backup and the file
+   * to back up to.
+   *
+   * @param args the arguments
+   * @throws IOException if the file can not be written
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length != 2) {
+      System.out.println("Usage: DataExporter <user name> <file> | --backup <file>");
+      return;
+    }
+    Path file = Path.of(args[1]);
+    if (args[0].equals("--backup")) {
+      SQL.backup(file);
+      System.out.println("Backed up the database to " + file);
+    } else {
+      long rows = export(args[0], file);
+      System.out.println("Exported " + rows + " rows to " + file);
+    }
+  }
+}
@@ -0,0 +1,399 @@
+package stud.ntnu.idatt1005.pantrypal.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Generates large datasets for measuring how the application scales. The generator fills the
+ * database with groceries, recipes with ingredients and steps, and users with pantry shelves, a
+ * shopping list and favorite recipes. The popularity of the groceries and recipes follows a Zipf
+ * distribution, so a few groceries are used by many recipes and pantries, and a few recipes are
+ * the favorites of many users, as in real data. The number of ingredients and steps of the
+ * recipes varies around the configured mean.
+ * The data is made from a seed, so the same configuration always gives the same data. The rows
+ * are made and inserted in chunks with one prepared statement per table, in one transaction, so
+ * only one chunk is held in memory.
+ */
+public final class DatasetGenerator {
+
+  /**
+   * The number of recipes or users made and inserted together.
+   */
+  private static final int CHUNK_SIZE = 1000;
+
+  private static final String[] ADJECTIVES = {"Fresh", "Dried", "Smoked", "Organic", "Frozen",
+      "Red", "Green", "Sweet", "Sour", "Wild", "Roasted", "Ground", "Whole", "Baby", "Aged"};
+  private static final String[] NOUNS = {"tomato", "onion", "garlic", "carrot", "potato",
+      "pepper", "basil", "chicken", "beef", "salmon", "rice", "pasta", "flour", "butter", "milk",
+      "cheese", "egg", "lemon", "apple", "spinach", "mushroom", "bean", "lentil", "oat", "honey",
+      "ginger", "chili", "corn", "pea", "yogurt"};
+  private static final String[] UNITS = {"grams", "units", "milliliters", "cloves", "pieces"};
+  private static final String[] DISHES = {"soup", "stew", "salad", "curry", "pie", "bake",
+      "risotto", "stir-fry", "casserole", "pasta", "bowl", "wrap", "tart", "roast"};
+  private static final String[] VERBS = {"Chop", "Mix", "Boil", "Fry", "Bake", "Stir", "Season",
+      "Simmer", "Whisk", "Slice", "Grill", "Serve"};
+  private static final String[] SHELVES = {"Fridge", "Freezer", "Pantry", "Spice rack",
+      "Cellar", "Cupboard"};
+
+  /**
+   * The size and shape of a generated dataset.
+   *
+   * @param seed                 the seed of the random numbers
+   * @param users                the number of users
+   * @param groceries            the number of groceries
+   * @param recipes              the number of recipes
+   * @param ingredientsPerRecipe the mean number of ingredients of a recipe
+   * @param stepsPerRecipe       the mean number of steps of a recipe
+   * @param shelvesPerUser       the number of pantry shelves of a user
+   * @param groceriesPerShelf    the number of groceries on a pantry shelf
+   * @param shoppingListSize     the number of groceries on the shopping list of a user
+   * @param favoritesPerUser     the number of favorite recipes of a user
+   * @param zipfExponent         the exponent of the Zipf distribution of the popularity of the
+   *                             groceries and recipes, where 0 is uniform and larger is more
+   *                             skewed
+   */
+  public record Config(long seed, int users, int groceries, int recipes,
+      int ingredientsPerRecipe, int stepsPerRecipe, int shelvesPerUser, int groceriesPerShelf,
+      int shoppingListSize, int favoritesPerUser, double zipfExponent) {
+
+    /**
+     * Validates the configuration.
+     *
+     * @throws IllegalArgumentException if a count is negative, there are no groceries, a recipe,
+     *                                  shelf or shopping list has more groceries than there are,
+     *                                  a user has more favorites than there are recipes, or the
+     *                                  exponent is negative
+     */
+    public Config {
+      if (users < 0 || recipes < 0 || stepsPerRecipe < 0 || shelvesPerUser < 0
+          || groceriesPerShelf < 0 || shoppingListSize < 0 || favoritesPerUser < 0) {
+        throw new IllegalArgumentException("Counts cannot be negative");
+      }
+      if (groceries <= 0) {
+        throw new IllegalArgumentException("There must be at least one grocery");
+      }
+      if (ingredientsPerRecipe <= 0 || ingredientsPerRecipe > groceries
+          || groceriesPerShelf > groceries || shoppingListSize > groceries) {
+        throw new IllegalArgumentException(
+            "Ingredients, shelves and shopping lists must have between 1 and "
+                + groceries + " groceries");
+      }
+      if (favoritesPerUser > recipes) {
+        throw new IllegalArgumentException("Users cannot have more favorites than recipes");
+      }
+      if (!(zipfExponent >= 0)) {
+        throw new IllegalArgumentException("Zipf exponent cannot be negative");
+      }
+    }
+
+    /**
+     * Returns a configuration with the given numbers of users and recipes, and the other sizes
+     * scaled from them: one grocery for every fifth recipe, at least 200, eight ingredients and
+     * six steps per recipe, four shelves of 25 groceries, a shopping list of 15 groceries and 20
+     * favorites per user, and a Zipf exponent of 1.
+     *
+     * @param seed    the seed of the random numbers
+     * @param users   the number of users
+     * @param recipes the number of recipes
+     * @return the configuration
+     * @throws IllegalArgumentException if a count is negative
+     */
+    public static Config of(long seed, int users, int recipes) throws IllegalArgumentException {
+      return new Config(seed, users, Math.max(200, recipes / 5), recipes, 8, 6, 4, 25, 15,
+          Math.min(20, recipes), 1.0);
+    }
+  }
+
+  /**
+   * The number of rows inserted by a generation, and how long it took.
+   *
+   * @param rows   the number of rows inserted
+   * @param millis the milliseconds the generation took
+   */
+  public record Result(long rows, long millis) {
+
+    /**
+     * Returns the number of rows inserted per second.
+     *
+     * @return the rows per second
+     */
+    public double rowsPerSecond() {
+      return millis == 0 ? rows * 1000.0 : rows * 1000.0 / millis;
+    }
+  }
+
+  /**
+   * Samples ranks from a Zipf distribution, where rank k of n is drawn with probability
+   * proportional to 1 / (k + 1)^s. The cumulative distribution is computed once, and every
+   * sample is a binary search in it.
+   */
+  static final class Zipf {
+    private final double[] cumulative;
+
+    /**
+     * Creates a Zipf distribution over n ranks.
+     *
+     * @param n        the number of ranks
+     * @param exponent the exponent s of the distribution
+     */
+    Zipf(int n, double exponent) {
+      cumulative = new double[n];
+      double sum = 0;
+      for (int k = 0; k < n; k++) {
+        sum += 1 / Math.pow(k + 1, exponent);
+        cumulative[k] = sum;
+      }
+      for (int k = 0; k < n; k++) {
+        cumulative[k] /= sum;
+      }
+    }
+
+    /**
+     * Draws a rank.
+     *
+     * @param random the random numbers to draw with
+     * @return the rank, from 0 to n - 1, where 0 is the most popular
+     */
+    int sample(SplittableRandom random) {
+      int index = Arrays.binarySearch(cumulative, random.nextDouble());
+      int rank = index >= 0 ? index : -index - 1;
+      return Math.min(rank, cumulative.length - 1);
+    }
+
+    /**
+     * Draws distinct ranks. A rank that is already drawn is drawn again, and if too many draws
+     * give a rank that is already drawn, as when nearly every rank is needed, the remaining
+     * ranks are taken in order.
+     *
+     * @param random the random numbers to draw with
+     * @param count  the number of ranks to draw, at most n
+     * @return the ranks, in the order they were drawn
+     */
+    int[] distinct(SplittableRandom random, int count) {
+      Set<Integer> drawn = new HashSet<>();
+      int[] ranks = new int[count];
+      int attempts = 0;
+      int next = 0;
+      for (int i = 0; i < count; i++) {
+        int rank = sample(random);
+        while (!drawn.add(rank)) {
+          if (++attempts > 4 * count) {
+            while (drawn.contains(next)) {
+              next++;
+            }
+            rank = next;
+          } else {
+            rank = sample(random);
+          }
+        }
+        ranks[i] = rank;
+      }
+      return ranks;
+    }
+  }
+
+  private DatasetGenerator() {
+  }
+
+  /**
+   * Returns the name of a generated user.
+   *
+   * @param index the index of the user, from 0
+   * @return the name of the user
+   */
+  public static String userName(int index) {
+    return "user" + (index + 1);
+  }
+
+  /**
+   * Returns the name of a generated grocery. The names are distinct for every index.
+   *
+   * @param index the index of the grocery, from 0
+   * @return the name of the grocery
+   */
+  static String groceryName(int index) {
+    int combinations = ADJECTIVES.length * NOUNS.length;
+    String name = ADJECTIVES[index / NOUNS.length % ADJECTIVES.length] + " "
+        + NOUNS[index % NOUNS.length];
+    return index < combinations ? name : name + " " + (index / combinations + 1);
+  }
+
+  /**
+   * Fills the database with a generated dataset. The generated recipes and shelves get the ids
+   * after the largest ids in the database, and the groceries are added if they do not exist, so
+   * the data is added to the data already in the database. The triggers keeping the full-text
+   * index up to date are dropped while the rows are inserted, and the new recipes are indexed
+   * together at the end, which is much faster than indexing them one row at a time.
+   *
+   * @param config the size and shape of the dataset
+   * @return the number of rows inserted and how long it took
+   */
+  public static Result generate(Config config) {
+    long start = System.nanoTime();
+    long[] rows = new long[1];
+    SQL.executeInTransaction(transaction -> {
+      List<Map<String, Object>> triggers = transaction.executeQuery("SELECT name, sql "
+          + "FROM sqlite_master WHERE type = 'trigger' AND tbl_name IN ('recipe', 'step')");
+      for (Map<String, Object> trigger : triggers) {
+        transaction.executeUpdate("DROP TRIGGER " + trigger.get("name"));
+      }
+      Zipf groceryPopularity = new Zipf(config.groceries(), config.zipfExponent());
+      rows[0] += insertGroceries(transaction, config);
+      int firstRecipeId = nextId(transaction, "recipe");
+      rows[0] += insertRecipes(transaction, config, groceryPopularity, firstRecipeId);
+      rows[0] += insertUsers(transaction, config, groceryPopularity, firstRecipeId,
+          nextId(transaction, "pantry_shelf"));
+      transaction.executeUpdate("INSERT INTO recipe_fts (rowid, name, description, steps) "
+          + "SELECT r.id, r.name, r.description, " + Migrations.stepsOf("r.id")
+          + " FROM recipe r WHERE r.id >= ?", firstRecipeId);
+      for (Map<String, Object> trigger : triggers) {
+        transaction.executeUpdate(trigger.get("sql").toString());
+      }
+    });
+    GroceryCatalog.invalidate();
+    return new Result(rows[0], (System.nanoTime() - start) / 1_000_000);
+  }
+
+  private static int nextId(SQL.Transaction transaction, String table) {
+    Object max = transaction.executeQuery("SELECT MAX(id) AS id FROM " + table).get(0).get("id");
+    return max == null ? 1 : ((Number) max).intValue() + 1;
+  }
+
+  private static long insertGroceries(SQL.Transaction transaction, Config config) {
+    List<Object[]> groceries = new ArrayList<>(config.groceries());
+    for (int i = 0; i < config.groceries(); i++) {
+      groceries.add(new Object[] {groceryName(i), UNITS[i % UNITS.length]});
+    }
+    return transaction.executeBatch("INSERT OR IGNORE INTO grocery (name, unit) VALUES (?, ?)",
+        groceries);
+  }
+
+  /**
+   * Inserts the recipes in chunks, with their ingredients and steps.
+   */
+  private static long insertRecipes(SQL.Transaction transaction, Config config,
+      Zipf groceryPopularity, int firstId) {
+    SplittableRandom random = new SplittableRandom(config.seed());
+    long inserted = 0;
+    List<Object[]> recipes = new ArrayList<>();
+    List<Object[]> ingredients = new ArrayList<>();
+    List<Object[]> steps = new ArrayList<>();
+    for (int i = 0; i < config.recipes(); i++) {
+      int id = firstId + i;
+      String dish = DISHES[random.nextInt(DISHES.length)];
+      int[] groceries = groceryPopularity.distinct(random,
+          vary(random, config.ingredientsPerRecipe(), 1, config.groceries()));
+      String main = groceryName(groceries[0]);
+      recipes.add(new Object[] {id, main + " " + dish + " " + id,
+          "A " + dish + " with " + groceries.length + " ingredients"});
+      for (int grocery : groceries) {
+        ingredients.add(new Object[] {id, groceryName(grocery), 1 + random.nextInt(500)});
+      }
+      int stepCount = vary(random, config.stepsPerRecipe(), 0, Integer.MAX_VALUE);
+      for (int j = 0; j < stepCount; j++) {
+        steps.add(new Object[] {VERBS[random.nextInt(VERBS.length)] + " the "
+            + groceryName(groceries[random.nextInt(groceries.length)]).toLowerCase(), id});
+      }
+      if (recipes.size() == CHUNK_SIZE || i == config.recipes() - 1) {
+        inserted += transaction.executeBatch(
+            "INSERT INTO recipe (id, name, description) VALUES (?, ?, ?)", recipes);
+        inserted += transaction.executeBatch(
+            "INSERT INTO step (description, recipe_id) VALUES (?, ?)", steps);
+        inserted += transaction.executeBatch("INSERT INTO recipe_grocery "
+            + "(recipe_id, grocery_name, quantity) VALUES (?, ?, ?)", ingredients);
+        recipes.clear();
+        ingredients.clear();
+        steps.clear();
+      }
+    }
+    return inserted;
+  }
+
+  private static long insertUsers(SQL.Transaction transaction, Config config,
+      Zipf groceryPopularity, int firstRecipeId, int firstShelfId) {
+    SplittableRandom random = new SplittableRandom(config.seed() + 1);
+    Zipf recipePopularity = config.recipes() == 0 ? null
+        : new Zipf(config.recipes(), config.zipfExponent());
+    long inserted = 0;
+    int shelfId = firstShelfId;
+    List<Object[]> shelves = new ArrayList<>();
+    List<Object[]> shelfGroceries = new ArrayList<>();
+    List<Object[]> shoppingList = new ArrayList<>();
+    List<Object[]> favorites = new ArrayList<>();
+    for (int i = 0; i < config.users(); i++) {
+      String user = userName(i);
+      String firstShelf = null;
+      for (int j = 0; j < config.shelvesPerUser(); j++) {
+        String name = SHELVES[j % SHELVES.length]
+            + (j < SHELVES.length ? "" : " " + (j / SHELVES.length + 1));
+        firstShelf = firstShelf == null ? name : firstShelf;
+        shelves.add(new Object[] {shelfId, user, name});
+        for (int grocery : groceryPopularity.distinct(random, config.groceriesPerShelf())) {
+          shelfGroceries.add(new Object[] {shelfId, groceryName(grocery),
+              1 + random.nextInt(1000)});
+        }
+        shelfId++;
+      }
+      for (int grocery : groceryPopularity.distinct(random, config.shoppingListSize())) {
+        shoppingList.add(new Object[] {groceryName(grocery), user, 1 + random.nextInt(10),
+            random.nextInt(4) == 0, firstShelf == null ? SHELVES[0] : firstShelf});
+      }
+      if (recipePopularity != null) {
+        for (int recipe : recipePopularity.distinct(random, config.favoritesPerUser())) {
+          favorites.add(new Object[] {firstRecipeId + recipe, user});
+        }
+      }
+      if ((i + 1) % CHUNK_SIZE == 0 || i == config.users() - 1) {
+        inserted += transaction.executeBatch(
+            "INSERT INTO pantry_shelf (id, user_name, name) VALUES (?, ?, ?)", shelves);
+        inserted += transaction.executeBatch("INSERT INTO pantry_shelf_grocery "
+            + "(pantry_shelf_id, grocery_name, quantity) VALUES (?, ?, ?)", shelfGroceries);
+        inserted += transaction.executeBatch("INSERT OR IGNORE INTO shopping_list_grocery "
+            + "(grocery_name, user_name, quantity, is_bought, shelf_name) VALUES (?, ?, ?, ?, ?)",
+            shoppingList);
+        inserted += transaction.executeBatch(
+            "INSERT INTO recipe_favorite (recipe_id, user_name) VALUES (?, ?)", favorites);
+        shelves.clear();
+        shelfGroceries.clear();
+        shoppingList.clear();
+        favorites.clear();
+      }
+    }
+    return inserted;
+  }
+
+  /**
+   * Returns a count varying around a mean, from half to one and a half times the mean, within
+   * bounds.
+   */
+  private static int vary(SplittableRandom random, int mean, int min, int max) {
+    int count = mean / 2 + random.nextInt(mean + 1);
+    return Math.max(min, Math.min(max, count));
+  }
+
+  /**
+   * Generates a dataset from the command line. The arguments are the database, as the path of a
+   * database file or :memory:, and optionally the number of users, the number of recipes and the
+   * seed, which are 100, 10000 and 1 by default.
+   *
+   * @param args the arguments
+   */
+  public static void main(String[] args) {
+    if (args.length < 1 || args.length > 4) {
+      System.out.println("Usage: DatasetGenerator <database> [users] [recipes] [seed]");
+      return;
+    }
+    int users = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+    int recipes = args.length > 2 ? Integer.parseInt(args[2]) : 10000;
+    long seed = args.length > 3 ? Long.parseLong(args[3]) : 1;
+    SQL.configure(args[0], null);
+    Result result = generate(Config.of(seed, users, recipes));
+    System.out.printf("Inserted %d rows in %d ms (%.0f rows/s)%n", result.rows(),
+        result.millis(), result.rowsPerSecond());
+  }
+}
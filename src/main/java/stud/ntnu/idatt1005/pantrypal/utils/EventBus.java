@@ -0,0 +1,378 @@
+package stud.ntnu.idatt1005.pantrypal.utils;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * An in-process event bus, which delivers events to the handlers subscribed to their type.
+ * The handlers are kept in a table indexed by the class of the events they handle, so an event is
+ * delivered with one lookup of its class, and handlers never check the type of the events they
+ * get. An event is only delivered to the handlers of its exact class.
+ * Events published from several places, like the undo button of every view, carry a key telling
+ * where they are from. A handler subscribed with a key is indexed by the class and the key, and
+ * only gets the events with that key, so it never checks where an event is from either.
+ * Handlers are subscribed on one of two lanes. The synchronous lane calls the handler on the
+ * thread publishing the event, while the event is published. Handlers changing registers that
+ * update the views use it, so they run on the JavaFX thread. The asynchronous lane queues the
+ * event for a worker thread of the handler, and is meant for handlers doing heavy work, like
+ * exporting data. The queue is bounded, so a publisher waits while the queue of a slow handler is
+ * full, instead of queueing events without limit.
+ * The time from an event is published until a handler has handled it is measured for every event
+ * type.
+ * Goal: let views publish the actions of the user without knowing the controllers handling them.
+ */
+public final class EventBus implements AutoCloseable {
+
+  /**
+   * An event with a key telling where it is from. Handlers subscribed with a key only get the
+   * events with an equal key.
+   */
+  public interface Keyed {
+
+    /**
+     * Returns the key of the event.
+     *
+     * @return the key of the event
+     */
+    Object key();
+  }
+
+  /**
+   * The class of events a handler is subscribed to, and the key of the events, or null for every
+   * event of the class.
+   */
+  private record Topic(Class<?> type, Object key) {
+  }
+
+  /**
+   * The handlers of every topic, indexed by the class and key of the events.
+   */
+  private final Map<Topic, CopyOnWriteArrayList<Handler>> handlers = new ConcurrentHashMap<>();
+  private final Map<Class<?>, Metrics> metrics = new ConcurrentHashMap<>();
+  private final CopyOnWriteArrayList<AsyncHandler> asyncHandlers = new CopyOnWriteArrayList<>();
+  private volatile boolean closed;
+
+  /**
+   * A handler of the events of one topic.
+   */
+  private abstract static class Handler {
+    private final Consumer<Object> consumer;
+    private final Metrics metrics;
+
+    private Handler(Consumer<Object> consumer, Metrics metrics) {
+      this.consumer = consumer;
+      this.metrics = metrics;
+    }
+
+    /**
+     * Delivers an event to the handler.
+     *
+     * @param event          the event
+     * @param publishedNanos the time the event was published, from {@link System#nanoTime()}
+     */
+    abstract void deliver(Object event, long publishedNanos);
+
+    /**
+     * Handles an event, and records the time since it was published.
+     */
+    void handle(Object event, long publishedNanos) {
+      try {
+        consumer.accept(event);
+      } finally {
+        metrics.record(System.nanoTime() - publishedNanos);
+      }
+    }
+
+    /**
+     * Stops the handler from handling more events.
+     */
+    void stop() {
+    }
+  }
+
+  /**
+   * A handler called on the thread publishing the events.
+   */
+  private static final class SyncHandler extends Handler {
+    private SyncHandler(Consumer<Object> consumer, Metrics metrics) {
+      super(consumer, metrics);
+    }
+
+    @Override
+    void deliver(Object event, long publishedNanos) {
+      handle(event, publishedNanos);
+    }
+  }
+
+  /**
+   * A handler called on a worker thread, with a bounded queue of events.
+   */
+  private static final class AsyncHandler extends Handler {
+    private final BlockingQueue<Object[]> queue;
+    private final Thread worker;
+
+    private AsyncHandler(Consumer<Object> consumer, Metrics metrics, int capacity, String name) {
+      super(consumer, metrics);
+      this.queue = new ArrayBlockingQueue<>(capacity);
+      this.worker = new Thread(this::run, name);
+      this.worker.setDaemon(true);
+    }
+
+    @Override
+    void deliver(Object event, long publishedNanos) {
+      try {
+        queue.put(new Object[] {event, publishedNanos});
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    /**
+     * Handles the queued events until the handler is stopped. An exception thrown by the handler
+     * is passed to the uncaught exception handler of the worker, and the next event is handled.
+     */
+    private void run() {
+      while (!Thread.currentThread().isInterrupted()) {
+        Object[] queued;
+        try {
+          queued = queue.take();
+        } catch (InterruptedException e) {
+          return;
+        }
+        try {
+          handle(queued[0], (long) queued[1]);
+        } catch (RuntimeException e) {
+          worker.getUncaughtExceptionHandler().uncaughtException(worker, e);
+        }
+      }
+    }
+
+    @Override
+    void stop() {
+      worker.interrupt();
+    }
+  }
+
+  /**
+   * A subscription of a handler, which can be cancelled.
+   */
+  public final class Subscription {
+    private final Topic topic;
+    private final Handler handler;
+
+    private Subscription(Topic topic, Handler handler) {
+      this.topic = topic;
+      this.handler = handler;
+    }
+
+    /**
+     * Cancels the subscription. The handler gets no more events, and the worker of an
+     * asynchronous handler is stopped.
+     */
+    public void cancel() {
+      CopyOnWriteArrayList<Handler> topicHandlers = handlers.get(topic);
+      if (topicHandlers != null) {
+        topicHandlers.remove(handler);
+      }
+      if (handler instanceof AsyncHandler asyncHandler) {
+        asyncHandlers.remove(asyncHandler);
+      }
+      handler.stop();
+    }
+  }
+
+  /**
+   * The dispatch latency of the events of one type, from an event is published until a handler
+   * has handled it. Every handler of an event adds one measurement.
+   */
+  public static final class Metrics {
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+
+    private void record(long nanos) {
+      count.increment();
+      totalNanos.add(nanos);
+      maxNanos.accumulate(nanos);
+    }
+
+    /**
+     * Returns the number of times an event of the type was handled.
+     *
+     * @return the number of handled events
+     */
+    public long getCount() {
+      return count.sum();
+    }
+
+    /**
+     * Returns the mean dispatch latency of the events of the type.
+     *
+     * @return the mean latency in nanoseconds, or 0 if no event has been handled
+     */
+    public double getMeanNanos() {
+      long handled = count.sum();
+      return handled == 0 ? 0 : (double) totalNanos.sum() / handled;
+    }
+
+    /**
+     * Returns the largest dispatch latency of the events of the type.
+     *
+     * @return the largest latency in nanoseconds, or 0 if no event has been handled
+     */
+    public long getMaxNanos() {
+      return maxNanos.get();
+    }
+  }
+
+  /**
+   * Subscribes a handler to every event of a type, on the synchronous lane. The handler is called
+   * on the thread publishing an event, before {@link #publish(Object)} returns.
+   *
+   * @param type    the class of the events to handle
+   * @param handler the handler of the events
+   * @param <E>     the type of the events
+   * @return the subscription of the handler
+   * @throws IllegalArgumentException if the type or the handler is null
+   */
+  public <E> Subscription subscribe(Class<E> type, Consumer<? super E> handler)
+      throws IllegalArgumentException {
+    checkSubscription(type, handler);
+    return add(new Topic(type, null),
+        new SyncHandler(cast(type, handler), getOrCreateMetrics(type)));
+  }
+
+  /**
+   * Subscribes a handler to the events of a type with a key, on the synchronous lane. The handler
+   * is called on the thread publishing an event, before {@link #publish(Object)} returns.
+   *
+   * @param type    the class of the events to handle
+   * @param key     the key of the events to handle
+   * @param handler the handler of the events
+   * @param <E>     the type of the events
+   * @return the subscription of the handler
+   * @throws IllegalArgumentException if the type, the key or the handler is null
+   */
+  public <E extends Keyed> Subscription subscribe(Class<E> type, Object key,
+      Consumer<? super E> handler) throws IllegalArgumentException {
+    checkSubscription(type, handler);
+    if (key == null) {
+      throw new IllegalArgumentException("Key cannot be null");
+    }
+    return add(new Topic(type, key),
+        new SyncHandler(cast(type, handler), getOrCreateMetrics(type)));
+  }
+
+  /**
+   * Subscribes a handler to every event of a type, on the asynchronous lane. The handler is
+   * called on a worker thread of its own, in the order the events were published. Up to the given
+   * number of events are queued for the handler; when the queue is full, publishing an event of
+   * the type waits until the handler has taken an event from the queue.
+   *
+   * @param type     the class of the events to handle
+   * @param handler  the handler of the events
+   * @param capacity the max number of queued events
+   * @param <E>      the type of the events
+   * @return the subscription of the handler
+   * @throws IllegalArgumentException if the type or the handler is null, or the capacity is not
+   *                                  positive
+   */
+  public <E> Subscription subscribeAsync(Class<E> type, Consumer<? super E> handler, int capacity)
+      throws IllegalArgumentException {
+    checkSubscription(type, handler);
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive");
+    }
+    AsyncHandler asyncHandler = new AsyncHandler(cast(type, handler), getOrCreateMetrics(type),
+        capacity, "event-bus-" + type.getSimpleName());
+    asyncHandlers.add(asyncHandler);
+    asyncHandler.worker.start();
+    return add(new Topic(type, null), asyncHandler);
+  }
+
+  private void checkSubscription(Class<?> type, Consumer<?> handler) {
+    if (type == null || handler == null) {
+      throw new IllegalArgumentException("Event type and handler cannot be null");
+    }
+    if (closed) {
+      throw new IllegalStateException("Event bus is closed");
+    }
+  }
+
+  private static <E> Consumer<Object> cast(Class<E> type, Consumer<? super E> handler) {
+    return event -> handler.accept(type.cast(event));
+  }
+
+  private Subscription add(Topic topic, Handler handler) {
+    handlers.computeIfAbsent(topic, key -> new CopyOnWriteArrayList<>()).add(handler);
+    return new Subscription(topic, handler);
+  }
+
+  private Metrics getOrCreateMetrics(Class<?> type) {
+    return metrics.computeIfAbsent(type, key -> new Metrics());
+  }
+
+  /**
+   * Publishes an event to the handlers subscribed to its class, in the order they subscribed,
+   * and then to the handlers subscribed to its class and key. An exception thrown by a
+   * synchronous handler is thrown to the publisher, and the event is not delivered to the handlers
+   * after it. Events without handlers are dropped.
+   *
+   * @param event the event to publish
+   * @throws IllegalArgumentException if the event is null
+   * @throws IllegalStateException    if the event bus is closed
+   */
+  public void publish(Object event) throws IllegalArgumentException, IllegalStateException {
+    if (event == null) {
+      throw new IllegalArgumentException("Event cannot be null");
+    }
+    if (closed) {
+      throw new IllegalStateException("Event bus is closed");
+    }
+    long publishedNanos = System.nanoTime();
+    deliver(new Topic(event.getClass(), null), event, publishedNanos);
+    if (event instanceof Keyed keyed && keyed.key() != null) {
+      deliver(new Topic(event.getClass(), keyed.key()), event, publishedNanos);
+    }
+  }
+
+  private void deliver(Topic topic, Object event, long publishedNanos) {
+    CopyOnWriteArrayList<Handler> topicHandlers = handlers.get(topic);
+    if (topicHandlers != null) {
+      for (Handler handler : topicHandlers) {
+        handler.deliver(event, publishedNanos);
+      }
+    }
+  }
+
+  /**
+   * Returns the dispatch latency of the events of a type, for the handlers of every key. The
+   * metrics are updated as events are handled.
+   *
+   * @param type the class of the events
+   * @return the metrics of the events of the type
+   */
+  public Metrics getMetrics(Class<?> type) {
+    return getOrCreateMetrics(type);
+  }
+
+  /**
+   * Closes the event bus. Every handler is unsubscribed, and the workers of the asynchronous
+   * handlers are stopped. Events still queued for them are dropped.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    handlers.clear();
+    for (AsyncHandler asyncHandler : asyncHandlers) {
+      asyncHandler.stop();
+    }
+    asyncHandlers.clear();
+  }
+}
@@ -0,0 +1,216 @@
+package stud.ntnu.idatt1005.pantrypal.utils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Utility class holding an in-memory copy of the grocery table in the database.
+ * The grocery table is loaded once, the first time the catalog is used, and new groceries are
+ * written through to the database. Lookups are case-insensitive, so "eggs" finds the grocery
+ * "Eggs", and the catalog returns the name the grocery is stored with in the database.
+ * Goal: Look up the unit of a grocery without querying the database.
+ */
+public final class GroceryCatalog {
+
+  /**
+   * A grocery in the catalog, with the name and unit it is stored with in the database.
+   */
+  private record Entry(String name, String unit) {
+  }
+
+  private static volatile Map<String, Entry> groceries;
+  private static final LongAdder hits = new LongAdder();
+  private static final LongAdder misses = new LongAdder();
+
+  private GroceryCatalog() {
+  }
+
+  /**
+   * Returns the catalog, and loads the grocery table into it the first time it is used.
+   *
+   * @return the groceries in the catalog, indexed by their lower case name
+   */
+  private static Map<String, Entry> groceries() {
+    Map<String, Entry> catalog = groceries;
+    if (catalog == null) {
+      synchronized (GroceryCatalog.class) {
+        catalog = groceries;
+        if (catalog == null) {
+          catalog = new ConcurrentHashMap<>();
+          List<Map<String, Object>> rows = SQL.executeQuery("SELECT name, unit FROM grocery");
+          for (Map<String, Object> row : rows) {
+            put(catalog, row.get("name").toString(), row.get("unit").toString());
+          }
+          groceries = catalog;
+        }
+      }
+    }
+    return catalog;
+  }
+
+  private static void put(Map<String, Entry> catalog, String name, String unit) {
+    catalog.putIfAbsent(key(name), new Entry(name.intern(), unit.intern()));
+  }
+
+  private static String key(String name) {
+    return name.toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Looks up a grocery in the catalog, and counts the lookup as a hit or a miss.
+   *
+   * @param name the name of the grocery, in any case
+   * @return the grocery, or null if it is not in the catalog
+   */
+  private static Entry lookup(String name) {
+    Entry entry = groceries().get(key(name));
+    if (entry == null) {
+      misses.increment();
+    } else {
+      hits.increment();
+    }
+    return entry;
+  }
+
+  /**
+   * Checks if a grocery exists in the catalog.
+   *
+   * @param name the name of the grocery, in any case
+   * @return true if the grocery exists, false if not
+   */
+  public static boolean containsGrocery(String name) {
+    return lookup(name) != null;
+  }
+
+  /**
+   * Returns the unit of a grocery.
+   *
+   * @param name        the name of the grocery, in any case
+   * @param defaultUnit the unit to return if the grocery is not in the catalog
+   * @return the unit of the grocery, or the default unit if the grocery is not in the catalog
+   */
+  public static String getUnit(String name, String defaultUnit) {
+    Entry entry = lookup(name);
+    return entry == null ? defaultUnit : entry.unit();
+  }
+
+  /**
+   * Returns the name a grocery is stored with in the database.
+   *
+   * @param name the name of the grocery, in any case
+   * @return the stored name of the grocery, or the given name if the grocery is not in the catalog
+   */
+  public static String getStoredName(String name) {
+    Entry entry = lookup(name);
+    return entry == null ? name : entry.name();
+  }
+
+  /**
+   * Adds a grocery to the catalog and the database, if it does not already exist. The grocery
+   * is inserted with INSERT OR IGNORE, so a grocery added to the database by another writer
+   * since the catalog was loaded is not inserted again, and is added to the catalog with the
+   * unit it is stored with.
+   *
+   * @param name the name of the grocery
+   * @param unit the unit of the grocery
+   * @return the name the grocery is stored with in the database
+   */
+  public static String addGrocery(String name, String unit) {
+    Entry entry = lookup(name);
+    if (entry != null) {
+      return entry.name();
+    }
+    if (SQL.executeUpdateAllowEmpty("INSERT OR IGNORE INTO grocery (name, unit) VALUES (?, ?)",
+        name, unit) == 0) {
+      List<Map<String, Object>> rows =
+          SQL.executeQuery("SELECT unit FROM grocery WHERE name = ?", name);
+      if (!rows.isEmpty()) {
+        unit = rows.get(0).get("unit").toString();
+      }
+    }
+    put(groceries(), name, unit);
+    return name;
+  }
+
+  /**
+   * Adds a grocery to the database in a transaction, if it does not already exist, so the
+   * grocery is written together with the rows referring to it. The grocery is added to the
+   * catalog when the transaction is committed, and not at all if it is rolled back.
+   *
+   * @param transaction the transaction to insert the grocery in
+   * @param name        the name of the grocery
+   * @param unit        the unit of the grocery
+   * @return the name the grocery is stored with in the database
+   */
+  public static String addGrocery(SQL.Transaction transaction, String name, String unit) {
+    Entry entry = lookup(name);
+    if (entry != null) {
+      return entry.name();
+    }
+    int inserted = transaction.executeUpdate(
+        "INSERT OR IGNORE INTO grocery (name, unit) VALUES (?, ?)", name, unit);
+    List<Map<String, Object>> rows = inserted == 0
+        ? transaction.executeQuery("SELECT unit FROM grocery WHERE name = ?", name) : List.of();
+    String storedUnit = rows.isEmpty() ? unit : rows.get(0).get("unit").toString();
+    transaction.afterCommit(() -> put(groceries(), name, storedUnit));
+    return name;
+  }
+
+  /**
+   * Returns the groceries in the catalog, as a map from the stored name to the unit.
+   *
+   * @return the groceries in the catalog
+   */
+  public static Map<String, String> getGroceries() {
+    Map<String, String> result = new HashMap<>();
+    for (Entry entry : groceries().values()) {
+      result.put(entry.name(), entry.unit());
+    }
+    return result;
+  }
+
+  /**
+   * Returns the number of lookups that found the grocery in the catalog.
+   *
+   * @return the number of hits
+   */
+  public static long getHits() {
+    return hits.sum();
+  }
+
+  /**
+   * Returns the number of lookups that did not find the grocery in the catalog.
+   *
+   * @return the number of misses
+   */
+  public static long getMisses() {
+    return misses.sum();
+  }
+
+  /**
+   * Returns the share of lookups that found the grocery in the catalog.
+   *
+   * @return the hit rate, between 0 and 1, or 0 if there have been no lookups
+   */
+  public static double getHitRate() {
+    long hitCount = getHits();
+    long total = hitCount + getMisses();
+    return total == 0 ? 0 : (double) hitCount / total;
+  }
+
+  /**
+   * Discards the catalog, so the grocery table is loaded again the next time the catalog is
+   * used, and resets the hit and miss counts.
+   */
+  public static void invalidate() {
+    synchronized (GroceryCatalog.class) {
+      groceries = null;
+    }
+    hits.reset();
+    misses.reset();
+  }
+}
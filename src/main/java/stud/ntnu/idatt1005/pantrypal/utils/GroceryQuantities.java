@@ -0,0 +1,44 @@
+package stud.ntnu.idatt1005.pantrypal.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+import stud.ntnu.idatt1005.pantrypal.models.Grocery;
+
+/**
+ * Utility class with the quantity math for buying the groceries of recipes.
+ * The groceries needed by recipes are compared to the groceries available in the pantry and the
+ * shopping list, and only the difference is bought.
+ * Goal: Share the quantity math between adding recipes to the shopping list and planning meals.
+ */
+public final class GroceryQuantities {
+
+  private GroceryQuantities() {
+  }
+
+  /**
+   * Sums the quantities of groceries by name. Groceries with the same name on different shelves
+   * are added together.
+   *
+   * @param groceries the groceries to sum
+   * @return the total quantity of every grocery, indexed by name
+   */
+  public static Map<String, Integer> sumQuantities(Grocery... groceries) {
+    Map<String, Integer> quantities = new HashMap<>();
+    for (Grocery grocery : groceries) {
+      quantities.merge(grocery.getKey(), grocery.getQuantity(), Integer::sum);
+    }
+    return quantities;
+  }
+
+  /**
+   * Returns the quantity of a grocery that must be bought, when a quantity is needed and a
+   * quantity is available.
+   *
+   * @param needed    the quantity needed
+   * @param available the quantity available
+   * @return the quantity to buy, or 0 if enough is available
+   */
+  public static int quantityToBuy(int needed, int available) {
+    return Math.max(0, needed - available);
+  }
+}
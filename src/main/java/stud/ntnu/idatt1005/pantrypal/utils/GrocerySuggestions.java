@@ -0,0 +1,215 @@
+package stud.ntnu.idatt1005.pantrypal.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import stud.ntnu.idatt1005.pantrypal.PantryPal;
+import stud.ntnu.idatt1005.pantrypal.registers.PrefixIndex;
+
+/**
+ * Utility class suggesting groceries and shelves while the user is typing.
+ * The groceries of the grocery catalog and the shelves of the user are indexed by prefix, and
+ * ranked by how often they are used in the pantry, the shopping list and the recipes. A grocery
+ * suggestion holds the unit of the grocery and the shelf it is usually placed on. The index is
+ * loaded the first time a suggestion is needed, and updated when groceries are used.
+ * Goal: Let the user reuse existing groceries instead of creating near duplicates.
+ */
+public final class GrocerySuggestions {
+
+  /**
+   * A suggested grocery, with its unit and the shelf it is usually placed on.
+   */
+  public static final class Suggestion {
+    private final String name;
+    private final String unit;
+    private final String shelf;
+
+    private Suggestion(String name, String unit, String shelf) {
+      this.name = name;
+      this.unit = unit;
+      this.shelf = shelf;
+    }
+
+    /**
+     * Returns the name of the grocery.
+     *
+     * @return the name of the grocery
+     */
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * Returns the unit of the grocery.
+     *
+     * @return the unit of the grocery
+     */
+    public String getUnit() {
+      return unit;
+    }
+
+    /**
+     * Returns the shelf the grocery is usually placed on.
+     *
+     * @return the name of the shelf, or null if the grocery has not been placed on a shelf
+     */
+    public String getShelf() {
+      return shelf;
+    }
+
+    @Override
+    public String toString() {
+      return shelf == null ? name + " (" + unit + ")" : name + " (" + unit + ", " + shelf + ")";
+    }
+  }
+
+  /**
+   * How a grocery is used: its unit, and how many times it is placed on each shelf.
+   */
+  private static final class Usage {
+    private final String name;
+    private final String unit;
+    private final Map<String, Long> shelves = new HashMap<>(2);
+    private long uses;
+    private String usualShelf;
+
+    private Usage(String name, String unit) {
+      this.name = name;
+      this.unit = unit;
+    }
+
+    private void addShelf(String shelf, long count) {
+      long shelfUses = shelves.merge(shelf, count, Long::sum);
+      if (usualShelf == null || shelfUses > shelves.get(usualShelf)) {
+        usualShelf = shelf;
+      }
+    }
+
+    private Suggestion toSuggestion() {
+      return new Suggestion(name, unit, usualShelf);
+    }
+  }
+
+  private static PrefixIndex<Usage> groceries;
+  private static PrefixIndex<String> shelves;
+
+  private GrocerySuggestions() {
+  }
+
+  /**
+   * Loads the groceries and shelves from the database, if they are not loaded.
+   */
+  private static void ensureLoaded() {
+    if (groceries != null) {
+      return;
+    }
+    Map<String, Usage> usages = new HashMap<>();
+    for (Map.Entry<String, String> grocery : GroceryCatalog.getGroceries().entrySet()) {
+      usages.put(grocery.getKey(), new Usage(grocery.getKey(), grocery.getValue()));
+    }
+
+    String usesQuery = "SELECT grocery_name, count(*) AS uses FROM ("
+        + "SELECT grocery_name FROM recipe_grocery "
+        + "UNION ALL SELECT psg.grocery_name FROM pantry_shelf_grocery psg "
+        + "JOIN pantry_shelf ps ON ps.id = psg.pantry_shelf_id WHERE ps.user_name = ? "
+        + "UNION ALL SELECT grocery_name FROM shopping_list_grocery WHERE user_name = ?) "
+        + "GROUP BY grocery_name";
+    for (Map<String, Object> row : SQL.executeQuery(usesQuery, PantryPal.userName,
+        PantryPal.userName)) {
+      Usage usage = usages.get(row.get("grocery_name").toString());
+      if (usage != null) {
+        usage.uses = ((Number) row.get("uses")).longValue();
+      }
+    }
+
+    Map<String, Long> shelfUses = new HashMap<>();
+    String shelvesQuery = "SELECT ps.name AS shelf, psg.grocery_name, count(*) AS uses "
+        + "FROM pantry_shelf ps LEFT JOIN pantry_shelf_grocery psg ON ps.id = psg.pantry_shelf_id "
+        + "WHERE ps.user_name = ? GROUP BY ps.name, psg.grocery_name "
+        + "UNION ALL SELECT shelf_name AS shelf, grocery_name, count(*) AS uses "
+        + "FROM shopping_list_grocery WHERE user_name = ? GROUP BY shelf_name, grocery_name";
+    for (Map<String, Object> row : SQL.executeQuery(shelvesQuery, PantryPal.userName,
+        PantryPal.userName)) {
+      String shelf = row.get("shelf").toString();
+      long uses = ((Number) row.get("uses")).longValue();
+      shelfUses.merge(shelf, uses, Long::sum);
+      Object groceryName = row.get("grocery_name");
+      Usage usage = groceryName == null ? null : usages.get(groceryName.toString());
+      if (usage != null) {
+        usage.addShelf(shelf, uses);
+      }
+    }
+
+    groceries = new PrefixIndex<>();
+    for (Usage usage : usages.values()) {
+      groceries.put(usage.name, usage, usage.uses);
+    }
+    shelves = new PrefixIndex<>();
+    for (Map.Entry<String, Long> shelf : shelfUses.entrySet()) {
+      shelves.put(shelf.getKey(), shelf.getKey(), shelf.getValue());
+    }
+  }
+
+  /**
+   * Suggests groceries with names starting with the prefix, most used first.
+   *
+   * @param prefix the prefix of the grocery name, in any case
+   * @param limit  the max number of suggestions
+   * @return the suggested groceries
+   */
+  public static synchronized List<Suggestion> suggestGroceries(String prefix, int limit) {
+    ensureLoaded();
+    List<Suggestion> suggestions = new ArrayList<>();
+    for (Usage usage : groceries.search(prefix, limit)) {
+      suggestions.add(usage.toSuggestion());
+    }
+    return suggestions;
+  }
+
+  /**
+   * Suggests shelves with names starting with the prefix, most used first.
+   *
+   * @param prefix the prefix of the shelf name, in any case
+   * @param limit  the max number of suggestions
+   * @return the suggested shelf names
+   */
+  public static synchronized List<String> suggestShelves(String prefix, int limit) {
+    ensureLoaded();
+    return shelves.search(prefix, limit);
+  }
+
+  /**
+   * Records that a grocery is used, so it is ranked higher in later suggestions. A grocery that
+   * is not suggested yet is added. Called by the controllers after a grocery is added or a recipe
+   * is saved, so groceries that are not stored are not recorded.
+   *
+   * @param name  the name of the grocery
+   * @param unit  the unit of the grocery
+   * @param shelf the shelf the grocery is placed on, or null
+   */
+  public static synchronized void recordUse(String name, String unit, String shelf) {
+    ensureLoaded();
+    Usage usage = groceries.get(name);
+    if (usage == null) {
+      usage = new Usage(name, unit);
+    }
+    usage.uses++;
+    if (shelf != null && !shelf.isEmpty()) {
+      usage.addShelf(shelf, 1);
+      if (!shelves.addWeight(shelf, 1)) {
+        shelves.put(shelf, shelf, 1);
+      }
+    }
+    groceries.put(usage.name, usage, usage.uses);
+  }
+
+  /**
+   * Discards the suggestions, so they are loaded again the next time they are needed. Used when
+   * the user logs in or out.
+   */
+  public static synchronized void invalidate() {
+    groceries = null;
+    shelves = null;
+  }
+}
@@ -0,0 +1,275 @@
+package stud.ntnu.idatt1005.pantrypal.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A reader of a stream of JSON values, which reads one value at a time. The stream is either a
+ * JSON array, where every element is read as a value, or JSON values separated by whitespace, as
+ * in JSON Lines. Only the value being read is held in memory, so streams larger than the memory
+ * can be read.
+ * Objects are read as maps in the order of their members, arrays as lists, whole numbers as
+ * longs, other numbers as doubles, and true, false and null as booleans and null.
+ */
+public class JsonStreamReader implements Closeable {
+
+  private static final int END = -1;
+
+  private final Reader reader;
+  private int peeked = -2;
+  private int line = 1;
+
+  /**
+   * Whether the stream is a JSON array, which is known when the first value is read.
+   */
+  private Boolean array;
+
+  /**
+   * Creates a reader of the JSON values of a stream. The stream should be buffered.
+   *
+   * @param reader the stream to read
+   */
+  public JsonStreamReader(Reader reader) {
+    this.reader = reader;
+  }
+
+  /**
+   * Checks if there is another value in the stream.
+   *
+   * @return true if there is another value, false if the stream has ended
+   * @throws IOException if the stream can not be read, or is not valid JSON
+   */
+  public boolean hasNext() throws IOException {
+    skipWhitespace();
+    if (array == null) {
+      array = peek() == '[';
+      if (array) {
+        read();
+        skipWhitespace();
+      }
+    }
+    if (!array) {
+      return peek() != END;
+    }
+    return peek() != ']';
+  }
+
+  /**
+   * Reads the next value of the stream.
+   *
+   * @return the value
+   * @throws IOException if the stream can not be read, is not valid JSON, or has ended
+   */
+  public Object next() throws IOException {
+    if (!hasNext()) {
+      throw error("No more values");
+    }
+    Object value = readValue();
+    if (array) {
+      skipWhitespace();
+      if (peek() == ',') {
+        read();
+      } else if (peek() != ']') {
+        throw error("Expected ',' or ']'");
+      }
+    }
+    return value;
+  }
+
+  private Object readValue() throws IOException {
+    skipWhitespace();
+    int c = peek();
+    switch (c) {
+      case '{':
+        return readObject();
+      case '[':
+        return readArray();
+      case '"':
+        return readString();
+      case 't':
+        readLiteral("true");
+        return Boolean.TRUE;
+      case 'f':
+        readLiteral("false");
+        return Boolean.FALSE;
+      case 'n':
+        readLiteral("null");
+        return null;
+      default:
+        if (c == '-' || (c >= '0' && c <= '9')) {
+          return readNumber();
+        }
+        throw error(c == END ? "Unexpected end of stream" : "Unexpected character '"
+            + (char) c + "'");
+    }
+  }
+
+  private Map<String, Object> readObject() throws IOException {
+    expect('{');
+    Map<String, Object> object = new LinkedHashMap<>();
+    skipWhitespace();
+    if (peek() == '}') {
+      read();
+      return object;
+    }
+    while (true) {
+      skipWhitespace();
+      String key = readString();
+      skipWhitespace();
+      expect(':');
+      object.put(key, readValue());
+      skipWhitespace();
+      if (peek() == ',') {
+        read();
+      } else {
+        expect('}');
+        return object;
+      }
+    }
+  }
+
+  private List<Object> readArray() throws IOException {
+    expect('[');
+    List<Object> list = new ArrayList<>();
+    skipWhitespace();
+    if (peek() == ']') {
+      read();
+      return list;
+    }
+    while (true) {
+      list.add(readValue());
+      skipWhitespace();
+      if (peek() == ',') {
+        read();
+      } else {
+        expect(']');
+        return list;
+      }
+    }
+  }
+
+  private String readString() throws IOException {
+    expect('"');
+    StringBuilder builder = new StringBuilder();
+    while (true) {
+      int c = read();
+      if (c == '"') {
+        return builder.toString();
+      } else if (c == '\\') {
+        builder.append(readEscape());
+      } else if (c == END || c == '\n') {
+        throw error("Unterminated string");
+      } else {
+        builder.append((char) c);
+      }
+    }
+  }
+
+  private char readEscape() throws IOException {
+    int c = read();
+    switch (c) {
+      case '"', '\\', '/':
+        return (char) c;
+      case 'b':
+        return '\b';
+      case 'f':
+        return '\f';
+      case 'n':
+        return '\n';
+      case 'r':
+        return '\r';
+      case 't':
+        return '\t';
+      case 'u':
+        int code = 0;
+        for (int i = 0; i < 4; i++) {
+          int digit = Character.digit(read(), 16);
+          if (digit < 0) {
+            throw error("Invalid unicode escape");
+          }
+          code = code * 16 + digit;
+        }
+        return (char) code;
+      default:
+        throw error("Invalid escape");
+    }
+  }
+
+  private Number readNumber() throws IOException {
+    StringBuilder builder = new StringBuilder();
+    boolean whole = true;
+    while (true) {
+      int c = peek();
+      if ((c >= '0' && c <= '9') || c == '-' || c == '+') {
+        builder.append((char) read());
+      } else if (c == '.' || c == 'e' || c == 'E') {
+        whole = false;
+        builder.append((char) read());
+      } else {
+        break;
+      }
+    }
+    try {
+      return whole ? (Number) Long.parseLong(builder.toString())
+          : (Number) Double.parseDouble(builder.toString());
+    } catch (NumberFormatException e) {
+      throw error("Invalid number " + builder);
+    }
+  }
+
+  private void readLiteral(String literal) throws IOException {
+    for (int i = 0; i < literal.length(); i++) {
+      if (read() != literal.charAt(i)) {
+        throw error("Invalid literal, expected " + literal);
+      }
+    }
+  }
+
+  private void skipWhitespace() throws IOException {
+    while (Character.isWhitespace(peek())) {
+      read();
+    }
+  }
+
+  private void expect(char expected) throws IOException {
+    int c = read();
+    if (c != expected) {
+      throw error("Expected '" + expected + "'");
+    }
+  }
+
+  private int peek() throws IOException {
+    if (peeked == -2) {
+      peeked = reader.read();
+    }
+    return peeked;
+  }
+
+  private int read() throws IOException {
+    int c = peek();
+    peeked = -2;
+    if (c == '\n') {
+      line++;
+    }
+    return c;
+  }
+
+  private IOException error(String message) {
+    return new IOException(message + " on line " + line);
+  }
+
+  /**
+   * Closes the stream.
+   *
+   * @throws IOException if the stream can not be closed
+   */
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+}
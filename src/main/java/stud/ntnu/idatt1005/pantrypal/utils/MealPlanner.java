@@ -0,0 +1,393 @@
+package stud.ntnu.idatt1005.pantrypal.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Class planning which recipes to make, so the groceries in the pantry are used and as little as
+ * possible has to be bought.
+ * The ingredients of the recipes are interned to dense grocery ids and stored as sparse vectors
+ * of quantities. A plan is scored by the number of groceries on the resulting shopping list, and
+ * then by the total quantity to buy. The purely greedy plan is the same for every search thread,
+ * so only the first thread starts from it, and the other threads start from randomized greedy
+ * plans. Every search thread improves its plan by swapping recipes in and out until no swap
+ * helps, and starts over from a randomized greedy plan until the time budget is spent. The best plan of all threads is shared, and every improvement
+ * is reported as it is found.
+ * Goal: Plan the meals of the week from the groceries in the pantry.
+ */
+public final class MealPlanner {
+
+  /**
+   * The number of best candidates a randomized greedy plan chooses between.
+   */
+  private static final int RANDOM_CHOICES = 3;
+
+  /**
+   * The cost of a grocery on the shopping list, which outweighs any quantity to buy.
+   */
+  private static final long ITEM_COST = 1L << 32;
+
+  /**
+   * A planned set of recipes, with the groceries that must be bought to make them.
+   */
+  public static final class Plan {
+    private final List<Integer> recipeIds;
+    private final Map<String, Integer> groceriesToBuy;
+    private final long cost;
+
+    private Plan(List<Integer> recipeIds, Map<String, Integer> groceriesToBuy, long cost) {
+      this.recipeIds = Collections.unmodifiableList(recipeIds);
+      this.groceriesToBuy = Collections.unmodifiableMap(groceriesToBuy);
+      this.cost = cost;
+    }
+
+    /**
+     * Returns the ids of the planned recipes, in ascending order.
+     *
+     * @return the ids of the recipes
+     */
+    public List<Integer> getRecipeIds() {
+      return recipeIds;
+    }
+
+    /**
+     * Returns the groceries that must be bought to make the planned recipes.
+     *
+     * @return the quantity to buy of every grocery, indexed by name
+     */
+    public Map<String, Integer> getGroceriesToBuy() {
+      return groceriesToBuy;
+    }
+
+    /**
+     * Returns the number of groceries that must be bought.
+     *
+     * @return the size of the shopping list of the plan
+     */
+    public int getShoppingListSize() {
+      return groceriesToBuy.size();
+    }
+
+    /**
+     * Check if the plan is better than another plan, that is if it has a shorter shopping list,
+     * or a smaller quantity to buy when the shopping lists are equally long.
+     *
+     * @param other the plan to compare with, or null
+     * @return true if the plan is better than the other plan, or the other plan is null
+     */
+    public boolean isBetterThan(Plan other) {
+      return other == null || cost < other.cost;
+    }
+  }
+
+  private final int[] recipeIds;
+  private final int[][] groceries;
+  private final int[][] quantities;
+  private final String[] groceryNames;
+  private final int[] stock;
+
+  /**
+   * Constructor for the MealPlanner. Grocery names are case-insensitive.
+   *
+   * @param ingredients the quantity of every ingredient of the recipes, indexed by recipe id and
+   *                    grocery name
+   * @param stock       the quantity of every grocery in the pantry, indexed by name
+   */
+  public MealPlanner(Map<Integer, Map<String, Integer>> ingredients, Map<String, Integer> stock) {
+    Map<String, Integer> ids = new HashMap<>();
+    List<String> names = new ArrayList<>();
+    this.recipeIds = new int[ingredients.size()];
+    this.groceries = new int[ingredients.size()][];
+    this.quantities = new int[ingredients.size()][];
+    int recipe = 0;
+    for (Map.Entry<Integer, Map<String, Integer>> entry : ingredients.entrySet()) {
+      Map<Integer, Integer> vector = new TreeMap<>();
+      for (Map.Entry<String, Integer> ingredient : entry.getValue().entrySet()) {
+        int id = ids.computeIfAbsent(ingredient.getKey().toLowerCase(Locale.ROOT), key -> {
+          names.add(ingredient.getKey());
+          return names.size() - 1;
+        });
+        vector.merge(id, ingredient.getValue(), Integer::sum);
+      }
+      recipeIds[recipe] = entry.getKey();
+      groceries[recipe] = vector.keySet().stream().mapToInt(Integer::intValue).toArray();
+      quantities[recipe] = vector.values().stream().mapToInt(Integer::intValue).toArray();
+      recipe++;
+    }
+    this.stock = new int[names.size()];
+    for (Map.Entry<String, Integer> grocery : stock.entrySet()) {
+      Integer id = ids.get(grocery.getKey().toLowerCase(Locale.ROOT));
+      if (id != null) {
+        this.stock[id] += grocery.getValue();
+      }
+    }
+    this.groceryNames = names.toArray(new String[0]);
+  }
+
+  /**
+   * Returns the number of recipes the planner chooses from.
+   *
+   * @return the number of recipes
+   */
+  public int getRecipeCount() {
+    return recipeIds.length;
+  }
+
+  /**
+   * Plans meals on background threads. Every time a better plan is found, it is passed to the
+   * listener, on the thread that found it. The returned future is completed with the best plan
+   * when the time budget is spent, or when every thread has found a plan it cannot improve.
+   *
+   * @param meals         the number of recipes to plan, at most one plan per recipe
+   * @param budgetMillis  the time budget of the search, in milliseconds
+   * @param onImprovement the listener for better plans
+   * @return the future best plan
+   * @throws IllegalArgumentException if the number of meals or the time budget is not positive
+   */
+  public CompletableFuture<Plan> planAsync(int meals, long budgetMillis,
+      Consumer<Plan> onImprovement) {
+    if (meals <= 0) {
+      throw new IllegalArgumentException("Number of meals must be positive");
+    }
+    if (budgetMillis <= 0) {
+      throw new IllegalArgumentException("Time budget must be positive");
+    }
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+    int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+      Thread thread = new Thread(runnable, "meal-planner");
+      thread.setDaemon(true);
+      return thread;
+    });
+    AtomicReference<Plan> best = new AtomicReference<>();
+    CompletableFuture<?>[] searches = new CompletableFuture<?>[threads];
+    for (int i = 0; i < threads; i++) {
+      long seed = i;
+      boolean greedy = i == 0;
+      searches[i] = CompletableFuture.runAsync(
+          () -> new Search(seed, greedy, meals, deadline, best, onImprovement).run(), executor);
+    }
+    return CompletableFuture.allOf(searches)
+        .whenComplete((result, exception) -> executor.shutdown())
+        .thenApply(result -> best.get());
+  }
+
+  /**
+   * Plans meals on the calling thread.
+   *
+   * @param meals        the number of recipes to plan
+   * @param budgetMillis the time budget of the search, in milliseconds
+   * @return the best plan found
+   * @throws IllegalArgumentException if the number of meals or the time budget is not positive
+   */
+  public Plan plan(int meals, long budgetMillis) {
+    if (meals <= 0) {
+      throw new IllegalArgumentException("Number of meals must be positive");
+    }
+    if (budgetMillis <= 0) {
+      throw new IllegalArgumentException("Time budget must be positive");
+    }
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+    AtomicReference<Plan> best = new AtomicReference<>();
+    new Search(0, true, meals, deadline, best, plan -> { }).run();
+    return best.get();
+  }
+
+  /**
+   * A search thread, with the plan it is improving. The quantity needed of every grocery and the
+   * cost of the plan are updated as recipes are added and removed, so trying a swap only visits
+   * the ingredients of the two recipes.
+   */
+  private final class Search {
+    private final Random random;
+    private final boolean greedy;
+    private final int meals;
+    private final long deadline;
+    private final AtomicReference<Plan> best;
+    private final Consumer<Plan> onImprovement;
+    private final int[] needed = new int[stock.length];
+    private final boolean[] planned = new boolean[recipeIds.length];
+    private final int[] plan;
+    private long cost;
+
+    private Search(long seed, boolean greedy, int meals, long deadline,
+        AtomicReference<Plan> best, Consumer<Plan> onImprovement) {
+      this.random = new Random(seed);
+      this.greedy = greedy;
+      this.meals = Math.min(meals, recipeIds.length);
+      this.deadline = deadline;
+      this.best = best;
+      this.onImprovement = onImprovement;
+      this.plan = new int[this.meals];
+    }
+
+    private boolean hasTime() {
+      return System.nanoTime() < deadline;
+    }
+
+    /**
+     * Builds and improves plans until the time budget is spent. The first plan of a greedy
+     * search is built purely greedily, and the other plans choose randomly between the best
+     * candidates.
+     */
+    private void run() {
+      boolean randomized = !greedy;
+      do {
+        build(randomized);
+        improve();
+        publish();
+        randomized = true;
+      } while (hasTime() && meals < recipeIds.length && cost > 0);
+    }
+
+    private long groceryCost(int grocery, int quantity) {
+      int toBuy = GroceryQuantities.quantityToBuy(quantity, stock[grocery]);
+      return toBuy == 0 ? 0 : ITEM_COST + toBuy;
+    }
+
+    /**
+     * Returns how much the cost of the plan changes if a recipe is added.
+     */
+    private long addCost(int recipe) {
+      long delta = 0;
+      for (int i = 0; i < groceries[recipe].length; i++) {
+        int grocery = groceries[recipe][i];
+        delta += groceryCost(grocery, needed[grocery] + quantities[recipe][i])
+            - groceryCost(grocery, needed[grocery]);
+      }
+      return delta;
+    }
+
+    private void add(int recipe) {
+      cost += addCost(recipe);
+      for (int i = 0; i < groceries[recipe].length; i++) {
+        needed[groceries[recipe][i]] += quantities[recipe][i];
+      }
+      planned[recipe] = true;
+    }
+
+    private void remove(int recipe) {
+      for (int i = 0; i < groceries[recipe].length; i++) {
+        needed[groceries[recipe][i]] -= quantities[recipe][i];
+      }
+      cost -= addCost(recipe);
+      planned[recipe] = false;
+    }
+
+    /**
+     * Builds a plan from scratch by adding the recipe that adds the least cost, one at a time.
+     *
+     * @param randomized true to choose randomly between the best few recipes
+     */
+    private void build(boolean randomized) {
+      Arrays.fill(needed, 0);
+      Arrays.fill(planned, false);
+      cost = 0;
+      int choices = randomized ? RANDOM_CHOICES : 1;
+      int[] candidates = new int[choices];
+      long[] deltas = new long[choices];
+      for (int meal = 0; meal < meals; meal++) {
+        int found = 0;
+        for (int recipe = 0; recipe < recipeIds.length; recipe++) {
+          if (planned[recipe]) {
+            continue;
+          }
+          long delta = addCost(recipe);
+          // Keep the best candidates sorted, best first
+          int index = Math.min(found, choices);
+          while (index > 0 && delta < deltas[index - 1]) {
+            if (index < choices) {
+              deltas[index] = deltas[index - 1];
+              candidates[index] = candidates[index - 1];
+            }
+            index--;
+          }
+          if (index < choices) {
+            deltas[index] = delta;
+            candidates[index] = recipe;
+            found = Math.min(found + 1, choices);
+          }
+        }
+        int chosen = candidates[random.nextInt(found)];
+        plan[meal] = chosen;
+        add(chosen);
+      }
+    }
+
+    /**
+     * Improves the plan by swapping a planned recipe for another recipe, as long as a swap
+     * lowers the cost and there is time left.
+     */
+    private void improve() {
+      boolean improved = true;
+      while (improved && cost > 0 && hasTime()) {
+        improved = false;
+        int start = random.nextInt(recipeIds.length);
+        for (int meal = 0; meal < meals && !improved; meal++) {
+          int removed = plan[meal];
+          long before = cost;
+          remove(removed);
+          for (int i = 0; i < recipeIds.length; i++) {
+            int recipe = (start + i) % recipeIds.length;
+            if (!planned[recipe] && recipe != removed && cost + addCost(recipe) < before) {
+              plan[meal] = recipe;
+              add(recipe);
+              improved = true;
+              break;
+            }
+          }
+          if (!improved) {
+            add(removed);
+          }
+        }
+      }
+    }
+
+    /**
+     * Shares the plan with the other threads, if it is better than the best plan found so far.
+     */
+    private void publish() {
+      Plan current = best.get();
+      if (current != null && cost >= current.cost) {
+        return;
+      }
+      Plan found = toPlan();
+      while (found.isBetterThan(current)) {
+        if (best.compareAndSet(current, found)) {
+          onImprovement.accept(found);
+          return;
+        }
+        current = best.get();
+      }
+    }
+
+    private Plan toPlan() {
+      List<Integer> ids = new ArrayList<>(meals);
+      for (int recipe : plan) {
+        ids.add(recipeIds[recipe]);
+      }
+      Collections.sort(ids);
+      Map<String, Integer> groceriesToBuy = new TreeMap<>();
+      for (int grocery = 0; grocery < needed.length; grocery++) {
+        int toBuy = GroceryQuantities.quantityToBuy(needed[grocery], stock[grocery]);
+        if (toBuy > 0) {
+          groceriesToBuy.put(groceryNames[grocery], toBuy);
+        }
+      }
+      return new Plan(ids, groceriesToBuy, cost);
+    }
+  }
+}
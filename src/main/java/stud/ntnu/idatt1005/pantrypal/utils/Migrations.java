@@ -0,0 +1,126 @@
+package stud.ntnu.idatt1005.pantrypal.utils;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Utility class for migrating the database to the schema used by the application.
+ * The version of the database schema is stored in the user_version pragma of the database.
+ * Every migration moves the schema one version up, and the migrations that are not applied to a
+ * database are run in order, each in its own transaction, the first time the application
+ * connects to it. The base schema, version 0, is created by schema.sql.
+ */
+public final class Migrations {
+
+  /**
+   * The migrations of the database, where the migration at index i moves the schema from
+   * version i to version i + 1. Migrations must never be changed once they are added, only new
+   * migrations may be added to the end of the list.
+   */
+  private static final List<List<String>> MIGRATIONS = List.of(
+      // 1: Full-text index over the name, description and steps of the recipes
+      List.of(
+          "CREATE VIRTUAL TABLE recipe_fts USING fts5(name, description, steps, "
+              + "tokenize = 'unicode61 remove_diacritics 2', prefix = '2 3')",
+          "INSERT INTO recipe_fts (rowid, name, description, steps) "
+              + "SELECT r.id, r.name, r.description, " + stepsOf("r.id") + " FROM recipe r",
+          "CREATE TRIGGER recipe_fts_insert AFTER INSERT ON recipe BEGIN "
+              + "INSERT INTO recipe_fts (rowid, name, description, steps) "
+              + "VALUES (new.id, new.name, new.description, " + stepsOf("new.id") + "); END",
+          "CREATE TRIGGER recipe_fts_update AFTER UPDATE ON recipe BEGIN "
+              + "UPDATE recipe_fts SET name = new.name, description = new.description "
+              + "WHERE rowid = new.id; END",
+          "CREATE TRIGGER recipe_fts_delete AFTER DELETE ON recipe BEGIN "
+              + "DELETE FROM recipe_fts WHERE rowid = old.id; END",
+          "CREATE TRIGGER recipe_fts_step_insert AFTER INSERT ON step BEGIN "
+              + "UPDATE recipe_fts SET steps = " + stepsOf("new.recipe_id")
+              + " WHERE rowid = new.recipe_id; END",
+          "CREATE TRIGGER recipe_fts_step_update AFTER UPDATE ON step BEGIN "
+              + "UPDATE recipe_fts SET steps = " + stepsOf("old.recipe_id")
+              + " WHERE rowid = old.recipe_id; "
+              + "UPDATE recipe_fts SET steps = " + stepsOf("new.recipe_id")
+              + " WHERE rowid = new.recipe_id; END",
+          "CREATE TRIGGER recipe_fts_step_delete AFTER DELETE ON step BEGIN "
+              + "UPDATE recipe_fts SET steps = " + stepsOf("old.recipe_id")
+              + " WHERE rowid = old.recipe_id; END"
+      ),
+      // 2: Progress of recipe imports, so an interrupted import can be resumed
+      List.of(
+          "CREATE TABLE import_progress (source VARCHAR(255) PRIMARY KEY, size INT NOT NULL, "
+              + "records INT NOT NULL)"
+      ),
+      // 3: Index of the steps by recipe, used when the steps of a recipe are read, and by the
+      // full-text triggers every time a step or recipe is written
+      List.of(
+          "CREATE INDEX step_recipe_id ON step (recipe_id)"
+      )
+  );
+
+  private Migrations() {
+  }
+
+  /**
+   * Returns an SQL expression concatenating the descriptions of the steps of a recipe.
+   *
+   * @param recipeId the SQL expression for the id of the recipe
+   * @return the SQL expression for the steps of the recipe
+   */
+  static String stepsOf(String recipeId) {
+    return "COALESCE((SELECT group_concat(description, ' ') FROM step WHERE recipe_id = "
+        + recipeId + "), '')";
+  }
+
+  /**
+   * Returns the version of the schema after every migration is applied.
+   *
+   * @return the latest schema version
+   */
+  public static int getLatestVersion() {
+    return MIGRATIONS.size();
+  }
+
+  /**
+   * Returns the schema version of the database.
+   *
+   * @param connection the connection to the database
+   * @return the schema version of the database
+   * @throws SQLException if the version can not be read
+   */
+  public static int getVersion(Connection connection) throws SQLException {
+    try (Statement statement = connection.createStatement();
+        ResultSet rs = statement.executeQuery("PRAGMA user_version")) {
+      return rs.next() ? rs.getInt(1) : 0;
+    }
+  }
+
+  /**
+   * Applies the migrations that are not applied to the database, in order.
+   *
+   * @param connection the connection to the database
+   * @throws SQLException if a migration fails, in which case that migration is rolled back
+   */
+  public static void migrate(Connection connection) throws SQLException {
+    int version = getVersion(connection);
+    boolean autoCommit = connection.getAutoCommit();
+    connection.setAutoCommit(false);
+    try (Statement statement = connection.createStatement()) {
+      for (int i = version; i < MIGRATIONS.size(); i++) {
+        try {
+          for (String sql : MIGRATIONS.get(i)) {
+            statement.execute(sql);
+          }
+          statement.execute("PRAGMA user_version = " + (i + 1));
+          connection.commit();
+        } catch (SQLException e) {
+          connection.rollback();
+          throw e;
+        }
+      }
+    } finally {
+      connection.setAutoCommit(autoCommit);
+    }
+  }
+}
@@ -0,0 +1,576 @@
+package stud.ntnu.idatt1005.pantrypal.utils;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Imports recipes from a file into the database. The file is read as a stream, so files larger
+ * than the memory can be imported.
+ * A JSON file holds an array of recipes, or one recipe per line as in JSON Lines. A recipe is an
+ * object with a name, a description, an image, a list of groceries, each with a name, a quantity
+ * and a unit, and a list of steps. A CSV file has a header row with the columns name,
+ * description, image, groceries and steps, where the groceries are written as
+ * {@code name:quantity:unit} separated by semicolons, and the steps are separated by {@code |}.
+ * A record with a type other than "recipe" is skipped, so the files written by
+ * {@link DataExporter} can be imported.
+ * The recipes are read in batches. The recipes of a batch are validated and normalized in
+ * parallel, and inserted into the database in one transaction, together with the number of
+ * records of the file that are imported. An interrupted import is resumed after the last
+ * imported batch when the same file is imported again. Recipes with the name of a stored recipe
+ * are skipped, so importing a file twice does not add its recipes twice.
+ * The cookbook should be reloaded after an import, as the recipes are not added to the
+ * registers and indexes of the running application.
+ */
+public class RecipeImporter {
+
+  /**
+   * The number of recipes inserted in one transaction by default.
+   */
+  public static final int DEFAULT_BATCH_SIZE = 500;
+
+  private static final int MAX_NAME_LENGTH = 255;
+  private static final int BUFFER_SIZE = 1 << 16;
+  private static final List<String> CSV_COLUMNS =
+      List.of("type", "name", "description", "image", "groceries", "steps");
+
+  /**
+   * The format of a file of recipes.
+   */
+  public enum Format {
+    JSON, CSV;
+
+    /**
+     * Returns the format of a file from its extension. Files ending with .csv are CSV files,
+     * other files are JSON files.
+     *
+     * @param file the file
+     * @return the format of the file
+     */
+    public static Format of(Path file) {
+      String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+      return name.endsWith(".csv") ? CSV : JSON;
+    }
+  }
+
+  /**
+   * A grocery of an imported recipe.
+   *
+   * @param name     the name of the grocery
+   * @param quantity the quantity of the grocery, which is positive
+   * @param unit     the unit of the grocery
+   */
+  public record ImportedGrocery(String name, int quantity, String unit) {
+  }
+
+  /**
+   * A validated and normalized recipe, ready to be inserted.
+   *
+   * @param name        the name of the recipe
+   * @param description the description of the recipe, which may be empty
+   * @param image       the image path of the recipe, or null if it has none
+   * @param groceries   the groceries of the recipe, with one entry for every grocery
+   * @param steps       the steps of the recipe, in order
+   */
+  public record ImportedRecipe(String name, String description, String image,
+                               List<ImportedGrocery> groceries, List<String> steps) {
+  }
+
+  /**
+   * The progress of an import.
+   *
+   * @param records          the number of records of the file that are read, including the
+   *                         records imported by an earlier, interrupted import
+   * @param imported         the number of recipes inserted by this import
+   * @param skipped          the number of records skipped by this import, as they were not
+   *                         valid or had the name of a stored recipe
+   * @param bytesRead        the number of bytes of the file that are read
+   * @param totalBytes       the size of the file
+   * @param recipesPerSecond the number of recipes inserted per second by this import
+   */
+  public record Progress(long records, long imported, long skipped, long bytesRead,
+                         long totalBytes, double recipesPerSecond) {
+
+    /**
+     * Returns the share of the file that is read.
+     *
+     * @return the share of the file that is read, between 0 and 1
+     */
+    public double fraction() {
+      return totalBytes == 0 ? 1 : Math.min(1, (double) bytesRead / totalBytes);
+    }
+  }
+
+  /**
+   * An input stream counting the bytes read from it.
+   */
+  private static final class CountingInputStream extends FilterInputStream {
+    private long count;
+
+    private CountingInputStream(InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = super.read();
+      if (b >= 0) {
+        count++;
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      int n = super.read(b, off, len);
+      if (n > 0) {
+        count += n;
+      }
+      return n;
+    }
+  }
+
+  /**
+   * A source of the raw records of a file, as maps from field name to value.
+   */
+  private interface RecordSource extends AutoCloseable {
+    Map<String, Object> next() throws IOException;
+
+    @Override
+    void close() throws IOException;
+  }
+
+  private final int batchSize;
+  private final Consumer<Progress> listener;
+
+  /**
+   * The names of the groceries added by the import, indexed by their lower case name, so a
+   * grocery written in different cases is added once.
+   */
+  private final Map<String, String> groceryNames = new ConcurrentHashMap<>();
+
+  /**
+   * Creates an importer inserting {@link #DEFAULT_BATCH_SIZE} recipes per transaction.
+   *
+   * @param listener the listener notified of the progress after every batch
+   */
+  public RecipeImporter(Consumer<Progress> listener) {
+    this(DEFAULT_BATCH_SIZE, listener);
+  }
+
+  /**
+   * Creates an importer.
+   *
+   * @param batchSize the number of records inserted in one transaction
+   * @param listener  the listener notified of the progress after every batch
+   * @throws IllegalArgumentException if the batch size is not positive, or the listener is null
+   */
+  public RecipeImporter(int batchSize, Consumer<Progress> listener)
+      throws IllegalArgumentException {
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("Batch size must be positive");
+    }
+    if (listener == null) {
+      throw new IllegalArgumentException("Listener cannot be null");
+    }
+    this.batchSize = batchSize;
+    this.listener = listener;
+  }
+
+  /**
+   * Imports the recipes of a file. If an earlier import of the file was interrupted, the import
+   * is resumed after the records that were imported, unless the size of the file has changed.
+   *
+   * @param file the file to import
+   * @return the progress when the import is done
+   * @throws IOException if the file can not be read, or is not valid JSON or CSV
+   */
+  public Progress importFile(Path file) throws IOException {
+    String source = file.toAbsolutePath().normalize().toString();
+    long size = Files.size(file);
+    long resumeAfter = getImportedRecords(source, size);
+    long start = System.nanoTime();
+
+    CountingInputStream counter = new CountingInputStream(Files.newInputStream(file));
+    BufferedReader reader = new BufferedReader(
+        new InputStreamReader(counter, StandardCharsets.UTF_8), BUFFER_SIZE);
+    long records = 0;
+    long imported = 0;
+    long skipped = 0;
+    Progress progress = new Progress(0, 0, 0, 0, size, 0);
+    try (RecordSource recordSource = openSource(Format.of(file), reader)) {
+      List<Map<String, Object>> batch = new ArrayList<>(batchSize);
+      boolean done = false;
+      while (!done) {
+        Map<String, Object> record = recordSource.next();
+        done = record == null;
+        if (!done) {
+          records++;
+          if (records > resumeAfter) {
+            batch.add(record);
+          }
+        }
+        if (batch.size() == batchSize || (done && !batch.isEmpty())) {
+          int inserted = insertBatch(source, size, records, normalizeAll(batch));
+          imported += inserted;
+          skipped += batch.size() - inserted;
+          batch.clear();
+        }
+        if (done || records % batchSize == 0) {
+          double seconds = (System.nanoTime() - start) / 1e9;
+          progress = new Progress(records, imported, skipped,
+              done ? size : Math.min(counter.count, size), size,
+              seconds > 0 ? imported / seconds : 0);
+          listener.accept(progress);
+        }
+      }
+    }
+    GroceryCatalog.invalidate();
+    return progress;
+  }
+
+  /**
+   * Forgets the progress of the imports of a file, so the next import of the file starts from
+   * the first record.
+   *
+   * @param file the file to forget the progress of
+   */
+  public static void resetProgress(Path file) {
+    SQL.executeUpdateAllowEmpty("DELETE FROM import_progress WHERE source = ?",
+        file.toAbsolutePath().normalize().toString());
+  }
+
+  /**
+   * Returns the number of records of a file imported by earlier imports.
+   *
+   * @param source the absolute path of the file
+   * @param size   the size of the file
+   * @return the number of imported records, or 0 if the file has not been imported, or has
+   *         changed size since it was imported
+   */
+  private static long getImportedRecords(String source, long size) {
+    List<Map<String, Object>> rows = SQL.executeQuery(
+        "SELECT size, records FROM import_progress WHERE source = ?", source);
+    if (rows.isEmpty() || ((Number) rows.get(0).get("size")).longValue() != size) {
+      return 0;
+    }
+    return ((Number) rows.get(0).get("records")).longValue();
+  }
+
+  private static RecordSource openSource(Format format, BufferedReader reader)
+      throws IOException {
+    if (format == Format.JSON) {
+      JsonStreamReader json = new JsonStreamReader(reader);
+      return new RecordSource() {
+        @Override
+        public Map<String, Object> next() throws IOException {
+          if (!json.hasNext()) {
+            return null;
+          }
+          Object value = json.next();
+          if (value instanceof Map<?, ?> map) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> record = (Map<String, Object>) map;
+            return record;
+          }
+          // Values that are not objects are kept as empty records, and skipped as not valid
+          return Collections.emptyMap();
+        }
+
+        @Override
+        public void close() throws IOException {
+          json.close();
+        }
+      };
+    }
+    CsvStreamReader csv = new CsvStreamReader(reader);
+    List<String> header = csv.readRow();
+    List<String> columns = new ArrayList<>();
+    if (header != null) {
+      for (String column : header) {
+        columns.add(column.trim().toLowerCase(Locale.ROOT));
+      }
+    }
+    return new RecordSource() {
+      @Override
+      public Map<String, Object> next() throws IOException {
+        List<String> row = csv.readRow();
+        if (row == null) {
+          return null;
+        }
+        Map<String, Object> record = new HashMap<>();
+        for (int i = 0; i < Math.min(columns.size(), row.size()); i++) {
+          if (CSV_COLUMNS.contains(columns.get(i))) {
+            record.put(columns.get(i), row.get(i));
+          }
+        }
+        return record;
+      }
+
+      @Override
+      public void close() throws IOException {
+        csv.close();
+      }
+    };
+  }
+
+  /**
+   * Validates and normalizes the records of a batch in parallel.
+   *
+   * @param batch the raw records
+   * @return the normalized recipes, in the order of the records, with null for the records that
+   *         are not valid
+   */
+  private List<ImportedRecipe> normalizeAll(List<Map<String, Object>> batch) {
+    return batch.parallelStream().map(record -> {
+      try {
+        return normalize(record, this::canonicalGroceryName);
+      } catch (IllegalArgumentException e) {
+        return null;
+      }
+    }).toList();
+  }
+
+  /**
+   * Returns the name a grocery is stored with, which is the name in the catalog if the grocery
+   * is stored, or the first spelling of the grocery in the import if it is new.
+   *
+   * @param name the name of the grocery
+   * @return the name the grocery is stored with
+   */
+  private String canonicalGroceryName(String name) {
+    if (GroceryCatalog.containsGrocery(name)) {
+      return GroceryCatalog.getStoredName(name);
+    }
+    return groceryNames.computeIfAbsent(name.toLowerCase(Locale.ROOT), key -> name);
+  }
+
+  /**
+   * Validates and normalizes a raw record. Whitespace in the texts is trimmed and collapsed,
+   * groceries written more than once are merged, and blank steps are removed. Groceries without
+   * a unit get their unit from the catalog, or "pcs".
+   *
+   * @param record      the raw record, with the fields of a recipe
+   * @param groceryName the function returning the name a grocery is stored with
+   * @return the normalized recipe
+   * @throws IllegalArgumentException if the record is not a recipe, has no name, a name that is
+   *                                  too long, or a grocery without a name or a positive whole
+   *                                  quantity that fits in an int
+   */
+  static ImportedRecipe normalize(Map<String, Object> record,
+      UnaryOperator<String> groceryName) throws IllegalArgumentException {
+    Object type = record.get("type");
+    if (type != null && !clean(type).isEmpty() && !clean(type).equals("recipe")) {
+      throw new IllegalArgumentException("Record is not a recipe");
+    }
+    String name = clean(record.get("name"));
+    if (name.isEmpty() || name.length() > MAX_NAME_LENGTH) {
+      throw new IllegalArgumentException("Recipe must have a name of at most "
+          + MAX_NAME_LENGTH + " characters");
+    }
+    String description = clean(record.get("description"));
+    String image = clean(record.get("image"));
+    if (!image.matches("(?i)^\\S.*\\.(png|jpg|jpeg|gif|bmp)(\\?\\S*)?$")) {
+      image = null;
+    }
+
+    Map<String, ImportedGrocery> groceries = new LinkedHashMap<>();
+    for (Object value : asList(record.get("groceries"), ";")) {
+      ImportedGrocery grocery = toGrocery(value);
+      String storedName = groceryName.apply(grocery.name());
+      String key = storedName.toLowerCase(Locale.ROOT);
+      ImportedGrocery existing = groceries.get(key);
+      long quantity = existing == null ? grocery.quantity()
+          : (long) existing.quantity() + grocery.quantity();
+      if (quantity > Integer.MAX_VALUE) {
+        throw new IllegalArgumentException("Quantity of " + storedName + " is too large");
+      }
+      groceries.put(key, existing == null
+          ? new ImportedGrocery(storedName, (int) quantity, grocery.unit())
+          : new ImportedGrocery(existing.name(), (int) quantity, existing.unit()));
+    }
+
+    List<String> steps = new ArrayList<>();
+    for (Object value : asList(record.get("steps"), "\\|")) {
+      String step = clean(value);
+      if (!step.isEmpty()) {
+        steps.add(step);
+      }
+    }
+    return new ImportedRecipe(name, description, image, List.copyOf(groceries.values()),
+        List.copyOf(steps));
+  }
+
+  private static ImportedGrocery toGrocery(Object value) throws IllegalArgumentException {
+    Object name;
+    Object quantity;
+    Object unit;
+    if (value instanceof Map<?, ?> map) {
+      name = map.get("name");
+      quantity = map.get("quantity");
+      unit = map.get("unit");
+    } else {
+      String[] parts = clean(value).split(":", -1);
+      name = parts[0];
+      quantity = parts.length > 1 ? parts[1] : null;
+      unit = parts.length > 2 ? parts[2] : null;
+    }
+    String groceryName = clean(name);
+    if (groceryName.isEmpty()) {
+      throw new IllegalArgumentException("Grocery must have a name");
+    }
+    int amount = toQuantity(quantity);
+    String groceryUnit = clean(unit).toLowerCase(Locale.ROOT);
+    if (groceryUnit.isEmpty()) {
+      groceryUnit = GroceryCatalog.getUnit(groceryName, "pcs");
+    }
+    return new ImportedGrocery(groceryName, amount, groceryUnit);
+  }
+
+  private static int toQuantity(Object value) throws IllegalArgumentException {
+    double quantity;
+    if (value instanceof Number number) {
+      quantity = number.doubleValue();
+    } else {
+      try {
+        quantity = Double.parseDouble(clean(value));
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Quantity must be a number");
+      }
+    }
+    if (quantity <= 0 || quantity > Integer.MAX_VALUE || quantity != Math.rint(quantity)) {
+      throw new IllegalArgumentException("Quantity must be a positive whole number");
+    }
+    return (int) quantity;
+  }
+
+  /**
+   * Returns the elements of a list field. A list is returned as it is, and a text is split by
+   * the separator.
+   */
+  private static List<?> asList(Object value, String separator) {
+    if (value == null) {
+      return List.of();
+    }
+    if (value instanceof List<?> list) {
+      return list;
+    }
+    String text = value.toString().trim();
+    return text.isEmpty() ? List.of() : List.of(text.split(separator));
+  }
+
+  /**
+   * Returns a text field with the whitespace trimmed and collapsed, or an empty text if the field
+   * is missing.
+   */
+  private static String clean(Object value) {
+    return value == null ? "" : value.toString().trim().replaceAll("\\s+", " ");
+  }
+
+  /**
+   * Inserts the valid recipes of a batch in one transaction, and stores the number of records of
+   * the file that are imported. The ids of the recipes are assigned after the largest stored id,
+   * so the recipes are inserted with one batched statement per table.
+   *
+   * @param source  the absolute path of the file
+   * @param size    the size of the file
+   * @param records the number of records of the file that are imported after this batch
+   * @param batch   the normalized recipes, with null for the records that are not valid
+   * @return the number of inserted recipes
+   */
+  private static int insertBatch(String source, long size, long records,
+      List<ImportedRecipe> batch) {
+    int[] inserted = new int[1];
+    SQL.executeInTransaction(transaction -> {
+      Set<String> names = new HashSet<>();
+      for (ImportedRecipe recipe : batch) {
+        if (recipe != null) {
+          names.add(recipe.name());
+        }
+      }
+      Set<String> stored = new HashSet<>();
+      if (!names.isEmpty()) {
+        String query = "SELECT name FROM recipe WHERE name IN ("
+            + String.join(", ", Collections.nCopies(names.size(), "?")) + ")";
+        for (Map<String, Object> row : transaction.executeQuery(query, names.toArray())) {
+          stored.add(row.get("name").toString());
+        }
+      }
+      Object maxId = transaction.executeQuery("SELECT MAX(id) AS id FROM recipe")
+          .get(0).get("id");
+      int nextId = maxId == null ? 1 : ((Number) maxId).intValue() + 1;
+
+      List<Object[]> recipeRows = new ArrayList<>();
+      Map<String, Object[]> groceryRows = new LinkedHashMap<>();
+      List<Object[]> recipeGroceryRows = new ArrayList<>();
+      List<Object[]> stepRows = new ArrayList<>();
+      for (ImportedRecipe recipe : batch) {
+        if (recipe == null || !stored.add(recipe.name())) {
+          continue;
+        }
+        int id = nextId++;
+        recipeRows.add(new Object[] {id, recipe.name(), recipe.description(), recipe.image()});
+        for (ImportedGrocery grocery : recipe.groceries()) {
+          groceryRows.putIfAbsent(grocery.name(), new Object[] {grocery.name(), grocery.unit()});
+          recipeGroceryRows.add(new Object[] {id, grocery.name(), grocery.quantity()});
+        }
+        for (String step : recipe.steps()) {
+          stepRows.add(new Object[] {step, id});
+        }
+      }
+      transaction.executeBatch("INSERT OR IGNORE INTO grocery (name, unit) VALUES (?, ?)",
+          new ArrayList<>(groceryRows.values()));
+      transaction.executeBatch("INSERT INTO recipe (id, name, description, image) "
+          + "VALUES (?, ?, ?, ?)", recipeRows);
+      transaction.executeBatch("INSERT INTO recipe_grocery (recipe_id, grocery_name, quantity) "
+          + "VALUES (?, ?, ?)", recipeGroceryRows);
+      transaction.executeBatch("INSERT INTO step (description, recipe_id) VALUES (?, ?)",
+          stepRows);
+      transaction.executeUpdate("INSERT INTO import_progress (source, size, records) "
+          + "VALUES (?, ?, ?) ON CONFLICT (source) DO UPDATE SET size = excluded.size, "
+          + "records = excluded.records", source, size, records);
+      inserted[0] = recipeRows.size();
+    });
+    return inserted[0];
+  }
+
+  /**
+   * Imports the recipes of the files given as arguments, and prints the progress. An import
+   * that was interrupted is resumed, unless the argument --restart is given first.
+   *
+   * @param args the files to import, optionally after --restart
+   * @throws IOException if a file can not be read, or is not valid JSON or CSV
+   */
+  public static void main(String[] args) throws IOException {
+    boolean restart = args.length > 0 && args[0].equals("--restart");
+    RecipeImporter importer = new RecipeImporter(progress -> System.out.printf(Locale.ROOT,
+        "%5.1f%%  %d records, %d imported, %d skipped, %.0f recipes/s%n",
+        progress.fraction() * 100, progress.records(), progress.imported(),
+        progress.skipped(), progress.recipesPerSecond()));
+    for (int i = restart ? 1 : 0; i < args.length; i++) {
+      Path file = Path.of(args[i]);
+      if (restart) {
+        resetProgress(file);
+      }
+      System.out.println("Importing " + file);
+      importer.importFile(file);
+    }
+  }
+}
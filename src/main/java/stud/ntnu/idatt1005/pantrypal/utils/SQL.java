@@ -1,51 +1,676 @@
 package stud.ntnu.idatt1005.pantrypal.utils;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
+/**
+ * Utility class for the database of the application. The database is either a file, or held in
+ * memory and written to a snapshot file at intervals. Which database is used is read from the
+ * system properties the first time a connection is opened:
+ * pantrypal.db is the path of the database file, or :memory: for an in-memory database, and is
+ * .pantrypal/database.sqlite in the home directory of the user if not set. The first time the
+ * default database file is used, it is copied from the database file the application used before
+ * its location could be set, if there is one.
+ * pantrypal.db.snapshot is the snapshot file of an in-memory database, and
+ * pantrypal.db.snapshotInterval the seconds between the snapshots.
+ */
 public class SQL {
 
-  private static final String database = "jdbc:sqlite:src/main/resources/db/database.sqlite";
+  /**
+   * The location of an in-memory database.
+   */
+  public static final String MEMORY = ":memory:";
+
+  private static final String LOCATION_PROPERTY = "pantrypal.db";
+  private static final String SNAPSHOT_PROPERTY = "pantrypal.db.snapshot";
+  private static final String SNAPSHOT_INTERVAL_PROPERTY = "pantrypal.db.snapshotInterval";
+  private static final long DEFAULT_SNAPSHOT_INTERVAL = 60;
+
+  /**
+   * The database file used before the location of the database could be set, relative to the
+   * working directory, and the copy of it shipped on the class path.
+   */
+  private static final Path LEGACY_DATABASE =
+      Path.of("src", "main", "resources", "db", "database.sqlite");
+  private static final String LEGACY_DATABASE_RESOURCE = "/db/database.sqlite";
+
+  private static volatile String database;
+  private static volatile boolean migrated;
+
+  /**
+   * The connection keeping an in-memory database alive, as the database is freed when its last
+   * connection is closed.
+   */
+  private static Connection memoryConnection;
+  private static Path snapshotFile;
+  private static ScheduledExecutorService snapshots;
+  private static int memoryDatabases;
+  private static boolean shutdownHookAdded;
+
+  /**
+   * A transaction on the database. The statements of the transaction are committed together when
+   * the transaction ends, or rolled back together if one of them fails.
+   */
+  public static final class Transaction {
+    private final Connection connection;
+    private final List<Runnable> afterCommit = new ArrayList<>();
+
+    private Transaction(Connection connection) {
+      this.connection = connection;
+    }
+
+    /**
+     * Executes a query in the transaction. The query sees the updates made earlier in the
+     * transaction.
+     *
+     * @param query  the query to execute
+     * @param params the parameters of the query
+     * @return the rows of the result, as maps from column name to value
+     */
+    public List<Map<String, Object>> executeQuery(String query, Object... params) {
+      try (PreparedStatement statement = connection.prepareStatement(query)) {
+        for (int i = 0; i < params.length; i++) {
+          statement.setObject(i + 1, params[i]);
+        }
+        try (ResultSet rs = statement.executeQuery()) {
+          return readRows(rs);
+        }
+      } catch (SQLException e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    /**
+     * Executes a query in the transaction, and passes the rows of the result to an action one at
+     * a time, as they are read from the cursor of the result.
+     *
+     * @param query  the query to execute
+     * @param action the action called for every row, with a map from column name to value
+     * @param params the parameters of the query
+     */
+    public void forEachRow(String query, Consumer<Map<String, Object>> action,
+        Object... params) {
+      try {
+        SQL.forEachRow(connection, query, action, params);
+      } catch (SQLException e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    /**
+     * Executes an update in the transaction.
+     *
+     * @param query  the query to execute
+     * @param params the parameters of the query
+     * @return the number of affected rows
+     */
+    public int executeUpdate(String query, Object... params) {
+      try (PreparedStatement statement = connection.prepareStatement(query)) {
+        for (int i = 0; i < params.length; i++) {
+          statement.setObject(i + 1, params[i]);
+        }
+        return statement.executeUpdate();
+      } catch (SQLException e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    /**
+     * Executes an insert in the transaction, and returns the key generated for the inserted row.
+     *
+     * @param query  the insert to execute
+     * @param params the parameters of the insert
+     * @return the generated key of the inserted row
+     */
+    public int executeUpdateWithGeneratedKeys(String query, Object... params) {
+      try (PreparedStatement statement = connection.prepareStatement(query)) {
+        for (int i = 0; i < params.length; i++) {
+          statement.setObject(i + 1, params[i]);
+        }
+        if (statement.executeUpdate() == 0) {
+          throw new SQLException("No rows affected");
+        }
+        try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+          if (!generatedKeys.next()) {
+            throw new SQLException("No generated key returned");
+          }
+          return generatedKeys.getInt(1);
+        }
+      } catch (SQLException e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    /**
+     * Executes an update once for every set of parameters in the transaction, with one prepared
+     * statement.
+     *
+     * @param query the query to execute
+     * @param rows  the parameters of every execution of the query
+     * @return the number of affected rows
+     */
+    public int executeBatch(String query, List<Object[]> rows) {
+      if (rows.isEmpty()) {
+        return 0;
+      }
+      try (PreparedStatement statement = connection.prepareStatement(query)) {
+        for (Object[] params : rows) {
+          for (int i = 0; i < params.length; i++) {
+            statement.setObject(i + 1, params[i]);
+          }
+          statement.addBatch();
+        }
+        int affectedRows = 0;
+        for (int count : statement.executeBatch()) {
+          affectedRows += Math.max(0, count);
+        }
+        return affectedRows;
+      } catch (SQLException e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    /**
+     * Executes the updates of a batch in the transaction, with one prepared statement per query.
+     *
+     * @param batch the updates to execute
+     */
+    public void executeBatch(Batch batch) {
+      for (Batch.Run run : batch.runs) {
+        executeBatch(run.query(), run.rows());
+      }
+    }
+
+    /**
+     * Runs an action after the transaction is committed, such as updating a cache with the
+     * written rows. The actions are run in the order they are added, and are not run if the
+     * transaction is rolled back.
+     *
+     * @param action the action to run
+     */
+    public void afterCommit(Runnable action) {
+      afterCommit.add(action);
+    }
+  }
+
+  /**
+   * A batch of updates, which are written to the database together by
+   * {@link #executeBatch(Batch)}. The updates are executed in the order they are added, and a run
+   * of updates with the same query added right after each other is executed with one prepared
+   * statement. Updates of the same row with different queries, like an insert followed by an
+   * update, are therefore never reordered.
+   */
+  public static final class Batch {
+
+    /**
+     * Updates with the same query, added right after each other.
+     *
+     * @param query the query of the updates
+     * @param rows  the parameters of every update
+     */
+    private record Run(String query, List<Object[]> rows) {
+    }
+
+    private final List<Run> runs = new ArrayList<>();
+
+    /**
+     * Adds an update to the batch. The update is added to the latest run if it has the same
+     * query, or starts a new run.
+     *
+     * @param query  the query to execute
+     * @param params the parameters of the query
+     */
+    public void add(String query, Object... params) {
+      Run last = runs.isEmpty() ? null : runs.get(runs.size() - 1);
+      if (last == null || !last.query().equals(query)) {
+        last = new Run(query, new ArrayList<>());
+        runs.add(last);
+      }
+      last.rows().add(params);
+    }
+
+    /**
+     * Checks if the batch has no updates.
+     *
+     * @return true if the batch is empty, false if not
+     */
+    public boolean isEmpty() {
+      return runs.isEmpty();
+    }
+  }
+
+  /**
+   * Sets the database of the application, with snapshots of an in-memory database every
+   * {@value #DEFAULT_SNAPSHOT_INTERVAL} seconds.
+   *
+   * @param location the path of the database file, or {@link #MEMORY}
+   * @param snapshot the snapshot file of an in-memory database, or null for no snapshots
+   * @throws IllegalArgumentException if the location is blank
+   * @see #configure(String, Path, long)
+   */
+  public static void configure(String location, Path snapshot) throws IllegalArgumentException {
+    configure(location, snapshot, DEFAULT_SNAPSHOT_INTERVAL);
+  }
+
+  /**
+   * Sets the database of the application. The location is either the path of a database file,
+   * which is created with schema.sql and seed.sql if it does not exist, or {@link #MEMORY}.
+   * An in-memory database is restored from the snapshot file if it exists, and created with
+   * schema.sql and seed.sql if not. It is then written to the snapshot file with the online
+   * backup API at every interval, when another database is set, and when the application exits,
+   * so at most the changes of one interval are lost if the application is killed.
+   * The previous database is closed, after its last snapshot is written, and the grocery
+   * catalog and suggestions read from it are discarded.
+   *
+   * @param location the path of the database file, or {@link #MEMORY}
+   * @param snapshot the snapshot file of an in-memory database, or null for no snapshots
+   * @param interval the seconds between the snapshots
+   * @throws IllegalArgumentException if the location is blank, the interval is not positive, or
+   *                                  the snapshot file has a double quote in its path
+   */
+  public static synchronized void configure(String location, Path snapshot, long interval)
+      throws IllegalArgumentException {
+    if (location == null || location.isBlank()) {
+      throw new IllegalArgumentException("Database location cannot be blank");
+    }
+    if (interval <= 0) {
+      throw new IllegalArgumentException("Snapshot interval must be positive");
+    }
+    Path snapshotPath = snapshot == null ? null : snapshot.toAbsolutePath();
+    String quotedSnapshot = snapshotPath == null ? null : quote(snapshotPath);
+    close();
+    try {
+      if (location.equals(MEMORY)) {
+        openMemory("jdbc:sqlite:file:/pantrypal-" + ++memoryDatabases + "?vfs=memdb",
+            snapshotPath, quotedSnapshot, interval);
+      } else {
+        openFile(Path.of(location).toAbsolutePath());
+      }
+    } catch (SQLException | IOException e) {
+      throw new RuntimeException(e);
+    }
+    GroceryCatalog.invalidate();
+    GrocerySuggestions.invalidate();
+  }
+
+  /**
+   * Copies the database file used before the location of the database could be set to a new
+   * database file, so the data of the users is kept. The file in the working directory is copied
+   * if it exists, and the copy on the class path if not. Does nothing if the new file exists.
+   * The file is copied to a temporary file first, so a copy that fails is never used.
+   *
+   * @param legacy the database file used before
+   * @param target the new database file
+   * @return true if a database was copied, false if not
+   * @throws IOException if the database can not be copied
+   */
+  static boolean copyLegacyDatabase(Path legacy, Path target) throws IOException {
+    if (Files.exists(target)) {
+      return false;
+    }
+    try (InputStream stream = Files.isRegularFile(legacy) ? Files.newInputStream(legacy)
+        : SQL.class.getResourceAsStream(LEGACY_DATABASE_RESOURCE)) {
+      if (stream == null) {
+        return false;
+      }
+      Files.createDirectories(target.toAbsolutePath().getParent());
+      Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+      Files.copy(stream, temporary, StandardCopyOption.REPLACE_EXISTING);
+      Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+      return true;
+    }
+  }
+
+  private static void openMemory(String url, Path snapshot, String quotedSnapshot, long interval)
+      throws SQLException, IOException {
+    Connection connection = DriverManager.getConnection(url);
+    try (Statement statement = connection.createStatement()) {
+      if (snapshot != null && Files.exists(snapshot)) {
+        statement.executeUpdate("restore from " + quotedSnapshot);
+      } else {
+        createSchema(connection);
+      }
+    } catch (SQLException | IOException | RuntimeException e) {
+      connection.close();
+      throw e;
+    }
+    memoryConnection = connection;
+    migrated = false;
+    database = url;
+    if (snapshot != null) {
+      Files.createDirectories(snapshot.getParent());
+      snapshotFile = snapshot;
+      snapshots = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "database-snapshots");
+        thread.setDaemon(true);
+        return thread;
+      });
+      snapshots.scheduleWithFixedDelay(() -> {
+        try {
+          snapshot();
+        } catch (RuntimeException e) {
+          Thread thread = Thread.currentThread();
+          thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+        }
+      }, interval, interval, TimeUnit.SECONDS);
+      if (!shutdownHookAdded) {
+        Runtime.getRuntime().addShutdownHook(new Thread(SQL::snapshot, "database-snapshot"));
+        shutdownHookAdded = true;
+      }
+    }
+  }
+
+  private static void openFile(Path file) throws SQLException, IOException {
+    String url = "jdbc:sqlite:" + file;
+    if (Files.notExists(file)) {
+      Files.createDirectories(file.getParent());
+      try (Connection connection = DriverManager.getConnection(url)) {
+        createSchema(connection);
+      } catch (SQLException | IOException | RuntimeException e) {
+        Files.deleteIfExists(file);
+        throw e;
+      }
+    }
+    migrated = false;
+    database = url;
+  }
+
+  /**
+   * Creates the tables of a new database with schema.sql, and fills them with seed.sql, in one
+   * transaction.
+   *
+   * @param connection the connection to the new database
+   * @throws SQLException if a statement of the scripts fails
+   * @throws IOException  if a script can not be read
+   */
+  private static void createSchema(Connection connection) throws SQLException, IOException {
+    connection.setAutoCommit(false);
+    try (Statement statement = connection.createStatement()) {
+      statement.executeUpdate(readScript("/db/schema.sql"));
+      statement.executeUpdate(readScript("/db/seed.sql"));
+      connection.commit();
+    } catch (SQLException | IOException e) {
+      connection.rollback();
+      throw e;
+    } finally {
+      connection.setAutoCommit(true);
+    }
+  }
+
+  private static String readScript(String resource) throws IOException {
+    try (InputStream stream = SQL.class.getResourceAsStream(resource)) {
+      if (stream == null) {
+        throw new IOException("Missing script " + resource);
+      }
+      return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+    }
+  }
+
+  /**
+   * Writes the last snapshot of the current database and closes it.
+   */
+  private static void close() {
+    if (snapshots != null) {
+      snapshots.shutdownNow();
+      snapshots = null;
+    }
+    try {
+      if (snapshotFile != null) {
+        snapshot();
+      }
+    } finally {
+      snapshotFile = null;
+      database = null;
+      if (memoryConnection != null) {
+        try {
+          memoryConnection.close();
+        } catch (SQLException e) {
+          throw new RuntimeException(e);
+        } finally {
+          memoryConnection = null;
+        }
+      }
+    }
+  }
+
+  /**
+   * Writes the in-memory database to its snapshot file. The database is backed up to a
+   * temporary file, which then replaces the snapshot file, so the snapshot file always holds a
+   * whole snapshot. Does nothing if the database has no snapshot file.
+   */
+  public static synchronized void snapshot() {
+    if (snapshotFile == null) {
+      return;
+    }
+    Path temporary = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+    backup(temporary);
+    try {
+      Files.move(temporary, snapshotFile, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Returns the URL of the database, and sets the database from the system properties if it is
+   * not set.
+   *
+   * @return the JDBC URL of the database
+   */
+  private static synchronized String getDatabase() {
+    if (database == null) {
+      String location = System.getProperty(LOCATION_PROPERTY);
+      if (location == null) {
+        Path file = Path.of(System.getProperty("user.home"), ".pantrypal", "database.sqlite");
+        try {
+          copyLegacyDatabase(LEGACY_DATABASE, file);
+        } catch (IOException e) {
+          throw new RuntimeException(e);
+        }
+        location = file.toString();
+      }
+      String snapshot = System.getProperty(SNAPSHOT_PROPERTY);
+      configure(location, snapshot == null ? null : Path.of(snapshot),
+          Long.getLong(SNAPSHOT_INTERVAL_PROPERTY, DEFAULT_SNAPSHOT_INTERVAL));
+    }
+    return database;
+  }
+
+  /**
+   * Opens a connection to the database. The first time a connection is opened, the database is
+   * migrated to the latest schema version.
+   *
+   * @return the connection to the database
+   * @throws SQLException if the connection can not be opened or the migration fails
+   */
+  private static Connection getConnection() throws SQLException {
+    String url = database;
+    Connection connection = DriverManager.getConnection(url != null ? url : getDatabase());
+    if (!migrated) {
+      synchronized (SQL.class) {
+        if (!migrated) {
+          try {
+            Migrations.migrate(connection);
+          } catch (SQLException e) {
+            connection.close();
+            throw e;
+          }
+          migrated = true;
+        }
+      }
+    }
+    return connection;
+  }
+
+  /**
+   * Executes statements in one transaction. The transaction is committed when the work is done,
+   * and rolled back if the work throws an exception.
+   *
+   * @param work the statements to execute
+   */
+  public static void executeInTransaction(Consumer<Transaction> work) {
+    try (Connection connection = getConnection()) {
+      connection.setAutoCommit(false);
+      Transaction transaction = new Transaction(connection);
+      try {
+        work.accept(transaction);
+        connection.commit();
+      } catch (RuntimeException e) {
+        connection.rollback();
+        throw e;
+      }
+      transaction.afterCommit.forEach(Runnable::run);
+    } catch (SQLException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Executes the updates of a batch in one transaction, with one prepared statement per query.
+   * Does nothing if the batch is empty.
+   *
+   * @param batch the updates to execute
+   */
+  public static void executeBatch(Batch batch) {
+    if (batch.isEmpty()) {
+      return;
+    }
+    executeInTransaction(transaction -> transaction.executeBatch(batch));
+  }
 
   public static List<Map<String, Object>> executeQuery(String query, Object... params) {
     List<Map<String, Object>> resultList = new ArrayList<>();
-    try (Connection connection = DriverManager.getConnection(database);
+    try (Connection connection = getConnection();
         PreparedStatement statement = connection.prepareStatement(query)) {
 
       for(int i = 0; i < params.length; i++) {
         statement.setObject(i + 1, params[i]);
       }
 
+      try (ResultSet rs = statement.executeQuery()) {
+        resultList.addAll(readRows(rs));
+      }
+    } catch (SQLException e) {
+      throw new RuntimeException(e);
+    }
+    return resultList;
+  }
+
+  /**
+   * Reads the rows of a result set.
+   *
+   * @param rs the result set to read
+   * @return the rows, as maps from column name to value
+   * @throws SQLException if the result set can not be read
+   */
+  private static List<Map<String, Object>> readRows(ResultSet rs) throws SQLException {
+    List<Map<String, Object>> rows = new ArrayList<>();
+    ResultSetMetaData rsmd = rs.getMetaData();
+    int columnCount = rsmd.getColumnCount();
+
+    while (rs.next()) {
+      Map<String, Object> row = new HashMap<>();
+      for (int i = 1; i <= columnCount; i++) {
+        row.put(rsmd.getColumnName(i), rs.getObject(i));
+      }
+      rows.add(row);
+    }
+    return rows;
+  }
+
+  /**
+   * Executes a query, and passes the rows of the result to an action one at a time, as they are
+   * read from the cursor of the result. The rows are not collected, so a result of any size is
+   * read in constant memory.
+   *
+   * @param query  the query to execute
+   * @param action the action called for every row, with a map from column name to value
+   * @param params the parameters of the query
+   */
+  public static void forEachRow(String query, Consumer<Map<String, Object>> action,
+      Object... params) {
+    try (Connection connection = getConnection()) {
+      forEachRow(connection, query, action, params);
+    } catch (SQLException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static void forEachRow(Connection connection, String query,
+      Consumer<Map<String, Object>> action, Object... params) throws SQLException {
+    try (PreparedStatement statement = connection.prepareStatement(query)) {
+      for (int i = 0; i < params.length; i++) {
+        statement.setObject(i + 1, params[i]);
+      }
       try (ResultSet rs = statement.executeQuery()) {
         ResultSetMetaData rsmd = rs.getMetaData();
         int columnCount = rsmd.getColumnCount();
-
         while (rs.next()) {
           Map<String, Object> row = new HashMap<>();
           for (int i = 1; i <= columnCount; i++) {
-            String colName = rsmd.getColumnName(i);
-            Object colValue = rs.getObject(i);
-            row.put(colName, colValue);
+            row.put(rsmd.getColumnName(i), rs.getObject(i));
           }
-          resultList.add(row);
+          action.accept(row);
         }
       }
+    }
+  }
+
+  /**
+   * Copies the database to a file with the online backup API of SQLite. The copy is a
+   * consistent snapshot of the database, and the database can be read and written by other
+   * connections while it is copied.
+   *
+   * @param target the file to copy the database to, which is replaced if it exists
+   * @throws IllegalArgumentException if the path of the file has a double quote
+   */
+  public static void backup(Path target) throws IllegalArgumentException {
+    String path = quote(target.toAbsolutePath());
+    try (Connection connection = getConnection();
+        Statement statement = connection.createStatement()) {
+      statement.executeUpdate("backup to " + path);
     } catch (SQLException e) {
       throw new RuntimeException(e);
     }
-    return resultList;
+  }
+
+  /**
+   * Returns a path in double quotes, as it is written in the backup and restore commands.
+   *
+   * @param path the path to quote
+   * @return the quoted path
+   * @throws IllegalArgumentException if the path has a double quote
+   */
+  private static String quote(Path path) throws IllegalArgumentException {
+    String text = path.toString();
+    if (text.contains("\"")) {
+      throw new IllegalArgumentException("Database path cannot contain double quotes");
+    }
+    return '"' + text + '"';
   }
 
   public static int executeUpdate(String query, Object... params) {
-    try (Connection connection = DriverManager.getConnection(database);
+    try (Connection connection = getConnection();
         PreparedStatement statement = connection.prepareStatement(query)) {
 
       for(int i = 0; i < params.length; i++) {
@@ -64,8 +689,22 @@ public class SQL {
     }
   }
 
+  public static int executeUpdateAllowEmpty(String query, Object... params) {
+    try (Connection connection = getConnection();
+        PreparedStatement statement = connection.prepareStatement(query)) {
+
+      for(int i = 0; i < params.length; i++) {
+        statement.setObject(i + 1, params[i]);
+      }
+
+      return statement.executeUpdate();
+    } catch (SQLException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
   public static int executeUpdateWithGeneratedKeys(String query, Object... params){
-    try (Connection connection = DriverManager.getConnection(database);
+    try (Connection connection = getConnection();
         PreparedStatement statement = connection.prepareStatement(query)) {
 
       for(int i = 0; i < params.length; i++) {
@@ -0,0 +1,36 @@
+package stud.ntnu.idatt1005.pantrypal.utils;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Utility class for resolving the style sheets of the application.
+ * The external form of each style sheet is resolved once and cached, so every scene and node
+ * using a style sheet gets the same URL. JavaFX caches parsed style sheets by URL, which means
+ * that a style sheet is only parsed the first time it is used.
+ */
+public final class StyleSheets {
+
+  /**
+   * The shared style sheet for the components used in every view.
+   */
+  public static final String COMPONENTS = "/styles/components.css";
+
+  private static final Map<String, String> urls = new ConcurrentHashMap<>();
+
+  private StyleSheets() {
+  }
+
+  /**
+   * Returns the external form of the style sheet with the given resource path.
+   *
+   * @param path the resource path of the style sheet, e.g. "/styles/pantry.css"
+   * @return the external form of the style sheet
+   * @throws NullPointerException if the style sheet does not exist
+   */
+  public static String get(String path) {
+    return urls.computeIfAbsent(path, p ->
+        Objects.requireNonNull(StyleSheets.class.getResource(p)).toExternalForm());
+  }
+}
@@ -0,0 +1,169 @@
+package stud.ntnu.idatt1005.pantrypal.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+/**
+ * Utility class for finding the largest font size a text can have while fitting in a given width.
+ * The width of a text grows close to linearly with the font size, so the font size is first
+ * estimated from a single measurement, and then corrected with a binary search. The results are
+ * cached by text, font and width, so texts that are rendered again are not measured again.
+ * Goal: Keep layout measurement out of the render loop of views with many texts.
+ */
+public class TextFit {
+
+  /**
+   * Measures the width of a text with a given font and font size.
+   */
+  @FunctionalInterface
+  public interface Measurer {
+
+    /**
+     * Measures the width of a text.
+     *
+     * @param text     the text to be measured
+     * @param fontName the name of the font
+     * @param size     the size of the font
+     * @return the width of the text
+     */
+    double measure(String text, String fontName, double size);
+  }
+
+  /**
+   * The smallest font size returned, and the granularity of the returned font sizes.
+   */
+  public static final double STEP = 0.5;
+  private static final double REFERENCE_SIZE = 100;
+  private static final int CACHE_SIZE = 1024;
+
+  private static TextFit shared;
+
+  private final Measurer measurer;
+  private final Map<Key, Double> cache = new LinkedHashMap<>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Key, Double> eldest) {
+      return size() > CACHE_SIZE;
+    }
+  };
+
+  /**
+   * Constructor for TextFit.
+   *
+   * @param measurer the measurer used to measure the width of texts
+   */
+  public TextFit(Measurer measurer) {
+    this.measurer = Objects.requireNonNull(measurer);
+  }
+
+  /**
+   * Returns the shared TextFit of the application, which measures texts with a JavaFX Text node.
+   * Must be used from the JavaFX application thread.
+   *
+   * @return the shared TextFit
+   */
+  public static TextFit shared() {
+    if (shared == null) {
+      Text text = new Text();
+      shared = new TextFit((content, fontName, size) -> {
+        text.setText(content);
+        text.setFont(new Font(fontName, size));
+        return text.getLayoutBounds().getWidth();
+      });
+    }
+    return shared;
+  }
+
+  /**
+   * Returns the largest font size, in steps of {@link #STEP}, that makes a text fit in the
+   * given width. The font size is never larger than the given max size, and never smaller than
+   * {@link #STEP}.
+   *
+   * @param text     the text to fit
+   * @param font     the font of the text, only the name of the font is used
+   * @param maxSize  the largest font size allowed
+   * @param maxWidth the width the text has to fit in
+   * @return the font size that makes the text fit
+   */
+  public double fitFontSize(String text, Font font, double maxSize, double maxWidth) {
+    return fitFontSize(text, font.getName(), maxSize, maxWidth);
+  }
+
+  /**
+   * Returns the largest font size, in steps of {@link #STEP}, that makes a text fit in the
+   * given width. The font size is never larger than the given max size, and never smaller than
+   * {@link #STEP}.
+   *
+   * @param text     the text to fit
+   * @param fontName the name of the font of the text
+   * @param maxSize  the largest font size allowed
+   * @param maxWidth the width the text has to fit in
+   * @return the font size that makes the text fit
+   */
+  public double fitFontSize(String text, String fontName, double maxSize, double maxWidth) {
+    if (text == null || text.isEmpty()) {
+      return maxSize;
+    }
+    Key key = new Key(text, fontName, maxSize, maxWidth);
+    Double size = cache.get(key);
+    if (size == null) {
+      size = computeFontSize(text, fontName, maxSize, maxWidth);
+      cache.put(key, size);
+    }
+    return size;
+  }
+
+  /**
+   * Computes the font size that makes a text fit, by estimating the font size from the width of
+   * the text at a reference size, and searching the steps between the smallest size and the max
+   * size for the largest size that fits, starting at the estimate.
+   */
+  private double computeFontSize(String text, String fontName, double maxSize, double maxWidth) {
+    double widthPerSize = measurer.measure(text, fontName, REFERENCE_SIZE) / REFERENCE_SIZE;
+    // Sizes are searched as whole steps, from 1 step (STEP) to maxSteps steps (maxSize)
+    int maxSteps = (int) Math.floor(maxSize / STEP);
+    if (widthPerSize <= 0 || maxSteps <= 1) {
+      return maxSize;
+    }
+    int estimate = Math.max(1, Math.min(maxSteps, (int) Math.floor(maxWidth / widthPerSize / STEP)));
+
+    int low;
+    int high;
+    if (fits(text, fontName, estimate, maxWidth)) {
+      if (estimate == maxSteps || !fits(text, fontName, estimate + 1, maxWidth)) {
+        return estimate == maxSteps ? maxSize : estimate * STEP;
+      }
+      low = estimate + 1;
+      high = maxSteps;
+    } else {
+      low = 1;
+      high = estimate - 1;
+    }
+    // Invariant: low fits (or is the smallest step), everything above high does not fit
+    while (low < high) {
+      int middle = (low + high + 1) / 2;
+      if (fits(text, fontName, middle, maxWidth)) {
+        low = middle;
+      } else {
+        high = middle - 1;
+      }
+    }
+    return low == maxSteps ? maxSize : low * STEP;
+  }
+
+  private boolean fits(String text, String fontName, int steps, double maxWidth) {
+    return measurer.measure(text, fontName, steps * STEP) <= maxWidth;
+  }
+
+  /**
+   * Clears the cached font sizes.
+   */
+  public void clearCache() {
+    cache.clear();
+  }
+
+  private record Key(String text, String fontName, double maxSize, double maxWidth) {
+  }
+}
@@ -2,6 +2,8 @@ package stud.ntnu.idatt1005.pantrypal.utils;
 
 import java.util.EnumMap;
 import java.util.Map;
+import java.util.function.Supplier;
+import javafx.application.Platform;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 import stud.ntnu.idatt1005.pantrypal.controllers.CookbookController;
@@ -10,14 +12,25 @@ import stud.ntnu.idatt1005.pantrypal.controllers.LogInController;
 import stud.ntnu.idatt1005.pantrypal.controllers.PantryController;
 import stud.ntnu.idatt1005.pantrypal.controllers.ShoppingListController;
 import stud.ntnu.idatt1005.pantrypal.enums.Route;
+import stud.ntnu.idatt1005.pantrypal.events.NavigateEvent;
 
 /**
  * The ViewManager class is responsible for managing the views in the application.
  * It keeps track of the views and provides methods for adding, removing, and setting views.
+ * Views can either be added directly, or registered as a factory for a route. A registered
+ * factory is not called until the route is navigated to (or prefetched), so views the user never
+ * visits are never built.
  */
 public class ViewManager {
   private final Stage stage;
   private final EnumMap<Route, Scene> views = new EnumMap<>(Route.class);
+  private final EnumMap<Route, Supplier<? extends Scene>> factories = new EnumMap<>(Route.class);
+
+  /**
+   * The event bus the views publish the actions of the user to, and the controllers subscribe
+   * to. A new event bus is created every time the controllers are created.
+   */
+  private EventBus eventBus = new EventBus();
 
   /**
    * Constructs a new ViewManager with a given stage.
@@ -29,9 +42,19 @@ public class ViewManager {
   }
 
   /**
-   * Initializes the controllers and views for the application.
+   * Initializes the controllers for the application, and registers the factories for their views.
+   * Any views, factories and event subscriptions from an earlier initialization are discarded.
+   * Only the home view is built right away, the cookbook view is prefetched once the home view is
+   * shown.
    */
   public void init() {
+    views.clear();
+    factories.clear();
+    eventBus.close();
+    eventBus = new EventBus();
+    eventBus.subscribe(NavigateEvent.class, event -> setView(event.route()));
+    GrocerySuggestions.invalidate();
+
     HomeController homeController = new HomeController(this);
     PantryController pantryController = new PantryController(this);
     ShoppingListController shoppingListController =
@@ -42,6 +65,27 @@ public class ViewManager {
 
     //Init view
     this.setView(Route.HOME);
+    this.prefetch(Route.COOKBOOK);
+  }
+
+  /**
+   * Gets the event bus of the application.
+   *
+   * @return the event bus
+   */
+  public EventBus getEventBus() {
+    return eventBus;
+  }
+
+  /**
+   * Registers a factory for the view of a given route. The factory is called the first time the
+   * route is navigated to, and the created view is kept for later navigation.
+   *
+   * @param route   The route of the view.
+   * @param factory The factory creating the view.
+   */
+  public void registerRoute(Route route, Supplier<? extends Scene> factory) {
+    factories.put(route, factory);
   }
 
   /**
@@ -69,10 +113,39 @@ public class ViewManager {
    * @param route The route of the view to set.
    */
   public void setView(Route route) {
-    stage.setScene(views.get(route));
+    stage.setScene(getView(route));
     stage.setTitle("PantryPal - " + route.toString());
   }
 
+  /**
+   * Gets the view of a given route. If the view has not been created yet, it is created with the
+   * factory registered for the route.
+   *
+   * @param route The route of the view.
+   * @return The view of the route, or null if no view or factory exists for the route.
+   */
+  private Scene getView(Route route) {
+    Scene view = views.get(route);
+    if (view == null && factories.containsKey(route)) {
+      view = factories.get(route).get();
+      views.put(route, view);
+    }
+    return view;
+  }
+
+  /**
+   * Prefetches the views of the given routes. The views are created on the JavaFX application
+   * thread after the pending events have been handled, so the current view is shown first.
+   * Views that already exist are not created again.
+   *
+   * @param routes The routes to prefetch.
+   */
+  public void prefetch(Route... routes) {
+    for (Route route : routes) {
+      Platform.runLater(() -> getView(route));
+    }
+  }
+
   /**
    * Gets the current view of the application.
    *
@@ -1,7 +1,6 @@
 package stud.ntnu.idatt1005.pantrypal.views;
 
 import java.util.List;
-import java.util.Objects;
 import javafx.geometry.Pos;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.layout.BorderPane;
@@ -12,9 +11,12 @@ import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
 import javafx.scene.text.Text;
 import stud.ntnu.idatt1005.pantrypal.controllers.AddRecipeController;
-import stud.ntnu.idatt1005.pantrypal.controllers.Observer;
-import stud.ntnu.idatt1005.pantrypal.enums.ButtonEnum;
 import stud.ntnu.idatt1005.pantrypal.enums.Route;
+import stud.ntnu.idatt1005.pantrypal.events.AddGroceryEvent;
+import stud.ntnu.idatt1005.pantrypal.events.AddStepEvent;
+import stud.ntnu.idatt1005.pantrypal.events.RemoveGroceryEvent;
+import stud.ntnu.idatt1005.pantrypal.events.RemoveStepEvent;
+import stud.ntnu.idatt1005.pantrypal.events.SaveRecipeEvent;
 import stud.ntnu.idatt1005.pantrypal.models.Grocery;
 import stud.ntnu.idatt1005.pantrypal.models.Recipe;
 import stud.ntnu.idatt1005.pantrypal.registers.GroceryRegister;
@@ -22,6 +24,7 @@ import stud.ntnu.idatt1005.pantrypal.registers.StepRegister;
 import stud.ntnu.idatt1005.pantrypal.utils.NodeUtils;
 import stud.ntnu.idatt1005.pantrypal.utils.Sizing;
 import stud.ntnu.idatt1005.pantrypal.utils.SoundPlayer;
+import stud.ntnu.idatt1005.pantrypal.utils.StyleSheets;
 import stud.ntnu.idatt1005.pantrypal.views.components.AddGroceryListElement;
 import stud.ntnu.idatt1005.pantrypal.views.components.GroceryListElement;
 import stud.ntnu.idatt1005.pantrypal.views.components.StyledButton;
@@ -39,9 +42,15 @@ public class AddRecipeView extends View {
   private final StyledTextArea description;
   private final StyledTextField imageUrl;
 
+  /**
+   * The stored recipe being modified, or null when adding a new recipe.
+   */
+  private Recipe editedRecipe;
+
   /**
    * Constructor for AddRecipeView. It initializes the AddRecipeView with an AddRecipeController.
-   * This constructor is used when adding a new recipe.
+   * The same view is used both when adding a new recipe and when modifying an existing one,
+   * see {@link #setRecipe(Recipe)}.
    *
    * @param controller The AddRecipeController associated with this render.
    */
@@ -53,20 +62,22 @@ public class AddRecipeView extends View {
   }
 
   /**
-   * Constructor for AddRecipeView. It initializes the AddRecipeView with an AddRecipeController.
-   * This constructor is used when modifying an existing recipe.
+   * Binds the view to a recipe. The fields of the form are filled with the name, description and
+   * image of the recipe when modifying an existing recipe, or cleared when the recipe is null.
    *
-   * @param controller The AddRecipeController associated with this render.
-   * @param recipe     The recipe to be modified.
+   * @param recipe The recipe to be modified, or null when adding a new recipe.
    */
-  public AddRecipeView(AddRecipeController controller, Recipe recipe) {
-    super(controller, Route.ADD_RECIPE, "/styles/add-recipe.css");
-    this.name = new StyledTextField("Name");
-    this.description = createDescription();
-    this.name.setText(recipe.getKey());
-    this.description.setText(recipe.getDescription());
-    this.imageUrl = new StyledTextField("Image URL");
-    this.imageUrl.setText(recipe.getImagePath());
+  public void setRecipe(Recipe recipe) {
+    this.editedRecipe = recipe;
+    if (recipe == null) {
+      this.name.clear();
+      this.description.clear();
+      this.imageUrl.clear();
+    } else {
+      this.name.setText(recipe.getKey());
+      this.description.setText(recipe.getDescription());
+      this.imageUrl.setText(recipe.getImagePath());
+    }
   }
 
   /**
@@ -106,9 +117,7 @@ public class AddRecipeView extends View {
     ScrollPane groceryList = createGroceryList(groceryRegister);
 
     AddGroceryListElement addGrocery = new AddGroceryListElement("");
-    for (Observer observer : observers) {
-      addGrocery.addObserver(observer);
-    }
+    addGrocery.setOnAdd(grocery -> publish(new AddGroceryEvent(Route.ADD_RECIPE, grocery)));
 
     // Create the step list with title and option to add steps
     Text stepListTitle = new Text("Steps:");
@@ -128,9 +137,15 @@ public class AddRecipeView extends View {
     StyledButton submit = new StyledButton("Add Recipe");
     submit.setMaxWidth(Double.MAX_VALUE);
     submit.setOnAction(e -> {
-      Recipe recipe = new Recipe(name.getText(), description.getText(),
-              groceryRegister, stepRegister, imageUrl.getText(), false);
-      notifyObservers(ButtonEnum.ADD, recipe);
+      Recipe recipe;
+      if (editedRecipe != null && editedRecipe.hasId()) {
+        recipe = new Recipe(editedRecipe.getId(), name.getText(), description.getText(),
+            groceryRegister, stepRegister, imageUrl.getText(), editedRecipe.getIsFavorite());
+      } else {
+        recipe = new Recipe(name.getText(), description.getText(),
+            groceryRegister, stepRegister, imageUrl.getText(), false);
+      }
+      publish(new SaveRecipeEvent(recipe));
       SoundPlayer.playSound(SoundPlayer.Sound.DEFAULT);
     });
 
@@ -179,9 +194,8 @@ public class AddRecipeView extends View {
           .text(grocery.getUnit())
           .build();
 
-      for (Observer observer : observers) {
-        element.addObserver(observer);
-      }
+      element.setOnRemove(removed ->
+          publish(new RemoveGroceryEvent(Route.ADD_RECIPE, removed)));
 
       element.getPane().setMinWidth(Sizing.getScreenWidth() * 0.6);
       groceryList.getChildren().add(element.getPane());
@@ -242,7 +256,7 @@ public class AddRecipeView extends View {
       StyledButton removeStep = new StyledButton("X", StyledButton.Variant.DELETE,
               StyledButton.Size.MEDIUM);
       removeStep.setOnAction(e -> {
-        notifyObservers(ButtonEnum.REMOVE, step);
+        publish(new RemoveStepEvent(step));
         SoundPlayer.playSound(SoundPlayer.Sound.DELETE);
       });
       removeStep.setMaxHeight(elementHeight);
@@ -268,8 +282,7 @@ public class AddRecipeView extends View {
    */
   private HBox createAddStepBox() {
     HBox addStepBox = new HBox();
-    addStepBox.getStylesheets().add(Objects.requireNonNull(getClass()
-            .getResource("/styles/pantry.css")).toExternalForm());
+    addStepBox.getStylesheets().add(StyleSheets.get("/styles/pantry.css"));
     addStepBox.setAlignment(Pos.CENTER);
     NodeUtils.addClasses(addStepBox, "add-grocery-container");
 
@@ -281,7 +294,7 @@ public class AddRecipeView extends View {
     addStep.setMaxWidth(Double.MAX_VALUE);
     addStep.setOnAction(e -> {
       if (!stepField.getText().isEmpty()) {
-        notifyObservers(ButtonEnum.ADD, stepField.getText());
+        publish(new AddStepEvent(stepField.getText()));
         stepField.clear();
         SoundPlayer.playSound(SoundPlayer.Sound.DEFAULT);
       }
@@ -290,28 +303,4 @@ public class AddRecipeView extends View {
     addStepBox.getChildren().add(addStep);
     return addStepBox;
   }
-
-  /**
-   * Notifies the observers of the button that was pressed and the object affected.
-   *
-   * @param buttonEnum The button that was pressed.
-   * @param recipe The Recipe-object that was pressed.
-   */
-  private void notifyObservers(ButtonEnum buttonEnum, Recipe recipe) {
-    for (Observer observer : observers) {
-      observer.update(buttonEnum, recipe);
-    }
-  }
-
-  /**
-   * Notifies the observers of the button that was pressed and the object affected.
-   *
-   * @param buttonEnum The button that was pressed.
-   * @param step The step that was added
-   */
-  private void notifyObservers(ButtonEnum buttonEnum, String step) {
-    for (Observer observer : observers) {
-      observer.update(buttonEnum, step);
-    }
-  }
-}
\ No newline at end of file
+}
@@ -7,14 +7,22 @@ import java.util.List;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.geometry.Rectangle2D;
+import javafx.scene.Node;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.ScrollPane;
 import javafx.scene.control.TextField;
+import javafx.scene.control.Tooltip;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
+import javafx.scene.text.Text;
 import stud.ntnu.idatt1005.pantrypal.controllers.CookbookController;
-import stud.ntnu.idatt1005.pantrypal.enums.ButtonEnum;
 import stud.ntnu.idatt1005.pantrypal.enums.Route;
+import stud.ntnu.idatt1005.pantrypal.enums.SearchMode;
+import stud.ntnu.idatt1005.pantrypal.events.NewRecipeEvent;
+import stud.ntnu.idatt1005.pantrypal.events.OpenRecipeEvent;
 import stud.ntnu.idatt1005.pantrypal.models.Recipe;
+import stud.ntnu.idatt1005.pantrypal.registers.RegisterChange;
 import stud.ntnu.idatt1005.pantrypal.utils.NodeUtils;
 import stud.ntnu.idatt1005.pantrypal.utils.Sizing;
 import stud.ntnu.idatt1005.pantrypal.utils.SoundPlayer;
@@ -29,12 +37,21 @@ import stud.ntnu.idatt1005.pantrypal.views.components.StyledButton;
  * The CookbookView displays a collection of recipes in a grid-like structure.
  * The number of recipes per row and the spacing between them can be adjusted.
  * Each recipe is represented by a CookbookRecipeComponent.
+ * The recipes are loaded in pages, and the next page is loaded when the user scrolls near the
+ * end of the loaded recipes. Above the recipes, the recipes that can be made with the groceries
+ * in the pantry are recommended, when the user is not searching, and the meal plan for the week is
+ * shown once it is planned. A removed recipe has its component removed from the sections it is
+ * shown in, without rendering the view again.
  */
 public class CookbookView extends View {
   /**
    * The number of recipes per row in the view.
    */
   private static final int RECIPES_PER_ROW = 4;
+  /**
+   * The scroll position, between 0 and 1, where the next page of recipes is loaded.
+   */
+  private static final double PREFETCH_THRESHOLD = 0.8;
   /**
    * The spacing between the recipes in the view.
    */
@@ -45,6 +62,10 @@ public class CookbookView extends View {
   private final CookbookController controller;
 
   private final VBox pageContainer;
+  private final ScrollPane scrollPane;
+  private final VBox mealPlanContainer;
+  private VBox recommendedContainer;
+  private VBox recipeContainer;
 
   /**
    * Constructs a CookbookView with a given CookBookController.
@@ -57,16 +78,26 @@ public class CookbookView extends View {
   public CookbookView(CookbookController controller) {
     super(controller, Route.COOKBOOK, "/styles/cookbook.css");
     this.controller = controller;
-    this.setScrollPane();
+    this.scrollPane = this.setScrollPane();
     this.pageContainer = new VBox();
     spacing = calculateSpacing();
+    this.mealPlanContainer = new VBox(spacing / 2);
     addSearchBar();
+    hide(mealPlanContainer);
+    NodeUtils.addChildren(pageContainer, mealPlanContainer);
     render(this.controller.getCurrentSearch());
+    scrollPane.vvalueProperty().addListener((observable, oldValue, newValue) -> {
+      if (newValue.doubleValue() >= PREFETCH_THRESHOLD * scrollPane.getVmax()) {
+        this.controller.loadNextPage();
+      }
+    });
   }
 
   /**
    * Adds a search bar to the view.vThe search bar contains a text field for searching
-   * recipes and a button for adding a new recipe.
+   * recipes and a button for adding a new recipe. Below it is a check box for searching the
+   * descriptions and steps of the recipes as well as the names, and a button for planning the
+   * meals of the week.
    */
   private void addSearchBar() {
     TextField searchField = createSearchField();
@@ -75,66 +106,314 @@ public class CookbookView extends View {
     StackPane searchBar = new StackPane();
     searchBar.getChildren().addAll(searchField, addRecipe);
 
-    NodeUtils.addChildren(pageContainer, searchBar);
-    searchField.textProperty().addListener((observable, oldValue, newValue) ->
-            this.controller.searchRecipes(newValue));
+    CheckBox fullText = new CheckBox("Search descriptions and steps");
+    fullText.setSelected(controller.getSearchMode() == SearchMode.FULL_TEXT);
+    fullText.selectedProperty().addListener((observable, oldValue, newValue) ->
+        this.controller.searchRecipes(searchField.getText(),
+            newValue ? SearchMode.FULL_TEXT : SearchMode.NAME));
+
+    StyledButton planMeals = new StyledButton("Plan week", StyledButton.Variant.OUTLINE);
+    planMeals.setOnAction(e -> {
+      this.controller.planMeals();
+      SoundPlayer.playSound(SoundPlayer.Sound.DEFAULT);
+    });
+
+    HBox options = new HBox(20, fullText, planMeals);
+    options.setAlignment(Pos.CENTER_LEFT);
+    options.setPadding(new Insets(5, 0, 0, 0));
+
+    NodeUtils.addChildren(pageContainer, new VBox(searchBar, options));
   }
 
   /**
    * Creates the view for the cookbook.
    * It creates a VBox to contain the rows of recipes, and an HBox for each row.
    * It then adds the CookbookRecipeComponents to the rows and the rows to the container.
+   * The recipes are shown in the given order, which puts the favorite recipes first.
+   *
+   * @param currentSearch the loaded recipes to be displayed
    */
   public void render(List<Recipe> currentSearch) {
-    VBox recipeContainer = createRecipeContainer(currentSearch);
-    if (pageContainer.getChildren().size() < 2) {
-      NodeUtils.addChildren(pageContainer, recipeContainer);
+    recommendedContainer = createRecommendedContainer(controller.getRecommendations());
+    recipeContainer = new VBox(spacing / 2);
+    recipeContainer.setPadding(new Insets(spacing, 0, spacing, 0));
+    addRecipes(recipeContainer, currentSearch);
+    if (pageContainer.getChildren().size() < 4) {
+      NodeUtils.addChildren(pageContainer, recommendedContainer, recipeContainer);
     } else {
-      pageContainer.getChildren().set(1, recipeContainer);
+      pageContainer.getChildren().set(2, recommendedContainer);
+      pageContainer.getChildren().set(3, recipeContainer);
     }
     getBorderPane().setCenter(pageContainer);
+    scrollPane.setVvalue(scrollPane.getVmin());
   }
 
   /**
-   * Creates a VBox to contain the rows of recipes.
-   * It creates an HBox for each row and adds the CookbookRecipeComponents to the rows.
+   * Creates the section with the recommended recipes. The section is empty and hidden if no
+   * recipes are recommended.
    *
-   * @param currentSearch the list of recipes to be displayed
-   * @return the VBox containing the rows of recipes
+   * @param recommendations the recommended recipes, best first
+   * @return the section with the recommended recipes
    */
-  private VBox createRecipeContainer(List<Recipe> currentSearch) {
-    VBox recipeContainer = new VBox(spacing / 2);
-    recipeContainer.setPadding(new Insets(spacing, 0, spacing, 0));
+  private VBox createRecommendedContainer(List<Recipe> recommendations) {
+    VBox container = new VBox(spacing / 2);
+    container.setPadding(new Insets(spacing, 0, 0, 0));
+    if (recommendations.isEmpty()) {
+      hide(container);
+      return container;
+    }
+    Text header = new Text("Recommended from your pantry");
+    NodeUtils.addClasses(header, "recommended-header");
+    container.getChildren().add(header);
+    addRecipes(container, recommendations);
+    return container;
+  }
+
+  /**
+   * Shows a meal plan above the recommended recipes, with a button for adding the groceries of
+   * the plan to the shopping list. A meal plan shown before is replaced.
+   *
+   * @param recipes          the recipes of the meal plan
+   * @param shoppingListSize the number of groceries that must be bought for the plan
+   */
+  public void showMealPlan(List<Recipe> recipes, int shoppingListSize) {
+    Text header = new Text("Meal plan for the week, " + shoppingListSize
+        + (shoppingListSize == 1 ? " grocery" : " groceries") + " to buy");
+    NodeUtils.addClasses(header, "recommended-header");
+    StackPane.setAlignment(header, Pos.CENTER_LEFT);
+
+    StyledButton addToShoppingList = new StyledButton("Add to shopping list");
+    addToShoppingList.setOnAction(e -> {
+      this.controller.addMealPlanToShoppingList();
+      SoundPlayer.playSound(SoundPlayer.Sound.DEFAULT);
+    });
+    StackPane.setAlignment(addToShoppingList, Pos.CENTER_RIGHT);
+
+    mealPlanContainer.getChildren().setAll(new StackPane(header, addToShoppingList));
+    mealPlanContainer.setPadding(new Insets(spacing, 0, 0, 0));
+    addRecipes(mealPlanContainer, recipes);
+    mealPlanContainer.setVisible(true);
+    mealPlanContainer.setManaged(true);
+  }
+
+  /**
+   * Shows that the meals of the week could not be planned. A meal plan shown before is kept, and
+   * the message is shown below it.
+   *
+   * @param keepPlan true if a meal plan found before the failure is shown, false if not
+   */
+  public void showMealPlanFailed(boolean keepPlan) {
+    Text message = new Text("The meals of the week could not be planned");
+    NodeUtils.addClasses(message, "recommended-header");
+    if (keepPlan) {
+      mealPlanContainer.getChildren().add(message);
+    } else {
+      mealPlanContainer.getChildren().setAll(message);
+    }
+    mealPlanContainer.setPadding(new Insets(spacing, 0, 0, 0));
+    mealPlanContainer.setVisible(true);
+    mealPlanContainer.setManaged(true);
+  }
+
+  /**
+   * Hides a node, and leaves no space for it in the layout.
+   *
+   * @param node the node to hide
+   */
+  private static void hide(Node node) {
+    node.setVisible(false);
+    node.setManaged(false);
+  }
+
+  /**
+   * Adds a page of recipes after the recipes already shown. The scroll position is kept, so the
+   * recipes the user is looking at do not move.
+   *
+   * @param page the recipes to be added
+   */
+  public void appendRecipes(List<Recipe> page) {
+    if (page.isEmpty()) {
+      return;
+    }
+    double scrolled = scrollPane.getVvalue() * getScrollableHeight();
+    addRecipes(recipeContainer, page);
+    scrollPane.getContent().applyCss();
+    scrollPane.layout();
+    double scrollable = getScrollableHeight();
+    if (scrollable > 0) {
+      scrollPane.setVvalue(Math.min(scrollPane.getVmax(), scrolled / scrollable));
+    }
+  }
+
+  /**
+   * Updates the view with a change of the register of loaded recipes. A removed recipe has its
+   * component removed, and the following components are moved up to fill the rows. Added
+   * recipes are not shown here, since the loaded pages are shown in the order of the search by
+   * {@link #render(List)} and {@link #appendRecipes(List)}.
+   *
+   * @param change the change of the register of recipes
+   */
+  public void recipeChanged(RegisterChange<Recipe> change) {
+    if (change.getType() == RegisterChange.Type.REMOVED) {
+      String key = change.getModel().getKey();
+      removeRecipe(mealPlanContainer, key);
+      if (recommendedContainer != null) {
+        removeRecipe(recommendedContainer, key);
+      }
+      if (recipeContainer != null) {
+        removeRecipe(recipeContainer, key);
+      }
+    }
+  }
+
+  /**
+   * Updates the star icons of the components of a recipe with its favorite status, in every
+   * section the recipe is shown in.
+   *
+   * @param recipe the recipe that changed favorite status
+   */
+  public void updateFavorite(Recipe recipe) {
+    for (VBox container : new VBox[] {mealPlanContainer, recommendedContainer, recipeContainer}) {
+      if (container == null) {
+        continue;
+      }
+      for (Node node : container.getChildren()) {
+        if (node instanceof HBox row) {
+          for (Node component : row.getChildren()) {
+            if (component instanceof CookbookRecipeComponent recipeComponent
+                && recipeComponent.getRecipe().getKey().equals(recipe.getKey())) {
+              recipeComponent.updateFavorite();
+            }
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Moves the component of a recipe to a new position among the loaded recipes, and moves the
+   * other components to fill the rows. A component is created if the recipe is not shown, and
+   * the component is removed if the position is negative. The other components are reused, and
+   * the scroll position is kept.
+   *
+   * @param recipe the recipe to move
+   * @param index  the new position of the recipe, or -1 to remove it from the loaded recipes
+   */
+  public void moveRecipe(Recipe recipe, int index) {
+    List<Node> components = new ArrayList<>();
+    for (Node node : recipeContainer.getChildren()) {
+      if (node instanceof HBox row) {
+        components.addAll(row.getChildren());
+      }
+    }
+    components.removeIf(node -> node instanceof CookbookRecipeComponent component
+        && component.getRecipe().getKey().equals(recipe.getKey()));
+    if (index >= 0) {
+      components.add(Math.min(index, components.size()), createComponent(recipe));
+    }
+    recipeContainer.getChildren().removeIf(HBox.class::isInstance);
+    addComponents(recipeContainer, components);
+  }
+
+  /**
+   * Removes the component of a recipe from the rows of a container, and moves the following
+   * components up to fill the rows. The components are reused. A section that has no recipes
+   * left is hidden.
+   *
+   * @param container the container with the rows
+   * @param key       the key of the recipe to be removed
+   */
+  private void removeRecipe(VBox container, String key) {
+    List<Node> components = new ArrayList<>();
+    for (Node node : container.getChildren()) {
+      if (node instanceof HBox row) {
+        components.addAll(row.getChildren());
+      }
+    }
+    boolean removed = components.removeIf(node -> node instanceof CookbookRecipeComponent
+        component && component.getRecipe().getKey().equals(key));
+    if (!removed) {
+      return;
+    }
+    container.getChildren().removeIf(HBox.class::isInstance);
+    addComponents(container, components);
+    if (components.isEmpty() && container != recipeContainer) {
+      hide(container);
+    }
+  }
+
+  /**
+   * Returns how far the content of the scroll pane can be scrolled, in pixels.
+   *
+   * @return the height of the content minus the height of the viewport
+   */
+  private double getScrollableHeight() {
+    return Math.max(0, scrollPane.getContent().getLayoutBounds().getHeight()
+        - scrollPane.getViewportBounds().getHeight());
+  }
 
-    HBox row = new HBox(spacing);
-    ArrayList<Recipe> recipes = new ArrayList<>(currentSearch);
-    recipes.sort((a, b) -> Boolean.compare(b.getIsFavorite(), a.getIsFavorite()));
+  /**
+   * Adds CookbookRecipeComponents for the recipes to the rows of a container. The last row is
+   * filled up before new rows are created.
+   *
+   * @param container the container with the rows
+   * @param recipes   the recipes to be added
+   */
+  private void addRecipes(VBox container, List<Recipe> recipes) {
+    List<Node> components = new ArrayList<>(recipes.size());
     for (Recipe recipe : recipes) {
-      if (row.getChildren().size() >= RECIPES_PER_ROW) {
-        row.setAlignment(Pos.CENTER);
-        recipeContainer.getChildren().add(row);
+      components.add(createComponent(recipe));
+    }
+    addComponents(container, components);
+  }
+
+  /**
+   * Creates a CookbookRecipeComponent for a recipe, which opens the recipe when clicked. The
+   * snippet of a recipe found by a full-text search is shown as a tooltip.
+   *
+   * @param recipe the recipe to be shown
+   * @return the component of the recipe
+   */
+  private CookbookRecipeComponent createComponent(Recipe recipe) {
+    CookbookRecipeComponent recipeComponent = new CookbookRecipeComponent(recipe);
+    recipeComponent.setOnOpen(opened -> publish(new OpenRecipeEvent(opened)));
+    String snippet = controller.getSnippet(recipe);
+    if (snippet != null) {
+      Tooltip.install(recipeComponent, new Tooltip(snippet));
+    }
+    return recipeComponent;
+  }
+
+  /**
+   * Adds components to the rows of a container. The last row is filled up before new rows are
+   * created.
+   *
+   * @param container  the container with the rows
+   * @param components the components to be added
+   */
+  private void addComponents(VBox container, List<Node> components) {
+    List<Node> rows = container.getChildren();
+    HBox row = rows.isEmpty() || !(rows.get(rows.size() - 1) instanceof HBox last) ? null : last;
+    for (Node component : components) {
+      if (row == null || row.getChildren().size() >= RECIPES_PER_ROW) {
         row = new HBox(spacing);
+        row.setAlignment(Pos.CENTER);
+        rows.add(row);
       }
-      CookbookRecipeComponent recipeComponent = new CookbookRecipeComponent(recipe);
-      recipeComponent.addObserver(controller);
-      row.getChildren().add(recipeComponent);
+      row.getChildren().add(component);
     }
-
-    row.setAlignment(Pos.CENTER);
-    recipeContainer.getChildren().add(row);
-    return recipeContainer;
   }
 
   /**
    * Creates a button for adding a new recipe.
-   * The button is styled and has an action that notifies the observers of the view.
+   * The button is styled and has an action that publishes an event to add a new recipe.
    *
    * @return the styled button for adding a new recipe
    */
   private StyledButton createAddRecipeButton() {
     StyledButton button = new StyledButton("Add Recipe");
     button.setOnAction(e -> {
-      notifyObservers(ButtonEnum.ADD);
+      publish(new NewRecipeEvent());
       SoundPlayer.playSound(SoundPlayer.Sound.DEFAULT);
     });
     StackPane.setAlignment(button, Pos.CENTER_RIGHT);
@@ -144,7 +423,7 @@ public class CookbookView extends View {
 
   /**
    * Creates a text field for searching recipes.
-   * The text field is styled and has an action that notifies the observers of the view.
+   * The text field is styled, and searches the recipes as the text is changed.
    *
    * @return the styled text field for searching recipes
    */
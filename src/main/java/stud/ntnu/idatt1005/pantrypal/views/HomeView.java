@@ -1,5 +1,6 @@
 package stud.ntnu.idatt1005.pantrypal.views;
 
+import java.io.File;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.Button;
@@ -13,6 +14,7 @@ import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Text;
+import javafx.stage.FileChooser;
 import stud.ntnu.idatt1005.pantrypal.controllers.HomeController;
 import stud.ntnu.idatt1005.pantrypal.enums.Route;
 import stud.ntnu.idatt1005.pantrypal.utils.NodeUtils;
@@ -73,6 +75,13 @@ public class HomeView extends View {
   private final StyledButton shoppingListButton = new StyledButton(
           "Shopping List", StyledButton.Variant.BLACK, StyledButton.Size.LARGE);
 
+  // Button for exporting the data of the user, shown when the user is logged in.
+  private final StyledButton exportButton = new StyledButton(
+          "Export my data", StyledButton.Variant.BLACK, StyledButton.Size.MEDIUM);
+
+  // Text for the result of the latest export.
+  private final Text exportResultText = new Text();
+
   /**
    * Constructor for HomeView.
    * Initializes the view and sets the layout and styling.
@@ -111,6 +120,10 @@ public class HomeView extends View {
     setBoxSize(homeViewCookbookBackground, 1.0);
     getBorderPane().setLeft(homeViewCookbookBackground);
     VBox cookbookTextBox = createTextBox(cookbookText, cookbookUndertext, cookbookButton);
+    if (controller.isLoggedIn()) {
+      exportResultText.getStyleClass().add("subheader-text");
+      NodeUtils.addChildren(cookbookTextBox, exportButton, exportResultText);
+    }
 
     ImageView icon = createIcon("images/icons/cookbookIcon.png");
     NodeUtils.addChildren(cookBookBox, cookbookTextBox, icon);
@@ -209,6 +222,34 @@ public class HomeView extends View {
     createButton(pantryButton, () -> controller.onNavLinkPress(Route.PANTRY));
     createButton(cookbookButton, () -> controller.onNavLinkPress(Route.COOKBOOK));
     createButton(shoppingListButton, () -> controller.onNavLinkPress(Route.SHOPPING_LIST));
+    createButton(exportButton, this::chooseExportFile);
+  }
+
+  /**
+   * Lets the user choose the file to export their data to, and exports the data to it. The data
+   * is written as CSV if the file ends with .csv, and as JSON Lines otherwise.
+   */
+  private void chooseExportFile() {
+    FileChooser fileChooser = new FileChooser();
+    fileChooser.setTitle("Export my data");
+    fileChooser.setInitialFileName("pantrypal.jsonl");
+    fileChooser.getExtensionFilters().addAll(
+            new FileChooser.ExtensionFilter("JSON Lines", "*.jsonl"),
+            new FileChooser.ExtensionFilter("CSV", "*.csv"));
+    File file = fileChooser.showSaveDialog(getWindow());
+    if (file != null) {
+      exportResultText.setText("Exporting...");
+      controller.exportData(file.toPath());
+    }
+  }
+
+  /**
+   * Shows the result of the latest export below the export button.
+   *
+   * @param message the result of the export
+   */
+  public void showExportResult(String message) {
+    exportResultText.setText(message);
   }
 
   /**
@@ -3,6 +3,9 @@ package stud.ntnu.idatt1005.pantrypal.views;
 import static stud.ntnu.idatt1005.pantrypal.utils.NodeUtils.addChildren;
 import static stud.ntnu.idatt1005.pantrypal.utils.NodeUtils.addClasses;
 
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import javafx.geometry.Pos;
 import javafx.scene.control.Button;
 import javafx.scene.control.ScrollPane;
@@ -12,13 +15,17 @@ import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.scene.text.Font;
-import javafx.scene.text.Text;
-import stud.ntnu.idatt1005.pantrypal.controllers.Observer;
 import stud.ntnu.idatt1005.pantrypal.controllers.PantryController;
 import stud.ntnu.idatt1005.pantrypal.enums.Route;
+import stud.ntnu.idatt1005.pantrypal.events.AddGroceryEvent;
+import stud.ntnu.idatt1005.pantrypal.events.ChangeQuantityEvent;
+import stud.ntnu.idatt1005.pantrypal.events.RemoveGroceryEvent;
 import stud.ntnu.idatt1005.pantrypal.models.Grocery;
 import stud.ntnu.idatt1005.pantrypal.models.Shelf;
+import stud.ntnu.idatt1005.pantrypal.registers.RegisterChange;
+import stud.ntnu.idatt1005.pantrypal.registers.RegisterListener;
 import stud.ntnu.idatt1005.pantrypal.utils.NodeUtils;
+import stud.ntnu.idatt1005.pantrypal.utils.TextFit;
 import stud.ntnu.idatt1005.pantrypal.views.components.AddGroceryListElement;
 import stud.ntnu.idatt1005.pantrypal.views.components.GroceryListElement;
 import stud.ntnu.idatt1005.pantrypal.views.components.StyledButton;
@@ -28,19 +35,52 @@ import stud.ntnu.idatt1005.pantrypal.views.components.StyledButton;
  * The goal is to provide a dedicated view for users to view their pantry.
  * This class is associated with an PantryController to handle the logic
  * and actions related to the pantry.
+ * The view is rendered once, and then updated by the changes of the register of shelves and the
+ * registers of groceries on the shelves, so only the nodes of the changed shelves and groceries
+ * are created again.
  */
 public class PantryView extends View {
 
+  /**
+   * The nodes showing a shelf, and the listener updating them with the changes of the groceries
+   * on the shelf.
+   */
+  private static final class ShelfNodes {
+    private final Shelf shelf;
+    private final VBox container = new VBox();
+    private final VBox groceryList = new VBox();
+    private final Map<String, GroceryListElement> elements = new HashMap<>();
+    private RegisterListener<Grocery> listener;
+
+    private ShelfNodes(Shelf shelf) {
+      this.shelf = shelf;
+    }
+
+    /**
+     * Stops updating the nodes with the changes of the groceries on the shelf.
+     */
+    private void detach() {
+      shelf.getGroceryRegister().removeListener(listener);
+    }
+  }
+
   /**
    * The controller responsible for managing the logic and
    * actions associated with the pantry functionality.
    */
   private final PantryController controller;
   private static final String FX_FONT_SIZE = "-fx-font-size: ";
-  private double fontSize = 35;
+  private static final double FONT_SIZE = 35;
+
+  /**
+   * The grid of shelves, and the nodes of the shown shelves indexed by shelf key, in the order
+   * they are shown.
+   */
+  private GridPane shelfGrid;
+  private final Map<String, ShelfNodes> shelfNodes = new LinkedHashMap<>();
 
   /**
-   * Constructor for PantryView.
+   * Constructor for PantryView. Changes of the pantry can be undone and redone with the keyboard.
    *
    * @param controller The controller for the view.
    */
@@ -48,6 +88,7 @@ public class PantryView extends View {
     super(controller, Route.PANTRY, "/styles/pantry.css");
     this.controller = controller;
     this.setScrollPane();
+    this.addUndoShortcuts();
   }
 
   /**
@@ -58,14 +99,30 @@ public class PantryView extends View {
    * @param shelves the shelves to be shown
    */
   public void render(Shelf[] shelves) {
-    GridPane shelfGrid = new GridPane();
+    shelfNodes.values().forEach(ShelfNodes::detach);
+    shelfNodes.clear();
+    for (Shelf shelf : shelves) {
+      shelfNodes.put(shelf.getKey(), this.shelf(shelf));
+    }
+
+    shelfGrid = new GridPane();
+    shelfGrid.setAlignment(Pos.TOP_CENTER);
+    layoutShelves();
+    this.getBorderPane().setCenter(shelfGrid);
+  }
+
+  /**
+   * Places the shown shelves in the grid, three on each row, followed by the button to add a new
+   * shelf. The nodes of the shelves are reused.
+   */
+  private void layoutShelves() {
+    shelfGrid.getChildren().clear();
 
     int row = 0;
     int col = 0;
 
-    for (Shelf shelf : shelves) {
-      VBox shelfBox = this.shelf(shelf);
-      shelfGrid.add(shelfBox, col, row);
+    for (ShelfNodes nodes : shelfNodes.values()) {
+      shelfGrid.add(nodes.container, col, row);
       col++;
       if (col == 3) {
         col = 0;
@@ -76,8 +133,76 @@ public class PantryView extends View {
     var addShelfButton = this.addShelfButton();
     addShelfButton.setOnAction(e -> controller.addShelf());
     shelfGrid.add(addShelfButton, col, row);
-    shelfGrid.setAlignment(Pos.TOP_CENTER);
-    this.getBorderPane().setCenter(shelfGrid);
+  }
+
+  /**
+   * Updates the pantry with a change of the register of shelves. An added or renamed shelf gets
+   * new nodes, which replace the nodes of the shelf with the same key, and a removed shelf has
+   * its nodes removed. Does nothing if the view has not been rendered yet.
+   *
+   * @param change the change of the register of shelves
+   */
+  public void shelfChanged(RegisterChange<Shelf> change) {
+    if (shelfGrid == null) {
+      return;
+    }
+    Shelf shelf = change.getModel();
+    switch (change.getType()) {
+      case ADDED, RENAMED:
+        ShelfNodes replaced = shelfNodes.put(shelf.getKey(), this.shelf(shelf));
+        if (replaced != null) {
+          replaced.detach();
+        }
+        layoutShelves();
+        break;
+      case REMOVED:
+        ShelfNodes removed = shelfNodes.remove(shelf.getKey());
+        if (removed != null) {
+          removed.detach();
+          layoutShelves();
+        }
+        break;
+      default:
+        break;
+    }
+  }
+
+  /**
+   * Updates the grocery list of a shelf with a change of the groceries on the shelf.
+   *
+   * @param nodes  the nodes of the shelf
+   * @param change the change of the register of groceries on the shelf
+   */
+  private void groceryChanged(ShelfNodes nodes, RegisterChange<Grocery> change) {
+    Grocery grocery = change.getModel();
+    GroceryListElement element;
+    switch (change.getType()) {
+      case ADDED:
+        element = groceryElement(grocery);
+        GroceryListElement replaced = nodes.elements.put(grocery.getKey(), element);
+        int index = replaced == null
+            ? -1 : nodes.groceryList.getChildren().indexOf(replaced.getPane());
+        if (index >= 0) {
+          nodes.groceryList.getChildren().set(index, element.getPane());
+        } else {
+          addChildren(nodes.groceryList, element.getPane());
+        }
+        break;
+      case REMOVED:
+        element = nodes.elements.remove(grocery.getKey());
+        if (element != null) {
+          nodes.groceryList.getChildren().remove(element.getPane());
+        }
+        break;
+      case QUANTITY_CHANGED:
+        element = nodes.elements.get(grocery.getKey());
+        if (element != null) {
+          element.updateQuantity();
+        }
+        break;
+      default:
+        break;
+    }
   }
 
   /**
@@ -96,13 +221,15 @@ public class PantryView extends View {
    * Creates a VBox for representing a single shelf.
    * It contains a header with the shelf name and
    * buttons for editing and deleting the shelf.
-   * It also contains a list of groceries in the shelf.
+   * It also contains a list of groceries in the shelf, which is updated with the changes of the
+   * groceries on the shelf.
    *
    * @param shelf the shelf object to be shown
-   * @return a VBox containing the visual representation of a shelf
+   * @return the nodes containing the visual representation of a shelf
    */
-  private VBox shelf(Shelf shelf) {
-    VBox container = new VBox();
+  private ShelfNodes shelf(Shelf shelf) {
+    ShelfNodes nodes = new ShelfNodes(shelf);
+    VBox container = nodes.container;
     container.setAlignment(Pos.TOP_CENTER);
     NodeUtils.addClasses(container, "shelf");
 
@@ -112,7 +239,7 @@ public class PantryView extends View {
     title.setMinWidth(200);
     NodeUtils.addClasses(title, "shelf-title-textfield");
     title.setEditable(false);
-    title.setStyle(FX_FONT_SIZE + fontSize + "px;");
+    title.setStyle(FX_FONT_SIZE + FONT_SIZE + "px;");
 
     title.textProperty().addListener((observable, oldValue, newValue) ->
         updateShelfTextSize(title, newValue));
@@ -127,7 +254,6 @@ public class PantryView extends View {
         title.setEditable(false);
         edit.setText("Edit");
         this.controller.editShelfName(shelf, title.getText());
-        title.setStyle(FX_FONT_SIZE + fontSize + "px;");
       }
     });
     StyledButton delete = new StyledButton(
@@ -141,70 +267,77 @@ public class PantryView extends View {
     Separator separator = new Separator();
     addClasses(separator, "shelf-separator");
 
-    VBox groceryList = this.groceryList(shelf, controller.getGroceries(shelf));
+    VBox groceryList = this.groceryList(nodes, controller.getGroceries(shelf));
 
     addChildren(container, header, separator, groceryList);
 
-    return container;
+    nodes.listener = change -> groceryChanged(nodes, change);
+    shelf.getGroceryRegister().addListener(nodes.listener);
+    return nodes;
   }
 
+  /**
+   * Sets the font size of a shelf title to the largest size that makes the title fit in the
+   * text field, but no larger than the default font size of shelf titles.
+   *
+   * @param textField the text field with the shelf title
+   * @param newValue  the shelf title
+   */
   private void updateShelfTextSize(TextField textField, String newValue) {
-    Text text = new Text(newValue);
-    text.setFont(textField.getFont());
-    double textWidth = text.getLayoutBounds().getWidth();
     double textFieldWidth = (textField.getWidth() > 0 ? textField.getWidth() : 300);
+    double size = TextFit.shared().fitFontSize(newValue, textField.getFont(),
+        FONT_SIZE, textFieldWidth / 1.2);
 
-    while (textWidth * 1.2 > textFieldWidth) {
-      String currentFontName = textField.getFont().getName();
-      double currentFontSize = textField.getFont().getSize();
-
-      Font newFont = new Font(currentFontName, currentFontSize - 0.5);
-
-      textField.setStyle(FX_FONT_SIZE + (currentFontSize - 0.5) + "px;");
-      textField.setFont(newFont);
-
-      text.setFont(newFont);
-      textWidth = text.getLayoutBounds().getWidth();
-      this.fontSize = currentFontSize;
-    }
+    textField.setStyle(FX_FONT_SIZE + size + "px;");
+    textField.setFont(new Font(textField.getFont().getName(), size));
   }
 
   /**
    * Creates a VBox for representing a list of groceries.
    * Used to display the groceries in a shelf.
    *
-   * @param shelf     the shelf containing the groceries to be shown
+   * @param nodes     the nodes of the shelf containing the groceries to be shown
    * @param groceries the groceries to be shown
    * @return a VBox containing the visual representation of a list of groceries
    */
-  private VBox groceryList(Shelf shelf, Grocery[] groceries) {
+  private VBox groceryList(ShelfNodes nodes, Grocery[] groceries) {
     ScrollPane scrollContainer = new ScrollPane();
     NodeUtils.addClasses(scrollContainer, "grocery-list-scroll-container");
-    VBox groceryList = new VBox();
+    VBox groceryList = nodes.groceryList;
     NodeUtils.addClasses(groceryList, "grocery-list");
     scrollContainer.setContent(groceryList);
     scrollContainer.setFitToWidth(true);
 
     for (Grocery grocery : groceries) {
-      GroceryListElement element = new GroceryListElement.GroceryListElementBuilder(grocery)
-          .text(grocery.getName())
-          .quantity()
-          .text(grocery.getUnit())
-          .build();
-      for (Observer observer : observers) {
-        element.addObserver(observer);
-      }
+      GroceryListElement element = groceryElement(grocery);
+      nodes.elements.put(grocery.getKey(), element);
       addChildren(groceryList, element.getPane());
     }
 
-    AddGroceryListElement addGroceryButton = new AddGroceryListElement(shelf.getName());
-    for (Observer observer : observers) {
-      addGroceryButton.addObserver(observer);
-    }
+    AddGroceryListElement addGroceryButton = new AddGroceryListElement(nodes.shelf.getName());
+    addGroceryButton.setOnAdd(grocery -> publish(new AddGroceryEvent(Route.PANTRY, grocery)));
 
     VBox container = new VBox();
     addChildren(container, scrollContainer, addGroceryButton);
 
     return container;
   }
+
+  /**
+   * Creates a list element for a grocery on a shelf.
+   *
+   * @param grocery the grocery to be shown
+   * @return the list element
+   */
+  private GroceryListElement groceryElement(Grocery grocery) {
+    GroceryListElement element = new GroceryListElement.GroceryListElementBuilder(grocery)
+        .text(grocery.getName())
+        .quantity()
+        .text(grocery.getUnit())
+        .build();
+    element.setOnRemove(removed -> publish(new RemoveGroceryEvent(Route.PANTRY, removed)));
+    element.setOnQuantityChange((changed, quantity) ->
+        publish(new ChangeQuantityEvent(Route.PANTRY, changed, quantity)));
+    return element;
+  }
 }
\ No newline at end of file
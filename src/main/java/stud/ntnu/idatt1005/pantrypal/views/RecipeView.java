@@ -2,6 +2,10 @@ package stud.ntnu.idatt1005.pantrypal.views;
 
 import static javafx.stage.Screen.getPrimary;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.image.Image;
@@ -17,8 +21,12 @@ import javafx.scene.text.Font;
 import javafx.scene.text.Text;
 import javafx.scene.text.TextAlignment;
 import stud.ntnu.idatt1005.pantrypal.controllers.CookbookController;
-import stud.ntnu.idatt1005.pantrypal.enums.ButtonEnum;
 import stud.ntnu.idatt1005.pantrypal.enums.Route;
+import stud.ntnu.idatt1005.pantrypal.events.AddRecipeToShoppingListEvent;
+import stud.ntnu.idatt1005.pantrypal.events.DeleteRecipeEvent;
+import stud.ntnu.idatt1005.pantrypal.events.EditRecipeEvent;
+import stud.ntnu.idatt1005.pantrypal.events.NavigateEvent;
+import stud.ntnu.idatt1005.pantrypal.events.ToggleFavoriteEvent;
 import stud.ntnu.idatt1005.pantrypal.models.Grocery;
 import stud.ntnu.idatt1005.pantrypal.models.Recipe;
 import stud.ntnu.idatt1005.pantrypal.utils.ColorPalette;
@@ -34,26 +42,72 @@ import stud.ntnu.idatt1005.pantrypal.views.components.StyledButton.Variant;
  * scene for the stage. The RecipeView is responsible for displaying a single recipe in
  * the application.
  * It includes the recipe overview, steps, and groceries.
+ * The same view is reused for every recipe that is opened. It is bound to a recipe with
+ * {@link #setRecipe(Recipe)}, which only updates the nodes that differ from the previous recipe.
  */
 public class RecipeView extends View {
 
   /**
    * The recipe to be displayed in the view.
    */
-  private final Recipe recipe;
+  private Recipe recipe;
 
   /**
-   * Constructor for RecipeView.
+   * The image of the recipe, and the image path it is currently filled with.
+   */
+  private final Rectangle image = new Rectangle(Sizing.getRecipeBoxSize()[0] * 0.4,
+          Sizing.getRecipeBoxSize()[1]);
+  private String shownImagePath;
+
+  private final Text header = new Text();
+  private final Text description = new Text();
+  private final FavoriteButton favoriteButton = new FavoriteButton(false);
+
+  /**
+   * The containers for the steps and groceries, and the text nodes of each row in them.
+   * The rows are reused when the view is bound to a new recipe.
+   */
+  private final VBox stepsContainer = new VBox(20);
+  private final List<Text> stepTexts = new ArrayList<>();
+  private final VBox groceriesContainer = new VBox(20);
+  private final List<Text[]> groceryTexts = new ArrayList<>();
+
+  /**
+   * Constructor for RecipeView. The view is not bound to a recipe until
+   * {@link #setRecipe(Recipe)} is called.
    *
    * @param controller The controller for the view.
-   * @param recipe     The recipe to be displayed in the view.
    */
-  public RecipeView(CookbookController controller, Recipe recipe) {
+  public RecipeView(CookbookController controller) {
     super(controller, Route.RECIPE, "/styles/recipe.css");
-    this.recipe = recipe;
     setUpView();
   }
 
+  /**
+   * Binds the view to a recipe. Only the parts of the view that differ from the previously
+   * displayed recipe are updated: the header, description, image, favorite button, and the rows
+   * of steps and groceries. Existing rows are reused, and rows are only added or removed when
+   * the number of steps or groceries changes.
+   *
+   * @param recipe The recipe to be displayed in the view.
+   */
+  public void setRecipe(Recipe recipe) {
+    this.recipe = recipe;
+    setTextIfChanged(header, recipe.getKey());
+    if (recipe.getDescription() != null && !recipe.getDescription().isEmpty()) {
+      setTextIfChanged(description, recipe.getDescription());
+    } else {
+      setTextIfChanged(description, "Recipe description - Lorem ipsum dolor sit amet, "
+              + "consectetur adipiscing elit. Morbi malesuada nulla diam, quis vulputate augue "
+              + "porta sed. Sed semper neque ac tempus molestie. Suspendisse ultricies erat nunc, "
+              + "ut fringilla leo porta id. Vivamus euismod fringilla leo.");
+    }
+    updateImage(recipe.getImagePath());
+    favoriteButton.setFavorite(recipe.getIsFavorite());
+    updateSteps(recipe.getRecipeSteps());
+    updateGroceries(recipe.getRecipeGroceries().getRegister().values());
+  }
+
   /**
    * Sets up the view for the recipe.
    * Includes the recipe overview, steps, and groceries.
@@ -81,28 +135,14 @@ public class RecipeView extends View {
   private HBox createRecipeOverview() {
     HBox recipeOverview = new HBox(80);
     recipeOverview.setMaxSize(Sizing.getRecipeBoxSize()[0], Sizing.getRecipeBoxSize()[1]);
-
-    Rectangle image = new Rectangle(Sizing.getRecipeBoxSize()[0] * 0.4,
-            Sizing.getRecipeBoxSize()[1]);
-    String imagePath = recipe.getImagePath();
-    if (imagePath != null && !recipe.getImagePath().isEmpty()) {
-      ImagePattern imagePattern;
-      try {
-        imagePattern = new ImagePattern(new Image(imagePath));
-      } catch (Exception e) {
-        imagePattern = new ImagePattern(new Image("images/PantryPalLogo.png"));
-      }
-      image.setFill(imagePattern);
-    } else {
-      image.setFill(ColorPalette.GRAY);
-    }
+    image.setFill(ColorPalette.GRAY);
 
     //back button
     HBox backButtonContainer = new HBox();
     backButtonContainer.setAlignment(Pos.TOP_LEFT);
     StyledButton backButton = new StyledButton("Back",
             Variant.BLACK, StyledButton.Size.MEDIUM);
-    backButton.setOnAction(e -> notifyObservers(ButtonEnum.BACK));
+    backButton.setOnAction(e -> publish(new NavigateEvent(Route.COOKBOOK)));
     NodeUtils.addClasses(backButton, "back-button");
     NodeUtils.addChildren(backButtonContainer, backButton);
     NodeUtils.addChildren(recipeOverview, backButtonContainer);
@@ -115,6 +155,30 @@ public class RecipeView extends View {
     return recipeOverview;
   }
 
+  /**
+   * Fills the image of the recipe with the image at the given path. The image is only loaded
+   * when the path differs from the path of the image currently shown.
+   *
+   * @param imagePath The path to the image of the recipe, or null if the recipe has no image
+   */
+  private void updateImage(String imagePath) {
+    if (Objects.equals(imagePath, shownImagePath)) {
+      return;
+    }
+    shownImagePath = imagePath;
+    if (imagePath != null && !imagePath.isEmpty()) {
+      ImagePattern imagePattern;
+      try {
+        imagePattern = new ImagePattern(new Image(imagePath));
+      } catch (Exception e) {
+        imagePattern = new ImagePattern(new Image("images/PantryPalLogo.png"));
+      }
+      image.setFill(imagePattern);
+    } else {
+      image.setFill(ColorPalette.GRAY);
+    }
+  }
+
   /**
    * Sets up the text-part of the recipe overview. To get an overview of the recipe.
    * Includes the recipe name, description, and buttons for adding groceries and to
@@ -125,17 +189,7 @@ public class RecipeView extends View {
   private VBox setUpOverviewText() {
     VBox textContainer = new VBox(20);
     textContainer.setMinHeight(Sizing.getRecipeBoxSize()[1]);
-    Text header = new Text(this.recipe.getKey());
     header.setFont(new Font("Times new roman", 60));
-    Text description = new Text();
-    if (recipe.getDescription() != null && !recipe.getDescription().isEmpty()) {
-      description.setText(recipe.getDescription());
-    } else {
-      description = new Text("Recipe description - Lorem ipsum dolor sit amet, "
-              + "consectetur adipiscing elit. Morbi malesuada nulla diam, quis vulputate augue "
-              + "porta sed. Sed semper neque ac tempus molestie. Suspendisse ultricies erat nunc, "
-              + "ut fringilla leo porta id. Vivamus euismod fringilla leo.");
-    }
     description.setWrappingWidth(400);
 
     textContainer.getChildren().addAll(header, description, createOverviewButtons());
@@ -154,13 +208,12 @@ public class RecipeView extends View {
             StyledButton.Variant.SOLID, StyledButton.Size.MEDIUM);
     addNeededGroceriesButton.getStyleClass().add("overview-buttons");
     addNeededGroceriesButton.setOnAction(e -> {
-      notifyObservers(ButtonEnum.ADD_TO_SHOPPING_LIST, this.recipe);
+      publish(new AddRecipeToShoppingListEvent(this.recipe));
       SoundPlayer.playSound(SoundPlayer.Sound.DEFAULT);
     });
 
-    FavoriteButton favoriteButton = new FavoriteButton(recipe.getIsFavorite());
     favoriteButton.setOnMouseClicked(e -> {
-      notifyObservers(ButtonEnum.EDIT_FAVORITE, this.recipe);
+      publish(new ToggleFavoriteEvent(this.recipe));
       favoriteButton.toggleStarColor();
       SoundPlayer.playSound(SoundPlayer.Sound.DEFAULT);
     });
@@ -168,14 +221,14 @@ public class RecipeView extends View {
     StyledButton editButton = new StyledButton("Edit",
             StyledButton.Variant.SOLID, StyledButton.Size.MEDIUM);
     editButton.setOnMouseClicked(e -> {
-      notifyObservers(ButtonEnum.EDIT_RECIPE, this.recipe);
+      publish(new EditRecipeEvent(this.recipe));
       SoundPlayer.playSound(SoundPlayer.Sound.DEFAULT);
     });
 
     StyledButton deleteButton = new StyledButton("Delete",
             StyledButton.Variant.DANGER, StyledButton.Size.MEDIUM);
     deleteButton.setOnMouseClicked(e -> {
-      notifyObservers(ButtonEnum.REMOVE, this.recipe);
+      publish(new DeleteRecipeEvent(this.recipe));
       SoundPlayer.playSound(SoundPlayer.Sound.DELETE);
     });
     HBox overviewButtons = new HBox(20);
@@ -214,8 +267,14 @@ public class RecipeView extends View {
   private HBox setUpRecipeStepsAndGroceries() {
     HBox stepsAndGroceries = new HBox();
     stepsAndGroceries.setMinWidth(Sizing.getRecipeBoxSize()[0]);
-    VBox stepsContainer = setUpRecipeSteps();
-    VBox groceriesContainer = setUpRecipeGroceries();
+    stepsContainer.getStyleClass().add("steps-container");
+
+    groceriesContainer.setMaxWidth(Sizing.getRecipeBoxSize()[0] * 0.3);
+    Text groceriesHeader = new Text("Ingredients:");
+    groceriesHeader.getStyleClass().add("groceries-header");
+    groceriesContainer.getChildren().add(groceriesHeader);
+    groceriesContainer.setAlignment(Pos.TOP_LEFT);
+
     HBox.setHgrow(stepsContainer, Priority.ALWAYS);
     HBox.setHgrow(groceriesContainer, Priority.ALWAYS);
     stepsAndGroceries.getChildren().addAll(
@@ -226,26 +285,29 @@ public class RecipeView extends View {
   }
 
   /**
-   * Sets up the recipe steps section.
+   * Updates the recipe steps section. The text of existing rows is updated, and rows are added
+   * or removed to match the number of steps.
    *
-   * @return The container with steps
+   * @param steps The steps of the recipe
    */
-  private VBox setUpRecipeSteps() {
-    VBox stepsContainer = new VBox(20);
-    stepsContainer.getStyleClass().add("steps-container");
-    HBox numberedStep;
-    for (String step : recipe.getRecipeSteps()) {
-      Text stepText = new Text(step);
-      stepText.setFont(new Font(25));
-      numberedStep = new HBox(20);
-      numberedStep.setAlignment(Pos.CENTER_LEFT);
-      numberedStep.getChildren().addAll(
-              setUpStepNumber(recipe.getRecipeSteps().indexOf(step) + 1),
-              stepText
-      );
-      stepsContainer.getChildren().add(numberedStep);
+  private void updateSteps(List<String> steps) {
+    for (int i = 0; i < steps.size(); i++) {
+      if (i < stepTexts.size()) {
+        setTextIfChanged(stepTexts.get(i), steps.get(i));
+      } else {
+        Text stepText = new Text(steps.get(i));
+        stepText.setFont(new Font(25));
+        HBox numberedStep = new HBox(20);
+        numberedStep.setAlignment(Pos.CENTER_LEFT);
+        numberedStep.getChildren().addAll(
+                setUpStepNumber(i + 1),
+                stepText
+        );
+        stepTexts.add(stepText);
+        stepsContainer.getChildren().add(numberedStep);
+      }
     }
-    return stepsContainer;
+    removeRows(stepsContainer, stepTexts, steps.size(), 0);
   }
 
   /**
@@ -266,44 +328,75 @@ public class RecipeView extends View {
   }
 
   /**
-   * Sets up the recipe groceries section.
-   * The section contains the groceries needed for the recipe.
+   * Updates the recipe groceries section. The texts of existing rows are updated, and rows are
+   * added or removed to match the number of groceries.
    *
-   * @return The container with groceries
+   * @param groceries The groceries of the recipe
    */
-  private VBox setUpRecipeGroceries() {
-    VBox groceriesContainer = new VBox(20);
-    groceriesContainer.setMaxWidth(Sizing.getRecipeBoxSize()[0] * 0.3);
-
-    Text groceriesHeader = new Text("Ingredients:");
-    groceriesContainer.getChildren().add(groceriesHeader);
+  private void updateGroceries(Collection<Grocery> groceries) {
+    int i = 0;
+    for (Grocery grocery : groceries) {
+      String quantity = grocery.getQuantity() + " " + grocery.getUnit();
+      if (i < groceryTexts.size()) {
+        Text[] texts = groceryTexts.get(i);
+        setTextIfChanged(texts[0], grocery.getKey());
+        setTextIfChanged(texts[1], quantity);
+      } else {
+        Text nameText = new Text(grocery.getKey());
+        Text quantityText = new Text(quantity);
+        groceryTexts.add(new Text[] {nameText, quantityText});
+        groceriesContainer.getChildren().add(
+                createGroceryTextWithSeparator(nameText, quantityText));
+      }
+      i++;
+    }
+    // The first child of the groceries container is the header
+    removeRows(groceriesContainer, groceryTexts, groceries.size(), 1);
+  }
 
-    groceriesHeader.getStyleClass().add("groceries-header");
+  /**
+   * Removes the rows after the given size from a container, together with their texts.
+   *
+   * @param container The container to remove the rows from
+   * @param texts     The texts of the rows in the container
+   * @param size      The number of rows to keep
+   * @param offset    The number of children in the container before the first row
+   */
+  private static void removeRows(VBox container, List<?> texts, int size, int offset) {
+    if (texts.size() > size) {
+      container.getChildren().remove(size + offset, texts.size() + offset);
+      texts.subList(size, texts.size()).clear();
+    }
+  }
 
-    for (Grocery grocery : recipe.getRecipeGroceries().getRegister().values()) {
-      groceriesContainer.getChildren().add(createGroceryTextWithSeparator(grocery));
+  /**
+   * Sets the text of a text node, if it differs from the current text.
+   *
+   * @param text    The text node
+   * @param content The new text
+   */
+  private static void setTextIfChanged(Text text, String content) {
+    if (!Objects.equals(text.getText(), content)) {
+      text.setText(content);
     }
-    groceriesContainer.setAlignment(Pos.TOP_LEFT);
-    return groceriesContainer;
   }
 
   /**
    * Creates a grocery text with a separator. To be used in the groceries section.
    *
-   * @param grocery The grocery to be displayed
+   * @param nameText     The text with the name of the grocery
+   * @param quantityText The text with the quantity and unit of the grocery
    * @return The grocery text with a separator
    */
-  private VBox createGroceryTextWithSeparator(Grocery grocery) {
+  private VBox createGroceryTextWithSeparator(Text nameText, Text quantityText) {
     HBox groceryText = new HBox();
     groceryText.getStyleClass().add("grocery-text");
 
-    Text nameText = new Text(grocery.getKey());
     nameText.getStyleClass().add("sub-groceries-text");
 
     Region spacer = new Region();
     HBox.setHgrow(spacer, Priority.ALWAYS);
 
-    Text quantityText = new Text(grocery.getQuantity() + " " + grocery.getUnit());
     quantityText.getStyleClass().add("sub-groceries-text");
     quantityText.setTextAlignment(TextAlignment.RIGHT);
 
@@ -2,6 +2,8 @@ package stud.ntnu.idatt1005.pantrypal.views;
 
 import static javafx.stage.Screen.getPrimary;
 
+import java.util.HashMap;
+import java.util.Map;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.ScrollPane;
@@ -12,12 +14,15 @@ import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Text;
-import stud.ntnu.idatt1005.pantrypal.controllers.Observer;
 import stud.ntnu.idatt1005.pantrypal.controllers.ShoppingListController;
-import stud.ntnu.idatt1005.pantrypal.enums.ButtonEnum;
 import stud.ntnu.idatt1005.pantrypal.enums.Route;
+import stud.ntnu.idatt1005.pantrypal.events.AddGroceryEvent;
+import stud.ntnu.idatt1005.pantrypal.events.AddToPantryEvent;
+import stud.ntnu.idatt1005.pantrypal.events.ChangeQuantityEvent;
+import stud.ntnu.idatt1005.pantrypal.events.RemoveGroceryEvent;
 import stud.ntnu.idatt1005.pantrypal.models.Grocery;
 import stud.ntnu.idatt1005.pantrypal.registers.GroceryRegister;
+import stud.ntnu.idatt1005.pantrypal.registers.RegisterChange;
 import stud.ntnu.idatt1005.pantrypal.utils.FontPalette;
 import stud.ntnu.idatt1005.pantrypal.utils.SoundPlayer;
 import stud.ntnu.idatt1005.pantrypal.views.components.AddGroceryListElement;
@@ -27,17 +32,27 @@ import stud.ntnu.idatt1005.pantrypal.views.components.StyledButton;
 /**
  * A class that extends View and creates a view for the shopping list.
  * The goal is to provide a dedicated view for users to view their shopping list.
+ * The view is rendered once, and then updated by the changes of the register of the shopping
+ * list, so only the elements of the changed groceries are created again.
  */
 public class ShoppingListView extends View {
 
   /**
-   * Constructor for ShoppingListView.
+   * The VBox holding the shopping list elements, and the elements indexed by grocery name.
+   */
+  private VBox shoppingList;
+  private final Map<String, GroceryListElement> elements = new HashMap<>();
+
+  /**
+   * Constructor for ShoppingListView. Changes of the shopping list can be undone and redone
+   * with the keyboard.
    *
    * @param controller The controller for the view. This controller is passed to the
    *                   super class View.
    */
   public ShoppingListView(ShoppingListController controller) {
     super(controller, Route.SHOPPING_LIST, "/styles/shopping-list.css");
+    this.addUndoShortcuts();
   }
 
   /**
@@ -56,7 +71,7 @@ public class ShoppingListView extends View {
     ScrollPane scrollPane = createScrollPane();
 
     // Create the VBox to hold the shopping list elements
-    VBox shoppingList = createShoppingList(register);
+    shoppingList = createShoppingList(register);
     scrollPane.setContent(shoppingList);
 
     // Add a button to add to pantry
@@ -131,28 +146,84 @@ public class ShoppingListView extends View {
    * @return the VBox to hold the shopping list elements
    */
   private VBox createShoppingList(GroceryRegister register) {
-    VBox shoppingList = new VBox();
-    for (Grocery grocery : register.getRegister().values()) {
-      GroceryListElement element = new GroceryListElement.GroceryListElementBuilder(grocery)
-          .checkBox()
-          .text(grocery.getName())
-          .text(grocery.getShelf())
-          .quantity()
-          .text(grocery.getUnit())
-          .build();
-
-      for (Observer observer : observers) {
-        element.addObserver(observer);
-      }
-      shoppingList.getChildren().add(element.getPane());
+    VBox list = new VBox();
+    elements.clear();
+    for (Grocery grocery : register.snapshot().values()) {
+      GroceryListElement element = createElement(grocery);
+      elements.put(grocery.getKey(), element);
+      list.getChildren().add(element.getPane());
+    }
+    return list;
+  }
+
+  /**
+   * Creates a shopping list element for a grocery.
+   *
+   * @param grocery the grocery to be shown
+   * @return the shopping list element
+   */
+  private GroceryListElement createElement(Grocery grocery) {
+    GroceryListElement element = new GroceryListElement.GroceryListElementBuilder(grocery)
+        .checkBox()
+        .text(grocery.getName())
+        .text(grocery.getShelf())
+        .quantity()
+        .text(grocery.getUnit())
+        .build();
+
+    element.setOnRemove(removed ->
+        publish(new RemoveGroceryEvent(Route.SHOPPING_LIST, removed)));
+    element.setOnQuantityChange((changed, quantity) ->
+        publish(new ChangeQuantityEvent(Route.SHOPPING_LIST, changed, quantity)));
+    return element;
+  }
+
+  /**
+   * Updates the shopping list with a change of the register of the shopping list. An added
+   * grocery gets a new element, or replaces the element of the grocery with the same name, a
+   * removed grocery has its element removed, and a changed quantity is shown by the element of
+   * the grocery. Does nothing if the view has not been rendered yet.
+   *
+   * @param change the change of the register
+   */
+  public void groceryChanged(RegisterChange<Grocery> change) {
+    if (shoppingList == null) {
+      return;
+    }
+    Grocery grocery = change.getModel();
+    GroceryListElement element;
+    switch (change.getType()) {
+      case ADDED:
+        element = createElement(grocery);
+        GroceryListElement replaced = elements.put(grocery.getKey(), element);
+        int index = replaced == null ? -1 : shoppingList.getChildren().indexOf(replaced.getPane());
+        if (index >= 0) {
+          shoppingList.getChildren().set(index, element.getPane());
+        } else {
+          shoppingList.getChildren().add(element.getPane());
+        }
+        break;
+      case REMOVED:
+        element = elements.remove(grocery.getKey());
+        if (element != null) {
+          shoppingList.getChildren().remove(element.getPane());
+        }
+        break;
+      case QUANTITY_CHANGED:
+        element = elements.get(grocery.getKey());
+        if (element != null) {
+          element.updateQuantity();
+        }
+        break;
+      default:
+        break;
     }
-    return shoppingList;
   }
 
   /**
    * Creates a button to add groceries to the pantry.
    * The button is styled with the solid variant and medium size.
-   * The button has an action that notifies the observers of the view.
+   * The button has an action that publishes an event to add the checked groceries to the pantry.
    *
    * @return the button to add groceries to the pantry
    */
@@ -160,7 +231,7 @@ public class ShoppingListView extends View {
     StyledButton addToPantry = new StyledButton(
         "Add to pantry", StyledButton.Variant.SOLID, StyledButton.Size.MEDIUM);
     addToPantry.setOnAction(e -> {
-      notifyObservers(ButtonEnum.ADD_TO_PANTRY);
+      publish(new AddToPantryEvent());
       SoundPlayer.playSound(SoundPlayer.Sound.DEFAULT);
     });
     addToPantry.setMinWidth(getPrimary().getVisualBounds().getWidth() * 0.5);
@@ -176,9 +247,8 @@ public class ShoppingListView extends View {
    */
   private AddGroceryListElement createAddGroceryListElement() {
     AddGroceryListElement addGroceryListElement = new AddGroceryListElement("");
-    for (Observer observer : observers) {
-      addGroceryListElement.addObserver(observer);
-    }
+    addGroceryListElement.setOnAdd(grocery ->
+        publish(new AddGroceryEvent(Route.SHOPPING_LIST, grocery)));
 
     addGroceryListElement.setMaxHeight(50);
     addGroceryListElement.setAlignment(Pos.BOTTOM_CENTER);
@@ -2,12 +2,12 @@ package stud.ntnu.idatt1005.pantrypal.views;
 
 import static javafx.stage.Screen.getPrimary;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
 import javafx.scene.control.ScrollPane;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyCodeCombination;
+import javafx.scene.input.KeyCombination;
 import javafx.scene.layout.Background;
 import javafx.scene.layout.BackgroundFill;
 import javafx.scene.layout.BorderPane;
@@ -15,11 +15,12 @@ import javafx.scene.layout.CornerRadii;
 import javafx.scene.layout.VBox;
 import javafx.scene.text.Text;
 import stud.ntnu.idatt1005.pantrypal.controllers.Controller;
-import stud.ntnu.idatt1005.pantrypal.controllers.Observer;
-import stud.ntnu.idatt1005.pantrypal.enums.ButtonEnum;
 import stud.ntnu.idatt1005.pantrypal.enums.Route;
+import stud.ntnu.idatt1005.pantrypal.events.RedoEvent;
+import stud.ntnu.idatt1005.pantrypal.events.UndoEvent;
 import stud.ntnu.idatt1005.pantrypal.utils.ColorPalette;
 import stud.ntnu.idatt1005.pantrypal.utils.FontPalette;
+import stud.ntnu.idatt1005.pantrypal.utils.StyleSheets;
 import stud.ntnu.idatt1005.pantrypal.views.components.NavBar;
 
 
@@ -28,17 +29,14 @@ import stud.ntnu.idatt1005.pantrypal.views.components.NavBar;
  * This class represents a View in the application. It extends the Scene class from JavaFX and
  * provides a base structure for other views. It has two types of views: HOME and DEFAULT. The HOME
  * view includes a title and a navigation bar. The DEFAULT view only includes a navigation bar.
+ * The actions of the user are published as events to the event bus of the application, which
+ * delivers them to the controllers subscribed to them.
  */
-public class View extends Scene implements Observable {
+public class View extends Scene {
   private final Route route;
   private final Controller controller;
   private final BorderPane root;
 
-  /**
-   * List of observers observing this view.
-   */
-  protected final List<Observer> observers = new ArrayList<>();
-
   /**
    * Constructs a View object with a specified controller, route, and style path.
    * The view is created with a BorderPane as the root node
@@ -53,10 +51,8 @@ public class View extends Scene implements Observable {
   public View(Controller controller, Route route, String stylePath) {
     super(new BorderPane(), getPrimary().getVisualBounds().getWidth(),
             getPrimary().getVisualBounds().getHeight());
-    this.getStylesheets().add(Objects.requireNonNull(getClass()
-            .getResource("/styles/components.css")).toExternalForm());
-    this.getStylesheets().add(Objects.requireNonNull(getClass()
-            .getResource(stylePath)).toExternalForm());
+    this.getStylesheets().addAll(StyleSheets.get(StyleSheets.COMPONENTS),
+            StyleSheets.get(stylePath));
     this.route = route;
     this.controller = controller;
     this.widthProperty().lessThanOrEqualTo(getPrimary().getVisualBounds().getWidth() - 100);
@@ -96,11 +92,14 @@ public class View extends Scene implements Observable {
 
   /**
    * Sets the root to a ScrollPane, and sets the current root to the content of the ScrollPane.
+   *
+   * @return the ScrollPane set as root
    */
-  public void setScrollPane() {
+  public ScrollPane setScrollPane() {
     ScrollPane scrollPane = new ScrollPane();
     scrollPane.setContent(root);
     setRoot(scrollPane);
+    return scrollPane;
   }
 
   /**
@@ -113,59 +112,23 @@ public class View extends Scene implements Observable {
   }
 
   /**
-   * Adds an observer to the list of observers for this view.
+   * Publishes an event to the event bus of the application.
    *
-   * @param observer The observer to be added.
-   * @throws IllegalArgumentException If the observer is null.
+   * @param event the event to publish
    */
-  @Override
-  public void addObserver(Observer observer) throws IllegalArgumentException {
-    if (observer != null) {
-      if (!observers.contains(observer)) {
-        observers.add(observer);
-      }
-    } else {
-      throw new IllegalArgumentException("Observer cannot be null");
-    }
+  protected void publish(Object event) {
+    controller.viewManager.getEventBus().publish(event);
   }
 
   /**
-   * Removes an observer from the list of observers for this view.
-   *
-   * @param observer The observer to be removed.
-   * @throws IllegalArgumentException If the observer is null.
+   * Adds the keyboard shortcuts for undoing and redoing changes in the view. Ctrl+Z publishes an
+   * {@link UndoEvent} and Ctrl+Y publishes a {@link RedoEvent} for the route of the view, or
+   * Cmd+Z and Cmd+Y on macOS.
    */
-  @Override
-  public void removeObserver(Observer observer) throws IllegalArgumentException {
-    if (observer != null) {
-      observers.remove(observer);
-    } else {
-      throw new IllegalArgumentException("Observer cannot be null");
-    }
-  }
-
-  /**
-   * Notifies all observers with the given ButtonEnum.
-   *
-   * @param buttonEnum The ButtonEnum to notify the observers with.
-   */
-  protected void notifyObservers(ButtonEnum buttonEnum) {
-    List<Observer> observersCopy = new ArrayList<>(this.observers);
-    for (Observer observer : observersCopy) {
-      observer.update(buttonEnum);
-    }
-  }
-
-  /**
-   * Notifies all observers with the given ButtonEnum and object.
-   *
-   * @param buttonEnum The ButtonEnum to notify the observers with.
-   * @param object     The object to notify the observers with.
-   */
-  protected void notifyObservers(ButtonEnum buttonEnum, Object object) {
-    List<Observer> observersCopy = new ArrayList<>(this.observers);
-    for (Observer observer : observersCopy) {
-      observer.update(buttonEnum, object);
-    }
+  protected void addUndoShortcuts() {
+    getAccelerators().put(new KeyCodeCombination(KeyCode.Z, KeyCombination.SHORTCUT_DOWN),
+        () -> publish(new UndoEvent(route)));
+    getAccelerators().put(new KeyCodeCombination(KeyCode.Y, KeyCombination.SHORTCUT_DOWN),
+        () -> publish(new RedoEvent(route)));
   }
-}
\ No newline at end of file
+}
@@ -2,27 +2,42 @@ package stud.ntnu.idatt1005.pantrypal.views.components;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 import javafx.geometry.Pos;
+import javafx.geometry.Side;
+import javafx.scene.control.ContextMenu;
+import javafx.scene.control.MenuItem;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.StackPane;
-import stud.ntnu.idatt1005.pantrypal.controllers.Observer;
-import stud.ntnu.idatt1005.pantrypal.enums.ButtonEnum;
 import stud.ntnu.idatt1005.pantrypal.models.Grocery;
+import stud.ntnu.idatt1005.pantrypal.utils.GrocerySuggestions;
 import stud.ntnu.idatt1005.pantrypal.utils.NodeUtils;
 import stud.ntnu.idatt1005.pantrypal.utils.SoundPlayer;
-import stud.ntnu.idatt1005.pantrypal.views.Observable;
+import stud.ntnu.idatt1005.pantrypal.utils.StyleSheets;
 
 
 /**
  * A class for creating input fields and an add button.
  * These fields are used to create and add a grocery to a grocery list.
- * The class extends HBox and implements the Observable interface.
+ * While the user types a name or a shelf, existing groceries and shelves are suggested, and
+ * choosing a grocery fills in its unit and usual shelf.
+ * The class extends HBox, and calls an add action with the grocery when the add button is
+ * pressed.
  */
-public class AddGroceryListElement extends HBox implements Observable {
-  private final List<Observer> observers = new ArrayList<>();
-  private static final String OBSERVER_ERROR_MESSAGE = "Observer cannot be null";
+public class AddGroceryListElement extends HBox {
+  private static final int MAX_SUGGESTIONS = 6;
+
+  /**
+   * The action called with the grocery when the add button is pressed.
+   */
+  private Consumer<Grocery> onAdd = grocery -> { };
+
+  /**
+   * True while a chosen suggestion is filled in, so filling in the text does not suggest again.
+   */
+  private boolean applyingSuggestion;
 
   /**
    * Constructor for the AddGroceryListElement class.
@@ -37,9 +52,19 @@ public class AddGroceryListElement extends HBox implements Observable {
     StyledTextField quantity = new StyledTextField("Quantity");
     StyledTextField unit = new StyledTextField("Unit");
     StyledButton addButton = getStyledButton(name, shelf, quantity, unit);
+    addSuggestions(name, suggestion -> {
+      name.setText(suggestion.getName());
+      if (unit.getText().isEmpty()) {
+        unit.setText(suggestion.getUnit());
+      }
+      if (shelf.getText().isEmpty() && suggestion.getShelf() != null) {
+        shelf.setText(suggestion.getShelf());
+      }
+    }, text -> GrocerySuggestions.suggestGroceries(text, MAX_SUGGESTIONS));
+    addSuggestions(shelf, shelf::setText,
+        text -> GrocerySuggestions.suggestShelves(text, MAX_SUGGESTIONS));
 
-    this.getStylesheets().add(Objects.requireNonNull(
-            getClass().getResource("/styles/pantry.css")).toExternalForm());
+    this.getStylesheets().add(StyleSheets.get("/styles/pantry.css"));
     this.setAlignment(Pos.CENTER);
     NodeUtils.addClasses(this, "add-grocery-container");
 
@@ -92,8 +117,8 @@ public class AddGroceryListElement extends HBox implements Observable {
         if (unit.getText().isEmpty()) {
           unit.setText("Pc");
         }
-        notifyObservers(ButtonEnum.ADD, name.getText(), shelf.getText(), Integer.parseInt(quantity.getText()),
-                unit.getText());
+        onAdd.accept(new Grocery(name.getText(), Integer.parseInt(quantity.getText()),
+                unit.getText(), shelf.getText(), false));
         name.clear();
         shelf.clear();
         quantity.clear();
@@ -104,6 +129,48 @@ public class AddGroceryListElement extends HBox implements Observable {
     return addButton;
   }
 
+  /**
+   * Shows a popup with suggestions below a text field while the user types in it. Choosing a
+   * suggestion passes it to the given action.
+   *
+   * @param textField the text field to suggest for
+   * @param onChoose  the action called with the chosen suggestion
+   * @param suggest   the function finding the suggestions for the text in the text field
+   * @param <T>       the type of the suggestions
+   */
+  private <T> void addSuggestions(StyledTextField textField, Consumer<T> onChoose,
+                                  Function<String, List<T>> suggest) {
+    ContextMenu popup = new ContextMenu();
+    textField.textProperty().addListener((observable, oldValue, newValue) -> {
+      if (applyingSuggestion || !textField.isFocused() || newValue.isBlank()) {
+        popup.hide();
+        return;
+      }
+      List<MenuItem> items = new ArrayList<>();
+      for (T suggestion : suggest.apply(newValue.trim())) {
+        MenuItem item = new MenuItem(suggestion.toString());
+        item.setOnAction(e -> {
+          applyingSuggestion = true;
+          onChoose.accept(suggestion);
+          applyingSuggestion = false;
+          textField.positionCaret(textField.getText().length());
+        });
+        items.add(item);
+      }
+      popup.getItems().setAll(items);
+      if (items.isEmpty()) {
+        popup.hide();
+      } else if (!popup.isShowing()) {
+        popup.show(textField, Side.BOTTOM, 0, 0);
+      }
+    });
+    textField.focusedProperty().addListener((observable, oldValue, newValue) -> {
+      if (!newValue) {
+        popup.hide();
+      }
+    });
+  }
+
   /**
    * Styles the text field given as parameter and returns
    * a StackPane with the text field.
@@ -139,38 +206,12 @@ public class AddGroceryListElement extends HBox implements Observable {
     return shelf;
   }
 
-  @Override
-  public void addObserver(Observer observer) {
-    if (observer != null) {
-      observers.add(observer);
-    } else {
-      throw new IllegalArgumentException(OBSERVER_ERROR_MESSAGE);
-    }
-  }
-
-  @Override
-  public void removeObserver(Observer observer) {
-    if (observer != null) {
-      observers.remove(observer);
-    } else {
-      throw new IllegalArgumentException(OBSERVER_ERROR_MESSAGE);
-    }
-  }
-
   /**
-   * Notifies the observers in the observer list with the given buttonEnum and grocery.
+   * Sets the action called with the grocery when the add button is pressed.
    *
-   * @param buttonEnum the buttonEnum to be sent to the observers
-   * @param name       the name of the grocery
-   * @param shelf      the shelf of the grocery
-   * @param quantity   the quantity of the grocery
-   * @param unit       the unit of the grocery
+   * @param onAdd the action to be called
    */
-  private void notifyObservers(ButtonEnum buttonEnum, String name, String shelf, int quantity, String unit) {
-    Grocery grocery = new Grocery(name, quantity, unit, shelf, false);
-    List<Observer> observerList = new ArrayList<>(this.observers);
-    for (Observer observer : observerList) {
-      observer.update(buttonEnum, grocery);
-    }
+  public void setOnAdd(Consumer<Grocery> onAdd) {
+    this.onAdd = onAdd;
   }
 }
@@ -2,8 +2,7 @@ package stud.ntnu.idatt1005.pantrypal.views.components;
 
 import static javafx.stage.Screen.getPrimary;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.function.Consumer;
 import javafx.geometry.Pos;
 import javafx.geometry.Rectangle2D;
 import javafx.scene.control.Label;
@@ -21,22 +20,32 @@ import javafx.scene.layout.BorderWidths;
 import javafx.scene.layout.CornerRadii;
 import javafx.scene.layout.StackPane;
 import javafx.scene.shape.Rectangle;
-import stud.ntnu.idatt1005.pantrypal.controllers.Observer;
-import stud.ntnu.idatt1005.pantrypal.enums.ButtonEnum;
+import javafx.scene.text.Font;
 import stud.ntnu.idatt1005.pantrypal.models.Recipe;
 import stud.ntnu.idatt1005.pantrypal.utils.ColorPalette;
 import stud.ntnu.idatt1005.pantrypal.utils.FontPalette;
 import stud.ntnu.idatt1005.pantrypal.utils.NodeUtils;
-import stud.ntnu.idatt1005.pantrypal.views.Observable;
+import stud.ntnu.idatt1005.pantrypal.utils.TextFit;
 
 /**
  * This class represents a component for displaying a recipe within the cookbook. It provides
  * methods to create a visual representation of a recipe, including its image and name.
  */
-public class CookbookRecipeComponent extends StackPane implements Observable {
+public class CookbookRecipeComponent extends StackPane {
+
+  /**
+   * The horizontal space in the component that is not available for the label.
+   */
+  private static final double LABEL_MARGIN = 20;
 
   private final Recipe recipe;
-  private final List<Observer> observers;
+
+  private StarIcon starIcon;
+
+  /**
+   * The action called with the recipe when the component is clicked.
+   */
+  private Consumer<Recipe> onOpen = opened -> { };
 
   /**
    * Constructs a CookbookRecipeComponent for a Recipe. This constructor sets up the visual
@@ -46,7 +55,6 @@ public class CookbookRecipeComponent extends StackPane implements Observable {
    */
   public CookbookRecipeComponent(Recipe recipe) {
     this.recipe = recipe;
-    this.observers = new ArrayList<>();
     BackgroundSize backgroundSize = new BackgroundSize(320, 200,
         true, true, false, true);
     setUpStackPane();
@@ -68,6 +76,22 @@ public class CookbookRecipeComponent extends StackPane implements Observable {
     NodeUtils.addClasses(this, "recipe-component");
   }
 
+  /**
+   * Returns the recipe displayed by the component.
+   *
+   * @return the recipe
+   */
+  public Recipe getRecipe() {
+    return recipe;
+  }
+
+  /**
+   * Updates the star icon with the favorite status of the recipe.
+   */
+  public void updateFavorite() {
+    starIcon.setColor(recipe.getIsFavorite());
+  }
+
 
   /**
    * Sets up the BorderPane for the recipe component.
@@ -87,17 +111,20 @@ public class CookbookRecipeComponent extends StackPane implements Observable {
     clip.setArcWidth(20);
     clip.setArcHeight(20);
     this.setClip(clip);
-    this.setOnMouseClicked(e -> notifyObservers(ButtonEnum.OPEN_RECIPE));
+    this.setOnMouseClicked(e -> onOpen.accept(recipe));
   }
 
   /**
-   * Sets the label of the recipe component.
+   * Sets the label of the recipe component. The font size of the label is reduced if the name of
+   * the recipe does not fit in the component.
    *
    * @param recipeName name of the recipe
    */
   private void setLabel(String recipeName) {
     Label label = new Label(recipeName);
-    label.setFont(FontPalette.BUTTON);
+    double fontSize = TextFit.shared().fitFontSize(recipeName, FontPalette.BUTTON,
+        FontPalette.BUTTON.getSize(), getComponentWidth() - LABEL_MARGIN);
+    label.setFont(new Font(FontPalette.BUTTON.getName(), fontSize));
     label.setTextFill(ColorPalette.PRIMARY_LIGHT);
     label.setBackground(new Background(new BackgroundFill(ColorPalette.BLACK, null, null)));
     NodeUtils.addClasses(label, "recipe-label");
@@ -111,7 +138,7 @@ public class CookbookRecipeComponent extends StackPane implements Observable {
    * @param isFavorite boolean indicating if the recipe is a favorite
    */
   private void setStarIcon(boolean isFavorite) {
-    StarIcon starIcon = new StarIcon(StarIcon.Variants.COOKBOOK, isFavorite);
+    starIcon = new StarIcon(StarIcon.Variants.COOKBOOK, isFavorite);
     StackPane.setAlignment(starIcon, Pos.TOP_RIGHT);
     this.getChildren().add(starIcon);
   }
@@ -135,36 +162,12 @@ public class CookbookRecipeComponent extends StackPane implements Observable {
     return getComponentWidth() * 0.625;
   }
 
-  @Override
-  public void addObserver(Observer observer) {
-    if (observer != null) {
-      if (!observers.contains(observer)) {
-        observers.add(observer);
-      }
-    } else {
-      throw new IllegalArgumentException("Observer cannot be null");
-    }
-  }
-
-  @Override
-  public void removeObserver(Observer observer) {
-    if (observer != null) {
-      observers.remove(observer);
-    } else {
-      throw new IllegalArgumentException("Observer cannot be null");
-    }
-  }
-
   /**
-   * Notifies the observers of the component with the given buttonEnum and the recipe of the
-   * component.
+   * Sets the action called with the recipe when the component is clicked.
    *
-   * @param buttonEnum the buttonEnum to notify the observers with
+   * @param onOpen the action to be called
    */
-  protected void notifyObservers(ButtonEnum buttonEnum) {
-    List<Observer> observersCopy = new ArrayList<>(this.observers);
-    for (Observer observer : observersCopy) {
-      observer.update(buttonEnum, this.recipe);
-    }
+  public void setOnOpen(Consumer<Recipe> onOpen) {
+    this.onOpen = onOpen;
   }
 }
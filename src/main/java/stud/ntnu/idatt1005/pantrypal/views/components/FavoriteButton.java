@@ -31,6 +31,17 @@ public class FavoriteButton extends Button {
     NodeUtils.addClasses(this, "favorite-button");
   }
 
+  /**
+   * Sets the value of the boolean isFavorite, and updates the background color of the
+   * star accordingly.
+   *
+   * @param isFavorite true if the recipe is a favorite, and false if it is not
+   */
+  public void setFavorite(boolean isFavorite) {
+    this.isFavorite = isFavorite;
+    star.setColor(isFavorite);
+  }
+
   /**
    * toggles the value of the boolean isFavorite, and updates the background color of the
    * star accordingly.
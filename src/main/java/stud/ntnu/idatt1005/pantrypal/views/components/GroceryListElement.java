@@ -1,7 +1,7 @@
 package stud.ntnu.idatt1005.pantrypal.views.components;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.Button;
@@ -13,21 +13,27 @@ import javafx.scene.layout.HBox;
 import javafx.scene.layout.Pane;
 import javafx.scene.layout.StackPane;
 import javafx.scene.text.Text;
-import stud.ntnu.idatt1005.pantrypal.controllers.Observer;
-import stud.ntnu.idatt1005.pantrypal.enums.ButtonEnum;
 import stud.ntnu.idatt1005.pantrypal.models.Grocery;
 import stud.ntnu.idatt1005.pantrypal.utils.FontPalette;
 import stud.ntnu.idatt1005.pantrypal.utils.SoundPlayer;
-import stud.ntnu.idatt1005.pantrypal.views.Observable;
 
 /**
- * Class representing a shopping list element. This class implement the Observable interface
- * and provides a visual representation of a grocery item in the shopping list.
+ * Class representing a shopping list element. This class provides a visual representation of a
+ * grocery item in the shopping list.
  * It includes a checkbox, text information about the grocery item, and a delete button.
  */
-public class GroceryListElement implements Observable {
+public class GroceryListElement {
 
-  private final List<Observer> observers = new ArrayList<>();
+  /**
+   * The action called with the grocery when the delete button is pressed.
+   */
+  private Consumer<Grocery> onRemove = removed -> { };
+
+  /**
+   * The action called with the grocery and the new quantity when the value of the spinner is
+   * changed. Sets the quantity of the grocery, unless another action is set.
+   */
+  private ObjIntConsumer<Grocery> onQuantityChange = Grocery::setQuantity;
 
   /**
    * The {@link BorderPane} containing the visual elements of the shopping list item.
@@ -36,12 +42,21 @@ public class GroceryListElement implements Observable {
   private final BorderPane pane = new BorderPane();
   private final Grocery grocery;
 
+  /**
+   * The spinner showing the quantity of the grocery, or null if the quantity is not shown.
+   */
+  private final Spinner<Integer> spinner;
+
   /**
    * Constructor for the shopping list element. It initializes the visual elements
    * and sets up the necessary event handlers.
    */
   private GroceryListElement(GroceryListElementBuilder builder) {
     grocery = builder.grocery;
+    spinner = builder.spinner;
+    if (spinner != null) {
+      spinner.setValueFactory(createValueFactory());
+    }
     StackPane checkPane = builder.checkPane;
     HBox textBox = builder.textBox;
     textBox.setAlignment(Pos.CENTER);
@@ -63,64 +78,78 @@ public class GroceryListElement implements Observable {
   }
 
   /**
-   * Creates a button element with the given text, variant, size and enum.
-   * When clicked the button will notify the observers with the given enum.
+   * Shows the current quantity of the grocery, without creating the element again. Does nothing
+   * if the element does not show the quantity.
+   */
+  public void updateQuantity() {
+    if (spinner != null && spinner.getValue() != grocery.getQuantity()) {
+      spinner.setValueFactory(createValueFactory());
+    }
+  }
+
+  /**
+   * Creates the value factory of the quantity spinner, which calls the quantity change action
+   * when the value of the spinner is changed.
    *
-   * @return the StyledButton with the specified properties.
+   * @return the value factory, starting at the quantity of the grocery
    */
-  private StyledButton createButton() {
-    StyledButton newButton = new StyledButton(
-        "X", StyledButton.Variant.DELETE, StyledButton.Size.MEDIUM);
-    newButton.setOnAction(e -> {
-      notifyObservers(ButtonEnum.REMOVE);
-      SoundPlayer.playSound(SoundPlayer.Sound.DELETE);
+  private SpinnerValueFactory<Integer> createValueFactory() {
+    SpinnerValueFactory.IntegerSpinnerValueFactory valueFactory =
+        new SpinnerValueFactory.IntegerSpinnerValueFactory(0, 1000, grocery.getQuantity());
+    valueFactory.setAmountToStepBy(1);
+
+    valueFactory.valueProperty().addListener((observable, oldValue, newValue) -> {
+      if (newValue != null) {
+        onQuantityChange.accept(grocery, newValue);
+      }
     });
-    return newButton;
+    return valueFactory;
   }
 
-  @Override
-  public void addObserver(Observer observer) {
-    if (observer != null) {
-      if (!observers.contains(observer)) {
-        observers.add(observer);
-      }
-    } else {
-      throw new IllegalArgumentException("Observer cannot be null");
-    }
+  /**
+   * Sets the action called with the grocery when the delete button is pressed.
+   *
+   * @param onRemove the action to be called
+   */
+  public void setOnRemove(Consumer<Grocery> onRemove) {
+    this.onRemove = onRemove;
   }
 
-  @Override
-  public void removeObserver(Observer observer) {
-    if (observer != null) {
-      observers.remove(observer);
-    } else {
-      throw new IllegalArgumentException("Observer cannot be null");
-    }
+  /**
+   * Sets the action called with the grocery and the new quantity when the value of the quantity
+   * spinner is changed. The action is responsible for changing the quantity of the grocery.
+   *
+   * @param onQuantityChange the action to be called
+   */
+  public void setOnQuantityChange(ObjIntConsumer<Grocery> onQuantityChange) {
+    this.onQuantityChange = onQuantityChange;
   }
 
   /**
-   * Notifies the observers with the given enum and grocery.
+   * Creates a delete button. When clicked the button calls the remove action with the grocery.
    *
-   * @param buttonEnum the enum to be notified.
+   * @return the StyledButton with the specified properties.
    */
-  protected void notifyObservers(ButtonEnum buttonEnum) {
-    List<Observer> observersCopy = new ArrayList<>(this.observers);
-    for (Observer observer : observersCopy) {
-      observer.update(buttonEnum, this.grocery);
-    }
+  private StyledButton createButton() {
+    StyledButton newButton = new StyledButton(
+        "X", StyledButton.Variant.DELETE, StyledButton.Size.MEDIUM);
+    newButton.setOnAction(e -> {
+      onRemove.accept(grocery);
+      SoundPlayer.playSound(SoundPlayer.Sound.DELETE);
+    });
+    return newButton;
   }
 
   /**
    * A builder class representing a list element in the shopping list.
    * This class provides a visual representation of a grocery item in the shopping list.
    * It includes a checkbox, text information about the grocery item, and a delete button.
-   * This class also implements the Observable interface,
-   * allowing it to notify observers of changes.
    */
   public static class GroceryListElementBuilder {
     private final Grocery grocery;
     private final StackPane checkPane = new StackPane();
     private final HBox textBox = new HBox();
+    private Spinner<Integer> spinner;
 
     /**
      * Constructor for the GroceryListElementBuilder.
@@ -178,7 +207,7 @@ public class GroceryListElement implements Observable {
      * @return a new GroceryListElementBuilder with the given quantity.
      */
     public GroceryListElementBuilder quantity() {
-      Spinner<Integer> spinner = createSpinner();
+      spinner = createSpinner();
       spinner.setMaxWidth(100);
       spinner.setMaxHeight(50);
       spinner.setPadding(new Insets(0, 0, 0, 10));
@@ -195,21 +224,9 @@ public class GroceryListElement implements Observable {
      * @return a new Spinner element with the given properties.
      */
     private Spinner<Integer> createSpinner() {
-      Spinner<Integer> spinner = new Spinner<>();
-
-      final Grocery finalGrocery = this.grocery;
-
-      SpinnerValueFactory.IntegerSpinnerValueFactory valueFactory =
-          new SpinnerValueFactory.IntegerSpinnerValueFactory(0, 1000, finalGrocery.getQuantity());
-      valueFactory.setAmountToStepBy(1);
-
-      valueFactory.valueProperty().addListener((observable, oldValue, newValue) ->
-          finalGrocery.setQuantity(newValue)
-      );
-
-      spinner.setValueFactory(valueFactory);
-      spinner.setEditable(true);
-      return spinner;
+      Spinner<Integer> quantitySpinner = new Spinner<>();
+      quantitySpinner.setEditable(true);
+      return quantitySpinner;
     }
 
     /**
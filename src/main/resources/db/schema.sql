@@ -1,3 +1,4 @@
+drop table if exists recipe_fts;
 drop table if exists recipe_grocery;
 drop table if exists recipe_favorite;
 drop table if exists shopping_list_grocery;
@@ -74,4 +75,8 @@ CREATE TABLE pantry_shelf_grocery
     FOREIGN KEY (pantry_shelf_id) REFERENCES pantry_shelf (id),
     FOREIGN KEY (grocery_name) REFERENCES grocery (name),
     PRIMARY KEY (pantry_shelf_id, grocery_name)
-);
\ No newline at end of file
+);
+
+-- Tables created by later schema versions are created by the migrations in Migrations.java,
+-- the first time the application connects to the database.
+PRAGMA user_version = 0;
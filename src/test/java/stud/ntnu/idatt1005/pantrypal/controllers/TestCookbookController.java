@@ -0,0 +1,345 @@
+package stud.ntnu.idatt1005.pantrypal.controllers;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import stud.ntnu.idatt1005.pantrypal.PantryPal;
+import stud.ntnu.idatt1005.pantrypal.models.Grocery;
+import stud.ntnu.idatt1005.pantrypal.models.Recipe;
+import stud.ntnu.idatt1005.pantrypal.registers.GroceryRegister;
+import stud.ntnu.idatt1005.pantrypal.registers.StepRegister;
+import stud.ntnu.idatt1005.pantrypal.utils.GroceryCatalog;
+import stud.ntnu.idatt1005.pantrypal.utils.SQL;
+import stud.ntnu.idatt1005.pantrypal.utils.ViewManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestCookbookController {
+
+  private static final String USER = "cook";
+
+  private PantryController pantryController;
+  private ShoppingListController shoppingListController;
+  private CookbookController cookbookController;
+
+  @BeforeEach
+  void setUp() {
+    SQL.configure(SQL.MEMORY, null);
+    GroceryCatalog.invalidate();
+    PantryPal.userName = USER;
+    ViewManager viewManager = new ViewManager(null);
+    pantryController = new PantryController(viewManager);
+    shoppingListController = new ShoppingListController(viewManager, pantryController);
+    cookbookController =
+        new CookbookController(viewManager, shoppingListController, pantryController);
+  }
+
+  @AfterEach
+  void tearDown() {
+    PantryPal.userName = null;
+  }
+
+  private Map<String, Integer> shoppingList() {
+    Map<String, Integer> rows = new HashMap<>();
+    for (Map<String, Object> row : SQL.executeQuery(
+        "SELECT grocery_name, quantity FROM shopping_list_grocery WHERE user_name = ?", USER)) {
+      rows.put(row.get("grocery_name").toString(), (int) row.get("quantity"));
+    }
+    return rows;
+  }
+
+  private static Recipe recipe(String name, Grocery... groceries) {
+    GroceryRegister register = new GroceryRegister();
+    for (Grocery grocery : groceries) {
+      register.addGrocery(grocery);
+    }
+    StepRegister steps = new StepRegister();
+    steps.addStep("Mix");
+    return new Recipe(name, "A recipe", register, steps, null, false);
+  }
+
+  private static Grocery grocery(String name, int quantity) {
+    return new Grocery(name, quantity, "grams", "Pantry", false);
+  }
+
+  /**
+   * Stores a recipe with the groceries Zzflour and Zzyeast, and the steps Mix, Knead and Bake.
+   */
+  private static int storeBread(String name) {
+    GroceryCatalog.addGrocery("Zzflour", "grams");
+    GroceryCatalog.addGrocery("Zzyeast", "grams");
+    int id = SQL.executeUpdateWithGeneratedKeys(
+        "INSERT INTO recipe (name, description, image) VALUES (?, 'Bread', NULL)", name);
+    SQL.executeUpdate("INSERT INTO recipe_grocery (recipe_id, grocery_name, quantity) "
+        + "VALUES (?, 'Zzflour', 500), (?, 'Zzyeast', 10)", id, id);
+    SQL.executeUpdate("INSERT INTO step (recipe_id, description) "
+        + "VALUES (?, 'Mix'), (?, 'Knead'), (?, 'Bake')", id, id, id);
+    return id;
+  }
+
+  private static Recipe edited(int id, String name, List<String> steps, Grocery... groceries) {
+    GroceryRegister register = new GroceryRegister();
+    for (Grocery grocery : groceries) {
+      register.addGrocery(grocery);
+    }
+    StepRegister stepRegister = new StepRegister();
+    steps.forEach(stepRegister::addStep);
+    return new Recipe(id, name, "Bread", register, stepRegister, null, false);
+  }
+
+  private static List<Integer> stepIds(int id) {
+    List<Integer> ids = new ArrayList<>();
+    for (Map<String, Object> row :
+        SQL.executeQuery("SELECT id FROM step WHERE recipe_id = ? ORDER BY id", id)) {
+      ids.add((int) row.get("id"));
+    }
+    return ids;
+  }
+
+  private static List<String> steps(int id) {
+    List<String> steps = new ArrayList<>();
+    for (Map<String, Object> row :
+        SQL.executeQuery("SELECT description FROM step WHERE recipe_id = ? ORDER BY id", id)) {
+      steps.add(row.get("description").toString());
+    }
+    return steps;
+  }
+
+  private static Map<String, Integer> groceries(int id) {
+    Map<String, Integer> groceries = new HashMap<>();
+    for (Map<String, Object> row : SQL.executeQuery(
+        "SELECT grocery_name, quantity FROM recipe_grocery WHERE recipe_id = ?", id)) {
+      groceries.put(row.get("grocery_name").toString(), (int) row.get("quantity"));
+    }
+    return groceries;
+  }
+
+  private static long count(String table, String where, Object... params) {
+    return ((Number) SQL.executeQuery("SELECT count(*) AS n FROM " + table + " WHERE " + where,
+        params).get(0).get("n")).longValue();
+  }
+
+  @Nested
+  @DisplayName("Positive tests for CookbookController")
+  class PositiveTestsCookbookController {
+    @Test
+    @DisplayName("Test addRecipesToShoppingList() multiplies the quantities by the servings")
+    void testAddRecipesScalesServings() {
+      Recipe bread = recipe("Bread", grocery("Zzflour", 500), grocery("Zzyeast", 10));
+
+      cookbookController.addRecipesToShoppingList(List.of(bread), 3);
+
+      assertEquals(Map.of("Zzflour", 1500, "Zzyeast", 30), shoppingList());
+    }
+
+    @Test
+    @DisplayName("Test addRecipesToShoppingList() sums the groceries shared by the recipes")
+    void testAddRecipesMergesSharedGroceries() {
+      Recipe bread = recipe("Bread", grocery("Zzflour", 500), grocery("Zzyeast", 10));
+      Recipe cake = recipe("Cake", grocery("Zzflour", 200), grocery("Zzsugar", 100));
+
+      cookbookController.addRecipesToShoppingList(List.of(bread, cake), 2);
+
+      assertEquals(Map.of("Zzflour", 1400, "Zzyeast", 20, "Zzsugar", 200), shoppingList());
+      assertEquals(1400,
+          shoppingListController.getRegister().getGrocery("Zzflour").getQuantity());
+    }
+
+    @Test
+    @DisplayName("Test addRecipesToShoppingList() subtracts the pantry and the shopping list")
+    void testAddRecipesSubtractsStock() {
+      pantryController.addGrocery("Pantry", "Zzflour", 300, "grams");
+      shoppingListController.addGroceries(List.of(grocery("Zzyeast", 4)));
+      Recipe bread = recipe("Bread", grocery("Zzflour", 500), grocery("Zzyeast", 10),
+          grocery("Zzsalt", 5));
+
+      cookbookController.addRecipesToShoppingList(List.of(bread), 1);
+
+      assertEquals(Map.of("Zzflour", 200, "Zzyeast", 10, "Zzsalt", 5), shoppingList());
+    }
+
+    @Test
+    @DisplayName("Test addRecipesToShoppingList() matches groceries by name in any case")
+    void testAddRecipesMatchesCase() {
+      pantryController.addGrocery("Pantry", "Zzflour", 600, "grams");
+      Recipe bread = recipe("Bread", grocery("Zzflour", 500));
+      Recipe cake = recipe("Cake", grocery("zzFLOUR", 200));
+
+      cookbookController.addRecipesToShoppingList(List.of(bread, cake), 1);
+
+      assertEquals(Map.of("Zzflour", 100), shoppingList());
+    }
+
+    @Test
+    @DisplayName("Test addRecipesToShoppingList() adds nothing when the pantry has enough")
+    void testAddRecipesPantryHasEnough() {
+      pantryController.addGrocery("Pantry", "Zzflour", 1000, "grams");
+
+      cookbookController.addRecipesToShoppingList(
+          List.of(recipe("Bread", grocery("Zzflour", 500))), 2);
+
+      assertTrue(shoppingList().isEmpty());
+    }
+  }
+
+  @Nested
+  @DisplayName("Positive tests for writing recipe updates")
+  class PositiveTestsWriteRecipeUpdate {
+    @Test
+    @DisplayName("Test writeRecipeUpdate() of an unchanged recipe keeps every row")
+    void testWriteUnchangedRecipe() {
+      int id = storeBread("Zzbread");
+      List<Integer> stepIds = stepIds(id);
+
+      CookbookController.RecipeUpdate update = CookbookController.writeRecipeUpdate(
+          edited(id, "Zzbread", List.of("Mix", "Knead", "Bake"), grocery("Zzflour", 500),
+              grocery("Zzyeast", 10)));
+
+      assertEquals("Zzbread", update.storedName());
+      assertTrue(update.replacedIds().isEmpty());
+      assertEquals(1, count("recipe", "id = ? AND name = 'Zzbread'", id));
+      assertEquals(stepIds, stepIds(id));
+      assertEquals(Map.of("Zzflour", 500, "Zzyeast", 10), groceries(id));
+    }
+
+    @Test
+    @DisplayName("Test writeRecipeUpdate() keeps the ids and order of the unchanged steps")
+    void testWriteChangedSteps() {
+      int id = storeBread("Zzbread");
+      List<Integer> stepIds = stepIds(id);
+
+      CookbookController.writeRecipeUpdate(edited(id, "Zzbread",
+          List.of("Mix", "Knead well", "Bake", "Cool"), grocery("Zzflour", 500),
+          grocery("Zzyeast", 10)));
+
+      assertEquals(List.of("Mix", "Knead well", "Bake", "Cool"), steps(id));
+      assertEquals(stepIds, stepIds(id).subList(0, 3));
+    }
+
+    @Test
+    @DisplayName("Test writeRecipeUpdate() deletes the removed steps at the end")
+    void testWriteRemovedSteps() {
+      int id = storeBread("Zzbread");
+      List<Integer> stepIds = stepIds(id);
+
+      CookbookController.writeRecipeUpdate(edited(id, "Zzbread", List.of("Mix"),
+          grocery("Zzflour", 500), grocery("Zzyeast", 10)));
+
+      assertEquals(List.of("Mix"), steps(id));
+      assertEquals(stepIds.subList(0, 1), stepIds(id));
+    }
+
+    @Test
+    @DisplayName("Test writeRecipeUpdate() writes the changed, removed and added groceries")
+    void testWriteChangedGroceries() {
+      int id = storeBread("Zzbread");
+
+      CookbookController.RecipeUpdate update = CookbookController.writeRecipeUpdate(
+          edited(id, "Zzbread", List.of("Mix", "Knead", "Bake"), grocery("Zzflour", 750),
+              grocery("Zzseeds", 20)));
+
+      assertEquals(Map.of("Zzflour", 750, "Zzseeds", 20), groceries(id));
+      assertEquals(Set.of("Zzflour", "Zzseeds"), update.groceryNames());
+      assertEquals(1, count("grocery", "name = 'Zzseeds'"));
+      assertTrue(GroceryCatalog.containsGrocery("Zzseeds"));
+    }
+
+    @Test
+    @DisplayName("Test writeRecipeUpdate() deletes another recipe with the new name")
+    void testWriteRenamedRecipe() {
+      int id = storeBread("Zzbread");
+      int otherId = storeBread("Zzloaf");
+
+      CookbookController.RecipeUpdate update = CookbookController.writeRecipeUpdate(
+          edited(id, "Zzloaf", List.of("Mix", "Knead", "Bake"), grocery("Zzflour", 500),
+              grocery("Zzyeast", 10)));
+
+      assertEquals("Zzbread", update.storedName());
+      assertEquals(List.of(otherId), update.replacedIds());
+      assertEquals(1, count("recipe", "id = ? AND name = 'Zzloaf'", id));
+      assertEquals(0, count("recipe", "id = ?", otherId));
+      assertEquals(0, count("step", "recipe_id = ?", otherId));
+      assertEquals(0, count("recipe_grocery", "recipe_id = ?", otherId));
+    }
+  }
+
+  @Nested
+  @DisplayName("Positive tests for writing new recipes")
+  class PositiveTestsWriteNewRecipe {
+    @Test
+    @DisplayName("Test writeNewRecipe() writes the recipe, its groceries and its steps")
+    void testWriteNewRecipe() {
+      Recipe bread = edited(Recipe.NO_ID, "Zzbread", List.of("Mix", "Knead", "Bake"),
+          grocery("Zzflour", 500), grocery("Zzseeds", 20));
+
+      CookbookController.NewRecipe written = CookbookController.writeNewRecipe(bread);
+
+      assertEquals(1, count("recipe", "id = ? AND name = 'Zzbread'", written.id()));
+      assertEquals(Map.of("Zzflour", 500, "Zzseeds", 20), groceries(written.id()));
+      assertEquals(List.of("Mix", "Knead", "Bake"), steps(written.id()));
+      assertEquals(Set.of("Zzflour", "Zzseeds"), Set.copyOf(written.groceryNames()));
+      assertTrue(written.replacedIds().isEmpty());
+      assertTrue(GroceryCatalog.containsGrocery("Zzseeds"));
+    }
+
+    @Test
+    @DisplayName("Test writeNewRecipe() deletes the stored recipes with the same name")
+    void testWriteNewRecipeReplaces() {
+      int oldId = storeBread("Zzbread");
+
+      CookbookController.NewRecipe written = CookbookController.writeNewRecipe(
+          edited(Recipe.NO_ID, "Zzbread", List.of("Mix"), grocery("Zzflour", 250)));
+
+      assertEquals(List.of(oldId), written.replacedIds());
+      assertEquals(1, count("recipe", "name = 'Zzbread'"));
+      assertEquals(List.of("Mix"), steps(written.id()));
+      assertEquals(Map.of("Zzflour", 250), groceries(written.id()));
+    }
+
+    @Test
+    @DisplayName("Test writeNewRecipe() merges groceries with names differing only in case")
+    void testWriteNewRecipeMergesCase() {
+      GroceryCatalog.addGrocery("Zzflour", "grams");
+
+      CookbookController.NewRecipe written = CookbookController.writeNewRecipe(
+          edited(Recipe.NO_ID, "Zzbread", List.of("Mix"), grocery("Zzflour", 500),
+              grocery("zzFLOUR", 100)));
+
+      assertEquals(Map.of("Zzflour", 600), groceries(written.id()));
+    }
+  }
+
+  @Nested
+  @DisplayName("Negative tests for CookbookController")
+  class NegativeTestsCookbookController {
+    @Test
+    @DisplayName("Test writeRecipeUpdate() of a recipe that is not stored writes nothing")
+    void testWriteMissingRecipe() {
+      long recipes = count("recipe", "1 = 1");
+
+      assertNull(CookbookController.writeRecipeUpdate(edited(Integer.MAX_VALUE, "Zzbread",
+          List.of("Mix"), grocery("Zzseeds", 20))));
+      assertEquals(recipes, count("recipe", "1 = 1"));
+      assertFalse(GroceryCatalog.containsGrocery("Zzseeds"));
+    }
+
+    @Test
+    @DisplayName("Test addRecipesToShoppingList() throws an IllegalArgumentException for zero "
+        + "servings")
+    void testAddRecipesZeroServings() {
+      Recipe bread = recipe("Bread", grocery("Zzflour", 500));
+
+      assertThrows(IllegalArgumentException.class,
+          () -> cookbookController.addRecipesToShoppingList(List.of(bread), 0));
+      assertTrue(shoppingList().isEmpty());
+    }
+  }
+}
@@ -0,0 +1,242 @@
+package stud.ntnu.idatt1005.pantrypal.controllers;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import stud.ntnu.idatt1005.pantrypal.PantryPal;
+import stud.ntnu.idatt1005.pantrypal.enums.Route;
+import stud.ntnu.idatt1005.pantrypal.events.ChangeQuantityEvent;
+import stud.ntnu.idatt1005.pantrypal.events.UndoEvent;
+import stud.ntnu.idatt1005.pantrypal.models.Grocery;
+import stud.ntnu.idatt1005.pantrypal.utils.GroceryCatalog;
+import stud.ntnu.idatt1005.pantrypal.utils.SQL;
+import stud.ntnu.idatt1005.pantrypal.utils.ViewManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestShoppingListController {
+
+  private static final String USER = "shopper";
+
+  private ViewManager viewManager;
+  private PantryController pantryController;
+  private ShoppingListController controller;
+
+  @BeforeEach
+  void setUp() {
+    SQL.configure(SQL.MEMORY, null);
+    GroceryCatalog.invalidate();
+    PantryPal.userName = USER;
+    viewManager = new ViewManager(null);
+    pantryController = new PantryController(viewManager);
+    controller = new ShoppingListController(viewManager, pantryController);
+  }
+
+  @AfterEach
+  void tearDown() {
+    PantryPal.userName = null;
+  }
+
+  private Map<String, Integer> rows() {
+    Map<String, Integer> rows = new HashMap<>();
+    for (Map<String, Object> row : SQL.executeQuery(
+        "SELECT grocery_name, quantity FROM shopping_list_grocery WHERE user_name = ?", USER)) {
+      rows.put(row.get("grocery_name").toString(), (int) row.get("quantity"));
+    }
+    return rows;
+  }
+
+  private Map<String, Integer> pantryRows() {
+    Map<String, Integer> rows = new HashMap<>();
+    for (Map<String, Object> row : SQL.executeQuery("SELECT g.grocery_name, g.quantity "
+        + "FROM pantry_shelf_grocery g JOIN pantry_shelf s ON s.id = g.pantry_shelf_id "
+        + "WHERE s.user_name = ?", USER)) {
+      rows.put(row.get("grocery_name").toString(), (int) row.get("quantity"));
+    }
+    return rows;
+  }
+
+  private static Grocery grocery(String name, int quantity) {
+    return new Grocery(name, quantity, "units", "Fridge", false);
+  }
+
+  @Nested
+  @DisplayName("Positive tests for ShoppingListController")
+  class PositiveTestsShoppingListController {
+    @Test
+    @DisplayName("Test addGroceries() writes the groceries and the new catalog groceries")
+    void testAddGroceriesWritesRows() {
+      controller.addGroceries(List.of(grocery("Dragon fruit", 2), grocery("Eggs", 6)));
+
+      assertEquals(Map.of("Dragon fruit", 2, "Eggs", 6), rows());
+      assertEquals(1, SQL.executeQuery("SELECT name FROM grocery WHERE name = 'Dragon fruit'")
+          .size());
+      assertTrue(GroceryCatalog.containsGrocery("dragon fruit"));
+      assertEquals(2, controller.getRegister().getGrocery("Dragon fruit").getQuantity());
+    }
+
+    @Test
+    @DisplayName("Test addGroceries() adds the quantity of a grocery already on the list")
+    void testAddGroceriesIncreasesQuantity() {
+      controller.addGroceries(List.of(grocery("Eggs", 6)));
+      controller.addGroceries(List.of(grocery("Eggs", 4), grocery("Eggs", 2)));
+
+      assertEquals(Map.of("Eggs", 12), rows());
+      assertEquals(12, controller.getRegister().getGrocery("Eggs").getQuantity());
+    }
+
+    @Test
+    @DisplayName("Test addGroceries() uses the name a grocery is stored with")
+    void testAddGroceriesStoredName() {
+      controller.addGroceries(List.of(grocery("eggs", 6)));
+
+      assertEquals(Map.of("Eggs", 6), rows());
+      assertTrue(controller.getRegister().containsGrocery("Eggs"));
+    }
+
+    @Test
+    @DisplayName("Test addGroceries() is undone in one step")
+    void testAddGroceriesUndo() {
+      controller.addGroceries(List.of(grocery("Eggs", 6)));
+      controller.addGroceries(List.of(grocery("Eggs", 4), grocery("Dragon fruit", 2)));
+
+      viewManager.getEventBus().publish(new UndoEvent(Route.SHOPPING_LIST));
+      assertEquals(Map.of("Eggs", 6), rows());
+      assertFalse(controller.getRegister().containsGrocery("Dragon fruit"));
+    }
+
+    @Test
+    @DisplayName("Test addGroceries() inserts a new grocery before updating its quantity")
+    void testAddGroceriesInsertThenUpdate() {
+      controller.addGroceries(List.of(grocery("Eggs", 6)));
+      controller.addGroceries(List.of(grocery("Eggs", 1), grocery("Dragon fruit", 2),
+          grocery("Dragon fruit", 3)));
+
+      assertEquals(Map.of("Eggs", 7, "Dragon fruit", 5), rows());
+      assertEquals(5, controller.getRegister().getGrocery("Dragon fruit").getQuantity());
+    }
+
+    @Test
+    @DisplayName("Test addGroceries() merges groceries with names differing only in case")
+    void testAddGroceriesMergesCase() {
+      PantryPal.userName = null;
+      controller.addGroceries(List.of(grocery("Dragon fruit", 2), grocery("dragon FRUIT", 3)));
+      controller.addGroceries(List.of(grocery("DRAGON fruit", 1)));
+
+      assertEquals(1, controller.getRegister().getRegister().size());
+      assertEquals(6, controller.getRegister().getGrocery("Dragon fruit").getQuantity());
+    }
+
+    @Test
+    @DisplayName("Test setQuantity() writes the quantity, and is undone in one step")
+    void testSetQuantity() {
+      controller.addGroceries(List.of(grocery("Eggs", 6)));
+      Grocery eggs = controller.getRegister().getGrocery("Eggs");
+
+      controller.setQuantity(eggs, 7);
+      controller.setQuantity(eggs, 8);
+      assertEquals(Map.of("Eggs", 8), rows());
+      assertEquals(8, eggs.getQuantity());
+
+      assertTrue(controller.undo());
+      assertEquals(Map.of("Eggs", 6), rows());
+      assertEquals(6, eggs.getQuantity());
+    }
+
+    @Test
+    @DisplayName("Test a ChangeQuantityEvent of the shopping list sets the quantity")
+    void testChangeQuantityEvent() {
+      controller.addGroceries(List.of(grocery("Eggs", 6)));
+
+      viewManager.getEventBus().publish(new ChangeQuantityEvent(Route.SHOPPING_LIST,
+          controller.getRegister().getGrocery("Eggs"), 12));
+      viewManager.getEventBus().publish(new ChangeQuantityEvent(Route.PANTRY,
+          controller.getRegister().getGrocery("Eggs"), 1));
+
+      assertEquals(Map.of("Eggs", 12), rows());
+    }
+
+    @Test
+    @DisplayName("Test addGrocery() adds the grocery to the catalog with its unit, and is undone")
+    void testAddGrocery() {
+      controller.addGrocery(grocery("Dragon fruit", 2));
+
+      assertEquals(Map.of("Dragon fruit", 2), rows());
+      assertEquals("units", SQL.executeQuery(
+          "SELECT unit FROM grocery WHERE name = 'Dragon fruit'").get(0).get("unit"));
+
+      assertTrue(controller.undo());
+      assertTrue(rows().isEmpty());
+      assertFalse(controller.getRegister().containsGrocery("Dragon fruit"));
+    }
+
+    @Test
+    @DisplayName("Test addGroceriesToPantry() moves the checked groceries, and is undone in one "
+        + "step")
+    void testAddGroceriesToPantry() {
+      controller.addGroceries(List.of(grocery("Eggs", 6), grocery("Dragon fruit", 2)));
+      controller.getRegister().getGrocery("Eggs").setChecked(true);
+
+      controller.addGroceriesToPantry();
+      assertEquals(Map.of("Dragon fruit", 2), rows());
+      assertEquals(Map.of("Eggs", 6), pantryRows());
+      assertEquals(6, pantryController.getRegister().getShelfByName("Fridge")
+          .getGroceryRegister().getGrocery("Eggs").getQuantity());
+
+      assertTrue(controller.undo());
+      assertEquals(Map.of("Eggs", 6, "Dragon fruit", 2), rows());
+      assertTrue(pantryRows().isEmpty());
+      assertFalse(pantryController.getRegister().getShelfByName("Fridge")
+          .getGroceryRegister().containsGrocery("Eggs"));
+
+      assertTrue(controller.redo());
+      assertEquals(Map.of("Dragon fruit", 2), rows());
+      assertEquals(Map.of("Eggs", 6), pantryRows());
+    }
+
+    @Test
+    @DisplayName("Test addGroceries() does not write to the database when logged out")
+    void testAddGroceriesLoggedOut() {
+      PantryPal.userName = null;
+      controller.addGroceries(List.of(grocery("Dragon fruit", 2)));
+
+      assertEquals(2, controller.getRegister().getGrocery("Dragon fruit").getQuantity());
+      assertTrue(SQL.executeQuery("SELECT name FROM grocery WHERE name = 'Dragon fruit'")
+          .isEmpty());
+    }
+  }
+
+  @Nested
+  @DisplayName("Negative tests for ShoppingListController")
+  class NegativeTestsShoppingListController {
+    @Test
+    @DisplayName("Test addGroceries() with no groceries changes nothing")
+    void testAddGroceriesEmpty() {
+      controller.addGroceries(List.of());
+
+      assertTrue(rows().isEmpty());
+      assertTrue(controller.getRegister().getRegister().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test setQuantity() throws an IllegalArgumentException for a grocery not on "
+        + "the list")
+    void testSetQuantityMissing() {
+      assertThrows(IllegalArgumentException.class,
+          () -> controller.setQuantity(grocery("Eggs", 6), 2));
+      assertTrue(rows().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test addGrocery() throws an IllegalArgumentException for null")
+    void testAddGroceryNull() {
+      assertThrows(IllegalArgumentException.class, () -> controller.addGrocery(null));
+    }
+  }
+}
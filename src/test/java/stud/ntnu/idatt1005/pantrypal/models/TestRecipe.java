@@ -37,6 +37,16 @@ class TestRecipe {
 
   }
 
+  @Test
+  @DisplayName("Test getId() and setId()")
+  void testGetAndSetId() {
+    assertEquals(Recipe.NO_ID, recipe.getId());
+    assertFalse(recipe.hasId());
+    recipe.setId(3);
+    assertEquals(3, recipe.getId());
+    assertTrue(recipe.hasId());
+  }
+
   @Test
   @DisplayName("Test validImagePath() with valid path to local file")
   void testValidImagePathValidLocalFile() {
@@ -132,4 +142,37 @@ class TestRecipe {
   void testGetImagePath() {
     assertNull(recipe.getImagePath());
   }
-}
\ No newline at end of file
+
+  @Test
+  @DisplayName("Test summary constructor without details")
+  void testSummaryRecipeHasNoDetails() {
+    Recipe summary = new Recipe(4, "Pancakes", null, true);
+    assertEquals(4, summary.getId());
+    assertTrue(summary.getIsFavorite());
+    assertFalse(summary.hasDetails());
+    assertThrows(IllegalStateException.class, summary::getDescription);
+    assertThrows(IllegalStateException.class, summary::getRecipeGroceries);
+    assertThrows(IllegalStateException.class, summary::getRecipeSteps);
+  }
+
+  @Test
+  @DisplayName("Test setDetails() and clearDetails()")
+  void testSetAndClearDetails() {
+    Recipe summary = new Recipe(4, "Pancakes", null, false);
+    summary.setDetails(description, groceries, steps);
+    assertTrue(summary.hasDetails());
+    assertEquals(description, summary.getDescription());
+    assertEquals(groceries, summary.getRecipeGroceries());
+
+    summary.clearDetails();
+    assertFalse(summary.hasDetails());
+    assertEquals("Pancakes", summary.getKey());
+  }
+
+  @Test
+  @DisplayName("Test clearDetails() on recipe without id")
+  void testClearDetailsWithoutId() {
+    assertTrue(recipe.hasDetails());
+    assertThrows(IllegalStateException.class, recipe::clearDetails);
+  }
+}
@@ -0,0 +1,232 @@
+package stud.ntnu.idatt1005.pantrypal.registers;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import stud.ntnu.idatt1005.pantrypal.models.Grocery;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestConcurrentRegister {
+  private static final int THREADS = 8;
+  private static final int OPERATIONS = 500;
+
+  private TestRegister register;
+  private ExecutorService executor;
+
+  /**
+   * A concurrent register of groceries, with the protected methods made public for the tests.
+   */
+  private static class TestRegister extends ConcurrentRegister<Grocery> {
+    @Override
+    protected String getErrorMessage() {
+      return "Grocery does not exist in register";
+    }
+
+    void add(Grocery grocery) {
+      addModel(grocery);
+    }
+
+    void remove(Grocery grocery) {
+      removeModel(grocery);
+    }
+
+    Grocery increment(String name) {
+      return updateModel(name, grocery -> new Grocery(grocery.getKey(),
+          grocery.getQuantity() + 1, grocery.getUnit(), grocery.getShelf(), false));
+    }
+  }
+
+  private static Grocery grocery(String name) {
+    return new Grocery(name, 0, "g", "Fridge", false);
+  }
+
+  /**
+   * Runs a task on every thread at the same time, and waits for every thread to finish.
+   */
+  private void runConcurrently(ThreadTask task) throws Exception {
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int thread = 0; thread < THREADS; thread++) {
+      int threadIndex = thread;
+      futures.add(executor.submit(() -> {
+        start.await();
+        task.run(threadIndex);
+        return null;
+      }));
+    }
+    start.countDown();
+    for (Future<?> future : futures) {
+      future.get(30, TimeUnit.SECONDS);
+    }
+  }
+
+  private interface ThreadTask {
+    void run(int thread) throws Exception;
+  }
+
+  @BeforeEach
+  void setUp() {
+    register = new TestRegister();
+    executor = Executors.newFixedThreadPool(THREADS + 1);
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Nested
+  @DisplayName("Positive tests for ConcurrentRegister")
+  class PositiveTestsConcurrentRegister {
+    @Test
+    @DisplayName("Test concurrent addModel() keeps every model in insertion order")
+    void testConcurrentAdd() throws Exception {
+      runConcurrently(thread -> {
+        for (int i = 0; i < OPERATIONS; i++) {
+          register.add(grocery(thread + "-" + i));
+        }
+      });
+      assertEquals(THREADS * OPERATIONS, register.size());
+
+      // The models of every thread are in the order the thread added them
+      int[] next = new int[THREADS];
+      for (String key : register.getRegister().keySet()) {
+        String[] parts = key.split("-");
+        int thread = Integer.parseInt(parts[0]);
+        assertEquals(next[thread]++, Integer.parseInt(parts[1]));
+      }
+    }
+
+    @Test
+    @DisplayName("Test concurrent updateModel() loses no updates")
+    void testConcurrentUpdate() throws Exception {
+      register.add(grocery("Milk"));
+      runConcurrently(thread -> {
+        for (int i = 0; i < OPERATIONS; i++) {
+          register.increment("Milk");
+        }
+      });
+      assertEquals(THREADS * OPERATIONS, register.getModel("Milk").getQuantity());
+    }
+
+    @Test
+    @DisplayName("Test readers see consistent snapshots while writers write")
+    void testReadersDuringWrites() throws Exception {
+      AtomicBoolean writing = new AtomicBoolean(true);
+      Future<?> reader = executor.submit(() -> {
+        while (writing.get()) {
+          Map<String, Grocery> snapshot = register.getRegister();
+          int size = snapshot.size();
+          int counted = 0;
+          for (Grocery grocery : snapshot.values()) {
+            assertNotNull(grocery);
+            counted++;
+          }
+          assertEquals(size, counted);
+          register.searchModels("1");
+        }
+        return null;
+      });
+      runConcurrently(thread -> {
+        if (thread == 0) {
+          return;
+        }
+        for (int i = 0; i < OPERATIONS; i++) {
+          Grocery grocery = grocery(thread + "-" + i);
+          register.add(grocery);
+          if (i % 2 == 0) {
+            register.remove(grocery);
+          }
+        }
+      });
+      writing.set(false);
+      reader.get(30, TimeUnit.SECONDS);
+      assertEquals((THREADS - 1) * OPERATIONS / 2, register.size());
+    }
+
+    @Test
+    @DisplayName("Test snapshot is not changed by later writes")
+    void testSnapshotIsStable() {
+      register.add(grocery("Milk"));
+      Map<String, Grocery> snapshot = register.getRegister();
+      register.add(grocery("Eggs"));
+      assertEquals(1, snapshot.size());
+      assertEquals(2, register.size());
+    }
+
+    @Test
+    @DisplayName("Test concurrent addModelIfAbsent() adds a key once")
+    void testConcurrentAddIfAbsent() throws Exception {
+      List<Boolean> results = Collections.synchronizedList(new ArrayList<>());
+      runConcurrently(thread -> results.add(register.addModelIfAbsent(grocery("Milk"))));
+      assertEquals(1, results.stream().filter(added -> added).count());
+      assertEquals(1, register.size());
+    }
+
+    @Test
+    @DisplayName("Test concurrent removeModel() removes a model once")
+    void testConcurrentRemove() throws Exception {
+      for (int i = 0; i < OPERATIONS; i++) {
+        register.add(grocery("Milk-" + i));
+      }
+      List<Boolean> results = Collections.synchronizedList(new ArrayList<>());
+      runConcurrently(thread -> {
+        for (int i = 0; i < OPERATIONS; i++) {
+          try {
+            register.remove(grocery("Milk-" + i));
+            results.add(true);
+          } catch (IllegalArgumentException e) {
+            results.add(false);
+          }
+        }
+      });
+      assertEquals(OPERATIONS, results.stream().filter(removed -> removed).count());
+      assertEquals(0, register.size());
+    }
+  }
+
+  @Nested
+  @DisplayName("Negative tests for ConcurrentRegister")
+  class NegativeTestsConcurrentRegister {
+    @Test
+    @DisplayName("Test getModel() with unknown key")
+    void testGetUnknownModel() {
+      assertThrows(IllegalArgumentException.class, () -> register.getModel("Milk"));
+    }
+
+    @Test
+    @DisplayName("Test removeModel() with unknown model")
+    void testRemoveUnknownModel() {
+      assertThrows(IllegalArgumentException.class, () -> register.remove(grocery("Milk")));
+    }
+
+    @Test
+    @DisplayName("Test updateModel() changing the key")
+    void testUpdateChangesKey() {
+      register.add(grocery("Milk"));
+      assertThrows(IllegalArgumentException.class,
+          () -> register.updateModel("Milk", grocery -> grocery("Eggs")));
+    }
+
+    @Test
+    @DisplayName("Test getRegister() snapshot is read only")
+    void testSnapshotReadOnly() {
+      assertThrows(UnsupportedOperationException.class,
+          () -> register.getRegister().put("Milk", grocery("Milk")));
+    }
+  }
+}
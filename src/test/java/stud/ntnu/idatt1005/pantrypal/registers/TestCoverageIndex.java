@@ -0,0 +1,120 @@
+package stud.ntnu.idatt1005.pantrypal.registers;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestCoverageIndex {
+  private CoverageIndex index;
+
+  @BeforeEach
+  void setUp() {
+    index = new CoverageIndex();
+    index.putRecipe(1, List.of("Pasta", "Tomato", "Garlic"));
+    index.putRecipe(2, List.of("Pasta", "Cheese"));
+    index.putRecipe(3, List.of("Rice", "Chicken", "Curry", "Onion"));
+    index.putRecipe(4, List.of("Bread", "Butter"));
+    index.setPantry(List.of("pasta", "tomato", "cheese", "butter"));
+  }
+
+  private static List<Integer> ids(List<CoverageIndex.Coverage> coverages) {
+    List<Integer> ids = new ArrayList<>();
+    coverages.forEach(coverage -> ids.add(coverage.getRecipeId()));
+    return ids;
+  }
+
+  @Nested
+  @DisplayName("Positive tests for CoverageIndex")
+  class PositiveTestsCoverageIndex {
+    @Test
+    @DisplayName("Test getCoverage() counts missing ingredients")
+    void testGetCoverage() {
+      CoverageIndex.Coverage coverage = index.getCoverage(1);
+      assertEquals(3, coverage.getIngredients());
+      assertEquals(1, coverage.getMissing());
+      assertEquals(2.0 / 3, coverage.getCoverage(), 1e-9);
+      assertFalse(coverage.isCookable());
+      assertTrue(index.getCoverage(2).isCookable());
+    }
+
+    @Test
+    @DisplayName("Test rank() orders by missing ingredients and coverage")
+    void testRankOrder() {
+      assertEquals(List.of(2, 1, 4), ids(index.rank(1, 10)));
+    }
+
+    @Test
+    @DisplayName("Test rank() with max missing and limit")
+    void testRankMaxMissingAndLimit() {
+      assertEquals(List.of(2), ids(index.rank(0, 10)));
+      assertEquals(List.of(2, 1), ids(index.rank(1, 2)));
+      assertEquals(List.of(2, 1, 4, 3), ids(index.rank(4, 10)));
+    }
+
+    @Test
+    @DisplayName("Test putRecipe() replaces the ingredients")
+    void testPutRecipeReplaces() {
+      index.putRecipe(3, List.of("Pasta"));
+      assertEquals(4, index.size());
+      assertTrue(index.getCoverage(3).isCookable());
+    }
+
+    @Test
+    @DisplayName("Test removeRecipe() keeps the other recipes")
+    void testRemoveRecipe() {
+      assertTrue(index.removeRecipe(1));
+      assertEquals(3, index.size());
+      assertNull(index.getCoverage(1));
+      assertEquals(List.of(2, 4), ids(index.rank(1, 10)));
+    }
+
+    @Test
+    @DisplayName("Test intern() ignores case")
+    void testInternIgnoresCase() {
+      assertEquals(index.intern("Garlic"), index.intern("GARLIC"));
+      assertEquals(10, index.getGroceryCount());
+    }
+
+    @Test
+    @DisplayName("Test rank() in parallel gives the same order")
+    void testRankParallel() {
+      CoverageIndex large = new CoverageIndex();
+      for (int id = 0; id < CoverageIndex.PARALLEL_THRESHOLD + 100; id++) {
+        large.putRecipe(id, List.of("grocery" + id % 200, "grocery" + (id + 1) % 200));
+      }
+      large.setPantry(List.of("grocery0", "grocery1", "grocery2"));
+      assertEquals(List.of(0, 1, 200, 201, 400), ids(large.rank(0, 5)));
+    }
+  }
+
+  @Nested
+  @DisplayName("Negative tests for CoverageIndex")
+  class NegativeTestsCoverageIndex {
+    @Test
+    @DisplayName("Test removeRecipe() with unknown recipe")
+    void testRemoveUnknownRecipe() {
+      assertFalse(index.removeRecipe(42));
+      assertEquals(4, index.size());
+    }
+
+    @Test
+    @DisplayName("Test rank() skips recipes without ingredients")
+    void testRankSkipsEmptyRecipes() {
+      index.putRecipe(5, List.of());
+      assertFalse(ids(index.rank(10, 10)).contains(5));
+    }
+
+    @Test
+    @DisplayName("Test rank() with empty pantry")
+    void testRankEmptyPantry() {
+      index.setPantry(List.of());
+      assertTrue(index.rank(1, 10).isEmpty());
+    }
+  }
+}
@@ -0,0 +1,92 @@
+package stud.ntnu.idatt1005.pantrypal.registers;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestFuzzyIndex {
+  private FuzzyIndex<Integer> index;
+
+  @BeforeEach
+  void setUp() {
+    index = new FuzzyIndex<>();
+    index.add("Spaghetti Carbonara", 1);
+    index.add("Chicken Stir-Fry", 2);
+    index.add("Vegetable Lasagna", 3);
+    index.add("Chicken Curry", 4);
+  }
+
+  @Nested
+  @DisplayName("Positive tests for FuzzyIndex")
+  class PositiveTestsFuzzyIndex {
+    @Test
+    @DisplayName("Test distance()")
+    void testDistance() {
+      assertEquals(0, FuzzyIndex.distance("pasta", "pasta"));
+      assertEquals(1, FuzzyIndex.distance("spagetti", "spaghetti"));
+      assertEquals(3, FuzzyIndex.distance("kitten", "sitting"));
+      assertEquals(4, FuzzyIndex.distance("", "rice"));
+    }
+
+    @Test
+    @DisplayName("Test search() with misspelled word")
+    void testSearchMisspelled() {
+      assertEquals(List.of(1), index.search("spagetti"));
+    }
+
+    @Test
+    @DisplayName("Test search() requires every word to match")
+    void testSearchEveryWord() {
+      assertEquals(List.of(4), index.search("chiken curyy"));
+    }
+
+    @Test
+    @DisplayName("Test search() orders by score")
+    void testSearchOrdersByScore() {
+      index.add("Chickpea Curry", 5);
+      assertEquals(List.of(4, 5), index.search("chicken curry"));
+    }
+
+    @Test
+    @DisplayName("Test remove()")
+    void testRemove() {
+      index.remove("Chicken Stir-Fry", 2);
+      assertEquals(List.of(4), index.search("chicken"));
+    }
+
+    @Test
+    @DisplayName("Test search() ignores case and punctuation")
+    void testSearchIgnoresCase() {
+      assertEquals(List.of(2), index.search("STIR fry!"));
+    }
+  }
+
+  @Nested
+  @DisplayName("Negative tests for FuzzyIndex")
+  class NegativeTestsFuzzyIndex {
+    @Test
+    @DisplayName("Test search() with short misspelled word")
+    void testSearchShortWord() {
+      index.add("Fried Egg", 6);
+      assertTrue(index.search("eg").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test search() with empty query")
+    void testSearchEmpty() {
+      assertTrue(index.search("  ").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test search() after clear()")
+    void testSearchAfterClear() {
+      index.clear();
+      assertTrue(index.search("chicken").isEmpty());
+    }
+  }
+}
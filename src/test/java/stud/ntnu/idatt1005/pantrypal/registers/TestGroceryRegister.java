@@ -1,6 +1,8 @@
 package stud.ntnu.idatt1005.pantrypal.registers;
 
-import java.util.LinkedHashMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -83,12 +85,38 @@ class TestGroceryRegister {
     @Test
     @DisplayName("Test of get register")
     void getRegister() {
-      LinkedHashMap<String, Grocery> actual = (LinkedHashMap<String, Grocery>) groceryRegister.getRegister();
+      Map<String, Grocery> actual = groceryRegister.getRegister();
 
       assertAll("Get register",
           () -> assertEquals(grocery1.toString(), actual.get(grocery1.getKey()).toString(), "Incorrect grocery retrieved"),
           () -> assertEquals(grocery2.toString(), actual.get(grocery2.getKey()).toString(), "Incorrect grocery retrieved"));
     }
+
+    @Test
+    @DisplayName("Test of get register showing later changes in insertion order")
+    void getRegisterShowsChanges() {
+      Map<String, Grocery> actual = groceryRegister.getRegister();
+      Grocery grocery3 = new Grocery("Eggs", 12, "g", "Fridge", false);
+
+      groceryRegister.addGrocery(grocery3);
+      groceryRegister.removeGrocery(grocery1);
+
+      assertEquals(List.of("Bread", "Eggs"), new ArrayList<>(actual.keySet()));
+      assertSame(grocery3, actual.get("Eggs"));
+      assertFalse(actual.containsKey("Milk"));
+    }
+
+    @Test
+    @DisplayName("Test of get register not being modifiable")
+    void getRegisterUnmodifiable() {
+      Map<String, Grocery> actual = groceryRegister.getRegister();
+
+      assertThrows(UnsupportedOperationException.class,
+          () -> actual.put("Eggs", new Grocery("Eggs", 12, "g", "Fridge", false)));
+      assertThrows(UnsupportedOperationException.class, () -> actual.remove("Milk"));
+      assertThrows(UnsupportedOperationException.class, actual::clear);
+      assertEquals(2, actual.size());
+    }
   }
 
 
@@ -130,4 +158,79 @@ class TestGroceryRegister {
           , "Grocery exists in register");
     }
   }
+
+  @Nested
+  class Listeners {
+    List<RegisterChange<Grocery>> changes;
+
+    @BeforeEach
+    void setUp() {
+      changes = new ArrayList<>();
+      groceryRegister.addListener(changes::add);
+    }
+
+    @Test
+    @DisplayName("Test of listener notified of added and removed groceries")
+    void addedAndRemoved() {
+      Grocery grocery3 = new Grocery("Eggs", 12, "g", "Fridge", false);
+      groceryRegister.addGrocery(grocery3);
+      groceryRegister.removeGrocery(grocery1);
+
+      assertAll("Added and removed",
+          () -> assertEquals(2, changes.size(), "Incorrect number of changes"),
+          () -> assertEquals(RegisterChange.Type.ADDED, changes.get(0).getType()),
+          () -> assertSame(grocery3, changes.get(0).getModel()),
+          () -> assertEquals(RegisterChange.Type.REMOVED, changes.get(1).getType()),
+          () -> assertSame(grocery1, changes.get(1).getModel()));
+    }
+
+    @Test
+    @DisplayName("Test of listener notified of changed quantity")
+    void quantityChanged() {
+      groceryRegister.setQuantity("Bread", 5);
+
+      assertAll("Quantity changed",
+          () -> assertEquals(5, grocery2.getQuantity(), "Quantity not set"),
+          () -> assertEquals(1, changes.size(), "Incorrect number of changes"),
+          () -> assertEquals(RegisterChange.Type.QUANTITY_CHANGED, changes.get(0).getType()),
+          () -> assertEquals(2, changes.get(0).getOldQuantity(), "Incorrect old quantity"));
+    }
+
+    @Test
+    @DisplayName("Test of listener not notified when the quantity is not changed")
+    void quantityNotChanged() {
+      groceryRegister.setQuantity("Bread", 2);
+      assertTrue(changes.isEmpty(), "Listener notified");
+    }
+
+    @Test
+    @DisplayName("Test of set quantity with grocery that does not exist")
+    void quantityDoesNotExist() {
+      assertThrows(IllegalArgumentException.class, () -> groceryRegister.setQuantity("Eggs", 1));
+    }
+
+    @Test
+    @DisplayName("Test of copied register not notifying the listener")
+    void copiedRegister() {
+      new GroceryRegister(groceryRegister).addGrocery(new Grocery("Eggs", 12, "g", "Fridge", false));
+      assertTrue(changes.isEmpty(), "Listener notified by copy");
+    }
+
+    @Test
+    @DisplayName("Test of removed listener not being notified")
+    void removedListener() {
+      List<RegisterChange<Grocery>> removedChanges = new ArrayList<>();
+      RegisterListener<Grocery> listener = removedChanges::add;
+      groceryRegister.addListener(listener);
+      groceryRegister.removeListener(listener);
+      groceryRegister.removeGrocery(grocery1);
+      assertTrue(removedChanges.isEmpty(), "Removed listener notified");
+    }
+
+    @Test
+    @DisplayName("Test of add listener with null")
+    void addNullListener() {
+      assertThrows(IllegalArgumentException.class, () -> groceryRegister.addListener(null));
+    }
+  }
 }
@@ -0,0 +1,135 @@
+package stud.ntnu.idatt1005.pantrypal.registers;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestPersistentMap {
+
+  private static PersistentMap<String, Integer> mapOf(String... keys) {
+    PersistentMap<String, Integer> map = PersistentMap.empty();
+    for (int i = 0; i < keys.length; i++) {
+      map = map.plus(keys[i], i);
+    }
+    return map;
+  }
+
+  @Nested
+  @DisplayName("Positive tests for PersistentMap")
+  class PositiveTestsPersistentMap {
+    @Test
+    @DisplayName("Test plus() keeps insertion order")
+    void testPlusKeepsInsertionOrder() {
+      PersistentMap<String, Integer> map = mapOf("Milk", "Eggs", "Bread");
+      assertEquals(List.of("Milk", "Eggs", "Bread"), new ArrayList<>(map.keySet()));
+      assertEquals(3, map.size());
+      assertEquals(1, map.get("Eggs"));
+    }
+
+    @Test
+    @DisplayName("Test plus() with existing key keeps its position")
+    void testPlusExistingKey() {
+      PersistentMap<String, Integer> map = mapOf("Milk", "Eggs", "Bread").plus("Milk", 10);
+      assertEquals(List.of("Milk", "Eggs", "Bread"), new ArrayList<>(map.keySet()));
+      assertEquals(10, map.get("Milk"));
+      assertEquals(3, map.size());
+    }
+
+    @Test
+    @DisplayName("Test old versions are not changed")
+    void testOldVersionsUnchanged() {
+      PersistentMap<String, Integer> first = mapOf("Milk", "Eggs");
+      PersistentMap<String, Integer> second = first.plus("Bread", 2).minus("Milk");
+      assertEquals(Map.of("Milk", 0, "Eggs", 1), first);
+      assertEquals(Map.of("Eggs", 1, "Bread", 2), second);
+    }
+
+    @Test
+    @DisplayName("Test keys with equal hash codes")
+    void testHashCollisions() {
+      // "Aa" and "BB" have the same hash code
+      PersistentMap<String, Integer> map = mapOf("Aa", "BB", "C");
+      assertEquals(0, map.get("Aa"));
+      assertEquals(1, map.get("BB"));
+      PersistentMap<String, Integer> removed = map.minus("Aa");
+      assertNull(removed.get("Aa"));
+      assertEquals(1, removed.get("BB"));
+      assertEquals(List.of("BB", "C"), new ArrayList<>(removed.keySet()));
+    }
+
+    @Test
+    @DisplayName("Test random operations match a LinkedHashMap")
+    void testRandomOperations() {
+      Random random = new Random(42);
+      Map<String, Integer> expected = new LinkedHashMap<>();
+      PersistentMap<String, Integer> map = PersistentMap.empty();
+      for (int i = 0; i < 20000; i++) {
+        String key = "key" + random.nextInt(3000);
+        if (random.nextInt(3) == 0) {
+          expected.remove(key);
+          map = map.minus(key);
+        } else {
+          expected.put(key, i);
+          map = map.plus(key, i);
+        }
+      }
+      assertEquals(expected.size(), map.size());
+      assertEquals(new ArrayList<>(expected.entrySet()), new ArrayList<>(map.entrySet()));
+      for (String key : expected.keySet()) {
+        assertEquals(expected.get(key), map.get(key));
+      }
+    }
+
+    @Test
+    @DisplayName("Test minus() compacts the insertion order")
+    void testMinusCompacts() {
+      PersistentMap<String, Integer> map = PersistentMap.empty();
+      for (int i = 0; i < 1000; i++) {
+        map = map.plus("key" + i, i);
+      }
+      for (int i = 0; i < 990; i++) {
+        map = map.minus("key" + i);
+      }
+      List<String> keys = new ArrayList<>(map.keySet());
+      assertEquals(10, keys.size());
+      assertEquals("key990", keys.getFirst());
+      assertEquals("key999", keys.get(9));
+    }
+  }
+
+  @Nested
+  @DisplayName("Negative tests for PersistentMap")
+  class NegativeTestsPersistentMap {
+    @Test
+    @DisplayName("Test minus() with unknown key returns the same map")
+    void testMinusUnknownKey() {
+      PersistentMap<String, Integer> map = mapOf("Milk");
+      assertSame(map, map.minus("Eggs"));
+      assertSame(PersistentMap.empty(), map.minus("Milk"));
+    }
+
+    @Test
+    @DisplayName("Test plus() with null key")
+    void testPlusNullKey() {
+      assertThrows(NullPointerException.class, () -> PersistentMap.empty().plus(null, 1));
+    }
+
+    @Test
+    @DisplayName("Test the map is immutable")
+    void testImmutable() {
+      PersistentMap<String, Integer> map = mapOf("Milk");
+      assertThrows(UnsupportedOperationException.class, () -> map.put("Eggs", 1));
+      assertThrows(UnsupportedOperationException.class,
+          () -> map.entrySet().iterator().next().setValue(2));
+      assertNull(map.get(null));
+    }
+  }
+}
@@ -0,0 +1,111 @@
+package stud.ntnu.idatt1005.pantrypal.registers;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestPrefixIndex {
+  private PrefixIndex<String> index;
+
+  @BeforeEach
+  void setUp() {
+    index = new PrefixIndex<>();
+    index.put("Milk", "Milk", 5);
+    index.put("Mint", "Mint", 1);
+    index.put("Mushrooms", "Mushrooms", 3);
+    index.put("Butter", "Butter", 4);
+  }
+
+  @Nested
+  @DisplayName("Positive tests for PrefixIndex")
+  class PositiveTestsPrefixIndex {
+    @Test
+    @DisplayName("Test search() orders by weight")
+    void testSearchOrdersByWeight() {
+      assertEquals(List.of("Milk", "Mushrooms", "Mint"), index.search("m", 8));
+    }
+
+    @Test
+    @DisplayName("Test search() ignores case")
+    void testSearchIgnoresCase() {
+      assertEquals(List.of("Milk", "Mint"), index.search("MI", 8));
+    }
+
+    @Test
+    @DisplayName("Test search() with limit")
+    void testSearchWithLimit() {
+      assertEquals(List.of("Milk"), index.search("m", 1));
+    }
+
+    @Test
+    @DisplayName("Test search() with empty prefix")
+    void testSearchEmptyPrefix() {
+      assertEquals(List.of("Milk", "Butter", "Mushrooms", "Mint"), index.search("", 8));
+    }
+
+    @Test
+    @DisplayName("Test addWeight() moves the value up")
+    void testAddWeight() {
+      assertTrue(index.addWeight("mint", 10));
+      assertEquals(List.of("Mint", "Milk", "Mushrooms"), index.search("m", 8));
+    }
+
+    @Test
+    @DisplayName("Test put() with smaller weight moves the value down")
+    void testPutSmallerWeight() {
+      index.put("Milk", "Milk", 0);
+      assertEquals(List.of("Mushrooms", "Mint", "Milk"), index.search("m", 8));
+    }
+
+    @Test
+    @DisplayName("Test remove()")
+    void testRemove() {
+      assertTrue(index.remove("Milk"));
+      assertEquals(List.of("Mushrooms", "Mint"), index.search("m", 8));
+      assertNull(index.get("milk"));
+      assertEquals(3, index.size());
+    }
+
+    @Test
+    @DisplayName("Test search() keeps the best values of a large prefix")
+    void testSearchManyValues() {
+      for (int i = 0; i < 20; i++) {
+        index.put("Mango " + i, "Mango " + i, 100 + i);
+      }
+      List<String> result = index.search("ma", PrefixIndex.MAX_RESULTS);
+      assertEquals(PrefixIndex.MAX_RESULTS, result.size());
+      assertEquals("Mango 19", result.get(0));
+      index.remove("Mango 19");
+      assertEquals("Mango 18", index.search("ma", 1).get(0));
+    }
+  }
+
+  @Nested
+  @DisplayName("Negative tests for PrefixIndex")
+  class NegativeTestsPrefixIndex {
+    @Test
+    @DisplayName("Test search() with unknown prefix")
+    void testSearchUnknownPrefix() {
+      assertTrue(index.search("x", 8).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test remove() and addWeight() with unknown key")
+    void testUnknownKey() {
+      assertFalse(index.remove("Cheese"));
+      assertFalse(index.addWeight("Cheese", 1));
+      assertFalse(index.remove("Mil"));
+    }
+
+    @Test
+    @DisplayName("Test addWeight() with negative amount")
+    void testAddNegativeWeight() {
+      assertThrows(IllegalArgumentException.class, () -> index.addWeight("Milk", -1));
+    }
+  }
+}
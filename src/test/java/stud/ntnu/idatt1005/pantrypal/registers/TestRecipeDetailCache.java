@@ -0,0 +1,117 @@
+package stud.ntnu.idatt1005.pantrypal.registers;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import stud.ntnu.idatt1005.pantrypal.models.Grocery;
+import stud.ntnu.idatt1005.pantrypal.models.Recipe;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestRecipeDetailCache {
+  private Recipe first;
+  private Recipe second;
+  private Recipe third;
+  private long weight;
+
+  private static Recipe createRecipe(int id, String name) {
+    GroceryRegister groceries = new GroceryRegister();
+    groceries.addGrocery(new Grocery("apple", 1, "g", "Fridge", false));
+    StepRegister steps = new StepRegister();
+    steps.addStep("Step 1");
+    Recipe recipe = new Recipe(id, name, null, false);
+    recipe.setDetails("Description", groceries, steps);
+    return recipe;
+  }
+
+  @BeforeEach
+  void setUp() {
+    first = createRecipe(1, "First");
+    second = createRecipe(2, "Other");
+    third = createRecipe(3, "Third");
+    weight = RecipeDetailCache.estimateWeight(first);
+  }
+
+  @Nested
+  @DisplayName("Positive tests for RecipeDetailCache")
+  class PositiveTestsRecipeDetailCache {
+    @Test
+    @DisplayName("Test put() adds the weight of the recipe")
+    void testPut() {
+      RecipeDetailCache cache = new RecipeDetailCache();
+      cache.put(first);
+      cache.put(second);
+      assertEquals(2, cache.size());
+      assertEquals(2 * weight, cache.getWeight());
+      assertTrue(cache.contains(first));
+    }
+
+    @Test
+    @DisplayName("Test put() clears the details of the least recently used recipe")
+    void testPutEvictsLeastRecentlyUsed() {
+      RecipeDetailCache cache = new RecipeDetailCache(2 * weight);
+      cache.put(first);
+      cache.put(second);
+      cache.put(third);
+      assertFalse(first.hasDetails());
+      assertFalse(cache.contains(first));
+      assertTrue(second.hasDetails());
+      assertTrue(third.hasDetails());
+      assertEquals(2 * weight, cache.getWeight());
+    }
+
+    @Test
+    @DisplayName("Test touch() keeps a recently used recipe in the cache")
+    void testTouch() {
+      RecipeDetailCache cache = new RecipeDetailCache(2 * weight);
+      cache.put(first);
+      cache.put(second);
+      assertTrue(cache.touch(first));
+      cache.put(third);
+      assertTrue(first.hasDetails());
+      assertFalse(second.hasDetails());
+    }
+
+    @Test
+    @DisplayName("Test put() keeps the added recipe when it is larger than the max weight")
+    void testPutLargerThanMaxWeight() {
+      RecipeDetailCache cache = new RecipeDetailCache(1);
+      cache.put(first);
+      cache.put(second);
+      assertFalse(first.hasDetails());
+      assertTrue(second.hasDetails());
+      assertEquals(1, cache.size());
+    }
+
+    @Test
+    @DisplayName("Test remove() keeps the details of the recipe")
+    void testRemove() {
+      RecipeDetailCache cache = new RecipeDetailCache();
+      cache.put(first);
+      cache.remove(first);
+      assertEquals(0, cache.size());
+      assertEquals(0, cache.getWeight());
+      assertTrue(first.hasDetails());
+      assertFalse(cache.touch(first));
+    }
+  }
+
+  @Nested
+  @DisplayName("Negative tests for RecipeDetailCache")
+  class NegativeTestsRecipeDetailCache {
+    @Test
+    @DisplayName("Test constructor with non-positive max weight")
+    void testConstructorWithInvalidMaxWeight() {
+      assertThrows(IllegalArgumentException.class, () -> new RecipeDetailCache(0));
+    }
+
+    @Test
+    @DisplayName("Test put() with recipe without details")
+    void testPutWithoutDetails() {
+      RecipeDetailCache cache = new RecipeDetailCache();
+      assertThrows(IllegalArgumentException.class,
+          () -> cache.put(new Recipe(5, "Summary", null, false)));
+    }
+  }
+}
@@ -0,0 +1,130 @@
+package stud.ntnu.idatt1005.pantrypal.registers;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import stud.ntnu.idatt1005.pantrypal.models.Grocery;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestRecipeDiff {
+  private GroceryRegister storedGroceries;
+  private List<String> storedSteps;
+
+  private static GroceryRegister groceries(Object... nameAndQuantity) {
+    GroceryRegister register = new GroceryRegister();
+    for (int i = 0; i < nameAndQuantity.length; i += 2) {
+      register.addGrocery(new Grocery((String) nameAndQuantity[i], (int) nameAndQuantity[i + 1],
+          "g", "", false));
+    }
+    return register;
+  }
+
+  /**
+   * Applies a diff to the stored rows, like the statements of a recipe update do.
+   */
+  private void apply(RecipeDiff diff) {
+    GroceryRegister groceries = new GroceryRegister(storedGroceries);
+    diff.getRemovedGroceries().forEach(name -> groceries.removeGrocery(groceries.getGrocery(name)));
+    diff.getChangedGroceries().forEach(groceries::addGrocery);
+    diff.getAddedGroceries().forEach(groceries::addGrocery);
+    List<String> steps = new ArrayList<>(storedSteps);
+    diff.getChangedSteps().forEach(steps::set);
+    for (int i = 0; i < diff.getRemovedSteps(); i++) {
+      steps.remove(steps.size() - 1);
+    }
+    steps.addAll(diff.getAddedSteps());
+    storedGroceries = groceries;
+    storedSteps = steps;
+  }
+
+  @BeforeEach
+  void setUp() {
+    storedGroceries = groceries("Pasta", 200, "Tomato", 2, "Garlic", 1);
+    storedSteps = List.of("Boil the pasta", "Chop the tomatoes", "Mix");
+  }
+
+  @Nested
+  @DisplayName("Positive tests for RecipeDiff")
+  class PositiveTestsRecipeDiff {
+    @Test
+    @DisplayName("Test between() with one changed word changes one step")
+    void testOneChangedStep() {
+      List<String> edited = List.of("Boil the pasta", "Dice the tomatoes", "Mix");
+      RecipeDiff diff = RecipeDiff.between(storedGroceries, storedSteps, storedGroceries, edited);
+      assertEquals(Map.of(1, "Dice the tomatoes"), diff.getChangedSteps());
+      assertTrue(diff.getAddedSteps().isEmpty());
+      assertEquals(0, diff.getRemovedSteps());
+      assertTrue(diff.getAddedGroceries().isEmpty());
+      assertTrue(diff.getChangedGroceries().isEmpty());
+      assertTrue(diff.getRemovedGroceries().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test between() with added, changed and removed groceries")
+    void testGroceryChanges() {
+      GroceryRegister edited = groceries("Pasta", 300, "Tomato", 2, "Basil", 5);
+      RecipeDiff diff = RecipeDiff.between(storedGroceries, storedSteps, edited, storedSteps);
+      assertEquals("Basil", diff.getAddedGroceries().getFirst().getKey());
+      assertEquals(1, diff.getAddedGroceries().size());
+      assertEquals(300, diff.getChangedGroceries().getFirst().getQuantity());
+      assertEquals(1, diff.getChangedGroceries().size());
+      assertEquals(List.of("Garlic"), diff.getRemovedGroceries());
+    }
+
+    @Test
+    @DisplayName("Test between() with added and removed steps")
+    void testStepCountChanges() {
+      RecipeDiff added = RecipeDiff.between(storedGroceries, storedSteps, storedGroceries,
+          List.of("Boil the pasta", "Chop the tomatoes", "Mix", "Serve"));
+      assertEquals(List.of("Serve"), added.getAddedSteps());
+      assertEquals(0, added.getRemovedSteps());
+
+      RecipeDiff removed = RecipeDiff.between(storedGroceries, storedSteps, storedGroceries,
+          List.of("Boil the pasta"));
+      assertEquals(2, removed.getRemovedSteps());
+      assertTrue(removed.getChangedSteps().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test row counts stay stable across repeated edits")
+    void testRepeatedEditsKeepRowCounts() {
+      GroceryRegister editedGroceries = groceries("Pasta", 250, "Tomato", 2, "Garlic", 1);
+      List<String> editedSteps = List.of("Boil the pasta", "Dice the tomatoes", "Mix");
+      for (int edit = 0; edit < 3; edit++) {
+        apply(RecipeDiff.between(storedGroceries, storedSteps, editedGroceries, editedSteps));
+        assertEquals(3, storedGroceries.getRegister().size());
+        assertEquals(3, storedSteps.size());
+      }
+      assertEquals(editedSteps, storedSteps);
+      assertEquals(250, storedGroceries.getGrocery("Pasta").getQuantity());
+    }
+  }
+
+  @Nested
+  @DisplayName("Negative tests for RecipeDiff")
+  class NegativeTestsRecipeDiff {
+    @Test
+    @DisplayName("Test between() with an unchanged recipe is empty")
+    void testUnchangedRecipe() {
+      RecipeDiff diff = RecipeDiff.between(storedGroceries, storedSteps,
+          groceries("Pasta", 200, "Tomato", 2, "Garlic", 1), new ArrayList<>(storedSteps));
+      assertTrue(diff.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test applied diff leaves nothing to update")
+    void testAppliedDiffIsEmpty() {
+      GroceryRegister editedGroceries = groceries("Pasta", 100);
+      List<String> editedSteps = List.of("Mix");
+      apply(RecipeDiff.between(storedGroceries, storedSteps, editedGroceries, editedSteps));
+      assertTrue(RecipeDiff.between(storedGroceries, storedSteps, editedGroceries, editedSteps)
+          .isEmpty());
+    }
+  }
+}
@@ -110,6 +110,46 @@ class TestRecipeRegister {
     }
   }
 
+  @Nested
+  @DisplayName("Tests for recipes with ids")
+  class IdTestsRecipeRegister {
+    @Test
+    @DisplayName("Test getRecipeById()")
+    void testGetRecipeById() {
+      Recipe storedRecipe = new Recipe(7, "Fruit salad", "", groceries, steps, null, false);
+      recipeRegister.addRecipe(storedRecipe);
+      assertEquals(storedRecipe, recipeRegister.getRecipeById(7));
+      assertTrue(recipeRegister.containsRecipeById(7));
+    }
+
+    @Test
+    @DisplayName("Test getRecipeById() with recipe without id")
+    void testGetRecipeByIdWithoutId() {
+      assertFalse(recipeRegister.containsRecipeById(Recipe.NO_ID));
+      assertThrows(IllegalArgumentException.class,
+          () -> recipeRegister.getRecipeById(Recipe.NO_ID));
+    }
+
+    @Test
+    @DisplayName("Test removeRecipe() removes the id")
+    void testRemoveRecipeRemovesId() {
+      Recipe storedRecipe = new Recipe(7, "Fruit salad", "", groceries, steps, null, false);
+      recipeRegister.addRecipe(storedRecipe);
+      recipeRegister.removeRecipe(storedRecipe);
+      assertFalse(recipeRegister.containsRecipeById(7));
+    }
+
+    @Test
+    @DisplayName("Test addRecipe() replacing a recipe with the same name")
+    void testAddRecipeReplacesId() {
+      recipeRegister.addRecipe(new Recipe(7, "Fruit salad", "", groceries, steps, null, false));
+      Recipe newRecipe = new Recipe(8, "Fruit salad", "", groceries, steps, null, false);
+      recipeRegister.addRecipe(newRecipe);
+      assertFalse(recipeRegister.containsRecipeById(7));
+      assertEquals(newRecipe, recipeRegister.getRecipeById(8));
+    }
+  }
+
   @Nested
   @DisplayName("Tests for searchRecipe()")
   class SearchRecipeTests {
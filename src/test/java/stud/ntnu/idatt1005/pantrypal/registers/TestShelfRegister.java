@@ -1,5 +1,7 @@
 package stud.ntnu.idatt1005.pantrypal.registers;
 
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import stud.ntnu.idatt1005.pantrypal.models.Shelf;
@@ -46,4 +48,24 @@ class TestShelfRegister {
   void getAllGroceries() {
     assertEquals(0, shelfRegister.getAllGroceries().length);
   }
-}
\ No newline at end of file
+
+  @Test
+  void renameShelf() {
+    Shelf shelf = shelfRegister.getShelfByName("Fridge");
+    List<RegisterChange<Shelf>> changes = new ArrayList<>();
+    shelfRegister.addListener(changes::add);
+    shelfRegister.renameShelf(shelf, "Cold");
+
+    assertAll(
+        () -> assertEquals("Cold", shelf.getName()),
+        () -> assertEquals(1, changes.size()),
+        () -> assertEquals(RegisterChange.Type.RENAMED, changes.get(0).getType()),
+        () -> assertEquals("Fridge", changes.get(0).getOldName()));
+  }
+
+  @Test
+  void renameShelfDoesNotExist() {
+    assertThrows(IllegalArgumentException.class,
+        () -> shelfRegister.renameShelf(new Shelf("Freezer"), "Cold"));
+  }
+}
@@ -0,0 +1,223 @@
+package stud.ntnu.idatt1005.pantrypal.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestCommandJournal {
+  private List<Integer> counter;
+
+  /**
+   * A command adding an amount to the counter, where the amounts are merged.
+   */
+  private record Add(List<Integer> counter, int amount) implements CommandJournal.Command {
+    @Override
+    public void apply() {
+      counter.set(0, counter.get(0) + amount);
+    }
+
+    @Override
+    public void persist(SQL.Batch batch) {
+      batch.add("UPDATE counter SET value = value + ?", amount);
+    }
+
+    @Override
+    public CommandJournal.Command inverse() {
+      return new Add(counter, -amount);
+    }
+
+    @Override
+    public CommandJournal.Command mergeWith(CommandJournal.Command next) {
+      return next instanceof Add add ? new Add(counter, amount + add.amount) : null;
+    }
+  }
+
+  /**
+   * A command setting the counter, which is not merged.
+   */
+  private record Assign(List<Integer> counter, int oldValue, int newValue)
+      implements CommandJournal.Command {
+    @Override
+    public void apply() {
+      counter.set(0, newValue);
+    }
+
+    @Override
+    public void persist(SQL.Batch batch) {
+      batch.add("UPDATE counter SET value = ?", newValue);
+    }
+
+    @Override
+    public CommandJournal.Command inverse() {
+      return new Assign(counter, newValue, oldValue);
+    }
+  }
+
+  @BeforeEach
+  void setUp() {
+    counter = new ArrayList<>(List.of(0));
+  }
+
+  private void execute(CommandJournal journal, CommandJournal.Command command) {
+    command.apply();
+    journal.record(command);
+  }
+
+  private void set(CommandJournal journal, int value) {
+    execute(journal, new Assign(counter, counter.get(0), value));
+  }
+
+  @Nested
+  @DisplayName("Positive tests for CommandJournal")
+  class PositiveTestsCommandJournal {
+    @Test
+    @DisplayName("Test undo() and redo() reverse and repeat the changes in order")
+    void testUndoRedo() {
+      CommandJournal journal = new CommandJournal();
+      set(journal, 1);
+      set(journal, 2);
+      set(journal, 3);
+
+      assertTrue(journal.undo(CommandJournal.Command::apply));
+      assertTrue(journal.undo(CommandJournal.Command::apply));
+      assertEquals(1, counter.get(0));
+      assertTrue(journal.redo(CommandJournal.Command::apply));
+      assertEquals(2, counter.get(0));
+      assertTrue(journal.undo(CommandJournal.Command::apply));
+      assertTrue(journal.undo(CommandJournal.Command::apply));
+      assertEquals(0, counter.get(0));
+      assertFalse(journal.canUndo());
+      assertFalse(journal.undo(CommandJournal.Command::apply));
+    }
+
+    @Test
+    @DisplayName("Test record() forgets the undone changes")
+    void testRecordForgetsUndone() {
+      CommandJournal journal = new CommandJournal();
+      set(journal, 1);
+      set(journal, 2);
+      journal.undo(CommandJournal.Command::apply);
+      set(journal, 5);
+
+      assertFalse(journal.canRedo());
+      journal.undo(CommandJournal.Command::apply);
+      assertEquals(1, counter.get(0));
+    }
+
+    @Test
+    @DisplayName("Test record() forgets the oldest change when the journal is full")
+    void testRecordWrapsAround() {
+      CommandJournal journal = new CommandJournal(3);
+      for (int i = 1; i <= 5; i++) {
+        set(journal, i);
+      }
+
+      int undone = 0;
+      while (journal.undo(CommandJournal.Command::apply)) {
+        undone++;
+      }
+      assertEquals(3, undone);
+      assertEquals(2, counter.get(0));
+      while (journal.redo(CommandJournal.Command::apply)) {
+        undone--;
+      }
+      assertEquals(0, undone);
+      assertEquals(5, counter.get(0));
+    }
+
+    @Test
+    @DisplayName("Test record() merges a change into the latest change")
+    void testRecordMerges() {
+      CommandJournal journal = new CommandJournal();
+      set(journal, 10);
+      execute(journal, new Add(counter, 1));
+      execute(journal, new Add(counter, 2));
+      execute(journal, new Add(counter, 3));
+      assertEquals(16, counter.get(0));
+
+      journal.undo(CommandJournal.Command::apply);
+      assertEquals(10, counter.get(0));
+      journal.undo(CommandJournal.Command::apply);
+      assertEquals(0, counter.get(0));
+    }
+
+    @Test
+    @DisplayName("Test undo() does not merge a change into an undone change")
+    void testNoMergeAfterUndo() {
+      CommandJournal journal = new CommandJournal();
+      execute(journal, new Add(counter, 1));
+      journal.undo(CommandJournal.Command::apply);
+      execute(journal, new Add(counter, 2));
+
+      journal.undo(CommandJournal.Command::apply);
+      assertEquals(0, counter.get(0));
+      assertFalse(journal.canUndo());
+    }
+
+    @Test
+    @DisplayName("Test compound() undoes several changes in one step, in reverse order")
+    void testCompound() {
+      CommandJournal journal = new CommandJournal();
+      execute(journal, CommandJournal.compound(List.of(
+          new Assign(counter, 0, 4), new Add(counter, 3))));
+      assertEquals(7, counter.get(0));
+
+      journal.undo(CommandJournal.Command::apply);
+      assertEquals(0, counter.get(0));
+      journal.redo(CommandJournal.Command::apply);
+      assertEquals(7, counter.get(0));
+    }
+
+    @Test
+    @DisplayName("Test execute() applies a command without writing it to the database")
+    void testExecuteWithoutPersist() {
+      CommandJournal.execute(new Add(counter, 2), false);
+      assertEquals(2, counter.get(0));
+    }
+
+    @Test
+    @DisplayName("Test persist() adds the updates of every command of a compound command")
+    void testPersistBatch() {
+      SQL.Batch batch = new SQL.Batch();
+      assertTrue(batch.isEmpty());
+      CommandJournal.compound(List.of(new Add(counter, 1), new Add(counter, 2)))
+          .persist(batch);
+      assertFalse(batch.isEmpty());
+    }
+  }
+
+  @Nested
+  @DisplayName("Negative tests for CommandJournal")
+  class NegativeTestsCommandJournal {
+    @Test
+    @DisplayName("Test constructor throws IllegalArgumentException for a capacity of 0")
+    void testZeroCapacity() {
+      assertThrows(IllegalArgumentException.class, () -> new CommandJournal(0));
+    }
+
+    @Test
+    @DisplayName("Test record() throws IllegalArgumentException for a null command")
+    void testRecordNull() {
+      assertThrows(IllegalArgumentException.class, () -> new CommandJournal().record(null));
+    }
+
+    @Test
+    @DisplayName("Test undo() keeps the change done if the executor fails")
+    void testUndoExecutorFails() {
+      CommandJournal journal = new CommandJournal();
+      set(journal, 1);
+      assertThrows(IllegalStateException.class, () -> journal.undo(command -> {
+        throw new IllegalStateException("Write failed");
+      }));
+
+      assertTrue(journal.canUndo());
+      assertFalse(journal.canRedo());
+    }
+  }
+}
@@ -0,0 +1,254 @@
+package stud.ntnu.idatt1005.pantrypal.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestDataExporter {
+
+  private static final String USER = "exporter";
+
+  private Path directory;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    directory = Files.createTempDirectory("pantrypal");
+    SQL.configure(SQL.MEMORY, null);
+    GroceryCatalog.invalidate();
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    SQL.configure(SQL.MEMORY, null);
+    GroceryCatalog.invalidate();
+    try (var files = Files.walk(directory)) {
+      for (Path file : files.sorted((a, b) -> b.compareTo(a)).toList()) {
+        Files.deleteIfExists(file);
+      }
+    }
+  }
+
+  /**
+   * Stores a shelf with a grocery, a shopping list grocery, and a favorite recipe with two
+   * groceries and two steps for the user.
+   */
+  private static void storeUserData() {
+    GroceryCatalog.addGrocery("Zzflour", "grams");
+    GroceryCatalog.addGrocery("Zzyeast", "grams");
+    int shelf = SQL.executeUpdateWithGeneratedKeys(
+        "INSERT INTO pantry_shelf (name, user_name) VALUES ('Zzcupboard', ?)", USER);
+    SQL.executeUpdate("INSERT INTO pantry_shelf_grocery (pantry_shelf_id, grocery_name, quantity) "
+        + "VALUES (?, 'Zzflour', 1000)", shelf);
+    SQL.executeUpdate("INSERT INTO shopping_list_grocery "
+        + "(grocery_name, user_name, quantity, is_bought, shelf_name) "
+        + "VALUES ('Zzyeast', ?, 20, 1, 'Zzcupboard')", USER);
+    int recipe = SQL.executeUpdateWithGeneratedKeys("INSERT INTO recipe (name, description, image) "
+        + "VALUES ('Zzexport bread', 'Crusty, and \"good\"', NULL)");
+    SQL.executeUpdate("INSERT INTO recipe_grocery (recipe_id, grocery_name, quantity) "
+        + "VALUES (?, 'Zzflour', 500), (?, 'Zzyeast', 10)", recipe, recipe);
+    SQL.executeUpdate("INSERT INTO step (recipe_id, description) VALUES (?, 'Mix'), (?, 'Bake')",
+        recipe, recipe);
+    SQL.executeUpdate("INSERT INTO recipe_favorite (recipe_id, user_name) VALUES (?, ?)",
+        recipe, USER);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<Map<String, Object>> readJson(Path file) throws IOException {
+    List<Map<String, Object>> rows = new ArrayList<>();
+    try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      JsonStreamReader reader = new JsonStreamReader(in);
+      while (reader.hasNext()) {
+        rows.add((Map<String, Object>) reader.next());
+      }
+    }
+    return rows;
+  }
+
+  /**
+   * Imports an export into a new in-memory database, and returns the groceries and steps of the
+   * exported recipe.
+   */
+  private static List<Object> importBread(Path file) throws IOException {
+    SQL.configure(SQL.MEMORY, null);
+    GroceryCatalog.invalidate();
+    new RecipeImporter(progress -> { }).importFile(file);
+
+    List<Map<String, Object>> recipes =
+        SQL.executeQuery("SELECT id, description FROM recipe WHERE name = 'Zzexport bread'");
+    assertEquals(1, recipes.size());
+    Object id = recipes.get(0).get("id");
+    List<Object> imported = new ArrayList<>();
+    imported.add(recipes.get(0).get("description"));
+    for (Map<String, Object> row : SQL.executeQuery("SELECT rg.grocery_name, rg.quantity, g.unit "
+        + "FROM recipe_grocery rg JOIN grocery g ON g.name = rg.grocery_name "
+        + "WHERE rg.recipe_id = ? ORDER BY rg.grocery_name", id)) {
+      imported.add(row.get("grocery_name") + ":" + row.get("quantity") + ":" + row.get("unit"));
+    }
+    for (Map<String, Object> row :
+        SQL.executeQuery("SELECT description FROM step WHERE recipe_id = ? ORDER BY id", id)) {
+      imported.add(row.get("description"));
+    }
+    return imported;
+  }
+
+  @Nested
+  @DisplayName("Positive tests for DataExporter")
+  class PositiveTestsDataExporter {
+    @Test
+    @DisplayName("Test writeJson() writes a row which is read back as the same row")
+    void testWriteJsonRoundTrip() throws IOException {
+      Map<String, Object> row = new LinkedHashMap<>();
+      row.put("type", "recipe");
+      row.put("name", "Pancakes \"deluxe\"");
+      row.put("description", "Line one\nLine two\\");
+      row.put("favorite", true);
+      row.put("groceries", List.of(Map.of("name", "Milk", "quantity", 2L)));
+      row.put("steps", List.of("Mix", "Fry"));
+
+      StringBuilder json = new StringBuilder();
+      DataExporter.writeJson(json, row);
+
+      JsonStreamReader reader = new JsonStreamReader(new StringReader(json.toString()));
+      assertEquals(row, reader.next());
+      assertFalse(reader.hasNext());
+    }
+
+    @Test
+    @DisplayName("Test export() writes the shelves, shopping list and favorites of the user")
+    void testExportJson() throws IOException {
+      storeUserData();
+      Path file = directory.resolve("export.jsonl");
+
+      assertEquals(4, DataExporter.export(USER, file));
+
+      List<Map<String, Object>> rows = readJson(file);
+      assertEquals(List.of("shelf", "pantry", "shopping_list", "recipe"),
+          rows.stream().map(row -> row.get("type")).toList());
+      assertEquals("Zzflour", rows.get(1).get("name"));
+      assertEquals(1000L, rows.get(1).get("quantity"));
+      assertEquals(true, rows.get(2).get("checked"));
+      assertEquals(List.of(Map.of("name", "Zzflour", "quantity", 500L, "unit", "grams"),
+          Map.of("name", "Zzyeast", "quantity", 10L, "unit", "grams")),
+          rows.get(3).get("groceries"));
+      assertEquals(List.of("Mix", "Bake"), rows.get(3).get("steps"));
+    }
+
+    @Test
+    @DisplayName("Test export() writes every page of favorites once, in order")
+    void testExportPages() throws IOException {
+      int count = DataExporter.RECIPE_PAGE_SIZE + 1;
+      SQL.executeInTransaction(transaction -> {
+        for (int i = 0; i < count; i++) {
+          int id = 100000 + i;
+          transaction.executeUpdate("INSERT INTO recipe (id, name, description) "
+              + "VALUES (?, ?, '')", id, "Zzrecipe " + i);
+          transaction.executeUpdate("INSERT INTO step (recipe_id, description) VALUES (?, ?)",
+              id, "Step " + i);
+          transaction.executeUpdate(
+              "INSERT INTO recipe_favorite (recipe_id, user_name) VALUES (?, ?)", id, USER);
+        }
+      });
+      Path file = directory.resolve("export.jsonl");
+
+      assertEquals(count, DataExporter.export(USER, file));
+
+      List<Map<String, Object>> rows = readJson(file);
+      for (int i = 0; i < count; i++) {
+        assertEquals("Zzrecipe " + i, rows.get(i).get("name"));
+        assertEquals(List.of("Step " + i), rows.get(i).get("steps"));
+      }
+    }
+
+    @Test
+    @DisplayName("Test export() as JSON Lines is imported again by RecipeImporter")
+    void testExportJsonRoundTrip() throws IOException {
+      storeUserData();
+      Path file = directory.resolve("export.jsonl");
+      DataExporter.export(USER, file);
+
+      assertEquals(List.of("Crusty, and \"good\"", "Zzflour:500:grams", "Zzyeast:10:grams",
+          "Mix", "Bake"), importBread(file));
+    }
+
+    @Test
+    @DisplayName("Test export() as CSV is imported again by RecipeImporter")
+    void testExportCsvRoundTrip() throws IOException {
+      storeUserData();
+      Path file = directory.resolve("export.csv");
+      DataExporter.export(USER, file);
+
+      assertEquals(List.of("Crusty, and \"good\"", "Zzflour:500:grams", "Zzyeast:10:grams",
+          "Mix", "Bake"), importBread(file));
+    }
+
+    @Test
+    @DisplayName("Test backupAsync() writes a copy of the database")
+    void testBackupAsync() throws Exception {
+      storeUserData();
+      Path file = directory.resolve("backup.sqlite");
+
+      DataExporter.backupAsync(file).get(10, TimeUnit.SECONDS);
+
+      SQL.configure(file.toString(), null);
+      assertEquals(1, SQL.executeQuery(
+          "SELECT name FROM recipe WHERE name = 'Zzexport bread'").size());
+      assertEquals(1, SQL.executeQuery(
+          "SELECT quantity FROM shopping_list_grocery WHERE user_name = ?", USER).size());
+    }
+
+    @Test
+    @DisplayName("Test csvField() quotes fields with commas and quotes")
+    void testCsvFieldQuotes() {
+      assertEquals("Milk", DataExporter.csvField("Milk", ";"));
+      assertEquals("", DataExporter.csvField(null, ";"));
+      assertEquals("\"Salt, coarse\"", DataExporter.csvField("Salt, coarse", ";"));
+      assertEquals("\"A \"\"big\"\" pot\"", DataExporter.csvField("A \"big\" pot", ";"));
+    }
+
+    @Test
+    @DisplayName("Test csvField() writes lists in the format read by RecipeImporter")
+    void testCsvFieldLists() {
+      assertEquals("Milk:2:dl;Egg:3:",
+          DataExporter.csvField(List.of(Map.of("name", "Milk", "quantity", 2, "unit", "dl"),
+              Map.of("name", "Egg", "quantity", 3)), ";"));
+      assertEquals("Mix|Fry", DataExporter.csvField(List.of("Mix", "Fry"), "|"));
+    }
+  }
+
+  @Nested
+  @DisplayName("Negative tests for DataExporter")
+  class NegativeTestsDataExporter {
+    @Test
+    @DisplayName("Test export() of a user without data writes no rows")
+    void testExportUnknownUser() throws IOException {
+      Path file = directory.resolve("export.csv");
+
+      assertEquals(0, DataExporter.export("nobody", file));
+      assertEquals(List.of(String.join(",", "type", "shelf", "name", "quantity", "unit",
+          "checked", "description", "image", "groceries", "steps")), Files.readAllLines(file));
+    }
+
+    @Test
+    @DisplayName("Test backup() throws IllegalArgumentException for a path with a quote")
+    void testBackupQuotedPath() {
+      assertThrows(IllegalArgumentException.class,
+          () -> SQL.backup(Path.of("back\"up.db")));
+    }
+  }
+}
@@ -0,0 +1,143 @@
+package stud.ntnu.idatt1005.pantrypal.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestDatasetGenerator {
+
+  private static final DatasetGenerator.Config CONFIG =
+      new DatasetGenerator.Config(7, 5, 100, 50, 6, 4, 3, 10, 8, 5, 1.0);
+
+  @BeforeEach
+  void setUp() {
+    SQL.configure(SQL.MEMORY, null);
+  }
+
+  private long count(String query, Object... params) {
+    return ((Number) SQL.executeQuery(query, params).get(0).get("n")).longValue();
+  }
+
+  private List<Map<String, Object>> generatedRows() {
+    return SQL.executeQuery("SELECT r.name, rg.grocery_name, rg.quantity FROM recipe r "
+        + "INNER JOIN recipe_grocery rg ON rg.recipe_id = r.id ORDER BY r.id, rg.grocery_name");
+  }
+
+  @Nested
+  @DisplayName("Positive tests for DatasetGenerator")
+  class PositiveTestsDatasetGenerator {
+    @Test
+    @DisplayName("Test generate() inserts the configured numbers of users, recipes and rows")
+    void testGenerateCounts() {
+      long recipesBefore = count("SELECT count(*) AS n FROM recipe");
+      DatasetGenerator.Result result = DatasetGenerator.generate(CONFIG);
+
+      assertEquals(recipesBefore + 50, count("SELECT count(*) AS n FROM recipe"));
+      assertEquals(15, count("SELECT count(*) AS n FROM pantry_shelf"));
+      assertEquals(5, count("SELECT count(DISTINCT user_name) AS n FROM recipe_favorite"));
+      assertEquals(3, count("SELECT count(*) AS n FROM pantry_shelf WHERE user_name = ?",
+          DatasetGenerator.userName(0)));
+      assertEquals(8, count("SELECT count(*) AS n FROM shopping_list_grocery WHERE user_name = ?",
+          DatasetGenerator.userName(4)));
+      assertEquals(5, count("SELECT count(*) AS n FROM recipe_favorite WHERE user_name = ?",
+          DatasetGenerator.userName(2)));
+      assertTrue(result.rows() > 0);
+    }
+
+    @Test
+    @DisplayName("Test generate() makes the same data from the same seed")
+    void testGenerateIsDeterministic() {
+      DatasetGenerator.generate(CONFIG);
+      List<Map<String, Object>> first = generatedRows();
+
+      SQL.configure(SQL.MEMORY, null);
+      DatasetGenerator.generate(CONFIG);
+      assertEquals(first, generatedRows());
+    }
+
+    @Test
+    @DisplayName("Test generate() indexes the new recipes and keeps the full-text triggers")
+    void testGenerateIndexesRecipes() {
+      long triggers = count("SELECT count(*) AS n FROM sqlite_master WHERE type = 'trigger'");
+      DatasetGenerator.generate(CONFIG);
+
+      assertEquals(count("SELECT count(*) AS n FROM recipe"),
+          count("SELECT count(*) AS n FROM recipe_fts"));
+      assertEquals(triggers,
+          count("SELECT count(*) AS n FROM sqlite_master WHERE type = 'trigger'"));
+    }
+
+    @Test
+    @DisplayName("Test Zipf draws the first ranks most often")
+    void testZipfIsSkewed() {
+      DatasetGenerator.Zipf zipf = new DatasetGenerator.Zipf(100, 1.0);
+      SplittableRandom random = new SplittableRandom(1);
+      int[] counts = new int[100];
+      for (int i = 0; i < 100_000; i++) {
+        counts[zipf.sample(random)]++;
+      }
+      assertTrue(counts[0] > counts[1]);
+      assertTrue(counts[1] > counts[10]);
+      assertTrue(counts[0] > 10 * counts[99]);
+    }
+
+    @Test
+    @DisplayName("Test Zipf.distinct() draws every rank once when every rank is needed")
+    void testZipfDistinctAll() {
+      int[] ranks = new DatasetGenerator.Zipf(20, 2.0).distinct(new SplittableRandom(1), 20);
+      Arrays.sort(ranks);
+      for (int i = 0; i < 20; i++) {
+        assertEquals(i, ranks[i]);
+      }
+    }
+
+    @Test
+    @DisplayName("Test groceryName() gives distinct names")
+    void testGroceryNamesDistinct() {
+      long distinct = IntStream.range(0, 2000)
+          .mapToObj(DatasetGenerator::groceryName).distinct().count();
+      assertEquals(2000, distinct);
+    }
+  }
+
+  @Nested
+  @DisplayName("Negative tests for DatasetGenerator")
+  class NegativeTestsDatasetGenerator {
+    @Test
+    @DisplayName("Test Config throws IllegalArgumentException for a negative count")
+    void testConfigNegativeCount() {
+      assertThrows(IllegalArgumentException.class,
+          () -> new DatasetGenerator.Config(1, -1, 100, 50, 6, 4, 3, 10, 8, 5, 1.0));
+    }
+
+    @Test
+    @DisplayName("Test Config throws IllegalArgumentException for more ingredients than groceries")
+    void testConfigTooManyIngredients() {
+      assertThrows(IllegalArgumentException.class,
+          () -> new DatasetGenerator.Config(1, 1, 5, 50, 6, 4, 3, 5, 5, 5, 1.0));
+    }
+
+    @Test
+    @DisplayName("Test Config throws IllegalArgumentException for more favorites than recipes")
+    void testConfigTooManyFavorites() {
+      assertThrows(IllegalArgumentException.class,
+          () -> new DatasetGenerator.Config(1, 1, 100, 3, 6, 4, 3, 10, 8, 5, 1.0));
+    }
+
+    @Test
+    @DisplayName("Test Config throws IllegalArgumentException for a negative exponent")
+    void testConfigNegativeExponent() {
+      assertThrows(IllegalArgumentException.class,
+          () -> new DatasetGenerator.Config(1, 1, 100, 50, 6, 4, 3, 10, 8, 5, -0.5));
+    }
+  }
+}
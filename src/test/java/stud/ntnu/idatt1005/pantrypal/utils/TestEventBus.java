@@ -0,0 +1,293 @@
+package stud.ntnu.idatt1005.pantrypal.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestEventBus {
+  private EventBus eventBus;
+
+  private record Ping(int id) {
+  }
+
+  private record Pong(int id) {
+  }
+
+  private record Keyed(String key, int id) implements EventBus.Keyed {
+  }
+
+  @BeforeEach
+  void setUp() {
+    eventBus = new EventBus();
+  }
+
+  @AfterEach
+  void tearDown() {
+    eventBus.close();
+  }
+
+  @Nested
+  @DisplayName("Positive tests for EventBus")
+  class PositiveTestsEventBus {
+    @Test
+    @DisplayName("Test publish() delivers an event to its handlers before returning")
+    void testPublishDeliversSynchronously() {
+      List<Integer> first = new ArrayList<>();
+      List<Integer> second = new ArrayList<>();
+      eventBus.subscribe(Ping.class, ping -> first.add(ping.id()));
+      eventBus.subscribe(Ping.class, ping -> second.add(ping.id()));
+
+      eventBus.publish(new Ping(1));
+      eventBus.publish(new Ping(2));
+
+      assertEquals(List.of(1, 2), first);
+      assertEquals(List.of(1, 2), second);
+    }
+
+    @Test
+    @DisplayName("Test publish() only delivers an event to the handlers of its type")
+    void testPublishDispatchesByType() {
+      List<Object> pings = new ArrayList<>();
+      eventBus.subscribe(Ping.class, pings::add);
+
+      eventBus.publish(new Pong(1));
+      eventBus.publish(new Ping(2));
+
+      assertEquals(List.of(new Ping(2)), pings);
+    }
+
+    @Test
+    @DisplayName("Test publish() drops an event without handlers")
+    void testPublishWithoutHandlers() {
+      assertDoesNotThrow(() -> eventBus.publish(new Ping(1)));
+    }
+
+    @Test
+    @DisplayName("Test cancel() stops the handler from getting events")
+    void testCancel() {
+      List<Integer> pings = new ArrayList<>();
+      EventBus.Subscription subscription =
+          eventBus.subscribe(Ping.class, ping -> pings.add(ping.id()));
+
+      eventBus.publish(new Ping(1));
+      subscription.cancel();
+      eventBus.publish(new Ping(2));
+
+      assertEquals(List.of(1), pings);
+    }
+
+    @Test
+    @DisplayName("Test publish() only delivers a keyed event to the handlers of its key")
+    void testPublishDispatchesByKey() {
+      List<Integer> left = new ArrayList<>();
+      List<Integer> right = new ArrayList<>();
+      List<Integer> all = new ArrayList<>();
+      eventBus.subscribe(Keyed.class, "left", keyed -> left.add(keyed.id()));
+      eventBus.subscribe(Keyed.class, "right", keyed -> right.add(keyed.id()));
+      eventBus.subscribe(Keyed.class, keyed -> all.add(keyed.id()));
+
+      eventBus.publish(new Keyed("left", 1));
+      eventBus.publish(new Keyed("right", 2));
+      eventBus.publish(new Keyed("other", 3));
+
+      assertEquals(List.of(1), left);
+      assertEquals(List.of(2), right);
+      assertEquals(List.of(1, 2, 3), all);
+    }
+
+    @Test
+    @DisplayName("Test cancel() stops a keyed handler from getting events")
+    void testCancelKeyed() {
+      List<Integer> left = new ArrayList<>();
+      EventBus.Subscription subscription =
+          eventBus.subscribe(Keyed.class, "left", keyed -> left.add(keyed.id()));
+
+      eventBus.publish(new Keyed("left", 1));
+      subscription.cancel();
+      eventBus.publish(new Keyed("left", 2));
+
+      assertEquals(List.of(1), left);
+    }
+
+    @Test
+    @DisplayName("Test subscribeAsync() delivers events in order on a worker thread")
+    void testSubscribeAsync() throws InterruptedException {
+      List<Integer> pings = new CopyOnWriteArrayList<>();
+      List<Thread> threads = new CopyOnWriteArrayList<>();
+      CountDownLatch handled = new CountDownLatch(3);
+      eventBus.subscribeAsync(Ping.class, ping -> {
+        pings.add(ping.id());
+        threads.add(Thread.currentThread());
+        handled.countDown();
+      }, 4);
+
+      for (int i = 1; i <= 3; i++) {
+        eventBus.publish(new Ping(i));
+      }
+
+      assertTrue(handled.await(5, TimeUnit.SECONDS));
+      assertEquals(List.of(1, 2, 3), pings);
+      assertFalse(threads.contains(Thread.currentThread()));
+    }
+
+    @Test
+    @DisplayName("Test publish() waits while the queue of an async handler is full")
+    void testAsyncBackpressure() throws InterruptedException {
+      CountDownLatch started = new CountDownLatch(1);
+      CountDownLatch release = new CountDownLatch(1);
+      eventBus.subscribeAsync(Ping.class, ping -> {
+        started.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }, 1);
+
+      eventBus.publish(new Ping(1));
+      assertTrue(started.await(5, TimeUnit.SECONDS));
+      eventBus.publish(new Ping(2));
+
+      AtomicBoolean published = new AtomicBoolean(false);
+      Thread publisher = new Thread(() -> {
+        eventBus.publish(new Ping(3));
+        published.set(true);
+      });
+      publisher.start();
+      publisher.join(200);
+      assertFalse(published.get());
+
+      release.countDown();
+      publisher.join(5000);
+      assertTrue(published.get());
+    }
+
+    @Test
+    @DisplayName("Test an async handler keeps handling events after one fails")
+    void testAsyncHandlerException() throws InterruptedException {
+      List<Integer> pings = new CopyOnWriteArrayList<>();
+      CountDownLatch handled = new CountDownLatch(1);
+      EventBus.Subscription subscription = eventBus.subscribeAsync(Ping.class, ping -> {
+        if (ping.id() == 1) {
+          throw new IllegalStateException("Handler failed");
+        }
+        pings.add(ping.id());
+        handled.countDown();
+      }, 2);
+
+      eventBus.publish(new Ping(1));
+      eventBus.publish(new Ping(2));
+
+      assertTrue(handled.await(5, TimeUnit.SECONDS));
+      assertEquals(List.of(2), pings);
+      subscription.cancel();
+    }
+
+    @Test
+    @DisplayName("Test getMetrics() counts the handled events of a type for every key")
+    void testGetMetrics() {
+      eventBus.subscribe(Ping.class, ping -> { });
+      eventBus.subscribe(Ping.class, ping -> { });
+      eventBus.subscribe(Keyed.class, "left", keyed -> { });
+      eventBus.publish(new Ping(1));
+      eventBus.publish(new Ping(2));
+      eventBus.publish(new Keyed("left", 3));
+      eventBus.publish(new Keyed("right", 4));
+
+      EventBus.Metrics metrics = eventBus.getMetrics(Ping.class);
+      assertEquals(4, metrics.getCount());
+      assertTrue(metrics.getMaxNanos() >= metrics.getMeanNanos());
+      assertEquals(1, eventBus.getMetrics(Keyed.class).getCount());
+      assertEquals(0, eventBus.getMetrics(Pong.class).getCount());
+    }
+
+    @Test
+    @DisplayName("Test getMetrics() measures the time an event waits for an async handler")
+    void testGetMetricsAsync() throws InterruptedException {
+      CountDownLatch handled = new CountDownLatch(2);
+      eventBus.subscribeAsync(Ping.class, ping -> {
+        try {
+          Thread.sleep(20);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        handled.countDown();
+      }, 2);
+
+      eventBus.publish(new Ping(1));
+      eventBus.publish(new Ping(2));
+      assertTrue(handled.await(5, TimeUnit.SECONDS));
+
+      // The second event waits in the queue while the first one is handled
+      EventBus.Metrics metrics = eventBus.getMetrics(Ping.class);
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (metrics.getCount() < 2 && System.nanoTime() < deadline) {
+        Thread.onSpinWait();
+      }
+      assertEquals(2, metrics.getCount());
+      assertTrue(metrics.getMaxNanos() >= TimeUnit.MILLISECONDS.toNanos(40));
+      assertTrue(metrics.getMeanNanos() >= TimeUnit.MILLISECONDS.toNanos(20));
+    }
+  }
+
+  @Nested
+  @DisplayName("Negative tests for EventBus")
+  class NegativeTestsEventBus {
+    @Test
+    @DisplayName("Test publish() throws IllegalArgumentException for a null event")
+    void testPublishNull() {
+      assertThrows(IllegalArgumentException.class, () -> eventBus.publish(null));
+    }
+
+    @Test
+    @DisplayName("Test subscribe() throws IllegalArgumentException for a null handler")
+    void testSubscribeNull() {
+      assertThrows(IllegalArgumentException.class, () -> eventBus.subscribe(Ping.class, null));
+      assertThrows(IllegalArgumentException.class, () -> eventBus.subscribe(null, ping -> { }));
+    }
+
+    @Test
+    @DisplayName("Test subscribe() throws IllegalArgumentException for a null key")
+    void testSubscribeNullKey() {
+      assertThrows(IllegalArgumentException.class,
+          () -> eventBus.subscribe(Keyed.class, null, keyed -> { }));
+    }
+
+    @Test
+    @DisplayName("Test publish() throws IllegalStateException after close()")
+    void testPublishAfterClose() {
+      eventBus.close();
+      assertThrows(IllegalStateException.class, () -> eventBus.publish(new Ping(1)));
+      assertThrows(IllegalStateException.class,
+          () -> eventBus.subscribe(Ping.class, ping -> { }));
+    }
+
+    @Test
+    @DisplayName("Test subscribeAsync() throws IllegalArgumentException for a capacity of 0")
+    void testSubscribeAsyncZeroCapacity() {
+      assertThrows(IllegalArgumentException.class,
+          () -> eventBus.subscribeAsync(Ping.class, ping -> { }, 0));
+    }
+
+    @Test
+    @DisplayName("Test publish() throws the exception of a synchronous handler")
+    void testPublishHandlerException() {
+      eventBus.subscribe(Ping.class, ping -> {
+        throw new IllegalStateException("Handler failed");
+      });
+      assertThrows(IllegalStateException.class, () -> eventBus.publish(new Ping(1)));
+      assertEquals(1, eventBus.getMetrics(Ping.class).getCount());
+    }
+  }
+}
@@ -0,0 +1,127 @@
+package stud.ntnu.idatt1005.pantrypal.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestGroceryCatalog {
+
+  @BeforeEach
+  void setUp() {
+    SQL.configure(SQL.MEMORY, null);
+    GroceryCatalog.invalidate();
+  }
+
+  private long count(String name) {
+    return ((Number) SQL.executeQuery("SELECT count(*) AS n FROM grocery WHERE name = ?", name)
+        .get(0).get("n")).longValue();
+  }
+
+  @Nested
+  @DisplayName("Positive tests for GroceryCatalog")
+  class PositiveTestsGroceryCatalog {
+    @Test
+    @DisplayName("Test containsGrocery() and getStoredName() ignore the case of the name")
+    void testLookupIgnoresCase() {
+      assertTrue(GroceryCatalog.containsGrocery("eggs"));
+      assertTrue(GroceryCatalog.containsGrocery("EGGS"));
+      assertEquals("Eggs", GroceryCatalog.getStoredName("eGgS"));
+    }
+
+    @Test
+    @DisplayName("Test getUnit() returns the stored unit, or the default for a missing grocery")
+    void testGetUnit() {
+      assertEquals("units", GroceryCatalog.getUnit("eggs", "pcs"));
+      assertEquals("pcs", GroceryCatalog.getUnit("Dragon fruit", "pcs"));
+    }
+
+    @Test
+    @DisplayName("Test addGrocery() inserts a new grocery into the catalog and the database")
+    void testAddGrocery() {
+      assertEquals("Dragon fruit", GroceryCatalog.addGrocery("Dragon fruit", "units"));
+
+      assertEquals(1, count("Dragon fruit"));
+      assertEquals("Dragon fruit", GroceryCatalog.getStoredName("dragon FRUIT"));
+      assertEquals("units", GroceryCatalog.getUnit("dragon fruit", "pcs"));
+    }
+
+    @Test
+    @DisplayName("Test addGrocery() returns the stored name of an existing grocery")
+    void testAddExistingGrocery() {
+      assertEquals("Eggs", GroceryCatalog.addGrocery("eggs", "pcs"));
+
+      assertEquals(0, count("eggs"));
+      assertEquals("units", GroceryCatalog.getUnit("Eggs", "pcs"));
+    }
+
+    @Test
+    @DisplayName("Test addGrocery() ignores a grocery another writer inserted after loading")
+    void testAddGroceryInsertedByOtherWriter() {
+      assertFalse(GroceryCatalog.containsGrocery("Dragon fruit"));
+      SQL.executeUpdate("INSERT INTO grocery (name, unit) VALUES ('Dragon fruit', 'grams')");
+
+      assertDoesNotThrow(() -> GroceryCatalog.addGrocery("Dragon fruit", "units"));
+      assertEquals(1, count("Dragon fruit"));
+      assertEquals("grams", GroceryCatalog.getUnit("Dragon fruit", "pcs"));
+    }
+
+    @Test
+    @DisplayName("Test addGrocery() in a transaction adds the grocery when it is committed")
+    void testAddGroceryInTransaction() {
+      SQL.executeInTransaction(transaction -> {
+        assertEquals("Dragon fruit",
+            GroceryCatalog.addGrocery(transaction, "Dragon fruit", "units"));
+        assertFalse(GroceryCatalog.containsGrocery("Dragon fruit"));
+      });
+
+      assertEquals(1, count("Dragon fruit"));
+      assertTrue(GroceryCatalog.containsGrocery("dragon fruit"));
+    }
+
+    @Test
+    @DisplayName("Test invalidate() reloads the groceries and resets the hit and miss counts")
+    void testInvalidate() {
+      GroceryCatalog.containsGrocery("Eggs");
+      GroceryCatalog.containsGrocery("Dragon fruit");
+      assertEquals(0.5, GroceryCatalog.getHitRate());
+      SQL.executeUpdate("INSERT INTO grocery (name, unit) VALUES ('Dragon fruit', 'grams')");
+
+      GroceryCatalog.invalidate();
+      assertEquals(0, GroceryCatalog.getHits());
+      assertEquals(0, GroceryCatalog.getMisses());
+      assertTrue(GroceryCatalog.containsGrocery("dragon fruit"));
+    }
+  }
+
+  @Nested
+  @DisplayName("Negative tests for GroceryCatalog")
+  class NegativeTestsGroceryCatalog {
+    @Test
+    @DisplayName("Test getStoredName() returns the given name for a missing grocery")
+    void testGetStoredNameMissing() {
+      assertEquals("Dragon fruit", GroceryCatalog.getStoredName("Dragon fruit"));
+      assertEquals(1, GroceryCatalog.getMisses());
+    }
+
+    @Test
+    @DisplayName("Test addGrocery() in a transaction that is rolled back adds nothing")
+    void testAddGroceryInRolledBackTransaction() {
+      assertThrows(IllegalStateException.class, () -> SQL.executeInTransaction(transaction -> {
+        GroceryCatalog.addGrocery(transaction, "Dragon fruit", "units");
+        throw new IllegalStateException("Rolled back");
+      }));
+
+      assertEquals(0, count("Dragon fruit"));
+      assertFalse(GroceryCatalog.containsGrocery("Dragon fruit"));
+    }
+
+    @Test
+    @DisplayName("Test getHitRate() returns 0 when there have been no lookups")
+    void testHitRateWithoutLookups() {
+      assertEquals(0, GroceryCatalog.getHitRate());
+    }
+  }
+}
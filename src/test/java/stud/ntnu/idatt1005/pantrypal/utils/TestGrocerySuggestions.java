@@ -0,0 +1,136 @@
+package stud.ntnu.idatt1005.pantrypal.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import stud.ntnu.idatt1005.pantrypal.PantryPal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestGrocerySuggestions {
+
+  private static final String USER = "suggestions";
+
+  @BeforeEach
+  void setUp() {
+    SQL.configure(SQL.MEMORY, null);
+    GroceryCatalog.invalidate();
+    GrocerySuggestions.invalidate();
+    PantryPal.userName = USER;
+    GroceryCatalog.addGrocery("Zzapple", "units");
+    GroceryCatalog.addGrocery("Zzbanana", "units");
+    GroceryCatalog.addGrocery("Zzcherry", "grams");
+  }
+
+  @AfterEach
+  void tearDown() {
+    PantryPal.userName = null;
+    GrocerySuggestions.invalidate();
+  }
+
+  private void addToShelf(long shelfId, String shelf, String grocery) {
+    SQL.executeUpdateAllowEmpty("INSERT OR IGNORE INTO pantry_shelf (id, user_name, name) "
+        + "VALUES (?, ?, ?)", shelfId, USER, shelf);
+    SQL.executeUpdate("INSERT INTO pantry_shelf_grocery (pantry_shelf_id, grocery_name, quantity) "
+        + "VALUES (?, ?, 1)", shelfId, grocery);
+  }
+
+  private List<String> names(String prefix, int limit) {
+    List<String> names = new ArrayList<>();
+    for (GrocerySuggestions.Suggestion suggestion :
+        GrocerySuggestions.suggestGroceries(prefix, limit)) {
+      names.add(suggestion.getName());
+    }
+    return names;
+  }
+
+  @Nested
+  @DisplayName("Positive tests for GrocerySuggestions")
+  class PositiveTestsGrocerySuggestions {
+    @Test
+    @DisplayName("Test suggestGroceries() ranks the groceries by how often they are used")
+    void testSuggestGroceriesRanksByUses() {
+      addToShelf(9001, "Fridge", "Zzcherry");
+      addToShelf(9002, "Freezer", "Zzcherry");
+      addToShelf(9001, "Fridge", "Zzbanana");
+
+      assertEquals(List.of("Zzcherry", "Zzbanana", "Zzapple"), names("zz", 5));
+    }
+
+    @Test
+    @DisplayName("Test suggestGroceries() returns the unit and the usual shelf of a grocery")
+    void testSuggestionHoldsUnitAndShelf() {
+      addToShelf(9001, "Fridge", "Zzcherry");
+
+      GrocerySuggestions.Suggestion suggestion =
+          GrocerySuggestions.suggestGroceries("ZZC", 1).get(0);
+      assertEquals("Zzcherry", suggestion.getName());
+      assertEquals("grams", suggestion.getUnit());
+      assertEquals("Fridge", suggestion.getShelf());
+    }
+
+    @Test
+    @DisplayName("Test suggestGroceries() returns at most the given number of suggestions")
+    void testSuggestGroceriesLimit() {
+      assertEquals(2, GrocerySuggestions.suggestGroceries("zz", 2).size());
+    }
+
+    @Test
+    @DisplayName("Test recordUse() ranks a grocery higher in later suggestions")
+    void testRecordUseRanksHigher() {
+      addToShelf(9001, "Fridge", "Zzbanana");
+      assertEquals("Zzbanana", names("zz", 1).get(0));
+
+      GrocerySuggestions.recordUse("Zzapple", "units", "Fridge");
+      GrocerySuggestions.recordUse("Zzapple", "units", "Fridge");
+
+      assertEquals(List.of("Zzapple", "Zzbanana", "Zzcherry"), names("zz", 5));
+      assertEquals("Fridge", GrocerySuggestions.suggestGroceries("zza", 1).get(0).getShelf());
+    }
+
+    @Test
+    @DisplayName("Test recordUse() adds a grocery and a shelf that are not suggested yet")
+    void testRecordUseAddsNewGroceryAndShelf() {
+      assertTrue(GrocerySuggestions.suggestShelves("Spice", 5).isEmpty());
+
+      GrocerySuggestions.recordUse("Zzdate", "units", "Spice rack");
+
+      assertEquals(List.of("Zzdate"), names("zzd", 5));
+      assertEquals(List.of("Spice rack"), GrocerySuggestions.suggestShelves("spice", 5));
+    }
+
+    @Test
+    @DisplayName("Test invalidate() loads the suggestions from the database again")
+    void testInvalidate() {
+      GrocerySuggestions.recordUse("Zzdate", "units", null);
+      assertEquals(List.of("Zzdate"), names("zzd", 5));
+
+      GrocerySuggestions.invalidate();
+      assertTrue(names("zzd", 5).isEmpty());
+    }
+  }
+
+  @Nested
+  @DisplayName("Negative tests for GrocerySuggestions")
+  class NegativeTestsGrocerySuggestions {
+    @Test
+    @DisplayName("Test suggestGroceries() returns no suggestions for an unknown prefix")
+    void testSuggestGroceriesUnknownPrefix() {
+      assertTrue(GrocerySuggestions.suggestGroceries("Zzz", 5).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test recordUse() ignores an empty shelf")
+    void testRecordUseEmptyShelf() {
+      GrocerySuggestions.recordUse("Zzdate", "units", "");
+
+      assertNull(GrocerySuggestions.suggestGroceries("zzd", 1).get(0).getShelf());
+      assertTrue(GrocerySuggestions.suggestShelves("", 5).isEmpty());
+    }
+  }
+}
@@ -0,0 +1,83 @@
+package stud.ntnu.idatt1005.pantrypal.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestJsonStreamReader {
+
+  private static List<Object> readAll(String json) throws IOException {
+    List<Object> values = new ArrayList<>();
+    try (JsonStreamReader reader = new JsonStreamReader(new StringReader(json))) {
+      while (reader.hasNext()) {
+        values.add(reader.next());
+      }
+    }
+    return values;
+  }
+
+  @Nested
+  @DisplayName("Positive tests for JsonStreamReader")
+  class PositiveTestsJsonStreamReader {
+    @Test
+    @DisplayName("Test the elements of an array are read one at a time")
+    void testReadArray() throws IOException {
+      assertEquals(List.of(1L, "two", Map.of("three", 3.5)),
+          readAll(" [1, \"two\", {\"three\": 3.5}] "));
+    }
+
+    @Test
+    @DisplayName("Test values on separate lines are read one at a time")
+    void testReadJsonLines() throws IOException {
+      assertEquals(List.of(Map.of("name", "Pancakes"), Map.of("name", "Waffles")),
+          readAll("{\"name\": \"Pancakes\"}\n{\"name\": \"Waffles\"}\n"));
+    }
+
+    @Test
+    @DisplayName("Test nested values, literals and escapes are read")
+    void testReadNestedValues() throws IOException {
+      List<Object> values = readAll("{\"a\": [true, false, null], \"b\": \"\\\"q\\\" \\u00e6\\n\"}");
+      Map<?, ?> object = (Map<?, ?>) values.get(0);
+      assertEquals(java.util.Arrays.asList(true, false, null), object.get("a"));
+      assertEquals("\"q\" æ\n", object.get("b"));
+    }
+
+    @Test
+    @DisplayName("Test empty streams and arrays have no values")
+    void testReadEmpty() throws IOException {
+      assertTrue(readAll("").isEmpty());
+      assertTrue(readAll(" [ ] ").isEmpty());
+    }
+  }
+
+  @Nested
+  @DisplayName("Negative tests for JsonStreamReader")
+  class NegativeTestsJsonStreamReader {
+    @Test
+    @DisplayName("Test an unterminated array throws IOException")
+    void testUnterminatedArray() {
+      assertThrows(IOException.class, () -> readAll("[1, 2"));
+    }
+
+    @Test
+    @DisplayName("Test a missing separator throws IOException with the line")
+    void testMissingSeparator() {
+      IOException e = assertThrows(IOException.class, () -> readAll("[1\n 2]"));
+      assertTrue(e.getMessage().contains("line 2"));
+    }
+
+    @Test
+    @DisplayName("Test an invalid literal throws IOException")
+    void testInvalidLiteral() {
+      assertThrows(IOException.class, () -> readAll("{\"a\": tru}"));
+    }
+  }
+}
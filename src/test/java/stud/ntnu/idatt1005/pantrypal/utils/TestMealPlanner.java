@@ -0,0 +1,109 @@
+package stud.ntnu.idatt1005.pantrypal.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestMealPlanner {
+  private Map<Integer, Map<String, Integer>> recipes;
+  private Map<String, Integer> stock;
+
+  @BeforeEach
+  void setUp() {
+    recipes = new TreeMap<>();
+    recipes.put(1, Map.of("Pasta", 200, "Tomato", 2));
+    recipes.put(2, Map.of("Pasta", 200, "Cheese", 100));
+    recipes.put(3, Map.of("Rice", 100, "Chicken", 1));
+    recipes.put(4, Map.of("Bread", 1));
+    recipes.put(5, Map.of("Pasta", 300, "Cheese", 50));
+    stock = Map.of("Pasta", 500, "Tomato", 3, "Cheese", 200);
+  }
+
+  @Nested
+  @DisplayName("Positive tests for MealPlanner")
+  class PositiveTestsMealPlanner {
+    @Test
+    @DisplayName("Test plan() minimizes the shopping list")
+    void testPlanMinimizesShoppingList() {
+      MealPlanner.Plan plan = new MealPlanner(recipes, stock).plan(3, 1000);
+      assertEquals(List.of(1, 2, 4), plan.getRecipeIds());
+      assertEquals(Map.of("Bread", 1), plan.getGroceriesToBuy());
+      assertEquals(1, plan.getShoppingListSize());
+    }
+
+    @Test
+    @DisplayName("Test plan() improves on the greedy plan")
+    void testPlanImprovesGreedyPlan() {
+      Map<Integer, Map<String, Integer>> trap = new TreeMap<>();
+      trap.put(1, Map.of("x", 1));
+      trap.put(2, Map.of("y", 1, "z", 1));
+      trap.put(3, Map.of("y", 1, "z", 1));
+      MealPlanner.Plan plan = new MealPlanner(trap, Map.of()).plan(2, 1000);
+      assertEquals(List.of(2, 3), plan.getRecipeIds());
+      assertEquals(Map.of("y", 2, "z", 2), plan.getGroceriesToBuy());
+    }
+
+    @Test
+    @DisplayName("Test plan() ignores the case of grocery names")
+    void testPlanIgnoresCase() {
+      MealPlanner.Plan plan = new MealPlanner(Map.of(1, Map.of("pasta", 200)),
+          Map.of("PASTA", 500)).plan(1, 1000);
+      assertTrue(plan.getGroceriesToBuy().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test plan() with fewer recipes than meals")
+    void testPlanFewerRecipesThanMeals() {
+      MealPlanner.Plan plan = new MealPlanner(recipes, stock).plan(7, 1000);
+      assertEquals(List.of(1, 2, 3, 4, 5), plan.getRecipeIds());
+    }
+
+    @Test
+    @DisplayName("Test planAsync() reports better plans")
+    void testPlanAsyncReportsImprovements() throws Exception {
+      List<MealPlanner.Plan> improvements = Collections.synchronizedList(new ArrayList<>());
+      MealPlanner.Plan plan = new MealPlanner(recipes, stock)
+          .planAsync(3, 500, improvements::add).get(5, TimeUnit.SECONDS);
+      assertEquals(List.of(1, 2, 4), plan.getRecipeIds());
+      assertFalse(improvements.isEmpty());
+      assertTrue(improvements.contains(plan));
+    }
+  }
+
+  @Nested
+  @DisplayName("Negative tests for MealPlanner")
+  class NegativeTestsMealPlanner {
+    @Test
+    @DisplayName("Test plan() with no meals")
+    void testPlanNoMeals() {
+      MealPlanner planner = new MealPlanner(recipes, stock);
+      assertThrows(IllegalArgumentException.class, () -> planner.plan(0, 1000));
+      assertThrows(IllegalArgumentException.class, () -> planner.planAsync(0, 1000, plan -> { }));
+    }
+
+    @Test
+    @DisplayName("Test plan() with no time budget")
+    void testPlanNoTimeBudget() {
+      MealPlanner planner = new MealPlanner(recipes, stock);
+      assertThrows(IllegalArgumentException.class, () -> planner.plan(3, 0));
+    }
+
+    @Test
+    @DisplayName("Test plan() without recipes")
+    void testPlanWithoutRecipes() {
+      MealPlanner.Plan plan = new MealPlanner(Map.of(), stock).plan(3, 1000);
+      assertTrue(plan.getRecipeIds().isEmpty());
+      assertTrue(plan.getGroceriesToBuy().isEmpty());
+    }
+  }
+}
@@ -0,0 +1,109 @@
+package stud.ntnu.idatt1005.pantrypal.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestMigrations {
+  private Path databaseFile;
+  private Connection connection;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    databaseFile = Files.createTempFile("pantrypal", ".sqlite");
+    connection = DriverManager.getConnection("jdbc:sqlite:" + databaseFile);
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("CREATE TABLE recipe (id INTEGER PRIMARY KEY, name VARCHAR(255) NOT NULL,"
+          + " description VARCHAR(255) NOT NULL, image VARCHAR(255))");
+      statement.execute("CREATE TABLE step (id INTEGER PRIMARY KEY,"
+          + " description VARCHAR(255) NOT NULL, recipe_id INT NOT NULL)");
+      statement.execute("INSERT INTO recipe (id, name, description) VALUES (1, 'Pancakes', 'Sweet')");
+      statement.execute("INSERT INTO step (description, recipe_id) VALUES ('Whisk the eggs', 1)");
+    }
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    connection.close();
+    Files.deleteIfExists(databaseFile);
+  }
+
+  private int count(String matchQuery) throws SQLException {
+    try (Statement statement = connection.createStatement();
+        ResultSet rs = statement.executeQuery(
+            "SELECT count(*) FROM recipe_fts WHERE recipe_fts MATCH '" + matchQuery + "'")) {
+      return rs.getInt(1);
+    }
+  }
+
+  @Nested
+  @DisplayName("Positive tests for Migrations")
+  class PositiveTestsMigrations {
+    @Test
+    @DisplayName("Test migrate() sets the latest version")
+    void testMigrateSetsLatestVersion() throws SQLException {
+      assertEquals(0, Migrations.getVersion(connection));
+      Migrations.migrate(connection);
+      assertEquals(Migrations.getLatestVersion(), Migrations.getVersion(connection));
+    }
+
+    @Test
+    @DisplayName("Test migrate() twice does nothing the second time")
+    void testMigrateTwice() throws SQLException {
+      Migrations.migrate(connection);
+      assertDoesNotThrow(() -> Migrations.migrate(connection));
+      assertEquals(1, count("pancakes"));
+    }
+
+    @Test
+    @DisplayName("Test full-text index is filled with existing recipes and steps")
+    void testFullTextIndexIsFilled() throws SQLException {
+      Migrations.migrate(connection);
+      assertEquals(1, count("pancakes"));
+      assertEquals(1, count("\"whis\"*"));
+    }
+
+    @Test
+    @DisplayName("Test full-text index follows changes to recipes and steps")
+    void testFullTextIndexIsKeptInSync() throws SQLException {
+      Migrations.migrate(connection);
+      try (Statement statement = connection.createStatement()) {
+        statement.execute("INSERT INTO step (description, recipe_id) VALUES ('Flip them', 1)");
+        assertEquals(1, count("flip"));
+        statement.execute("UPDATE recipe SET name = 'Crepes' WHERE id = 1");
+        assertEquals(0, count("pancakes"));
+        assertEquals(1, count("crepes"));
+        statement.execute("DELETE FROM step WHERE description = 'Flip them'");
+        assertEquals(0, count("flip"));
+        statement.execute("DELETE FROM recipe WHERE id = 1");
+        assertEquals(0, count("crepes"));
+      }
+    }
+  }
+
+  @Nested
+  @DisplayName("Negative tests for Migrations")
+  class NegativeTestsMigrations {
+    @Test
+    @DisplayName("Test migrate() rolls back a failing migration")
+    void testMigrateRollsBack() throws SQLException {
+      try (Statement statement = connection.createStatement()) {
+        statement.execute("DROP TABLE step");
+      }
+      assertThrows(SQLException.class, () -> Migrations.migrate(connection));
+      assertEquals(0, Migrations.getVersion(connection));
+    }
+  }
+}
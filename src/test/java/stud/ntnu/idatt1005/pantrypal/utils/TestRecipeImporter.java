@@ -0,0 +1,128 @@
+package stud.ntnu.idatt1005.pantrypal.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestRecipeImporter {
+  private static final UnaryOperator<String> SAME_NAME = UnaryOperator.identity();
+
+  @Nested
+  @DisplayName("Positive tests for RecipeImporter")
+  class PositiveTestsRecipeImporter {
+    @Test
+    @DisplayName("Test normalize() reads a JSON recipe")
+    void testNormalizeJson() {
+      Map<String, Object> record = Map.of(
+          "name", "  Pancakes   with  syrup ",
+          "description", "Sweet",
+          "groceries", List.of(
+              Map.of("name", "Eggs", "quantity", 2L, "unit", "PCS"),
+              Map.of("name", "eggs", "quantity", 1L, "unit", "pcs"),
+              Map.of("name", "Milk", "quantity", 5.0, "unit", "dl")),
+          "steps", List.of("Whisk", "  ", "Fry"));
+
+      RecipeImporter.ImportedRecipe recipe = RecipeImporter.normalize(record, SAME_NAME);
+
+      assertEquals("Pancakes with syrup", recipe.name());
+      assertEquals("Sweet", recipe.description());
+      assertNull(recipe.image());
+      assertEquals(List.of(new RecipeImporter.ImportedGrocery("Eggs", 3, "pcs"),
+          new RecipeImporter.ImportedGrocery("Milk", 5, "dl")), recipe.groceries());
+      assertEquals(List.of("Whisk", "Fry"), recipe.steps());
+    }
+
+    @Test
+    @DisplayName("Test normalize() reads a CSV recipe")
+    void testNormalizeCsv() {
+      Map<String, Object> record = Map.of(
+          "name", "Omelette",
+          "image", "https://example.com/omelette.png",
+          "groceries", "Eggs:3:pcs; Cheese:50:g",
+          "steps", "Whisk|Fry");
+
+      RecipeImporter.ImportedRecipe recipe = RecipeImporter.normalize(record, SAME_NAME);
+
+      assertEquals("", recipe.description());
+      assertEquals("https://example.com/omelette.png", recipe.image());
+      assertEquals(List.of(new RecipeImporter.ImportedGrocery("Eggs", 3, "pcs"),
+          new RecipeImporter.ImportedGrocery("Cheese", 50, "g")), recipe.groceries());
+      assertEquals(List.of("Whisk", "Fry"), recipe.steps());
+    }
+
+    @Test
+    @DisplayName("Test normalize() uses the stored names of the groceries")
+    void testNormalizeStoredNames() {
+      Map<String, Object> record = Map.of("name", "Toast",
+          "groceries", "bread:2:pcs;BREAD:1:pcs");
+      RecipeImporter.ImportedRecipe recipe =
+          RecipeImporter.normalize(record, name -> "Bread");
+      assertEquals(List.of(new RecipeImporter.ImportedGrocery("Bread", 3, "pcs")),
+          recipe.groceries());
+    }
+
+    @Test
+    @DisplayName("Test CsvStreamReader reads quoted fields with commas and line breaks")
+    void testCsvStreamReader() throws IOException {
+      String csv = "name,steps\r\n\"Soup, hot\",\"Boil\nthe \"\"water\"\"\"\n\nBread,Bake\n";
+      try (CsvStreamReader reader = new CsvStreamReader(new StringReader(csv))) {
+        assertEquals(List.of("name", "steps"), reader.readRow());
+        assertEquals(List.of("Soup, hot", "Boil\nthe \"water\""), reader.readRow());
+        assertEquals(List.of("Bread", "Bake"), reader.readRow());
+        assertNull(reader.readRow());
+      }
+    }
+
+    @Test
+    @DisplayName("Test Format.of() finds the format from the extension")
+    void testFormatOf() {
+      assertEquals(RecipeImporter.Format.CSV, RecipeImporter.Format.of(Path.of("a/Recipes.CSV")));
+      assertEquals(RecipeImporter.Format.JSON, RecipeImporter.Format.of(Path.of("recipes.jsonl")));
+    }
+  }
+
+  @Nested
+  @DisplayName("Negative tests for RecipeImporter")
+  class NegativeTestsRecipeImporter {
+    @Test
+    @DisplayName("Test normalize() throws IllegalArgumentException for a recipe without a name")
+    void testNormalizeWithoutName() {
+      assertThrows(IllegalArgumentException.class,
+          () -> RecipeImporter.normalize(Map.of("name", "  "), SAME_NAME));
+    }
+
+    @Test
+    @DisplayName("Test normalize() throws IllegalArgumentException for an invalid quantity")
+    void testNormalizeInvalidQuantity() {
+      assertThrows(IllegalArgumentException.class, () -> RecipeImporter.normalize(
+          Map.of("name", "Toast", "groceries", "Bread:0:pcs"), SAME_NAME));
+      assertThrows(IllegalArgumentException.class, () -> RecipeImporter.normalize(
+          Map.of("name", "Toast", "groceries", "Bread:1.5:pcs"), SAME_NAME));
+      assertThrows(IllegalArgumentException.class, () -> RecipeImporter.normalize(
+          Map.of("name", "Toast", "groceries", "Bread:many:pcs"), SAME_NAME));
+    }
+
+    @Test
+    @DisplayName("Test CsvStreamReader throws IOException for an unterminated quoted field")
+    void testCsvUnterminatedQuote() throws IOException {
+      try (CsvStreamReader reader = new CsvStreamReader(new StringReader("\"Soup,Boil\n"))) {
+        assertThrows(IOException.class, reader::readRow);
+      }
+    }
+
+    @Test
+    @DisplayName("Test constructor throws IllegalArgumentException for a batch size of 0")
+    void testZeroBatchSize() {
+      assertThrows(IllegalArgumentException.class, () -> new RecipeImporter(0, progress -> { }));
+    }
+  }
+}
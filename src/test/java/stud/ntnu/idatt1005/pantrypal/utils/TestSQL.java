@@ -0,0 +1,240 @@
+package stud.ntnu.idatt1005.pantrypal.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import stud.ntnu.idatt1005.pantrypal.PantryPal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestSQL {
+  private Path directory;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    directory = Files.createTempDirectory("pantrypal");
+    SQL.configure(SQL.MEMORY, null);
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    SQL.configure(SQL.MEMORY, null);
+    try (var files = Files.walk(directory)) {
+      for (Path file : files.sorted((a, b) -> b.compareTo(a)).toList()) {
+        Files.deleteIfExists(file);
+      }
+    }
+  }
+
+  private long count(String table) {
+    return ((Number) SQL.executeQuery("SELECT count(*) AS n FROM " + table).get(0).get("n"))
+        .longValue();
+  }
+
+  @Nested
+  @DisplayName("Positive tests for SQL")
+  class PositiveTestsSQL {
+    @Test
+    @DisplayName("Test configure() creates an in-memory database with the seed data and migrations")
+    void testMemoryDatabaseIsSeeded() {
+      assertTrue(count("recipe") > 0);
+      assertTrue(count("grocery") > 0);
+      assertEquals(0, count("import_progress"));
+    }
+
+    @Test
+    @DisplayName("Test configure() gives a new in-memory database every time")
+    void testMemoryDatabaseIsFresh() {
+      SQL.executeUpdate("INSERT INTO pantry_shelf (name, user_name) VALUES ('Fridge', 'test')");
+      assertEquals(1, count("pantry_shelf"));
+
+      SQL.configure(SQL.MEMORY, null);
+      assertEquals(0, count("pantry_shelf"));
+    }
+
+    @Test
+    @DisplayName("Test configure() creates a missing database file with the seed data")
+    void testFileDatabaseIsCreated() {
+      Path file = directory.resolve("data").resolve("database.sqlite");
+      SQL.configure(file.toString(), null);
+
+      assertTrue(Files.exists(file));
+      assertTrue(count("recipe") > 0);
+      SQL.executeUpdate("INSERT INTO pantry_shelf (name, user_name) VALUES ('Fridge', 'test')");
+
+      SQL.configure(file.toString(), null);
+      assertEquals(1, count("pantry_shelf"));
+    }
+
+    @Test
+    @DisplayName("Test configure() writes a snapshot which the next in-memory database restores")
+    void testSnapshotIsRestored() {
+      Path snapshot = directory.resolve("snapshot.sqlite");
+      SQL.configure(SQL.MEMORY, snapshot, 3600);
+      SQL.executeUpdate("INSERT INTO pantry_shelf (name, user_name) VALUES ('Fridge', 'test')");
+
+      SQL.configure(SQL.MEMORY, snapshot, 3600);
+      assertTrue(Files.exists(snapshot));
+      assertEquals(1, count("pantry_shelf"));
+    }
+
+    @Test
+    @DisplayName("Test snapshot() writes the changes made since the last snapshot")
+    void testSnapshot() {
+      Path snapshot = directory.resolve("snapshot.sqlite");
+      SQL.configure(SQL.MEMORY, snapshot, 3600);
+      SQL.executeUpdate("INSERT INTO pantry_shelf (name, user_name) VALUES ('Fridge', 'test')");
+      SQL.snapshot();
+
+      SQL.configure(snapshot.toString(), null);
+      assertEquals(1, count("pantry_shelf"));
+    }
+
+    @Test
+    @DisplayName("Test configure() discards the grocery catalog and suggestions of the old "
+        + "database")
+    void testConfigureInvalidatesCaches() {
+      PantryPal.userName = "switcher";
+      try {
+        GroceryCatalog.addGrocery("Zzswitch", "grams");
+        GrocerySuggestions.recordUse("Zzswitch", "grams", "Zzshelf");
+        assertTrue(GroceryCatalog.containsGrocery("Zzswitch"));
+        assertEquals(1, GrocerySuggestions.suggestGroceries("zzswitch", 5).size());
+
+        SQL.configure(directory.resolve("other.sqlite").toString(), null);
+
+        assertFalse(GroceryCatalog.containsGrocery("Zzswitch"));
+        assertTrue(GrocerySuggestions.suggestGroceries("zzswitch", 5).isEmpty());
+        assertTrue(GrocerySuggestions.suggestShelves("zzshelf", 5).isEmpty());
+      } finally {
+        PantryPal.userName = null;
+        GrocerySuggestions.invalidate();
+      }
+    }
+
+    @Test
+    @DisplayName("Test copyLegacyDatabase() copies the old database file to a new location")
+    void testCopyLegacyDatabase() throws Exception {
+      Path legacy = directory.resolve("legacy.sqlite");
+      SQL.configure(legacy.toString(), null);
+      SQL.executeUpdate("INSERT INTO pantry_shelf (name, user_name) VALUES ('Fridge', 'test')");
+      SQL.configure(SQL.MEMORY, null);
+      Path target = directory.resolve("home").resolve("database.sqlite");
+
+      assertTrue(SQL.copyLegacyDatabase(legacy, target));
+
+      SQL.configure(target.toString(), null);
+      assertEquals(1, count("pantry_shelf"));
+    }
+
+    @Test
+    @DisplayName("Test copyLegacyDatabase() copies the database on the class path without a file")
+    void testCopyLegacyDatabaseFromClassPath() throws Exception {
+      Path target = directory.resolve("home").resolve("database.sqlite");
+
+      assertTrue(SQL.copyLegacyDatabase(directory.resolve("missing.sqlite"), target));
+
+      SQL.configure(target.toString(), null);
+      assertTrue(count("recipe") > 0);
+    }
+
+    @Test
+    @DisplayName("Test executeInTransaction() commits every statement of the work")
+    void testTransactionCommits() {
+      SQL.executeInTransaction(transaction -> {
+        transaction.executeUpdate(
+            "INSERT INTO pantry_shelf (name, user_name) VALUES ('Fridge', 'test')");
+        transaction.executeUpdate(
+            "INSERT INTO pantry_shelf (name, user_name) VALUES ('Freezer', 'test')");
+      });
+      assertEquals(2, count("pantry_shelf"));
+    }
+
+    @Test
+    @DisplayName("Test executeBatch() executes the updates in the order they are added")
+    void testBatchKeepsOrder() {
+      SQL.executeUpdate(
+          "INSERT INTO pantry_shelf (id, name, user_name) VALUES (9002, 'Freezer', 'test')");
+      String update = "UPDATE pantry_shelf SET name = ? WHERE id = ?";
+      SQL.Batch batch = new SQL.Batch();
+      batch.add(update, "Chest freezer", 9002);
+      batch.add("INSERT INTO pantry_shelf (id, name, user_name) VALUES (?, ?, 'test')",
+          9001, "Fridge");
+      batch.add(update, "Wine fridge", 9001);
+
+      SQL.executeBatch(batch);
+
+      assertEquals(List.of("Wine fridge", "Chest freezer"), SQL.executeQuery(
+          "SELECT name FROM pantry_shelf ORDER BY id").stream().map(row -> row.get("name"))
+          .toList());
+    }
+
+    @Test
+    @DisplayName("Test forEachRow() passes every row of the result in order")
+    void testForEachRow() {
+      List<Object> names = new ArrayList<>();
+      SQL.forEachRow("SELECT name FROM grocery ORDER BY name", row -> names.add(row.get("name")));
+
+      List<Object> expected = SQL.executeQuery("SELECT name FROM grocery ORDER BY name").stream()
+          .map(row -> row.get("name")).toList();
+      assertEquals(expected, names);
+    }
+  }
+
+  @Nested
+  @DisplayName("Negative tests for SQL")
+  class NegativeTestsSQL {
+    @Test
+    @DisplayName("Test copyLegacyDatabase() does not replace an existing database")
+    void testCopyLegacyDatabaseExistingTarget() throws Exception {
+      Path legacy = directory.resolve("legacy.sqlite");
+      Files.writeString(legacy, "old");
+      Path target = directory.resolve("database.sqlite");
+      Files.writeString(target, "new");
+
+      assertFalse(SQL.copyLegacyDatabase(legacy, target));
+      assertEquals("new", Files.readString(target));
+    }
+
+    @Test
+    @DisplayName("Test configure() throws IllegalArgumentException for a blank location")
+    void testConfigureBlankLocation() {
+      assertThrows(IllegalArgumentException.class, () -> SQL.configure(" ", null));
+    }
+
+    @Test
+    @DisplayName("Test configure() throws IllegalArgumentException for an interval of 0")
+    void testConfigureZeroInterval() {
+      assertThrows(IllegalArgumentException.class,
+          () -> SQL.configure(SQL.MEMORY, directory.resolve("snapshot.sqlite"), 0));
+    }
+
+    @Test
+    @DisplayName("Test executeInTransaction() rolls back every statement if the work fails")
+    void testTransactionRollsBack() {
+      assertThrows(IllegalStateException.class, () -> SQL.executeInTransaction(transaction -> {
+        transaction.executeUpdate(
+            "INSERT INTO pantry_shelf (name, user_name) VALUES ('Fridge', 'test')");
+        throw new IllegalStateException("Work failed");
+      }));
+      assertEquals(0, count("pantry_shelf"));
+    }
+
+    @Test
+    @DisplayName("Test executeUpdate() throws RuntimeException if no rows are affected")
+    void testExecuteUpdateNoRows() {
+      assertThrows(RuntimeException.class,
+          () -> SQL.executeUpdate("DELETE FROM pantry_shelf WHERE user_name = ?", "nobody"));
+      assertEquals(Map.of("n", 0), SQL.executeQuery("SELECT count(*) AS n FROM pantry_shelf")
+          .get(0));
+    }
+  }
+}
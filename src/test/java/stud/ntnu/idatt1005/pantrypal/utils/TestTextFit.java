@@ -0,0 +1,70 @@
+package stud.ntnu.idatt1005.pantrypal.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestTextFit {
+  private int measurements;
+  private TextFit linearFit;
+
+  @BeforeEach
+  void setUp() {
+    measurements = 0;
+    // Every character is half as wide as the font size
+    linearFit = new TextFit((text, fontName, size) -> {
+      measurements++;
+      return text.length() * size * 0.5;
+    });
+  }
+
+  @Test
+  @DisplayName("Test fitFontSize with text that fits at max size")
+  void testFitFontSizeFitsAtMaxSize() {
+    assertEquals(35, linearFit.fitFontSize("Fridge", "Arial", 35, 300));
+  }
+
+  @Test
+  @DisplayName("Test fitFontSize with text that has to shrink")
+  void testFitFontSizeShrinks() {
+    // 20 characters * 0.5 = 10 pixels per font size, so 250 pixels fits size 25
+    assertEquals(25, linearFit.fitFontSize("abcdefghijklmnopqrst", "Arial", 35, 250));
+    // 255 pixels fits size 25.5, but not 25.6
+    assertEquals(25.5, linearFit.fitFontSize("abcdefghijklmnopqrst", "Arial", 35, 256));
+  }
+
+  @Test
+  @DisplayName("Test fitFontSize never returns less than the smallest step")
+  void testFitFontSizeSmallestStep() {
+    assertEquals(TextFit.STEP, linearFit.fitFontSize("a very long shelf name", "Arial", 35, 1));
+  }
+
+  @Test
+  @DisplayName("Test fitFontSize with empty text")
+  void testFitFontSizeEmptyText() {
+    assertEquals(35, linearFit.fitFontSize("", "Arial", 35, 10));
+  }
+
+  @Test
+  @DisplayName("Test fitFontSize caches results")
+  void testFitFontSizeCaches() {
+    double size = linearFit.fitFontSize("abcdefghijklmnopqrst", "Arial", 35, 250);
+    int measurementsAfterFirstFit = measurements;
+    assertEquals(size, linearFit.fitFontSize("abcdefghijklmnopqrst", "Arial", 35, 250));
+    assertEquals(measurementsAfterFirstFit, measurements);
+
+    linearFit.fitFontSize("abcdefghijklmnopqrst", "Arial", 35, 200);
+    assertTrue(measurements > measurementsAfterFirstFit);
+  }
+
+  @Test
+  @DisplayName("Test fitFontSize with a measurer that is not linear")
+  void testFitFontSizeNotLinear() {
+    // Text grows faster than linear, so the estimate from the reference size is too large
+    TextFit fit = new TextFit((text, fontName, size) -> text.length() * size * size / 40);
+    double size = fit.fitFontSize("abcdefghij", "Arial", 35, 100);
+    assertEquals(20, size);
+  }
+}